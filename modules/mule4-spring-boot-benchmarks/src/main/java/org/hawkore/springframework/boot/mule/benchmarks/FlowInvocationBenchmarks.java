@@ -0,0 +1,129 @@
+/*
+ * Copyright 2020 HAWKORE, S.L.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hawkore.springframework.boot.mule.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.concurrent.TimeUnit;
+
+import org.hawkore.springframework.boot.mule.container.FlowInvoker;
+import org.hawkore.springframework.boot.mule.container.FlowResult;
+import org.hawkore.springframework.boot.mule.container.SpringMuleContainer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.StreamUtils;
+
+/**
+ * Flow invocation benchmarks.
+ * <p>
+ * Compares invoking the echo flow of sample {@code test-mule-app} directly within this JVM through a
+ * {@link FlowInvoker} against calling it through the application HTTP listener over loopback, both consuming the
+ * whole response payload. Sample application is deployed from {@code test-resources} module build, or from
+ * {@code benchmark.app} system property location.
+ *
+ * @author Manuel Núñez Sánchez (manuel.nunez@hawkore.com)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class FlowInvocationBenchmarks {
+
+    private static final String APP_NAME = "test-mule-app-1.0.0-mule-application";
+    private static final String APP_LOCATION
+        = "../test-resources/artifacts/test-mule-app/target/test-mule-app-1.0.0-mule-application.jar";
+    private static final String ECHO_FLOW = "get:\\echo:echo-api-config";
+    private static final String ECHO_URL = "http://127.0.0.1:8081/api/echo";
+    private ConfigurableApplicationContext context;
+    private FlowInvoker echo;
+
+    /**
+     * Start Mule Runtime and deploy sample application.
+     */
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(BenchmarkMuleRuntimeApp.class).bannerMode(Banner.Mode.OFF)
+                      .web(WebApplicationType.NONE)
+                      .properties("mule.base=${java.io.tmpdir}/benchmark-mule-base", "mule.cleanStartup=true",
+                          "mule.autoDeployArtifacts=false").run();
+        SpringMuleContainer container = context.getBean(SpringMuleContainer.class);
+        container.deployApplication(new File(System.getProperty("benchmark.app", APP_LOCATION)), null, null, null);
+        echo = container.getFlow(APP_NAME, ECHO_FLOW)
+                   .orElseThrow(() -> new IllegalStateException("Flow " + ECHO_FLOW + " is not available"));
+    }
+
+    /**
+     * Stop Mule Runtime.
+     */
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    /**
+     * Invoke echo flow directly.
+     *
+     * @return the payload size
+     * @throws IOException
+     *     the io exception
+     */
+    @Benchmark
+    public int flowInvoker() throws IOException {
+        try (FlowResult result = echo.invoke("")) {
+            return StreamUtils.drain(result.getPayloadAsStream());
+        }
+    }
+
+    /**
+     * Invoke echo flow through HTTP listener, reusing kept alive connections.
+     *
+     * @return the payload size
+     * @throws IOException
+     *     the io exception
+     */
+    @Benchmark
+    public int httpListener() throws IOException {
+        try (InputStream response = new URL(ECHO_URL).openStream()) {
+            return StreamUtils.drain(response);
+        }
+    }
+
+    // Mule Runtime embedded into Spring Boot, with no web server
+    @SpringBootApplication
+    public static class BenchmarkMuleRuntimeApp {
+
+    }
+
+}
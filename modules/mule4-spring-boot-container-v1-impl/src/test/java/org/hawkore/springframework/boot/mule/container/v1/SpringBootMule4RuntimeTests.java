@@ -15,52 +15,145 @@
  */
 package org.hawkore.springframework.boot.mule.container.v1;
 
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
 import java.lang.reflect.InvocationTargetException;
+import java.math.BigInteger;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
 
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.async.AsyncLoggerConfig;
+import org.apache.logging.log4j.core.config.Configuration;
+import org.hawkore.springframework.boot.mule.bridge.MuleHttpBridgeServlet;
+import org.hawkore.springframework.boot.mule.bridge.SharedBeansCustomizer;
+import org.hawkore.springframework.boot.mule.config.MuleConfigProperties;
+import org.hawkore.springframework.boot.mule.config.ThreadBudgetPostProcessor;
+import org.hawkore.springframework.boot.mule.container.ArtifactRegistryListener;
+import org.hawkore.springframework.boot.mule.container.DeploymentRecorder;
+import org.hawkore.springframework.boot.mule.container.FlowInvoker;
+import org.hawkore.springframework.boot.mule.container.FlowResult;
+import org.hawkore.springframework.boot.mule.container.InflightEvents;
+import org.hawkore.springframework.boot.mule.container.LifecycleTracer;
 import org.hawkore.springframework.boot.mule.controller.MuleRuntimeDeploymentServices;
+import org.hawkore.springframework.boot.mule.controller.ReactiveMuleRuntimeDeploymentServices;
 import org.hawkore.springframework.boot.mule.controller.dto.Application;
 import org.hawkore.springframework.boot.mule.controller.dto.Artifact;
+import org.hawkore.springframework.boot.mule.controller.dto.ArtifactEvent;
+import org.hawkore.springframework.boot.mule.controller.dto.ArtifactPage;
+import org.hawkore.springframework.boot.mule.controller.dto.ArtifactType;
+import org.hawkore.springframework.boot.mule.controller.dto.ArtifactUpload;
+import org.hawkore.springframework.boot.mule.controller.dto.DeploymentResult;
 import org.hawkore.springframework.boot.mule.controller.dto.Domain;
 import org.hawkore.springframework.boot.mule.controller.dto.ErrorMessage;
+import org.hawkore.springframework.boot.mule.controller.dto.RedeploymentResult;
+import org.hawkore.springframework.boot.mule.controller.dto.StoredArtifact;
+import org.hawkore.springframework.boot.mule.exception.FlowInvocationException;
 import org.hawkore.springframework.boot.mule.health.MuleRuntimeHealthIndicator;
+import org.hawkore.springframework.boot.mule.metrics.DeploymentMetrics;
+import org.hawkore.springframework.boot.mule.metrics.FlowMetrics;
+import org.hawkore.springframework.boot.mule.metrics.ObjectStoreMetrics;
+import org.hawkore.springframework.boot.mule.metrics.SchedulerMetrics;
+import org.hawkore.springframework.boot.mule.metrics.ThreadBudgetMetrics;
+import org.hawkore.springframework.boot.mule.objectstore.InMemoryObjectStoreCustomizer;
+import org.hawkore.springframework.boot.mule.objectstore.MappedObjectStore;
+import org.hawkore.springframework.boot.mule.objectstore.PersistentObjectStoreCustomizer;
+import org.hawkore.springframework.boot.mule.storage.ArtifactStore;
 import org.hawkore.springframework.boot.mule.test.main.SpringBootEmbeddedMuleRuntimeApp;
 import org.hawkore.springframework.boot.mule.test.ut.AbstractSpringTest;
 import org.hawkore.springframework.boot.mule.utils.ClassLoaderStrategy;
 import org.hawkore.springframework.boot.mule.utils.CompositeClassLoader;
 import org.hawkore.springframework.boot.mule.utils.CompositeClassLoader.DefaultStrategy;
+import org.hawkore.springframework.boot.mule.utils.LoggingUtils;
+import org.hawkore.springframework.boot.mule.utils.SchedulerPoolsUtils;
 import org.junit.Assert;
+import org.junit.Assume;
 import org.junit.Before;
 import org.junit.Test;
+import org.mule.runtime.api.artifact.Registry;
+import org.mule.runtime.api.component.ConfigurationProperties;
+import org.mule.runtime.core.api.MuleContext;
 import org.mule.runtime.deployment.model.api.application.ApplicationStatus;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
 import org.springframework.boot.actuate.health.Health;
 import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.autoconfigure.task.TaskExecutionProperties;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.ApplicationContext;
+import org.springframework.context.SmartLifecycle;
 import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.client.MultipartBodyBuilder;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.util.FileCopyUtils;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.reactive.function.BodyInserters;
+import reactor.core.publisher.Mono;
 
 import static org.apache.commons.io.FilenameUtils.getName;
+import static org.mule.runtime.container.api.MuleFoldersUtil.getAppDataFolder;
 import static org.mule.runtime.container.api.MuleFoldersUtil.getAppFolder;
+import static org.mule.runtime.container.api.MuleFoldersUtil.getConfFolder;
 import static org.mule.runtime.container.api.MuleFoldersUtil.getDomainFolder;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 /**
@@ -74,6 +167,10 @@ public class SpringBootMule4RuntimeTests extends AbstractSpringTest {
     private static final String ENDPOINT_CONTEXT = "/mule";
     private static final String ENDPOINT_APPLICATIONS = "/applications";
     private static final String ENDPOINT_DOMAINS = "/domains";
+    private static final String ENDPOINT_BATCH = "/batch";
+    private static final String ENDPOINT_ARTIFACTS = "/artifacts";
+    private static final String ENDPOINT_UPLOADS = "/uploads";
+    private static final String ENDPOINT_EVENTS = "/events";
     // sample mule artifacts
     private static final String TEST_APP_NAME = "test-mule-app-1.0.0-mule-application";
     private static final String TEST_DOMAIN_NAME = "test-mule-domain-1.0.0-mule-domain";
@@ -88,6 +185,7 @@ public class SpringBootMule4RuntimeTests extends AbstractSpringTest {
         = "../test-resources/artifacts/test-mule-app-bad/target/test-mule-app-bad-1.0.0-mule-application.jar";
     private static final String TEST_BAD_DOMAIN_LOCATION
         = "../test-resources/artifacts/test-mule-domain-bad/target/test-mule-domain-bad-1.0.0-mule-domain.jar";
+    private static final String TEST_BAD_DOMAIN_APP_NAME = "test-mule-app-bad-domain-1.0.0-mule-application";
     private MockMvc mockMvc;
     @Autowired
     private MuleRuntimeDeploymentServices deploymentServices;
@@ -101,6 +199,8 @@ public class SpringBootMule4RuntimeTests extends AbstractSpringTest {
     private MuleRuntimeHealthIndicator muleRuntimeHealthIndicator;
     @Autowired
     private ApplicationContext applicationContext;
+    @Autowired
+    private ArtifactStore artifactStore;
 
     @Before
     public void before() {
@@ -362,6 +462,1052 @@ public class SpringBootMule4RuntimeTests extends AbstractSpringTest {
         Assert.assertEquals(Status.UP, muleRuntimeHealthIndicator.health().getStatus());
     }
 
+    @Test
+    public void muleBatchDeploymentTests() throws Exception {
+        // deploy domain and application within same batch
+        MvcResult deploy = mockMvc.perform(MockMvcRequestBuilders.multipart(ENDPOINT_CONTEXT + ENDPOINT_BATCH)
+                                               .file(createMultipartFile("domains", TEST_DOMAIN_LOCATION))
+                                               .file(createMultipartFile("applications", TEST_APP_LOCATION))
+                                               .accept(MediaType.APPLICATION_JSON)).andExpect(status().isOk())
+                               .andReturn();
+        // deserialize response
+        List<DeploymentResult> results = objectMapper.readValue(deploy.getResponse().getContentAsByteArray(),
+            new TypeReference<List<DeploymentResult>>() {});
+
+        Assert.assertEquals(2, results.size());
+        results.forEach(r -> Assert.assertEquals("Not expected status! " + r, DeploymentResult.Status.DEPLOYED, r.getStatus()));
+        Assert.assertTrue("Domain should be deployed!!", container.isDomainDeployed(TEST_DOMAIN_NAME));
+        Assert.assertTrue("Application should be deployed!!", container.isApplicationDeployed(TEST_APP_NAME));
+
+        container.undeployApplication(TEST_APP_NAME);
+        container.undeployDomain(TEST_DOMAIN_NAME);
+
+        // applications of a failed domain are skipped, both provided within a zip archive
+        File badDomain = new File(TEST_BAD_DOMAIN_LOCATION);
+        ByteArrayOutputStream archive = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(archive)) {
+            zip.putNextEntry(new ZipEntry(badDomain.getName()));
+            zip.write(FileCopyUtils.copyToByteArray(badDomain));
+            zip.closeEntry();
+            zip.putNextEntry(new ZipEntry(TEST_BAD_DOMAIN_APP_NAME + ".jar"));
+            zip.write(createDomainApplication("test-mule-domain-bad", "1.0.0"));
+            zip.closeEntry();
+        }
+        File tmpDir = new File(System.getProperty("java.io.tmpdir"));
+        List<String> extracted = Arrays.asList(tmpDir.list((dir, name) -> name.startsWith("mule_archive")));
+        deploy = mockMvc.perform(MockMvcRequestBuilders.multipart(ENDPOINT_CONTEXT + ENDPOINT_BATCH)
+                                     .file(new MockMultipartFile("archive", "release.zip", null,
+                                         archive.toByteArray())).accept(MediaType.APPLICATION_JSON))
+                     .andExpect(status().is(HttpStatus.INTERNAL_SERVER_ERROR.value())).andReturn();
+        results = objectMapper.readValue(deploy.getResponse().getContentAsByteArray(),
+            new TypeReference<List<DeploymentResult>>() {});
+
+        Assert.assertEquals(2, results.size());
+        Assert.assertEquals(TEST_BAD_DOMAIN_NAME, results.get(0).getName());
+        Assert.assertEquals(DeploymentResult.Status.FAILED, results.get(0).getStatus());
+        Assert.assertEquals(TEST_BAD_DOMAIN_APP_NAME, results.get(1).getName());
+        Assert.assertEquals(TEST_BAD_DOMAIN_NAME, results.get(1).getDomain());
+        Assert.assertEquals(DeploymentResult.Status.SKIPPED, results.get(1).getStatus());
+        Assert.assertFalse("Application should not be deployed!!",
+            container.isApplicationDeployed(TEST_BAD_DOMAIN_APP_NAME));
+        // extracted archive is cleaned up
+        Assert.assertEquals(extracted,
+            Arrays.asList(tmpDir.list((dir, name) -> name.startsWith("mule_archive"))));
+
+        container.undeployDomain(TEST_BAD_DOMAIN_NAME);
+    }
+
+    @Test
+    public void muleRedeployApplicationTests() throws Exception {
+        // deploy application
+        mockMvc.perform(MockMvcRequestBuilders.multipart(ENDPOINT_CONTEXT + ENDPOINT_APPLICATIONS)
+                            .file(createMultipartFile("file", TEST_APP_LOCATION)).accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk());
+
+        // redeploy same version
+        MvcResult redeploy = mockMvc.perform(
+            MockMvcRequestBuilders.multipart(ENDPOINT_CONTEXT + ENDPOINT_APPLICATIONS + "/" + TEST_APP_NAME)
+                .file(createMultipartFile("file", TEST_APP_LOCATION)).with(r -> {
+                r.setMethod("PUT");
+                return r;
+            }).accept(MediaType.APPLICATION_JSON)).andExpect(status().isOk()).andReturn();
+        RedeploymentResult result = objectMapper.readValue(redeploy.getResponse().getContentAsByteArray(),
+            RedeploymentResult.class);
+
+        Assert.assertEquals(RedeploymentResult.Status.REDEPLOYED, result.getStatus());
+        Assert.assertTrue("Application should be deployed!!", container.isApplicationDeployed(TEST_APP_NAME));
+
+        // redeploy a bad version, previous version must be restored
+        redeploy = mockMvc.perform(
+            MockMvcRequestBuilders.multipart(ENDPOINT_CONTEXT + ENDPOINT_APPLICATIONS + "/" + TEST_APP_NAME)
+                .file(createMultipartFile("file", TEST_BAD_APP_LOCATION)).with(r -> {
+                r.setMethod("PUT");
+                return r;
+            }).accept(MediaType.APPLICATION_JSON)).andExpect(status().is(HttpStatus.INTERNAL_SERVER_ERROR.value()))
+                       .andReturn();
+        result = objectMapper.readValue(redeploy.getResponse().getContentAsByteArray(), RedeploymentResult.class);
+
+        Assert.assertEquals(RedeploymentResult.Status.ROLLED_BACK, result.getStatus());
+        Assert.assertTrue("Application should be deployed!!", container.isApplicationDeployed(TEST_APP_NAME));
+
+        container.undeployApplication(TEST_APP_NAME);
+    }
+
+    @Test
+    public void muleListingPaginationTests() throws Exception {
+        // deploy application
+        mockMvc.perform(MockMvcRequestBuilders.multipart(ENDPOINT_CONTEXT + ENDPOINT_APPLICATIONS)
+                            .file(createMultipartFile("file", TEST_APP_LOCATION)).accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk());
+
+        // first page of started applications of default domain, with name and status only
+        MvcResult list = mockMvc.perform(
+            MockMvcRequestBuilders.get(ENDPOINT_CONTEXT + ENDPOINT_APPLICATIONS).param("status", "STARTED")
+                .param("domain", "default").param("page", "0").param("size", "1").param("fields", "name,status")
+                .accept(MediaType.APPLICATION_JSON)).andExpect(status().isOk()).andReturn();
+        ArtifactPage<Map<String, Object>> page = objectMapper.readValue(list.getResponse().getContentAsByteArray(),
+            new TypeReference<ArtifactPage<Map<String, Object>>>() {});
+
+        Assert.assertEquals(1, page.getTotalElements());
+        Assert.assertEquals(1, page.getContent().size());
+        Assert.assertEquals(TEST_APP_NAME, page.getContent().get(0).get("name"));
+        Assert.assertEquals(2, page.getContent().get(0).size());
+
+        // no failed applications
+        list = mockMvc.perform(MockMvcRequestBuilders.get(ENDPOINT_CONTEXT + ENDPOINT_APPLICATIONS)
+                                   .param("status", "DEPLOYMENT_FAILED").accept(MediaType.APPLICATION_JSON))
+                   .andExpect(status().isOk()).andReturn();
+        List<Application> apps = objectMapper.readValue(list.getResponse().getContentAsByteArray(),
+            new TypeReference<List<Application>>() {});
+
+        Assert.assertTrue("List of applications must be empty", apps.isEmpty());
+        Assert.assertTrue(container.getApplication(TEST_APP_NAME).isPresent());
+
+        // unknown field
+        mockMvc.perform(MockMvcRequestBuilders.get(ENDPOINT_CONTEXT + ENDPOINT_APPLICATIONS).param("fields", "unknown")
+                            .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().is(HttpStatus.BAD_REQUEST.value()));
+
+        container.undeployApplication(TEST_APP_NAME);
+
+        Assert.assertFalse(container.getApplication(TEST_APP_NAME).isPresent());
+    }
+
+    @Test
+    public void muleListingConditionalGetTests() throws Exception {
+        // list applications
+        MvcResult list = mockMvc.perform(
+                MockMvcRequestBuilders.get(ENDPOINT_CONTEXT + ENDPOINT_APPLICATIONS).accept(MediaType.APPLICATION_JSON))
+                             .andExpect(status().isOk()).andReturn();
+        String eTag = list.getResponse().getHeader(HttpHeaders.ETAG);
+        Assert.assertNotNull("ETag must be provided", eTag);
+
+        // nothing changed
+        mockMvc.perform(MockMvcRequestBuilders.get(ENDPOINT_CONTEXT + ENDPOINT_APPLICATIONS)
+                            .header(HttpHeaders.IF_NONE_MATCH, eTag).accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isNotModified()).andExpect(header().string(HttpHeaders.ETAG, eTag));
+
+        // deploy application
+        mockMvc.perform(MockMvcRequestBuilders.multipart(ENDPOINT_CONTEXT + ENDPOINT_APPLICATIONS)
+                            .file(createMultipartFile("file", TEST_APP_LOCATION)).accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk());
+
+        // deployment state changed
+        list = mockMvc.perform(MockMvcRequestBuilders.get(ENDPOINT_CONTEXT + ENDPOINT_APPLICATIONS)
+                                   .header(HttpHeaders.IF_NONE_MATCH, eTag).accept(MediaType.APPLICATION_JSON))
+                   .andExpect(status().isOk()).andReturn();
+        Assert.assertNotEquals("ETag must change", eTag, list.getResponse().getHeader(HttpHeaders.ETAG));
+
+        // undeploy application
+        mockMvc.perform(
+            MockMvcRequestBuilders.delete(ENDPOINT_CONTEXT + ENDPOINT_APPLICATIONS).param("name", TEST_APP_NAME)
+                .accept(MediaType.APPLICATION_JSON)).andExpect(status().isOk());
+    }
+
+    @Test
+    public void muleArtifactStoreTests() throws Exception {
+        // store application without deploying it
+        MvcResult store = mockMvc.perform(MockMvcRequestBuilders.multipart(ENDPOINT_CONTEXT + ENDPOINT_ARTIFACTS)
+                                              .file(createMultipartFile("file", TEST_APP_LOCATION))
+                                              .accept(MediaType.APPLICATION_JSON)).andExpect(status().isOk())
+                              .andReturn();
+        StoredArtifact stored = objectMapper.readValue(store.getResponse().getContentAsByteArray(),
+            StoredArtifact.class);
+
+        Assert.assertEquals(64, stored.getDigest().length());
+        Assert.assertTrue(stored.getFileNames().contains(TEST_APP_NAME + ".jar"));
+
+        // same content is stored once
+        store = mockMvc.perform(MockMvcRequestBuilders.multipart(ENDPOINT_CONTEXT + ENDPOINT_ARTIFACTS)
+                                    .file(createMultipartFile("file", TEST_APP_LOCATION))
+                                    .accept(MediaType.APPLICATION_JSON)).andExpect(status().isOk()).andReturn();
+        Assert.assertEquals(stored.getDigest(),
+            objectMapper.readValue(store.getResponse().getContentAsByteArray(), StoredArtifact.class).getDigest());
+
+        mockMvc.perform(MockMvcRequestBuilders.get(ENDPOINT_CONTEXT + ENDPOINT_ARTIFACTS + "/" + stored.getDigest())
+                            .accept(MediaType.APPLICATION_JSON)).andExpect(status().isOk());
+        mockMvc.perform(MockMvcRequestBuilders.get(ENDPOINT_CONTEXT + ENDPOINT_ARTIFACTS + "/unknown")
+                            .accept(MediaType.APPLICATION_JSON)).andExpect(status().isNotFound());
+
+        // deploy by digest
+        mockMvc.perform(
+            MockMvcRequestBuilders.post(ENDPOINT_CONTEXT + ENDPOINT_APPLICATIONS + "/digest/" + stored.getDigest())
+                .accept(MediaType.APPLICATION_JSON)).andExpect(status().isOk());
+
+        Assert.assertTrue("Application should be deployed!!", container.isApplicationDeployed(TEST_APP_NAME));
+        Assert.assertEquals(Collections.singletonList(TEST_APP_NAME),
+            artifactStore.get(stored.getDigest()).get().getReferences());
+
+        // undeploy releases stored application
+        mockMvc.perform(MockMvcRequestBuilders.delete(ENDPOINT_CONTEXT + ENDPOINT_APPLICATIONS)
+                            .param("name", TEST_APP_NAME).accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk());
+
+        Assert.assertTrue(artifactStore.get(stored.getDigest()).get().getReferences().isEmpty());
+    }
+
+    @Test
+    public void muleChunkedUploadTests() throws Exception {
+        byte[] content = FileCopyUtils.copyToByteArray(new File(TEST_APP_LOCATION));
+        String digest = String.format("%064x", new BigInteger(1, MessageDigest.getInstance("SHA-256").digest(content)));
+        int half = content.length / 2;
+
+        // initiate upload
+        MvcResult initiate = mockMvc.perform(
+            MockMvcRequestBuilders.post(ENDPOINT_CONTEXT + ENDPOINT_UPLOADS).param("fileName", TEST_APP_NAME + ".jar")
+                .param("size", String.valueOf(content.length)).param("digest", digest)
+                .accept(MediaType.APPLICATION_JSON)).andExpect(status().isCreated()).andReturn();
+        ArtifactUpload upload = objectMapper.readValue(initiate.getResponse().getContentAsByteArray(),
+            ArtifactUpload.class);
+
+        // ranges in any order
+        String lastHalf = "bytes " + half + "-" + (content.length - 1) + "/" + content.length;
+        mockMvc.perform(MockMvcRequestBuilders.put(ENDPOINT_CONTEXT + ENDPOINT_UPLOADS + "/" + upload.getId())
+                            .header("Content-Range", lastHalf)
+                            .content(Arrays.copyOfRange(content, half, content.length))
+                            .contentType(MediaType.APPLICATION_OCTET_STREAM).accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk());
+
+        // incomplete upload can not be completed
+        mockMvc.perform(
+            MockMvcRequestBuilders.post(ENDPOINT_CONTEXT + ENDPOINT_UPLOADS + "/" + upload.getId() + "/complete")
+                .accept(MediaType.APPLICATION_JSON)).andExpect(status().isConflict());
+
+        MvcResult range = mockMvc.perform(
+            MockMvcRequestBuilders.put(ENDPOINT_CONTEXT + ENDPOINT_UPLOADS + "/" + upload.getId())
+                .header("Content-Range", "bytes 0-" + (half - 1) + "/" + content.length)
+                .content(Arrays.copyOfRange(content, 0, half)).contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .accept(MediaType.APPLICATION_JSON)).andExpect(status().isOk()).andReturn();
+        upload = objectMapper.readValue(range.getResponse().getContentAsByteArray(), ArtifactUpload.class);
+
+        Assert.assertEquals(content.length, upload.getReceived());
+        Assert.assertEquals(Collections.singletonList("0-" + (content.length - 1)), upload.getRanges());
+
+        // complete and deploy
+        mockMvc.perform(
+            MockMvcRequestBuilders.post(ENDPOINT_CONTEXT + ENDPOINT_UPLOADS + "/" + upload.getId() + "/complete")
+                .param("type", "APPLICATION").accept(MediaType.APPLICATION_JSON)).andExpect(status().isOk());
+
+        Assert.assertTrue("Application should be deployed!!", container.isApplicationDeployed(TEST_APP_NAME));
+        Assert.assertTrue(artifactStore.get(digest).isPresent());
+        mockMvc.perform(MockMvcRequestBuilders.get(ENDPOINT_CONTEXT + ENDPOINT_UPLOADS + "/" + upload.getId())
+                            .accept(MediaType.APPLICATION_JSON)).andExpect(status().isNotFound());
+
+        container.undeployApplication(TEST_APP_NAME);
+    }
+
+    @Test
+    public void muleDeltaRedeployApplicationTests() throws Exception {
+        // deploy application
+        mockMvc.perform(MockMvcRequestBuilders.multipart(ENDPOINT_CONTEXT + ENDPOINT_APPLICATIONS)
+                            .file(createMultipartFile("file", TEST_APP_LOCATION)).accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk());
+
+        // new version: same entries plus a new one
+        Map<String, byte[]> contents = new HashMap<>();
+        try (ZipFile zip = new ZipFile(TEST_APP_LOCATION)) {
+            for (ZipEntry entry : Collections.list(zip.entries())) {
+                if (!entry.isDirectory()) {
+                    contents.put(entry.getName(), StreamUtils.copyToByteArray(zip.getInputStream(entry)));
+                }
+            }
+        }
+        contents.put("delta-test.txt", "delta".getBytes(StandardCharsets.UTF_8));
+        Map<String, String> manifest = new HashMap<>();
+        for (Map.Entry<String, byte[]> entry : contents.entrySet()) {
+            manifest.put(entry.getKey(), String.format("%064x",
+                new BigInteger(1, MessageDigest.getInstance("SHA-256").digest(entry.getValue()))));
+        }
+
+        MvcResult compare = mockMvc.perform(MockMvcRequestBuilders.post(
+            ENDPOINT_CONTEXT + ENDPOINT_APPLICATIONS + "/" + TEST_APP_NAME + "/manifest")
+                                                .content(objectMapper.writeValueAsBytes(manifest))
+                                                .contentType(MediaType.APPLICATION_JSON)
+                                                .accept(MediaType.APPLICATION_JSON)).andExpect(status().isOk())
+                                .andReturn();
+        List<String> missing = objectMapper.readValue(compare.getResponse().getContentAsByteArray(),
+            new TypeReference<List<String>>() {});
+
+        Assert.assertTrue(missing.contains("delta-test.txt"));
+        Assert.assertTrue("Unchanged entries should not be uploaded", missing.size() < manifest.size());
+
+        // upload just missing entries
+        ByteArrayOutputStream delta = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(delta)) {
+            for (String path : missing) {
+                zip.putNextEntry(new ZipEntry(path));
+                zip.write(contents.get(path));
+                zip.closeEntry();
+            }
+        }
+        MvcResult redeploy = mockMvc.perform(
+            MockMvcRequestBuilders.multipart(ENDPOINT_CONTEXT + ENDPOINT_APPLICATIONS + "/" + TEST_APP_NAME + "/delta")
+                .file(new MockMultipartFile("manifest", "manifest.json", MediaType.APPLICATION_JSON_VALUE,
+                    objectMapper.writeValueAsBytes(manifest)))
+                .file(new MockMultipartFile("entries", "entries.zip", null, delta.toByteArray())).with(r -> {
+                r.setMethod("PUT");
+                return r;
+            }).accept(MediaType.APPLICATION_JSON)).andExpect(status().isOk()).andReturn();
+        RedeploymentResult result = objectMapper.readValue(redeploy.getResponse().getContentAsByteArray(),
+            RedeploymentResult.class);
+
+        Assert.assertEquals(RedeploymentResult.Status.REDEPLOYED, result.getStatus());
+        Assert.assertTrue("Application should be deployed!!", container.isApplicationDeployed(TEST_APP_NAME));
+        Assert.assertTrue(new File(getAppFolder(TEST_APP_NAME), "delta-test.txt").isFile());
+
+        container.undeployApplication(TEST_APP_NAME);
+    }
+
+    @Test
+    public void muleStopStartApplicationTests() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.multipart(ENDPOINT_CONTEXT + ENDPOINT_APPLICATIONS)
+                            .file(createMultipartFile("file", TEST_APP_LOCATION))
+                            .accept(MediaType.APPLICATION_JSON)).andExpect(status().isOk());
+        Assert.assertTrue(container.isApplicationDeployed(TEST_APP_NAME));
+
+        // stop application in place
+        MvcResult stop = mockMvc.perform(
+            MockMvcRequestBuilders.post(ENDPOINT_CONTEXT + ENDPOINT_APPLICATIONS + "/" + TEST_APP_NAME + "/stop")
+                .accept(MediaType.APPLICATION_JSON)).andExpect(status().isOk()).andReturn();
+        Application app = objectMapper.readValue(stop.getResponse().getContentAsByteArray(), Application.class);
+
+        Assert.assertEquals(ApplicationStatus.STOPPED, app.getStatus());
+        Assert.assertFalse(container.isApplicationDeployed(TEST_APP_NAME));
+        Assert.assertTrue(container.isApplicationInstalled(TEST_APP_NAME));
+        Assert.assertTrue(getAppFolder(TEST_APP_NAME).isDirectory());
+        // stopped on purpose
+        Assert.assertEquals(Status.UP, muleRuntimeHealthIndicator.health().getStatus());
+
+        // start it again
+        MvcResult start = mockMvc.perform(
+            MockMvcRequestBuilders.post(ENDPOINT_CONTEXT + ENDPOINT_APPLICATIONS + "/" + TEST_APP_NAME + "/start")
+                .accept(MediaType.APPLICATION_JSON)).andExpect(status().isOk()).andReturn();
+        app = objectMapper.readValue(start.getResponse().getContentAsByteArray(), Application.class);
+
+        Assert.assertEquals(ApplicationStatus.STARTED, app.getStatus());
+        Assert.assertTrue(container.isApplicationDeployed(TEST_APP_NAME));
+
+        // not installed application
+        mockMvc.perform(MockMvcRequestBuilders.post(ENDPOINT_CONTEXT + ENDPOINT_APPLICATIONS + "/no-app/stop")
+                            .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().is(HttpStatus.INTERNAL_SERVER_ERROR.value()));
+
+        mockMvc.perform(
+            MockMvcRequestBuilders.delete(ENDPOINT_CONTEXT + ENDPOINT_APPLICATIONS).param("name", TEST_APP_NAME)
+                .accept(MediaType.APPLICATION_JSON)).andExpect(status().isOk());
+        Assert.assertFalse(container.isApplicationInstalled(TEST_APP_NAME));
+    }
+
+    @Test
+    public void muleDeploymentEventsTests() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.multipart(ENDPOINT_CONTEXT + ENDPOINT_APPLICATIONS)
+                            .file(createMultipartFile("file", TEST_APP_LOCATION))
+                            .accept(MediaType.APPLICATION_JSON)).andExpect(status().isOk());
+        try {
+            List<ArtifactEvent> events = container.getArtifactEvents(0).stream()
+                                             .filter(e -> TEST_APP_NAME.equals(e.getName()))
+                                             .collect(Collectors.toList());
+            ArtifactEvent start = events.stream().filter(e -> ArtifactEvent.Action.DEPLOYMENT_START == e.getAction())
+                                      .reduce((a, b) -> b).orElseThrow(() -> new AssertionError("No deployment start"));
+            ArtifactEvent success = events.stream()
+                                        .filter(e -> ArtifactEvent.Action.DEPLOYMENT_SUCCESS == e.getAction())
+                                        .reduce((a, b) -> b)
+                                        .orElseThrow(() -> new AssertionError("No deployment success"));
+            Assert.assertEquals(container.getDeploymentStateEpoch() + "-" + success.getId(), success.getCursor());
+
+            // events after Last-Event-ID are replayed
+            MvcResult replay = mockMvc.perform(MockMvcRequestBuilders.get(ENDPOINT_CONTEXT + ENDPOINT_EVENTS)
+                                                   .header("Last-Event-ID", start.getCursor()))
+                                   .andExpect(request().asyncStarted()).andReturn();
+            String content = awaitEvent(replay, "id:" + success.getCursor() + "\n");
+            Assert.assertTrue(content.contains("id:" + success.getCursor() + "\n"));
+            Assert.assertFalse(content.contains("id:" + start.getCursor() + "\n"));
+            Assert.assertFalse(content.contains("event:reset"));
+
+            // same event id from a previous Mule Runtime start is reset, then retained events are replayed
+            MvcResult reset = mockMvc.perform(MockMvcRequestBuilders.get(ENDPOINT_CONTEXT + ENDPOINT_EVENTS)
+                                                  .header("Last-Event-ID",
+                                                      (container.getDeploymentStateEpoch() - 1) + "-" + start.getId()))
+                                  .andExpect(request().asyncStarted()).andReturn();
+            content = awaitEvent(reset, "id:" + success.getCursor() + "\n");
+            Assert.assertTrue(content.startsWith("event:reset\n"));
+            Assert.assertTrue(content.contains("id:" + start.getCursor() + "\n"));
+        } finally {
+            container.undeployApplication(TEST_APP_NAME);
+        }
+    }
+
+    @Test
+    public void muleReactiveDeploymentServicesTests() throws Exception {
+        ReactiveMuleRuntimeDeploymentServices reactive = applicationContext.getAutowireCapableBeanFactory()
+                                                             .createBean(ReactiveMuleRuntimeDeploymentServices.class);
+        try {
+            WebTestClient client = WebTestClient.bindToController(reactive).configureClient()
+                                       .responseTimeout(Duration.ofMinutes(2)).build();
+            MultipartBodyBuilder body = new MultipartBodyBuilder();
+            body.part("file", new FileSystemResource(TEST_APP_LOCATION));
+
+            // upload is streamed into artifact store, deployment runs off the event loop
+            client.post().uri(ENDPOINT_CONTEXT + ENDPOINT_APPLICATIONS).contentType(MediaType.MULTIPART_FORM_DATA)
+                .body(BodyInserters.fromMultipartData(body.build())).exchange().expectStatus().isOk();
+
+            Assert.assertTrue(container.isApplicationDeployed(TEST_APP_NAME));
+            Assert.assertTrue(artifactStore.list().stream().anyMatch(
+                a -> a.getFileNames().contains(new File(TEST_APP_LOCATION).getName())));
+
+            // conditional listing
+            String eTag = client.get().uri(ENDPOINT_CONTEXT + ENDPOINT_APPLICATIONS).exchange().expectStatus().isOk()
+                              .returnResult(String.class).getResponseHeaders().getETag();
+            Assert.assertNotNull(eTag);
+            client.get().uri(ENDPOINT_CONTEXT + ENDPOINT_APPLICATIONS).header(HttpHeaders.IF_NONE_MATCH, eTag)
+                .exchange().expectStatus().isNotModified();
+
+            // stop and start in place
+            client.post().uri(ENDPOINT_CONTEXT + ENDPOINT_APPLICATIONS + "/" + TEST_APP_NAME + "/stop").exchange()
+                .expectStatus().isOk();
+            Assert.assertFalse(container.isApplicationDeployed(TEST_APP_NAME));
+            client.post().uri(ENDPOINT_CONTEXT + ENDPOINT_APPLICATIONS + "/" + TEST_APP_NAME + "/start").exchange()
+                .expectStatus().isOk();
+            Assert.assertTrue(container.isApplicationDeployed(TEST_APP_NAME));
+
+            client.delete().uri(ENDPOINT_CONTEXT + ENDPOINT_APPLICATIONS + "?name=" + TEST_APP_NAME).exchange()
+                .expectStatus().isOk();
+            Assert.assertFalse(container.isApplicationInstalled(TEST_APP_NAME));
+
+            // not installed application
+            client.delete().uri(ENDPOINT_CONTEXT + ENDPOINT_APPLICATIONS + "?name=no-app").exchange().expectStatus()
+                .is5xxServerError();
+        } finally {
+            reactive.destroy();
+        }
+    }
+
+    @Test
+    public void muleDeploymentMetricsTests() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        new DeploymentMetrics(container).bindTo(registry);
+        try {
+            mockMvc.perform(MockMvcRequestBuilders.multipart(ENDPOINT_CONTEXT + ENDPOINT_APPLICATIONS)
+                                .file(createMultipartFile("file", TEST_APP_LOCATION))
+                                .accept(MediaType.APPLICATION_JSON)).andExpect(status().isOk());
+
+            Assert.assertEquals(1, registry.get("mule.artifact.operations").tag("operation", DeploymentRecorder.DEPLOY)
+                                       .tag("name", TEST_APP_NAME).tag("outcome", "SUCCESS").timer().count());
+            Assert.assertEquals(1, registry.get("mule.artifact.size").tag("type", "APPLICATION").summary().count());
+            Assert.assertTrue(registry.get("mule.artifacts").tag("type", "APPLICATION").tag("status", "STARTED").gauge()
+                                  .value() >= 1);
+
+            mockMvc.perform(
+                MockMvcRequestBuilders.delete(ENDPOINT_CONTEXT + ENDPOINT_APPLICATIONS).param("name", TEST_APP_NAME)
+                    .accept(MediaType.APPLICATION_JSON)).andExpect(status().isOk());
+
+            Assert.assertEquals(1, registry.get("mule.artifact.operations")
+                                       .tag("operation", DeploymentRecorder.UNDEPLOY).tag("name", TEST_APP_NAME)
+                                       .tag("outcome", "SUCCESS").timer().count());
+        } finally {
+            container.setDeploymentRecorder(new DeploymentRecorder() {});
+        }
+    }
+
+    @Test
+    public void muleFlowMetricsTests() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        FlowMetrics flowMetrics = new FlowMetrics(container);
+        flowMetrics.bindTo(registry);
+        try {
+            mockMvc.perform(MockMvcRequestBuilders.multipart(ENDPOINT_CONTEXT + ENDPOINT_APPLICATIONS)
+                                .file(createMultipartFile("file", TEST_APP_LOCATION))
+                                .accept(MediaType.APPLICATION_JSON)).andExpect(status().isOk());
+
+            // test application runs a scheduled flow every 5 seconds
+            long deadline = System.currentTimeMillis() + 15000;
+            Timer timer = null;
+            while (timer == null && System.currentTimeMillis() < deadline) {
+                timer = registry.find("mule.flow.duration").tag("application", TEST_APP_NAME)
+                            .tag("flow", "fixed-scheduler").timer();
+                if (timer == null) {
+                    Thread.sleep(200);
+                }
+            }
+            Assert.assertNotNull("Flow executions should be recorded", timer);
+            Assert.assertTrue(timer.count() >= 1);
+            Assert.assertEquals(0, registry.get("mule.flow.errors").tag("flow", "fixed-scheduler").counter().count(),
+                0);
+
+            mockMvc.perform(
+                MockMvcRequestBuilders.delete(ENDPOINT_CONTEXT + ENDPOINT_APPLICATIONS).param("name", TEST_APP_NAME)
+                    .accept(MediaType.APPLICATION_JSON)).andExpect(status().isOk());
+            // meters of stopped application are removed
+            Assert.assertNull(registry.find("mule.flow.duration").tag("application", TEST_APP_NAME).timer());
+            Assert.assertNull(registry.find("mule.flow.errors").tag("application", TEST_APP_NAME).counter());
+        } finally {
+            container.removeArtifactRegistryListener(flowMetrics);
+        }
+    }
+
+    @Test
+    public void muleSchedulerMetricsTests() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        SchedulerMetrics schedulerMetrics = new SchedulerMetrics(container,
+            applicationContext.getBean(MuleConfigProperties.class));
+        schedulerMetrics.bindTo(registry);
+        try {
+            mockMvc.perform(MockMvcRequestBuilders.multipart(ENDPOINT_CONTEXT + ENDPOINT_APPLICATIONS)
+                                .file(createMultipartFile("file", TEST_APP_LOCATION))
+                                .accept(MediaType.APPLICATION_JSON)).andExpect(status().isOk());
+
+            Assert.assertNotNull(registry.find("mule.scheduler.application.active").tag("application", TEST_APP_NAME)
+                                     .gauge());
+            Assert.assertTrue(registry.get("mule.scheduler.saturation").gauge().value() >= 0);
+
+            // schedulers are probed every 5 seconds
+            long deadline = System.currentTimeMillis() + 15000;
+            Timer timer = null;
+            while (timer == null && System.currentTimeMillis() < deadline) {
+                timer = registry.find("mule.scheduler.latency").tag("scheduler", "CPU_LIGHT").timer();
+                if (timer == null) {
+                    Thread.sleep(200);
+                }
+            }
+            Assert.assertNotNull("Scheduler latency should be recorded", timer);
+            Assert.assertTrue(timer.count() >= 1);
+            // a probe task ran, so Mule scheduler threads are alive
+            double threads = 0;
+            for (String pool : Arrays.asList("uber", "cpuLight")) {
+                threads += registry.get("mule.scheduler.threads").tag("pool", pool).gauge().value();
+            }
+            Assert.assertTrue(threads > 0);
+
+            mockMvc.perform(
+                MockMvcRequestBuilders.delete(ENDPOINT_CONTEXT + ENDPOINT_APPLICATIONS).param("name", TEST_APP_NAME)
+                    .accept(MediaType.APPLICATION_JSON)).andExpect(status().isOk());
+            Assert.assertNull(registry.find("mule.scheduler.application.active").tag("application", TEST_APP_NAME)
+                                  .gauge());
+        } finally {
+            container.removeArtifactRegistryListener(schedulerMetrics);
+            schedulerMetrics.close();
+        }
+    }
+
+    @Test
+    public void muleSchedulerPoolsConfTests() throws Exception {
+        File conf = new File(getConfFolder(), SchedulerPoolsUtils.SCHEDULER_POOLS_CONF);
+        Assert.assertTrue("Scheduler pools configuration should be rendered", conf.isFile());
+        List<String> lines = Files.readAllLines(conf.toPath(), StandardCharsets.UTF_8);
+        // rendered from mule.schedulers.* properties of test profile
+        Assert.assertTrue(lines.contains("org.mule.runtime.scheduler.SchedulerPoolStrategy=UBER"));
+    }
+
+    @Test
+    public void muleApplicationSchedulersTests() throws Exception {
+        MuleConfigProperties configProperties = applicationContext.getBean(MuleConfigProperties.class);
+        MuleConfigProperties.ApplicationSchedulers schedulers = new MuleConfigProperties.ApplicationSchedulers();
+        schedulers.getUber().setCoreSize(1).setMaxSize(4);
+        Map<String, String> conf = SchedulerPoolsUtils.schedulerPoolsConf(schedulers, Duration.ofSeconds(5));
+        Assert.assertEquals("4", conf.get("org.mule.runtime.scheduler.uber.threadPool.maxSize"));
+        Assert.assertEquals("5000", conf.get("org.mule.runtime.scheduler.gracefulShutdownTimeout"));
+        Assert.assertEquals(4, SchedulerPoolsUtils.maxThreads(conf));
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        SchedulerMetrics schedulerMetrics = new SchedulerMetrics(container, configProperties);
+        schedulerMetrics.bindTo(registry);
+        AtomicReference<Registry> applicationRegistry = new AtomicReference<>();
+        ArtifactRegistryListener registryListener = (type, name, artifactRegistry) -> {
+            if (ArtifactType.APPLICATION.equals(type) && TEST_APP_NAME.equals(name)) {
+                applicationRegistry.set(artifactRegistry);
+            }
+        };
+        container.addArtifactRegistryListener(registryListener);
+        configProperties.getApplicationSchedulers().put(TEST_APP_NAME, schedulers);
+        try {
+            mockMvc.perform(MockMvcRequestBuilders.multipart(ENDPOINT_CONTEXT + ENDPOINT_APPLICATIONS)
+                                .file(createMultipartFile("file", TEST_APP_LOCATION))
+                                .accept(MediaType.APPLICATION_JSON)).andExpect(status().isOk());
+            Assert.assertTrue("Application should be deployed!!", container.isApplicationDeployed(TEST_APP_NAME));
+
+            // application gets its dedicated pools configuration as deployment properties
+            ConfigurationProperties properties = applicationRegistry.get().lookupByType(ConfigurationProperties.class)
+                                                     .orElseThrow(() -> new AssertionError("No configuration"));
+            for (Map.Entry<String, String> property : conf.entrySet()) {
+                Assert.assertEquals(property.getKey(), Optional.of(property.getValue()),
+                    properties.resolveStringProperty(property.getKey()));
+            }
+
+            Gauge utilization = registry.get("mule.scheduler.application.utilization").tag("application", TEST_APP_NAME)
+                                    .tag("isolation", "DEDICATED").gauge();
+            Assert.assertTrue(utilization.value() >= 0 && utilization.value() <= 1);
+
+            // threads of dedicated pools running a flow of application are counted
+            FlowInvoker blocking = container.getFlow(TEST_APP_NAME, "blocking-flow")
+                                       .orElseThrow(() -> new AssertionError("Flow should be found"));
+            CompletableFuture<FlowResult> running = blocking.invokeAsync(5000);
+            try {
+                long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(4);
+                while (utilization.value() == 0 && System.nanoTime() < deadline) {
+                    Thread.sleep(100);
+                }
+                Assert.assertTrue("Application utilization should be counted", utilization.value() > 0);
+            } finally {
+                running.get(1, TimeUnit.MINUTES).close();
+            }
+
+            mockMvc.perform(
+                MockMvcRequestBuilders.delete(ENDPOINT_CONTEXT + ENDPOINT_APPLICATIONS).param("name", TEST_APP_NAME)
+                    .accept(MediaType.APPLICATION_JSON)).andExpect(status().isOk());
+        } finally {
+            configProperties.getApplicationSchedulers().remove(TEST_APP_NAME);
+            container.removeArtifactRegistryListener(registryListener);
+            container.removeArtifactRegistryListener(schedulerMetrics);
+            schedulerMetrics.close();
+        }
+    }
+
+    @Test
+    public void muleJfrEventsTests() throws Exception {
+        Assume.assumeTrue(FlightRecorder.isAvailable());
+        File dump = File.createTempFile("mule-events", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("org.hawkore.mule.Deployment");
+            recording.enable("org.hawkore.mule.Undeployment");
+            recording.start();
+            mockMvc.perform(MockMvcRequestBuilders.multipart(ENDPOINT_CONTEXT + ENDPOINT_APPLICATIONS)
+                                .file(createMultipartFile("file", TEST_APP_LOCATION))
+                                .accept(MediaType.APPLICATION_JSON)).andExpect(status().isOk());
+            mockMvc.perform(
+                MockMvcRequestBuilders.delete(ENDPOINT_CONTEXT + ENDPOINT_APPLICATIONS).param("name", TEST_APP_NAME)
+                    .accept(MediaType.APPLICATION_JSON)).andExpect(status().isOk());
+            recording.stop();
+            recording.dump(dump.toPath());
+        }
+        List<RecordedEvent> events = RecordingFile.readAllEvents(dump.toPath());
+        dump.delete();
+
+        RecordedEvent deploy = events.stream().filter(e -> "deploy".equals(e.getString("operation"))).findFirst()
+                                   .orElseThrow(() -> new AssertionError("Deployment event should be recorded"));
+        Assert.assertEquals(TEST_APP_NAME, deploy.getString("artifactName"));
+        Assert.assertEquals("APPLICATION", deploy.getString("artifactType"));
+        Assert.assertTrue(deploy.getBoolean("success"));
+        Assert.assertTrue(deploy.getLong("bytes") > 0);
+        Assert.assertTrue(events.stream()
+                              .filter(e -> "org.hawkore.mule.Undeployment".equals(e.getEventType().getName()))
+                              .anyMatch(e -> TEST_APP_NAME.equals(e.getString("artifactName"))));
+    }
+
+    @Test
+    public void muleFlowInvocationTests() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.multipart(ENDPOINT_CONTEXT + ENDPOINT_APPLICATIONS)
+                            .file(createMultipartFile("file", TEST_APP_LOCATION))
+                            .accept(MediaType.APPLICATION_JSON)).andExpect(status().isOk());
+        try {
+            Assert.assertFalse(container.getFlow(TEST_APP_NAME, "not-a-flow").isPresent());
+            FlowInvoker echo = container.getFlow(TEST_APP_NAME, "get:\\echo:echo-api-config")
+                                   .orElseThrow(() -> new AssertionError("Flow should be found"));
+            // same flow through HTTP loopback
+            JsonNode expected;
+            try (InputStream http = new URL("http://127.0.0.1:8081/api/echo").openStream()) {
+                expected = objectMapper.readTree(http);
+            }
+            try (FlowResult result = echo.invoke("")) {
+                Assert.assertEquals(expected, objectMapper.readTree(result.getPayloadAsStream()));
+            }
+            try (FlowResult result = echo.invokeAsync("").get(1, TimeUnit.MINUTES)) {
+                Assert.assertEquals(expected, objectMapper.readTree(result.getPayloadAsStream()));
+            }
+            try (FlowResult result = Mono.from(echo.invokeReactive("")).block(Duration.ofMinutes(1))) {
+                Assert.assertEquals(expected, objectMapper.readTree(result.getPayloadAsStream()));
+            }
+            // synchronous invocation waits up to timeout
+            Assert.assertEquals(Duration.ofMinutes(1), echo.getTimeout());
+            FlowInvoker blocking = container.getFlow(TEST_APP_NAME, "blocking-flow")
+                                       .orElseThrow(() -> new AssertionError("Flow should be found"));
+            try {
+                blocking.invoke(3000, Duration.ofMillis(100));
+                Assert.fail("Invocation should time out");
+            } catch (FlowInvocationException e) {
+                Assert.assertTrue(e.getCause() instanceof TimeoutException);
+            }
+        } finally {
+            container.undeployApplication(TEST_APP_NAME);
+        }
+        Assert.assertFalse(container.getFlow(TEST_APP_NAME, "get:\\echo:echo-api-config").isPresent());
+    }
+
+    @Test
+    public void muleHttpBridgeTests() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.multipart(ENDPOINT_CONTEXT + ENDPOINT_APPLICATIONS)
+                            .file(createMultipartFile("file", TEST_APP_LOCATION))
+                            .accept(MediaType.APPLICATION_JSON)).andExpect(status().isOk());
+        try {
+            List<MuleConfigProperties.HttpBridge.Route> routes = Arrays.asList(
+                bridgeRoute("/echo", "GET", "get:\\echo:echo-api-config"), bridgeRoute("/form", "POST", "bridge-echo"),
+                bridgeRoute("/java", "GET", "bridge-java-payload"),
+                bridgeRoute("/bad-status", "GET", "bridge-bad-status"));
+            MuleConfigProperties.HttpBridge bridge = new MuleConfigProperties.HttpBridge().setEnabled(true)
+                                                         .setRoutes(routes);
+            MuleHttpBridgeServlet servlet = new MuleHttpBridgeServlet(container, bridge);
+            // same flow through HTTP loopback
+            JsonNode expected;
+            try (InputStream http = new URL("http://127.0.0.1:8081/api/echo").openStream()) {
+                expected = objectMapper.readTree(http);
+            }
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/echo");
+            request.setServletPath("/echo");
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            servlet.service(request, response);
+            Assert.assertEquals(HttpStatus.OK.value(), response.getStatus());
+            Assert.assertEquals(expected, objectMapper.readTree(response.getContentAsByteArray()));
+            // no route for method
+            request = new MockHttpServletRequest("POST", "/echo");
+            request.setServletPath("/echo");
+            response = new MockHttpServletResponse();
+            servlet.service(request, response);
+            Assert.assertEquals(HttpStatus.NOT_FOUND.value(), response.getStatus());
+            // form body is handed to the flow, query params are taken from query string only
+            request = new MockHttpServletRequest("POST", "/form");
+            request.setServletPath("/form");
+            request.setQueryString("b=2");
+            request.addParameter("b", "2");
+            request.addParameter("a", "1");
+            request.setContentType(MediaType.APPLICATION_FORM_URLENCODED_VALUE);
+            request.setContent("a=1".getBytes(StandardCharsets.UTF_8));
+            response = new MockHttpServletResponse();
+            servlet.service(request, response);
+            Assert.assertEquals(HttpStatus.OK.value(), response.getStatus());
+            Assert.assertEquals(objectMapper.readTree("{\"queryParams\":{\"b\":\"2\"},\"body\":{\"a\":\"1\"}}"),
+                objectMapper.readTree(response.getContentAsByteArray()));
+            // a payload that is not a stream is an error, not a response with flow status
+            request = new MockHttpServletRequest("GET", "/java");
+            request.setServletPath("/java");
+            response = new MockHttpServletResponse();
+            servlet.service(request, response);
+            Assert.assertEquals(HttpStatus.INTERNAL_SERVER_ERROR.value(), response.getStatus());
+            // so is an invalid status
+            request = new MockHttpServletRequest("GET", "/bad-status");
+            request.setServletPath("/bad-status");
+            response = new MockHttpServletResponse();
+            servlet.service(request, response);
+            Assert.assertEquals(HttpStatus.INTERNAL_SERVER_ERROR.value(), response.getStatus());
+            Assert.assertEquals(0, response.getContentLength());
+        } finally {
+            container.undeployApplication(TEST_APP_NAME);
+        }
+    }
+
+    @Test
+    public void muleThreadBudgetTests() throws Exception {
+        MuleConfigProperties configProperties = new MuleConfigProperties();
+        configProperties.getThreadBudget().setEnabled(true).setThreads(64).setWebShare(0.25).setTaskShare(0.125);
+        Map<String, Integer> budget = SchedulerPoolsUtils.threadBudget(configProperties.getThreadBudget());
+        Assert.assertEquals(16, budget.get(SchedulerPoolsUtils.WEB).intValue());
+        Assert.assertEquals(8, budget.get(SchedulerPoolsUtils.TASK).intValue());
+        Assert.assertEquals(40, budget.get(SchedulerPoolsUtils.MULE).intValue());
+        // Mule blocking pools within budget, CPU bound pools sized to cores
+        Map<String, String> conf = SchedulerPoolsUtils.schedulerPoolsConf(configProperties.getSchedulers(),
+            configProperties.getThreadBudget());
+        Assert.assertEquals("40", conf.get("org.mule.runtime.scheduler.io.threadPool.maxSize"));
+        Assert.assertEquals(String.valueOf(SchedulerPoolsUtils.availableCores()),
+            conf.get("org.mule.runtime.scheduler.cpuLight.threadPool.size"));
+        // Spring Boot web server workers and task executor within budget
+        ThreadBudgetPostProcessor postProcessor = new ThreadBudgetPostProcessor();
+        postProcessor.setEnvironment(new MockEnvironment().withProperty("mule.threadBudget.enabled", "true")
+                                         .withProperty("mule.threadBudget.threads", "64"));
+        ServerProperties server = (ServerProperties)postProcessor.postProcessAfterInitialization(new ServerProperties(),
+            "server");
+        Assert.assertEquals(16, server.getTomcat().getMaxThreads());
+        TaskExecutionProperties task = (TaskExecutionProperties)postProcessor.postProcessAfterInitialization(
+            new TaskExecutionProperties(), "task");
+        Assert.assertEquals(8, task.getPool().getMaxSize());
+        // explicitly configured sizes, bound to properties beans, are kept
+        postProcessor.setEnvironment(new MockEnvironment().withProperty("mule.threadBudget.enabled", "true")
+                                         .withProperty("mule.threadBudget.threads", "64")
+                                         .withProperty("server.tomcat.max-threads", "100")
+                                         .withProperty("spring.task.execution.pool.max-size", "20"));
+        server = new ServerProperties();
+        server.getTomcat().setMaxThreads(100);
+        server = (ServerProperties)postProcessor.postProcessAfterInitialization(server, "server");
+        Assert.assertEquals(100, server.getTomcat().getMaxThreads());
+        Assert.assertEquals(16, server.getUndertow().getWorkerThreads().intValue());
+        task = new TaskExecutionProperties();
+        task.getPool().setMaxSize(20);
+        task = (TaskExecutionProperties)postProcessor.postProcessAfterInitialization(task, "task");
+        Assert.assertEquals(8, task.getPool().getCoreSize());
+        Assert.assertEquals(20, task.getPool().getMaxSize());
+
+        ThreadPoolTaskExecutor taskExecutor = new ThreadPoolTaskExecutor();
+        taskExecutor.setCorePoolSize(8);
+        taskExecutor.initialize();
+        try {
+            SimpleMeterRegistry registry = new SimpleMeterRegistry();
+            new ThreadBudgetMetrics(configProperties, taskExecutor, new SchedulerMetrics(container, configProperties))
+                .bindTo(registry);
+            Assert.assertEquals(64, registry.get("mule.threads.budget").gauge().value(), 0);
+            Assert.assertEquals(40,
+                registry.get("mule.threads.budget.allocated").tag("consumer", SchedulerPoolsUtils.MULE).gauge().value(),
+                0);
+            CountDownLatch running = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            taskExecutor.execute(() -> {
+                running.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            running.await(1, TimeUnit.MINUTES);
+            Assert.assertEquals(1.0 / 8, registry.get("mule.threads.budget.utilization")
+                                              .tag("consumer", SchedulerPoolsUtils.TASK).gauge().value(), 0.0001);
+            release.countDown();
+            Assert.assertTrue(registry.get("mule.threads.budget.utilization").tag("consumer", SchedulerPoolsUtils.MULE)
+                                  .gauge().value() >= 0);
+        } finally {
+            taskExecutor.shutdown();
+        }
+    }
+
+    @Test
+    public void muleLoggingThroughputTests() throws Exception {
+        AtomicReference<Registry> applicationRegistry = new AtomicReference<>();
+        ArtifactRegistryListener registryListener = (type, name, registry) -> {
+            if (ArtifactType.APPLICATION.equals(type) && TEST_APP_NAME.equals(name)) {
+                applicationRegistry.set(registry);
+            }
+        };
+        container.addArtifactRegistryListener(registryListener);
+        mockMvc.perform(MockMvcRequestBuilders.multipart(ENDPOINT_CONTEXT + ENDPOINT_APPLICATIONS)
+                            .file(createMultipartFile("file", TEST_APP_LOCATION))
+                            .accept(MediaType.APPLICATION_JSON)).andExpect(status().isOk());
+        try {
+            // application logs through its own logger context, configured with async loggers
+            ClassLoader applicationClassLoader = applicationRegistry.get().lookupByType(MuleContext.class)
+                                                     .map(MuleContext::getExecutionClassLoader)
+                                                     .orElseThrow(() -> new AssertionError("No application context"));
+            org.apache.logging.log4j.spi.LoggerContext context = LogManager.getContext(applicationClassLoader, false);
+            Assert.assertTrue(context instanceof LoggerContext);
+            Configuration configuration = ((LoggerContext)context).getConfiguration();
+            Assert.assertTrue(configuration.getConfigurationSource().getLocation().endsWith(LoggingUtils.LOG4J2_CONF));
+            Assert.assertTrue(configuration.getRootLogger() instanceof AsyncLoggerConfig);
+            Assert.assertTrue(configuration.getLoggerConfig(
+                "org.mule.runtime.core.internal.processor.LoggerMessageProcessor") instanceof AsyncLoggerConfig);
+
+            // echo flow logs every invocation, flow threads do not block on logging
+            FlowInvoker echo = container.getFlow(TEST_APP_NAME, "get:\\echo:echo-api-config")
+                                   .orElseThrow(() -> new AssertionError("Flow should be found"));
+            int threads = 4;
+            int invocations = 2000;
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            try {
+                List<Callable<Void>> tasks = Collections.nCopies(threads, () -> {
+                    for (int i = 0; i < invocations / threads; i++) {
+                        try (FlowResult result = echo.invoke("")) {
+                            Assert.assertNotNull(result.getMessage());
+                        }
+                    }
+                    return null;
+                });
+                for (Future<Void> task : executor.invokeAll(tasks)) {
+                    task.get(5, TimeUnit.MINUTES);
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+        } finally {
+            container.removeArtifactRegistryListener(registryListener);
+            container.undeployApplication(TEST_APP_NAME);
+        }
+    }
+
+    @Test
+    public void muleInMemoryObjectStoreTests() throws Exception {
+        // applications get a Caffeine backed in-memory object store
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        InMemoryObjectStoreCustomizer customizer = new InMemoryObjectStoreCustomizer(
+            new MuleConfigProperties.ObjectStores.InMemory());
+        ObjectStoreMetrics objectStoreMetrics = new ObjectStoreMetrics(container);
+        container.addArtifactRegistryListener(customizer);
+        objectStoreMetrics.bindTo(registry);
+        try {
+            mockMvc.perform(MockMvcRequestBuilders.multipart(ENDPOINT_CONTEXT + ENDPOINT_APPLICATIONS)
+                                .file(createMultipartFile("file", TEST_APP_LOCATION))
+                                .accept(MediaType.APPLICATION_JSON)).andExpect(status().isOk());
+            Assert.assertNotNull(registry.get("cache.gets").tag("cache", "mule.objectStore")
+                                     .tag("application", TEST_APP_NAME).tag("result", "hit").functionCounter());
+            container.undeployApplication(TEST_APP_NAME);
+            Assert.assertNull(registry.find("cache.gets").tag("application", TEST_APP_NAME).functionCounter());
+        } finally {
+            container.removeArtifactRegistryListener(customizer);
+            container.removeArtifactRegistryListener(objectStoreMetrics);
+        }
+    }
+
+    @Test
+    public void mulePersistentObjectStoreTests() throws Exception {
+        // applications get a memory-mapped persistent object store within their data folder
+        PersistentObjectStoreCustomizer customizer = new PersistentObjectStoreCustomizer(
+            new MuleConfigProperties.ObjectStores.Persistent());
+        container.addArtifactRegistryListener(customizer);
+        try {
+            mockMvc.perform(MockMvcRequestBuilders.multipart(ENDPOINT_CONTEXT + ENDPOINT_APPLICATIONS)
+                                .file(createMultipartFile("file", TEST_APP_LOCATION))
+                                .accept(MediaType.APPLICATION_JSON)).andExpect(status().isOk());
+            Assert.assertTrue(new File(new File(getAppDataFolder(TEST_APP_NAME),
+                PersistentObjectStoreCustomizer.OBJECT_STORE_FOLDER), MappedObjectStore.LOG_FILE).exists());
+            container.undeployApplication(TEST_APP_NAME);
+        } finally {
+            container.removeArtifactRegistryListener(customizer);
+        }
+    }
+
+    @Test
+    public void muleSharedBeansTests() throws Exception {
+        StringReader pool = new StringReader("shared");
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("sharedPool", pool);
+        beanFactory.addBean("sharedValue", "value");
+        SharedBeansCustomizer customizer = new SharedBeansCustomizer(beanFactory,
+            new MuleConfigProperties.SharedBeans().setNames(Arrays.asList("sharedValue", "missing"))
+                .setTypes(Collections.singletonList(Readable.class.getName())));
+
+        // applications registry gets shared beans, a closeable one through a proxy of the interface it is shared by
+        AtomicReference<Registry> applicationRegistry = new AtomicReference<>();
+        ArtifactRegistryListener registryListener = (type, name, registry) -> {
+            if (ArtifactType.APPLICATION.equals(type) && TEST_APP_NAME.equals(name)) {
+                applicationRegistry.set(registry);
+            }
+        };
+        container.addArtifactRegistryListener(customizer);
+        container.addArtifactRegistryListener(registryListener);
+        try {
+            mockMvc.perform(MockMvcRequestBuilders.multipart(ENDPOINT_CONTEXT + ENDPOINT_APPLICATIONS)
+                                .file(createMultipartFile("file", TEST_APP_LOCATION))
+                                .accept(MediaType.APPLICATION_JSON)).andExpect(status().isOk());
+            Assert.assertNotNull(applicationRegistry.get());
+            Assert.assertEquals(Optional.of("value"), applicationRegistry.get().lookupByName("sharedValue"));
+            Object sharedPool = applicationRegistry.get().lookupByName("sharedPool")
+                                    .orElseThrow(() -> new AssertionError("Shared pool should be registered"));
+            Assert.assertTrue(sharedPool instanceof Readable);
+            Assert.assertFalse(sharedPool instanceof Closeable);
+            container.undeployApplication(TEST_APP_NAME);
+            // shared pool is not closed by application disposal
+            Assert.assertEquals('s', pool.read());
+        } finally {
+            container.removeArtifactRegistryListener(customizer);
+            container.removeArtifactRegistryListener(registryListener);
+        }
+    }
+
+    @Test
+    public void muleDrainingShutdownTests() throws Exception {
+        // stopped on context close as a lifecycle bean, started on context refresh
+        Assert.assertTrue(container instanceof SmartLifecycle);
+        Assert.assertFalse(container.isAutoStartup());
+        InflightEvents inflightEvents = new InflightEvents();
+        container.addArtifactRegistryListener(inflightEvents);
+        mockMvc.perform(MockMvcRequestBuilders.multipart(ENDPOINT_CONTEXT + ENDPOINT_APPLICATIONS)
+                            .file(createMultipartFile("file", TEST_APP_LOCATION))
+                            .accept(MediaType.APPLICATION_JSON)).andExpect(status().isOk());
+        List<RecordedEvent> events = Collections.emptyList();
+        try {
+            try (InputStream http = new URL("http://127.0.0.1:8081/api/echo").openStream()) {
+                Assert.assertNotNull(objectMapper.readTree(http));
+            }
+            // every started flow execution is completed
+            Assert.assertEquals(0, inflightEvents.awaitCompletion(Duration.ofSeconds(10)));
+            Assert.assertEquals(0, inflightEvents.getInflight(TEST_APP_NAME));
+            if (FlightRecorder.isAvailable()) {
+                File dump = File.createTempFile("mule-shutdown", ".jfr");
+                try (Recording recording = new Recording()) {
+                    recording.enable("org.hawkore.mule.Shutdown");
+                    recording.start();
+                    container.stop();
+                    recording.stop();
+                    recording.dump(dump.toPath());
+                }
+                events = RecordingFile.readAllEvents(dump.toPath());
+                dump.delete();
+            } else {
+                container.stop();
+            }
+            Assert.assertFalse(container.isRunning());
+            // stopped applications are kept installed
+            Assert.assertTrue(getAppFolder(TEST_APP_NAME).exists());
+        } finally {
+            container.removeArtifactRegistryListener(inflightEvents);
+            if (!container.isRunning()) {
+                container.start();
+            }
+            if (container.isApplicationInstalled(TEST_APP_NAME)) {
+                container.undeployApplication(TEST_APP_NAME);
+            }
+        }
+        Assert.assertEquals("Not expected status! ", Status.UP, muleRuntimeHealthIndicator.health().getStatus());
+        if (FlightRecorder.isAvailable()) {
+            Assert.assertEquals(Arrays.asList(LifecycleTracer.SOURCES_STOP, LifecycleTracer.DRAIN,
+                LifecycleTracer.ARTIFACTS_STOP, LifecycleTracer.CONTAINER_DISPOSE),
+                events.stream().sorted(Comparator.comparing(RecordedEvent::getStartTime)).map(e -> e.getString("phase"))
+                    .collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    public void muleDrainingShutdownBlockingFlowTests() throws Exception {
+        MuleConfigProperties configProperties = applicationContext.getBean(MuleConfigProperties.class);
+        Duration drainTimeout = configProperties.getShutdown().getDrainTimeout();
+        InflightEvents inflightEvents = new InflightEvents();
+        container.addArtifactRegistryListener(inflightEvents);
+        try {
+            // shutdown waits for in-flight flow executions to complete
+            configProperties.getShutdown().setDrainTimeout(Duration.ofSeconds(30));
+            CompletableFuture<FlowResult> running = invokeBlockingFlow(inflightEvents, 3000);
+            container.stop();
+            Assert.assertTrue("In-flight flow execution should complete before stop", running.isDone());
+            try (FlowResult result = running.get()) {
+                Assert.assertEquals("done", StreamUtils.copyToString(result.getPayloadAsStream(),
+                    StandardCharsets.UTF_8));
+            }
+            container.start();
+
+            // shutdown gives up on in-flight flow executions after drain timeout
+            configProperties.getShutdown().setDrainTimeout(Duration.ofSeconds(1));
+            running = invokeBlockingFlow(inflightEvents, 60000);
+            long start = System.nanoTime();
+            container.stop();
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            Assert.assertTrue("Stop should wait for drain timeout", elapsed >= 1000);
+            Assert.assertTrue("Stop should not wait for in-flight flow execution", elapsed < 30000);
+            Assert.assertFalse(running.isDone() && !running.isCompletedExceptionally());
+        } finally {
+            configProperties.getShutdown().setDrainTimeout(drainTimeout);
+            container.removeArtifactRegistryListener(inflightEvents);
+            if (!container.isRunning()) {
+                container.start();
+            }
+            if (container.isApplicationInstalled(TEST_APP_NAME)) {
+                container.undeployApplication(TEST_APP_NAME);
+            }
+        }
+    }
+
     @Test
     public void muleHealthIndicatorOUT_OF_SERVICE_BY_DOMAIN() throws Exception {
         Assert.assertNotNull(muleRuntimeHealthIndicator);
@@ -780,9 +1926,58 @@ public class SpringBootMule4RuntimeTests extends AbstractSpringTest {
         Assert.assertFalse(codeCoverageArtifactEquals);
     }
 
+    // deploy test application if required and run its blocking flow, once flow execution is in-flight
+    private CompletableFuture<FlowResult> invokeBlockingFlow(InflightEvents inflightEvents, long millis)
+        throws Exception {
+        if (!container.isApplicationDeployed(TEST_APP_NAME)) {
+            mockMvc.perform(MockMvcRequestBuilders.multipart(ENDPOINT_CONTEXT + ENDPOINT_APPLICATIONS)
+                                .file(createMultipartFile("file", TEST_APP_LOCATION))
+                                .accept(MediaType.APPLICATION_JSON)).andExpect(status().isOk());
+        }
+        FlowInvoker blocking = container.getFlow(TEST_APP_NAME, "blocking-flow")
+                                   .orElseThrow(() -> new AssertionError("Flow should be found"));
+        CompletableFuture<FlowResult> running = blocking.invokeAsync(millis);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (inflightEvents.getInflight(TEST_APP_NAME) == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        Assert.assertEquals(1, inflightEvents.getInflight(TEST_APP_NAME));
+        return running;
+    }
+
     private MockMultipartFile createMultipartFile(String paramName, String fileLocation) throws IOException {
         File f = new File(fileLocation);
         return new MockMultipartFile(paramName, f.getName(), (String)null, (byte[])FileCopyUtils.copyToByteArray(f));
     }
 
+    // application bound to provided domain, just its class loader model is required to resolve the domain
+    private static byte[] createDomainApplication(String domainArtifactId, String domainVersion) throws IOException {
+        String classLoaderModel = "{\"dependencies\": [{\"artifactCoordinates\": {\"groupId\": \"com.mycompany\", "
+                                      + "\"artifactId\": \"" + domainArtifactId + "\", \"version\": \"" + domainVersion
+                                      + "\", \"classifier\": \"mule-domain\"}}]}";
+        ByteArrayOutputStream application = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(application)) {
+            zip.putNextEntry(new ZipEntry("META-INF/mule-artifact/classloader-model.json"));
+            zip.write(classLoaderModel.getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+        return application.toByteArray();
+    }
+
+    private static MuleConfigProperties.HttpBridge.Route bridgeRoute(String path, String method, String flow) {
+        return new MuleConfigProperties.HttpBridge.Route().setPath(path).setMethod(method).setApplication(TEST_APP_NAME)
+                   .setFlow(flow);
+    }
+
+    // waits until an async response (i.e. an events stream) contains expected content
+    private static String awaitEvent(MvcResult result, String expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 60000;
+        String content = result.getResponse().getContentAsString();
+        while (!content.contains(expected) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+            content = result.getResponse().getContentAsString();
+        }
+        return content;
+    }
+
 }
@@ -22,11 +22,15 @@ import java.util.Optional;
 import java.util.stream.Collectors;
 
 import org.hawkore.springframework.boot.mule.config.MuleConfigProperties;
+import org.hawkore.springframework.boot.mule.container.DeploymentRecorder;
 import org.hawkore.springframework.boot.mule.container.SpringMuleContainerImpl;
 import org.hawkore.springframework.boot.mule.controller.dto.Application;
+import org.hawkore.springframework.boot.mule.controller.dto.ArtifactType;
 import org.hawkore.springframework.boot.mule.controller.dto.Domain;
 import org.hawkore.springframework.boot.mule.exception.DeployArtifactException;
+import org.mule.runtime.deployment.model.api.DeployableArtifact;
 import org.mule.runtime.deployment.model.api.application.ApplicationStatus;
+import org.mule.runtime.module.deployment.api.DeploymentService;
 import org.mule.runtime.module.launcher.DefaultMuleContainer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -35,6 +39,7 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.stereotype.Component;
 
 import static org.apache.commons.io.FileUtils.deleteDirectory;
+import static org.apache.commons.io.FilenameUtils.getBaseName;
 import static org.mule.runtime.container.api.MuleFoldersUtil.getAppFolder;
 import static org.mule.runtime.container.api.MuleFoldersUtil.getDomainFolder;
 import static org.mule.runtime.container.api.MuleFoldersUtil.getDomainsFolder;
@@ -88,33 +93,66 @@ public class SpringMuleContainerV2Impl extends SpringMuleContainerImpl {
     }
 
     /**
-     * Gets installed applications.
+     * Find installed application within Mule Runtime.
+     *
+     * @param application
+     *     the application
+     * @return the application
+     */
+    @Override
+    protected Optional<Application> findApplication(String application) {
+        return Optional.ofNullable(muleContainer.getDeploymentService().findApplication(application))
+                   .filter(a -> getAppFolder(a.getArtifactName()).exists()).map(this::toApplication);
+    }
+
+    /**
+     * Find installed domain within Mule Runtime.
+     *
+     * @param domain
+     *     the domain
+     * @return the domain
+     */
+    @Override
+    protected Optional<Domain> findDomain(String domain) {
+        return Optional.ofNullable(muleContainer.getDeploymentService().findDomain(domain))
+                   .filter(d -> getDomainFolder(d.getArtifactName()).exists()).map(this::toDomain);
+    }
+
+    /**
+     * Find installed applications within Mule Runtime.
      *
      * @return the applications
      */
     @Override
-    public List<Application> getApplications() {
-        checkRunning();
+    protected List<Application> findApplications() {
         return muleContainer.getDeploymentService().getApplications().stream()
-                   .filter(f -> isApplicationInstalled(f.getArtifactName())).map(
-                f -> new Application().setName(f.getArtifactName()).setStatus(f.getStatus())
-                         .setLastModified(f.getLocation().lastModified())).collect(Collectors.toList());
+                   .filter(a -> getAppFolder(a.getArtifactName()).exists()).map(this::toApplication)
+                   .collect(Collectors.toList());
     }
 
     /**
-     * Gets installed domains.
+     * Find installed domains within Mule Runtime.
      *
      * @return the domains
      */
     @Override
-    public List<Domain> getDomains() {
-        checkRunning();
+    protected List<Domain> findDomains() {
         return muleContainer.getDeploymentService().getDomains().stream()
-                   .filter(f -> isDomainInstalled(f.getArtifactName())).map(
-                f -> new Domain().setName(f.getArtifactName()).setStatus(isDomainDeployed(f.getArtifactName())
-                                                                             ? ApplicationStatus.STARTED
-                                                                             : ApplicationStatus.DEPLOYMENT_FAILED)
-                         .setLastModified(f.getLocation().lastModified())).collect(Collectors.toList());
+                   .filter(d -> getDomainFolder(d.getArtifactName()).exists()).map(this::toDomain)
+                   .collect(Collectors.toList());
+    }
+
+    private Application toApplication(org.mule.runtime.deployment.model.api.application.Application a) {
+        return new Application().setName(a.getArtifactName()).setStatus(a.getStatus())
+                   .setLastModified(a.getLocation().lastModified())
+                   .setDomain(Optional.ofNullable(a.getDomain()).map(DeployableArtifact::getArtifactName).orElse(null));
+    }
+
+    private Domain toDomain(org.mule.runtime.deployment.model.api.domain.Domain d) {
+        return new Domain().setName(d.getArtifactName()).setStatus(
+            new File(getDomainsFolder(), d.getArtifactName() + ARTIFACT_ANCHOR_SUFFIX).exists()
+                ? ApplicationStatus.STARTED
+                : ApplicationStatus.DEPLOYMENT_FAILED).setLastModified(d.getLocation().lastModified());
     }
 
     /**
@@ -124,18 +162,24 @@ public class SpringMuleContainerV2Impl extends SpringMuleContainerImpl {
      *     the application name
      */
     @Override
-    public synchronized void undeployApplication(String applicationName) {
-        checkRunning();
-        try {
-            if (!isApplicationInstalled(applicationName)) {
-                throw new DeployArtifactException("Application not found: " + applicationName);
-            }
-            muleContainer.getDeploymentService().undeploy(applicationName);
-            // ensure full removal from disk
-            deleteDirectory(getAppFolder(applicationName));
-        } catch (Exception e) {
-            throw new DeployArtifactException("Unable to un-deploy mule application: " + applicationName, e);
-        }
+    public void undeployApplication(String applicationName) {
+        runAdmitted("Un-deployment of " + applicationName, false,
+            () -> recordOperation(DeploymentRecorder.UNDEPLOY, ArtifactType.APPLICATION, applicationName, () -> {
+                checkRunning();
+                try {
+                    if (!isApplicationInstalled(applicationName)) {
+                        throw new DeployArtifactException("Application not found: " + applicationName);
+                    }
+                    muleContainer.getDeploymentService().undeploy(applicationName);
+                    // ensure full removal from disk
+                    deleteDirectory(getAppFolder(applicationName));
+                } catch (Exception e) {
+                    throw new DeployArtifactException("Unable to un-deploy mule application: " + applicationName, e);
+                } finally {
+                    refreshArtifactIndex(ArtifactType.APPLICATION, applicationName);
+                    deploymentStateChanged();
+                }
+            }));
     }
 
     /**
@@ -145,18 +189,24 @@ public class SpringMuleContainerV2Impl extends SpringMuleContainerImpl {
      *     the domain name
      */
     @Override
-    public synchronized void undeployDomain(String domainName) {
-        checkRunning();
-        try {
-            if (!isDomainInstalled(domainName)) {
-                throw new DeployArtifactException("Domain not found: " + domainName);
-            }
-            muleContainer.getDeploymentService().undeployDomain(domainName);
-            // ensure full removal from disk
-            deleteDirectory(getDomainFolder(domainName));
-        } catch (Exception e) {
-            throw new DeployArtifactException("Unable to un-deploy mule domain: " + domainName, e);
-        }
+    public void undeployDomain(String domainName) {
+        runAdmitted("Un-deployment of " + domainName, false,
+            () -> recordOperation(DeploymentRecorder.UNDEPLOY, ArtifactType.DOMAIN, domainName, () -> {
+                checkRunning();
+                try {
+                    if (!isDomainInstalled(domainName)) {
+                        throw new DeployArtifactException("Domain not found: " + domainName);
+                    }
+                    muleContainer.getDeploymentService().undeployDomain(domainName);
+                    // ensure full removal from disk
+                    deleteDirectory(getDomainFolder(domainName));
+                } catch (Exception e) {
+                    throw new DeployArtifactException("Unable to un-deploy mule domain: " + domainName, e);
+                } finally {
+                    refreshArtifactIndex(ArtifactType.DOMAIN, domainName);
+                    deploymentStateChanged();
+                }
+            }));
     }
 
     /**
@@ -172,7 +222,7 @@ public class SpringMuleContainerV2Impl extends SpringMuleContainerImpl {
      *     the lazy connections enabled
      */
     @Override
-    public synchronized void deployApplication(URI uri,
+    public void deployApplication(URI uri,
         Boolean lazyInitializationEnabled,
         Boolean xmlValidationsEnabled,
         Boolean lazyConnectionsEnabled) {
@@ -181,8 +231,15 @@ public class SpringMuleContainerV2Impl extends SpringMuleContainerImpl {
             Optional.ofNullable(lazyInitializationEnabled).orElse(configProperties.isLazyInitializationEnabled()),
             Optional.ofNullable(xmlValidationsEnabled).orElse(configProperties.isXmlValidationsEnabled()),
             Optional.ofNullable(lazyConnectionsEnabled).orElse(configProperties.isLazyConnectionsEnabled()));
-        deployArtifact(deploymentProperties -> muleContainer.getDeploymentService().deploy(uri, deploymentProperties),
-            lazyInitializationEnabled, xmlValidationsEnabled, lazyConnectionsEnabled);
+        try {
+            recordOperation(DeploymentRecorder.DEPLOY, ArtifactType.APPLICATION, getBaseName(uri.getPath()),
+                artifactBytes(uri),
+                () -> deployArtifact(ArtifactType.APPLICATION, uri,
+                    deploymentProperties -> muleContainer.getDeploymentService().deploy(uri, deploymentProperties),
+                    lazyInitializationEnabled, xmlValidationsEnabled, lazyConnectionsEnabled));
+        } finally {
+            refreshArtifactIndex(ArtifactType.APPLICATION, getBaseName(uri.getPath()));
+        }
     }
 
     /**
@@ -198,7 +255,7 @@ public class SpringMuleContainerV2Impl extends SpringMuleContainerImpl {
      *     the lazy connections enabled
      */
     @Override
-    public synchronized void deployDomain(URI uri,
+    public void deployDomain(URI uri,
         Boolean lazyInitializationEnabled,
         Boolean xmlValidationsEnabled,
         Boolean lazyConnectionsEnabled) {
@@ -207,9 +264,26 @@ public class SpringMuleContainerV2Impl extends SpringMuleContainerImpl {
             Optional.ofNullable(lazyInitializationEnabled).orElse(configProperties.isLazyInitializationEnabled()),
             Optional.ofNullable(xmlValidationsEnabled).orElse(configProperties.isXmlValidationsEnabled()),
             Optional.ofNullable(lazyConnectionsEnabled).orElse(configProperties.isLazyConnectionsEnabled()));
-        deployArtifact(
-            deploymentProperties -> muleContainer.getDeploymentService().deployDomain(uri, deploymentProperties),
-            lazyInitializationEnabled, xmlValidationsEnabled, lazyConnectionsEnabled);
+        try {
+            recordOperation(DeploymentRecorder.DEPLOY, ArtifactType.DOMAIN, getBaseName(uri.getPath()),
+                artifactBytes(uri),
+                () -> deployArtifact(ArtifactType.DOMAIN, uri,
+                    deploymentProperties -> muleContainer.getDeploymentService()
+                                             .deployDomain(uri, deploymentProperties),
+                    lazyInitializationEnabled, xmlValidationsEnabled, lazyConnectionsEnabled));
+        } finally {
+            refreshArtifactIndex(ArtifactType.DOMAIN, getBaseName(uri.getPath()));
+        }
+    }
+
+    /**
+     * Mule deployment service.
+     *
+     * @return the deployment service
+     */
+    @Override
+    protected DeploymentService getDeploymentService() {
+        return muleContainer.getDeploymentService();
     }
 
     /**
@@ -221,6 +295,8 @@ public class SpringMuleContainerV2Impl extends SpringMuleContainerImpl {
     @Override
     public synchronized void initMuleContainer(ClassLoader classLoader) {
         muleContainer = new DefaultMuleContainer(null);
+        // track artifact deployment state changes, including artifacts deployed at start time
+        registerDeploymentListeners(muleContainer.getDeploymentService());
         // Start Mule Runtime container, do not register shutdown hook since it will try to kill the JVM
         executeWithinClassLoader(classLoader, () -> muleContainer.start(false));
     }
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2020 HAWKORE, S.L.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hawkore.springframework.boot.mule.bridge;
+
+import org.hawkore.springframework.boot.mule.config.MuleConfigProperties;
+import org.hawkore.springframework.boot.mule.config.MuleConfigProperties.HttpBridge.Route;
+import org.hawkore.springframework.boot.mule.container.SpringMuleContainer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.boot.web.servlet.ServletRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
+
+/**
+ * Mule HTTP bridge configuration, enabled by {@code mule.httpBridge.enabled}.
+ *
+ * @author Manuel Núñez Sánchez (manuel.nunez@hawkore.com)
+ */
+@Configuration
+@ConditionalOnWebApplication(type = Type.SERVLET)
+@ConditionalOnClass(name = "javax.servlet.http.HttpServlet")
+@ConditionalOnProperty(prefix = "mule.httpBridge", name = "enabled", havingValue = "true")
+public class MuleHttpBridgeConfiguration {
+
+    /**
+     * Mule HTTP bridge servlet, mapped to every route path.
+     *
+     * @param muleContainer
+     *     the mule container
+     * @param configProperties
+     *     the mule configuration properties
+     * @return the servlet registration
+     */
+    @Bean
+    @DependsOn("SpringMuleContainer")
+    public ServletRegistrationBean<MuleHttpBridgeServlet> muleHttpBridge(@Autowired SpringMuleContainer muleContainer,
+        @Autowired MuleConfigProperties configProperties) {
+        ServletRegistrationBean<MuleHttpBridgeServlet> registration = new ServletRegistrationBean<>(
+            new MuleHttpBridgeServlet(muleContainer, configProperties.getHttpBridge()),
+            configProperties.getHttpBridge().getRoutes().stream().map(Route::getPath).distinct()
+                .toArray(String[]::new));
+        registration.setName("muleHttpBridge");
+        return registration;
+    }
+
+}
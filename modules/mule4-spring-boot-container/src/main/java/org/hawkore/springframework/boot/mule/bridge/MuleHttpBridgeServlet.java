@@ -0,0 +1,227 @@
+/*
+ * Copyright 2020 HAWKORE, S.L.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hawkore.springframework.boot.mule.bridge;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeoutException;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.hawkore.springframework.boot.mule.config.MuleConfigProperties.HttpBridge;
+import org.hawkore.springframework.boot.mule.config.MuleConfigProperties.HttpBridge.Route;
+import org.hawkore.springframework.boot.mule.container.FlowInvoker;
+import org.hawkore.springframework.boot.mule.container.FlowResult;
+import org.hawkore.springframework.boot.mule.container.SpringMuleContainer;
+import org.hawkore.springframework.boot.mule.exception.FlowInvocationException;
+import org.mule.runtime.api.component.execution.ComponentExecutionException;
+import org.mule.runtime.api.component.execution.InputEvent;
+import org.mule.runtime.api.event.Event;
+import org.mule.runtime.api.message.Message;
+import org.mule.runtime.api.metadata.MediaType;
+import org.mule.runtime.api.metadata.TypedValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.StreamUtils;
+
+/**
+ * Serves Mule flows from Spring Boot web server, handing requests to them within this JVM.
+ * <p>
+ * Request body is handed to the flow as a stream, without reading it, and request metadata is provided as message
+ * attributes with the same names as Mule HTTP listener ones ({@code method}, {@code headers}, {@code queryParams},
+ * {@code requestPath}, ...). Response status and headers are taken from flow variables (APIKit conventions by
+ * default), and resulting payload is streamed to the response.
+ *
+ * @author Manuel Núñez Sánchez (manuel.nunez@hawkore.com)
+ */
+public class MuleHttpBridgeServlet extends HttpServlet {
+
+    private static final long serialVersionUID = 1L;
+    private static final Logger LOGGER = LoggerFactory.getLogger(MuleHttpBridgeServlet.class);
+    private static final String TRANSFER_ENCODING = "Transfer-Encoding";
+    private final transient SpringMuleContainer muleContainer;
+    private final transient HttpBridge configProperties;
+    // routes by servlet mapping
+    private final transient Map<String, List<Route>> routes = new HashMap<>();
+
+    /**
+     * Instantiates a new Mule HTTP bridge servlet.
+     *
+     * @param muleContainer
+     *     the mule container
+     * @param configProperties
+     *     the HTTP bridge configuration properties
+     */
+    public MuleHttpBridgeServlet(SpringMuleContainer muleContainer, HttpBridge configProperties) {
+        this.muleContainer = muleContainer;
+        this.configProperties = configProperties;
+        for (Route route : configProperties.getRoutes()) {
+            routes.computeIfAbsent(route.getPath(), p -> new ArrayList<>()).add(route);
+        }
+    }
+
+    /**
+     * Service.
+     *
+     * @param request
+     *     the request
+     * @param response
+     *     the response
+     * @throws IOException
+     *     the io exception
+     */
+    @Override
+    protected void service(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Route route = route(request);
+        if (route == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        Optional<FlowInvoker> flow = muleContainer.isRunning() ? muleContainer.getFlow(route.getApplication(),
+            route.getFlow()) : Optional.empty();
+        if (!flow.isPresent()) {
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE,
+                "Flow " + route.getFlow() + " of application " + route.getApplication() + " is not available");
+            return;
+        }
+        try (FlowResult result = flow.get().invoke(InputEvent.create().message(message(request, route)).build())) {
+            writeResponse(response, result.getMessage(), result.getVariables(), HttpServletResponse.SC_OK);
+        } catch (FlowInvocationException e) {
+            if (e.getCause() instanceof TimeoutException) {
+                LOGGER.warn("Unable to serve {}: {}", request.getRequestURI(), e.getMessage());
+                response.sendError(HttpServletResponse.SC_GATEWAY_TIMEOUT);
+                return;
+            }
+            Event error = e.getCause() instanceof ComponentExecutionException
+                              ? ((ComponentExecutionException)e.getCause()).getEvent() : null;
+            if (error == null) {
+                LOGGER.error("Unable to serve {} from flow {}", request.getRequestURI(), route.getFlow(), e);
+                response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+                return;
+            }
+            writeResponse(response, error.getMessage(), error.getVariables(),
+                HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    private Route route(HttpServletRequest request) {
+        String mapping = request.getPathInfo() == null ? request.getServletPath() : request.getServletPath() + "/*";
+        for (Route route : routes.getOrDefault(mapping, Collections.emptyList())) {
+            if (route.getMethod() == null || route.getMethod().equalsIgnoreCase(request.getMethod())) {
+                return route;
+            }
+        }
+        return null;
+    }
+
+    private static Message message(HttpServletRequest request, Route route) throws IOException {
+        boolean hasBody = request.getContentLengthLong() > 0 || request.getHeader(TRANSFER_ENCODING) != null;
+        Message.Builder message = hasBody ? Message.builder().value(request.getInputStream())
+                                      : Message.builder().nullValue();
+        if (hasBody && request.getContentType() != null) {
+            message.mediaType(MediaType.parse(request.getContentType()));
+        }
+        return message.attributesValue(attributes(request, route)).build();
+    }
+
+    // same names as Mule HTTP listener request attributes
+    private static Map<String, Object> attributes(HttpServletRequest request, Route route) throws IOException {
+        Map<String, String> headers = new LinkedHashMap<>();
+        Collections.list(request.getHeaderNames())
+            .forEach(h -> headers.putIfAbsent(h.toLowerCase(Locale.ROOT), request.getHeader(h)));
+        String queryString = request.getQueryString() == null ? "" : request.getQueryString();
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        attributes.put("method", request.getMethod());
+        attributes.put("scheme", request.getScheme());
+        attributes.put("version", request.getProtocol());
+        attributes.put("headers", headers);
+        attributes.put("queryParams", queryParams(queryString));
+        attributes.put("queryString", queryString);
+        attributes.put("listenerPath", request.getContextPath() + route.getPath());
+        attributes.put("requestPath", request.getRequestURI());
+        attributes.put("relativePath", request.getPathInfo() == null ? "/" : request.getPathInfo());
+        attributes.put("requestUri", request.getRequestURI() + (queryString.isEmpty() ? "" : "?" + queryString));
+        attributes.put("remoteAddress", "/" + request.getRemoteAddr() + ":" + request.getRemotePort());
+        attributes.put("localAddress", "/" + request.getLocalAddr() + ":" + request.getLocalPort());
+        return attributes;
+    }
+
+    // from query string only, request parameters would consume a form body that is handed to the flow
+    private static Map<String, String> queryParams(String queryString) throws UnsupportedEncodingException {
+        Map<String, String> queryParams = new LinkedHashMap<>();
+        for (String param : queryString.split("&")) {
+            if (param.isEmpty()) {
+                continue;
+            }
+            int eq = param.indexOf('=');
+            String name = URLDecoder.decode(eq < 0 ? param : param.substring(0, eq), StandardCharsets.UTF_8.name());
+            String value = eq < 0 ? "" : URLDecoder.decode(param.substring(eq + 1), StandardCharsets.UTF_8.name());
+            queryParams.putIfAbsent(name, value);
+        }
+        return queryParams;
+    }
+
+    private void writeResponse(HttpServletResponse response,
+        Message message,
+        Map<String, TypedValue<?>> variables,
+        int defaultStatus) throws IOException {
+        // status and body are resolved before response is committed, so a failure is still sent as an error
+        TypedValue<?> statusVariable = variables.get(configProperties.getStatusVariable());
+        int status;
+        InputStream body;
+        try {
+            status = statusVariable == null || statusVariable.getValue() == null ? defaultStatus
+                         : Integer.parseInt(String.valueOf(statusVariable.getValue()));
+            Object payload = message.getPayload().getValue();
+            body = payload == null ? null : FlowResult.payloadAsStream(payload);
+        } catch (IllegalStateException | NumberFormatException e) {
+            LOGGER.error("Unable to write flow result as HTTP response", e);
+            response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            return;
+        }
+        response.setStatus(status);
+        MediaType mediaType = message.getPayload().getDataType().getMediaType();
+        if (mediaType != null && !MediaType.ANY.matches(mediaType)) {
+            response.setContentType(mediaType.toRfcString());
+        }
+        TypedValue<?> headers = variables.get(configProperties.getHeadersVariable());
+        if (headers != null && headers.getValue() instanceof Map) {
+            ((Map<?, ?>)headers.getValue()).forEach((k, v) -> response.setHeader(String.valueOf(k),
+                v == null ? null : String.valueOf(v)));
+        }
+        if (body == null) {
+            return;
+        }
+        try (InputStream in = body; OutputStream out = response.getOutputStream()) {
+            StreamUtils.copy(in, out);
+        }
+    }
+
+}
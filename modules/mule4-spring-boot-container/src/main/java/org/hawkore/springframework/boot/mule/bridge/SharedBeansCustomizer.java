@@ -0,0 +1,214 @@
+/*
+ * Copyright 2020 HAWKORE, S.L.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hawkore.springframework.boot.mule.bridge;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.hawkore.springframework.boot.mule.config.MuleConfigProperties.SharedBeans;
+import org.hawkore.springframework.boot.mule.container.ArtifactRegistryListener;
+import org.hawkore.springframework.boot.mule.controller.dto.ArtifactType;
+import org.mule.runtime.api.artifact.Registry;
+import org.mule.runtime.core.api.config.custom.CustomizationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.framework.AopConfigException;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Registers selected Spring beans into the registry of every created Mule application and domain, so Mule components
+ * may reference them by name (i.e. a Spring managed {@code DataSource} from a Mule Database connector configuration)
+ * and a single pool is shared by Spring Boot and Mule artifacts.
+ * <p>
+ * Beans are owned by Spring: closeable beans are shared through a proxy that ignores {@code close()}, so disposal of a
+ * Mule artifact does not close them. Proxy is a subclass of bean class, so it may be referenced by its class (i.e.
+ * {@code HikariDataSource}), unless beans are selected by an interface type, then it only implements that interface.
+ *
+ * @author Manuel Núñez Sánchez (manuel.nunez@hawkore.com)
+ */
+public class SharedBeansCustomizer implements ArtifactRegistryListener {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SharedBeansCustomizer.class);
+    private final ListableBeanFactory beanFactory;
+    private final List<String> names;
+    private final List<Class<?>> types;
+
+    /**
+     * Instantiates a new Shared beans customizer. Types not found are skipped.
+     *
+     * @param beanFactory
+     *     the Spring bean factory
+     * @param configProperties
+     *     the shared beans configuration properties
+     */
+    public SharedBeansCustomizer(ListableBeanFactory beanFactory, SharedBeans configProperties) {
+        this.beanFactory = beanFactory;
+        this.names = configProperties.getNames();
+        this.types = configProperties.getTypes().stream().map(SharedBeansCustomizer::resolveType)
+                         .filter(Optional::isPresent).map(Optional::get).collect(Collectors.toList());
+    }
+
+    /**
+     * Spring beans to share, by name.
+     *
+     * @return the shared beans
+     */
+    public Map<String, Object> getSharedBeans() {
+        Map<String, Object> beans = new LinkedHashMap<>();
+        getSharedBeanTypes().forEach((name, type) -> beans.put(name, beanFactory.getBean(name)));
+        return beans;
+    }
+
+    /**
+     * Types Spring beans are shared as, by name: the type beans were selected by or bean type if selected by name.
+     *
+     * @return the shared bean types
+     */
+    public Map<String, Class<?>> getSharedBeanTypes() {
+        Map<String, Class<?>> beanTypes = new LinkedHashMap<>();
+        for (String name : names) {
+            try {
+                Class<?> type = beanFactory.getType(name);
+                beanTypes.put(name, type == null ? beanFactory.getBean(name).getClass() : type);
+            } catch (BeansException e) {
+                LOGGER.warn("Unable to share Spring bean {} with Mule artifacts: {}", name, e.getMessage());
+            }
+        }
+        for (Class<?> type : types) {
+            for (String name : beanFactory.getBeanNamesForType(type)) {
+                beanTypes.putIfAbsent(name, type);
+            }
+        }
+        return beanTypes;
+    }
+
+    /**
+     * On artifact created, register shared Spring beans into its registry.
+     *
+     * @param type
+     *     the artifact type
+     * @param name
+     *     the artifact name
+     * @param customizationService
+     *     the artifact customization service
+     */
+    @Override
+    public void onArtifactCreated(ArtifactType type, String name, CustomizationService customizationService) {
+        getSharedBeanTypes().forEach((beanName, beanType) -> {
+            customizationService.registerCustomServiceImpl(beanName, shareable(beanFactory.getBean(beanName),
+                beanType));
+            LOGGER.debug("Spring bean {} shared with {} {}", beanName, type, name);
+        });
+    }
+
+    /**
+     * On artifact started.
+     *
+     * @param type
+     *     the artifact type
+     * @param name
+     *     the artifact name
+     * @param registry
+     *     the artifact registry
+     */
+    @Override
+    public void onArtifactStarted(ArtifactType type, String name, Registry registry) {
+        // nothing to do
+    }
+
+    /**
+     * Bean as shared with Mule artifacts, a proxy ignoring {@code close()} if it is closeable: a proxy of given type
+     * if it is an interface, otherwise a subclass of bean class (beans that can not be subclassed are shared as is).
+     *
+     * @param bean
+     *     the bean
+     * @param type
+     *     the type bean is shared as
+     * @return the shareable bean
+     */
+    public static Object shareable(Object bean, Class<?> type) {
+        if (!(bean instanceof AutoCloseable)) {
+            return bean;
+        }
+        ClassLoader classLoader = bean.getClass().getClassLoader();
+        if (type.isInterface()) {
+            return Proxy.newProxyInstance(classLoader, new Class<?>[] {type}, new NotCloseableHandler(bean));
+        }
+        if (!Modifier.isFinal(bean.getClass().getModifiers())) {
+            try {
+                ProxyFactory proxyFactory = new ProxyFactory(bean);
+                proxyFactory.setProxyTargetClass(true);
+                proxyFactory.addAdvice(
+                    (MethodInterceptor)invocation -> isClose(invocation.getMethod()) ? null : invocation.proceed());
+                return proxyFactory.getProxy(classLoader);
+            } catch (AopConfigException e) {
+                LOGGER.debug("Unable to proxy class {}: {}", bean.getClass().getName(), e.getMessage());
+            }
+        }
+        LOGGER.warn("Spring bean of class {} can not be proxied, it is shared as is so disposal of Mule artifacts may "
+                        + "close it. Share it by an interface type instead", bean.getClass().getName());
+        return bean;
+    }
+
+    private static boolean isClose(Method method) {
+        return "close".equals(method.getName()) && method.getParameterCount() == 0;
+    }
+
+    private static Optional<Class<?>> resolveType(String type) {
+        try {
+            return Optional.of(ClassUtils.forName(type, null));
+        } catch (ClassNotFoundException | LinkageError e) {
+            LOGGER.warn("Spring beans of type {} will not be shared with Mule artifacts, type not found", type);
+            return Optional.empty();
+        }
+    }
+
+    // forwards every method to the bean but close, as shared bean lifecycle is managed by Spring
+    private static class NotCloseableHandler implements InvocationHandler {
+
+        private final Object bean;
+
+        NotCloseableHandler(Object bean) {
+            this.bean = bean;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (isClose(method)) {
+                return null;
+            }
+            try {
+                return method.invoke(bean, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+
+    }
+
+}
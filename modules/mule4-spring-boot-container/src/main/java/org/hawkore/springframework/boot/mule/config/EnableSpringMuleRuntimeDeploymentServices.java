@@ -22,6 +22,7 @@ import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
 import org.hawkore.springframework.boot.mule.controller.MuleRuntimeDeploymentServices;
+import org.hawkore.springframework.boot.mule.controller.ReactiveMuleRuntimeDeploymentServices;
 import org.springframework.context.annotation.Import;
 
 /**
@@ -32,5 +33,5 @@ import org.springframework.context.annotation.Import;
 @Target(ElementType.TYPE)
 @Retention(RetentionPolicy.RUNTIME)
 @Documented
-@Import(MuleRuntimeDeploymentServices.class)
+@Import({MuleRuntimeDeploymentServices.class, ReactiveMuleRuntimeDeploymentServices.class})
 public @interface EnableSpringMuleRuntimeDeploymentServices {}
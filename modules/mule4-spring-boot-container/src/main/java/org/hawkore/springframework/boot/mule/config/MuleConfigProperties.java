@@ -16,13 +16,18 @@
 package org.hawkore.springframework.boot.mule.config;
 
 import java.io.File;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import java.util.Set;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
 
 /**
  * Mule configuration properties
@@ -70,6 +75,76 @@ public class MuleConfigProperties {
      */
     private boolean autoDeployArtifacts = true;
 
+    /**
+     * Artifact deployment state changes stream configuration
+     */
+    private Events events = new Events();
+
+    /**
+     * Batch deployment configuration
+     */
+    private Batch batch = new Batch();
+
+    /**
+     * Artifact store configuration
+     */
+    private Store store = new Store();
+
+    /**
+     * Deployment operations admission control configuration
+     */
+    private Admission admission = new Admission();
+
+    /**
+     * Reactive (WebFlux) deployment services configuration
+     */
+    private Reactive reactive = new Reactive();
+
+    /**
+     * Mule scheduler pools configuration
+     */
+    private Schedulers schedulers = new Schedulers();
+
+    /**
+     * Mule scheduler pools configuration of applications, keyed by application name
+     */
+    private Map<String, ApplicationSchedulers> applicationSchedulers = new HashMap<>();
+
+    /**
+     * HTTP bridge from Spring Boot web server to Mule flows
+     */
+    private HttpBridge httpBridge = new HttpBridge();
+
+    /**
+     * Thread budget shared by Spring Boot and Mule Runtime
+     */
+    private ThreadBudget threadBudget = new ThreadBudget();
+
+    /**
+     * Mule Runtime logging configuration
+     */
+    private Logging logging = new Logging();
+
+    /**
+     * Mule object stores configuration
+     */
+    private ObjectStores objectStore = new ObjectStores();
+
+    /**
+     * Spring beans shared with Mule artifacts
+     */
+    private SharedBeans sharedBeans = new SharedBeans();
+
+    /**
+     * Mule Runtime shutdown
+     */
+    private Shutdown shutdown = new Shutdown();
+
+    /**
+     * Direct flow invocation
+     */
+    private Flows flows = new Flows();
+
     /**
      * Gets base.
      *
@@ -353,4 +428,2080 @@ public class MuleConfigProperties {
         this.patchesPrefix = patchesPrefix;
         return this;
     }
+
+    /**
+     * Gets events.
+     *
+     * @return the events
+     */
+    public Events getEvents() {
+        return events;
+    }
+
+    /**
+     * Sets events.
+     *
+     * @param events the events
+     * @return this for chaining
+     */
+    public MuleConfigProperties setEvents(Events events) {
+        this.events = events;
+        return this;
+    }
+
+    /**
+     * Gets batch.
+     *
+     * @return the batch
+     */
+    public Batch getBatch() {
+        return batch;
+    }
+
+    /**
+     * Sets batch.
+     *
+     * @param batch the batch
+     * @return this for chaining
+     */
+    public MuleConfigProperties setBatch(Batch batch) {
+        this.batch = batch;
+        return this;
+    }
+
+    /**
+     * Gets store.
+     *
+     * @return the store
+     */
+    public Store getStore() {
+        return store;
+    }
+
+    /**
+     * Sets store.
+     *
+     * @param store the store
+     * @return this for chaining
+     */
+    public MuleConfigProperties setStore(Store store) {
+        this.store = store;
+        return this;
+    }
+
+    /**
+     * Gets admission.
+     *
+     * @return the admission
+     */
+    public Admission getAdmission() {
+        return admission;
+    }
+
+    /**
+     * Sets admission.
+     *
+     * @param admission the admission
+     * @return this for chaining
+     */
+    public MuleConfigProperties setAdmission(Admission admission) {
+        this.admission = admission;
+        return this;
+    }
+
+    /**
+     * Gets reactive.
+     *
+     * @return the reactive
+     */
+    public Reactive getReactive() {
+        return reactive;
+    }
+
+    /**
+     * Sets reactive.
+     *
+     * @param reactive the reactive
+     * @return this for chaining
+     */
+    public MuleConfigProperties setReactive(Reactive reactive) {
+        this.reactive = reactive;
+        return this;
+    }
+
+    /**
+     * Gets schedulers.
+     *
+     * @return the schedulers
+     */
+    public Schedulers getSchedulers() {
+        return schedulers;
+    }
+
+    /**
+     * Sets schedulers.
+     *
+     * @param schedulers the schedulers
+     * @return this for chaining
+     */
+    public MuleConfigProperties setSchedulers(Schedulers schedulers) {
+        this.schedulers = schedulers;
+        return this;
+    }
+
+    /**
+     * Gets applicationSchedulers.
+     *
+     * @return the applicationSchedulers
+     */
+    public Map<String, ApplicationSchedulers> getApplicationSchedulers() {
+        return applicationSchedulers;
+    }
+
+    /**
+     * Sets applicationSchedulers.
+     *
+     * @param applicationSchedulers the applicationSchedulers
+     * @return this for chaining
+     */
+    public MuleConfigProperties setApplicationSchedulers(Map<String, ApplicationSchedulers> applicationSchedulers) {
+        this.applicationSchedulers = applicationSchedulers;
+        return this;
+    }
+
+    /**
+     * Gets httpBridge.
+     *
+     * @return the httpBridge
+     */
+    public HttpBridge getHttpBridge() {
+        return httpBridge;
+    }
+
+    /**
+     * Sets httpBridge.
+     *
+     * @param httpBridge the httpBridge
+     * @return this for chaining
+     */
+    public MuleConfigProperties setHttpBridge(HttpBridge httpBridge) {
+        this.httpBridge = httpBridge;
+        return this;
+    }
+
+    /**
+     * Gets threadBudget.
+     *
+     * @return the threadBudget
+     */
+    public ThreadBudget getThreadBudget() {
+        return threadBudget;
+    }
+
+    /**
+     * Sets threadBudget.
+     *
+     * @param threadBudget the threadBudget
+     * @return this for chaining
+     */
+    public MuleConfigProperties setThreadBudget(ThreadBudget threadBudget) {
+        this.threadBudget = threadBudget;
+        return this;
+    }
+
+    /**
+     * Gets logging.
+     *
+     * @return the logging
+     */
+    public Logging getLogging() {
+        return logging;
+    }
+
+    /**
+     * Sets logging.
+     *
+     * @param logging the logging
+     * @return this for chaining
+     */
+    public MuleConfigProperties setLogging(Logging logging) {
+        this.logging = logging;
+        return this;
+    }
+
+    /**
+     * Gets objectStore.
+     *
+     * @return the objectStore
+     */
+    public ObjectStores getObjectStore() {
+        return objectStore;
+    }
+
+    /**
+     * Sets objectStore.
+     *
+     * @param objectStore the objectStore
+     * @return this for chaining
+     */
+    public MuleConfigProperties setObjectStore(ObjectStores objectStore) {
+        this.objectStore = objectStore;
+        return this;
+    }
+
+    /**
+     * Gets sharedBeans.
+     *
+     * @return the sharedBeans
+     */
+    public SharedBeans getSharedBeans() {
+        return sharedBeans;
+    }
+
+    /**
+     * Sets sharedBeans.
+     *
+     * @param sharedBeans the sharedBeans
+     * @return this for chaining
+     */
+    public MuleConfigProperties setSharedBeans(SharedBeans sharedBeans) {
+        this.sharedBeans = sharedBeans;
+        return this;
+    }
+
+    /**
+     * Gets shutdown.
+     *
+     * @return the shutdown
+     */
+    public Shutdown getShutdown() {
+        return shutdown;
+    }
+
+    /**
+     * Sets shutdown.
+     *
+     * @param shutdown the shutdown
+     * @return this for chaining
+     */
+    public MuleConfigProperties setShutdown(Shutdown shutdown) {
+        this.shutdown = shutdown;
+        return this;
+    }
+
+    /**
+     * Gets flows.
+     *
+     * @return the flows
+     */
+    public Flows getFlows() {
+        return flows;
+    }
+
+    /**
+     * Sets flows.
+     *
+     * @param flows the flows
+     * @return this for chaining
+     */
+    public MuleConfigProperties setFlows(Flows flows) {
+        this.flows = flows;
+        return this;
+    }
+
+    /**
+     * Artifact deployment state changes stream configuration properties
+     */
+    public static class Events {
+
+        /** Max number of retained events to be replayed to reconnecting clients */
+        private int bufferSize = 1024;
+        /** Events stream timeout in milliseconds, clients must reconnect after it. Negative for no timeout */
+        private long timeout = 1800000L;
+        /** Max number of new events pending to be sent to a client, a client that falls behind is disconnected */
+        private int clientBufferSize = 256;
+
+        /**
+         * Gets buffer size.
+         *
+         * @return the buffer size
+         */
+        public int getBufferSize() {
+            return bufferSize;
+        }
+
+        /**
+         * Sets buffer size.
+         *
+         * @param bufferSize the buffer size
+         * @return this for chaining
+         */
+        public Events setBufferSize(int bufferSize) {
+            this.bufferSize = bufferSize;
+            return this;
+        }
+
+        /**
+         * Gets timeout.
+         *
+         * @return the timeout
+         */
+        public long getTimeout() {
+            return timeout;
+        }
+
+        /**
+         * Sets timeout.
+         *
+         * @param timeout the timeout
+         * @return this for chaining
+         */
+        public Events setTimeout(long timeout) {
+            this.timeout = timeout;
+            return this;
+        }
+
+        /**
+         * Gets client buffer size.
+         *
+         * @return the client buffer size
+         */
+        public int getClientBufferSize() {
+            return clientBufferSize;
+        }
+
+        /**
+         * Sets client buffer size.
+         *
+         * @param clientBufferSize the client buffer size
+         * @return this for chaining
+         */
+        public Events setClientBufferSize(int clientBufferSize) {
+            this.clientBufferSize = clientBufferSize;
+            return this;
+        }
+
+    }
+
+    /**
+     * Batch deployment configuration properties
+     */
+    public static class Batch {
+
+        /** Max number of artifacts staged and deployed concurrently within a batch */
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+
+        /**
+         * Gets parallelism.
+         *
+         * @return the parallelism
+         */
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        /**
+         * Sets parallelism.
+         *
+         * @param parallelism the parallelism
+         * @return this for chaining
+         */
+        public Batch setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+            return this;
+        }
+
+    }
+
+    /**
+     * Artifact store configuration properties
+     */
+    public static class Store {
+
+        /** Artifact store folder, defaults to {@code store} folder within Mule base folder */
+        private File dir;
+        /** Max size of stored artifacts, least recently used unreferenced artifacts are evicted above it */
+        private DataSize maxSize = DataSize.ofGigabytes(1);
+        /** Max number of stored artifacts, least recently used unreferenced artifacts are evicted above it */
+        private int maxEntries = 100;
+        /** Chunked uploads not updated within this time are discarded */
+        private Duration uploadExpiration = Duration.ofHours(24);
+        /** Max number of chunked uploads in progress, further ones are rejected */
+        private int maxUploads = 8;
+        /** Stored artifacts are not evicted within this time after being stored, until they are referenced */
+        private Duration pinTimeout = Duration.ofMinutes(10);
+
+        /**
+         * Gets dir.
+         *
+         * @return the dir
+         */
+        public File getDir() {
+            return dir;
+        }
+
+        /**
+         * Sets dir.
+         *
+         * @param dir the dir
+         * @return this for chaining
+         */
+        public Store setDir(File dir) {
+            this.dir = dir;
+            return this;
+        }
+
+        /**
+         * Gets max size.
+         *
+         * @return the max size
+         */
+        public DataSize getMaxSize() {
+            return maxSize;
+        }
+
+        /**
+         * Sets max size.
+         *
+         * @param maxSize the max size
+         * @return this for chaining
+         */
+        public Store setMaxSize(DataSize maxSize) {
+            this.maxSize = maxSize;
+            return this;
+        }
+
+        /**
+         * Gets max entries.
+         *
+         * @return the max entries
+         */
+        public int getMaxEntries() {
+            return maxEntries;
+        }
+
+        /**
+         * Sets max entries.
+         *
+         * @param maxEntries the max entries
+         * @return this for chaining
+         */
+        public Store setMaxEntries(int maxEntries) {
+            this.maxEntries = maxEntries;
+            return this;
+        }
+
+        /**
+         * Gets upload expiration.
+         *
+         * @return the upload expiration
+         */
+        public Duration getUploadExpiration() {
+            return uploadExpiration;
+        }
+
+        /**
+         * Sets upload expiration.
+         *
+         * @param uploadExpiration the upload expiration
+         * @return this for chaining
+         */
+        public Store setUploadExpiration(Duration uploadExpiration) {
+            this.uploadExpiration = uploadExpiration;
+            return this;
+        }
+
+        /**
+         * Gets max uploads.
+         *
+         * @return the max uploads
+         */
+        public int getMaxUploads() {
+            return maxUploads;
+        }
+
+        /**
+         * Sets max uploads.
+         *
+         * @param maxUploads the max uploads
+         * @return this for chaining
+         */
+        public Store setMaxUploads(int maxUploads) {
+            this.maxUploads = maxUploads;
+            return this;
+        }
+
+        /**
+         * Gets pin timeout.
+         *
+         * @return the pin timeout
+         */
+        public Duration getPinTimeout() {
+            return pinTimeout;
+        }
+
+        /**
+         * Sets pin timeout.
+         *
+         * @param pinTimeout the pin timeout
+         * @return this for chaining
+         */
+        public Store setPinTimeout(Duration pinTimeout) {
+            this.pinTimeout = pinTimeout;
+            return this;
+        }
+
+    }
+
+    /**
+     * Deployment operations admission control configuration properties
+     */
+    public static class Admission {
+
+        /** Whether deployment operations admission control is enabled */
+        private boolean enabled = true;
+        /** Max number of admitted deployment operations, they run one at a time under container's deployment lock */
+        private int maxConcurrent = 1;
+        /** Max number of deployment operations waiting for admission, further ones are rejected */
+        private int queueDepth = 32;
+        /** Max time a deployment operation waits for admission before it is rejected */
+        private Duration queueTimeout = Duration.ofMinutes(10);
+        /** Min free heap to admit a deployment, zero to disable */
+        private DataSize minFreeHeap = DataSize.ofBytes(0);
+        /** Min free metaspace to admit a deployment, zero to disable (ignored if metaspace is unbounded) */
+        private DataSize minFreeMetaspace = DataSize.ofBytes(0);
+        /** Time clients are asked to wait before retrying a rejected deployment operation */
+        private Duration retryAfter = Duration.ofSeconds(30);
+
+        /**
+         * Is enabled boolean.
+         *
+         * @return the boolean
+         */
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        /**
+         * Sets enabled.
+         *
+         * @param enabled the enabled
+         * @return this for chaining
+         */
+        public Admission setEnabled(boolean enabled) {
+            this.enabled = enabled;
+            return this;
+        }
+
+        /**
+         * Gets max concurrent.
+         *
+         * @return the max concurrent
+         */
+        public int getMaxConcurrent() {
+            return maxConcurrent;
+        }
+
+        /**
+         * Sets max concurrent.
+         *
+         * @param maxConcurrent the max concurrent
+         * @return this for chaining
+         */
+        public Admission setMaxConcurrent(int maxConcurrent) {
+            this.maxConcurrent = maxConcurrent;
+            return this;
+        }
+
+        /**
+         * Gets queue depth.
+         *
+         * @return the queue depth
+         */
+        public int getQueueDepth() {
+            return queueDepth;
+        }
+
+        /**
+         * Sets queue depth.
+         *
+         * @param queueDepth the queue depth
+         * @return this for chaining
+         */
+        public Admission setQueueDepth(int queueDepth) {
+            this.queueDepth = queueDepth;
+            return this;
+        }
+
+        /**
+         * Gets queue timeout.
+         *
+         * @return the queue timeout
+         */
+        public Duration getQueueTimeout() {
+            return queueTimeout;
+        }
+
+        /**
+         * Sets queue timeout.
+         *
+         * @param queueTimeout the queue timeout
+         * @return this for chaining
+         */
+        public Admission setQueueTimeout(Duration queueTimeout) {
+            this.queueTimeout = queueTimeout;
+            return this;
+        }
+
+        /**
+         * Gets min free heap.
+         *
+         * @return the min free heap
+         */
+        public DataSize getMinFreeHeap() {
+            return minFreeHeap;
+        }
+
+        /**
+         * Sets min free heap.
+         *
+         * @param minFreeHeap the min free heap
+         * @return this for chaining
+         */
+        public Admission setMinFreeHeap(DataSize minFreeHeap) {
+            this.minFreeHeap = minFreeHeap;
+            return this;
+        }
+
+        /**
+         * Gets min free metaspace.
+         *
+         * @return the min free metaspace
+         */
+        public DataSize getMinFreeMetaspace() {
+            return minFreeMetaspace;
+        }
+
+        /**
+         * Sets min free metaspace.
+         *
+         * @param minFreeMetaspace the min free metaspace
+         * @return this for chaining
+         */
+        public Admission setMinFreeMetaspace(DataSize minFreeMetaspace) {
+            this.minFreeMetaspace = minFreeMetaspace;
+            return this;
+        }
+
+        /**
+         * Gets retry after.
+         *
+         * @return the retry after
+         */
+        public Duration getRetryAfter() {
+            return retryAfter;
+        }
+
+        /**
+         * Sets retry after.
+         *
+         * @param retryAfter the retry after
+         * @return this for chaining
+         */
+        public Admission setRetryAfter(Duration retryAfter) {
+            this.retryAfter = retryAfter;
+            return this;
+        }
+
+    }
+
+    /**
+     * Reactive deployment services configuration properties
+     */
+    public static class Reactive {
+
+        /** Max number of threads running deployment operations off the event loop */
+        private int threads = 16;
+        /** Max number of deployment operations waiting for a thread, further ones are rejected */
+        private int queueSize = 64;
+
+        /**
+         * Gets threads.
+         *
+         * @return the threads
+         */
+        public int getThreads() {
+            return threads;
+        }
+
+        /**
+         * Sets threads.
+         *
+         * @param threads the threads
+         * @return this for chaining
+         */
+        public Reactive setThreads(int threads) {
+            this.threads = threads;
+            return this;
+        }
+
+        /**
+         * Gets queue size.
+         *
+         * @return the queue size
+         */
+        public int getQueueSize() {
+            return queueSize;
+        }
+
+        /**
+         * Sets queue size.
+         *
+         * @param queueSize the queue size
+         * @return this for chaining
+         */
+        public Reactive setQueueSize(int queueSize) {
+            this.queueSize = queueSize;
+            return this;
+        }
+
+    }
+
+    /**
+     * Mule scheduler pools configuration properties
+     */
+    public static class Schedulers {
+
+        /** Whether conf/schedulers-pools.conf is rendered from these properties */
+        private boolean enabled = true;
+        /** Strategy of thread pools backing Mule schedulers */
+        private Strategy strategy = Strategy.UBER;
+        /** Time to wait for Mule schedulers to shut down gracefully */
+        private Duration gracefulShutdownTimeout = Duration.ofSeconds(15);
+        /** Uber thread pool, backs every scheduler type on UBER strategy */
+        private Pool uber = new Pool();
+        /** CPU light thread pool, on DEDICATED strategy */
+        private Pool cpuLight = new Pool();
+        /** IO thread pool, on DEDICATED strategy */
+        private Pool io = new Pool();
+        /** CPU intensive thread pool, on DEDICATED strategy */
+        private Pool cpuIntensive = new Pool();
+
+        /**
+         * Is enabled boolean.
+         *
+         * @return the boolean
+         */
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        /**
+         * Sets enabled.
+         *
+         * @param enabled the enabled
+         * @return this for chaining
+         */
+        public Schedulers setEnabled(boolean enabled) {
+            this.enabled = enabled;
+            return this;
+        }
+
+        /**
+         * Gets strategy.
+         *
+         * @return the strategy
+         */
+        public Strategy getStrategy() {
+            return strategy;
+        }
+
+        /**
+         * Sets strategy.
+         *
+         * @param strategy the strategy
+         * @return this for chaining
+         */
+        public Schedulers setStrategy(Strategy strategy) {
+            this.strategy = strategy;
+            return this;
+        }
+
+        /**
+         * Gets graceful shutdown timeout.
+         *
+         * @return the graceful shutdown timeout
+         */
+        public Duration getGracefulShutdownTimeout() {
+            return gracefulShutdownTimeout;
+        }
+
+        /**
+         * Sets graceful shutdown timeout.
+         *
+         * @param gracefulShutdownTimeout the graceful shutdown timeout
+         * @return this for chaining
+         */
+        public Schedulers setGracefulShutdownTimeout(Duration gracefulShutdownTimeout) {
+            this.gracefulShutdownTimeout = gracefulShutdownTimeout;
+            return this;
+        }
+
+        /**
+         * Gets uber.
+         *
+         * @return the uber
+         */
+        public Pool getUber() {
+            return uber;
+        }
+
+        /**
+         * Sets uber.
+         *
+         * @param uber the uber
+         * @return this for chaining
+         */
+        public Schedulers setUber(Pool uber) {
+            this.uber = uber;
+            return this;
+        }
+
+        /**
+         * Gets cpu light.
+         *
+         * @return the cpu light
+         */
+        public Pool getCpuLight() {
+            return cpuLight;
+        }
+
+        /**
+         * Sets cpu light.
+         *
+         * @param cpuLight the cpu light
+         * @return this for chaining
+         */
+        public Schedulers setCpuLight(Pool cpuLight) {
+            this.cpuLight = cpuLight;
+            return this;
+        }
+
+        /**
+         * Gets io.
+         *
+         * @return the io
+         */
+        public Pool getIo() {
+            return io;
+        }
+
+        /**
+         * Sets io.
+         *
+         * @param io the io
+         * @return this for chaining
+         */
+        public Schedulers setIo(Pool io) {
+            this.io = io;
+            return this;
+        }
+
+        /**
+         * Gets cpu intensive.
+         *
+         * @return the cpu intensive
+         */
+        public Pool getCpuIntensive() {
+            return cpuIntensive;
+        }
+
+        /**
+         * Sets cpu intensive.
+         *
+         * @param cpuIntensive the cpu intensive
+         * @return this for chaining
+         */
+        public Schedulers setCpuIntensive(Pool cpuIntensive) {
+            this.cpuIntensive = cpuIntensive;
+            return this;
+        }
+
+        /**
+         * Strategy of thread pools backing Mule schedulers
+         */
+        public enum Strategy {
+            /** One thread pool backs every scheduler type */
+            UBER,
+            /** Every scheduler type is backed by its own thread pool */
+            DEDICATED
+        }
+
+        /**
+         * Mule scheduler thread pool configuration properties, unset values are derived from available cores and
+         * memory (container limits aware)
+         */
+        public static class Pool {
+
+            /** Core threads, the pool size for fixed size pools (cpuLight and cpuIntensive) */
+            private Integer coreSize;
+            /** Max threads, ignored for fixed size pools (cpuLight and cpuIntensive) */
+            private Integer maxSize;
+            /** Tasks waiting for a thread, further ones are rejected */
+            private Integer queueSize;
+            /** Time idle threads above core size are kept alive, ignored for fixed size pools */
+            private Duration keepAlive;
+
+            /**
+             * Gets core size.
+             *
+             * @return the core size
+             */
+            public Integer getCoreSize() {
+                return coreSize;
+            }
+
+            /**
+             * Sets core size.
+             *
+             * @param coreSize the core size
+             * @return this for chaining
+             */
+            public Pool setCoreSize(Integer coreSize) {
+                this.coreSize = coreSize;
+                return this;
+            }
+
+            /**
+             * Gets max size.
+             *
+             * @return the max size
+             */
+            public Integer getMaxSize() {
+                return maxSize;
+            }
+
+            /**
+             * Sets max size.
+             *
+             * @param maxSize the max size
+             * @return this for chaining
+             */
+            public Pool setMaxSize(Integer maxSize) {
+                this.maxSize = maxSize;
+                return this;
+            }
+
+            /**
+             * Gets queue size.
+             *
+             * @return the queue size
+             */
+            public Integer getQueueSize() {
+                return queueSize;
+            }
+
+            /**
+             * Sets queue size.
+             *
+             * @param queueSize the queue size
+             * @return this for chaining
+             */
+            public Pool setQueueSize(Integer queueSize) {
+                this.queueSize = queueSize;
+                return this;
+            }
+
+            /**
+             * Gets keep alive.
+             *
+             * @return the keep alive
+             */
+            public Duration getKeepAlive() {
+                return keepAlive;
+            }
+
+            /**
+             * Sets keep alive.
+             *
+             * @param keepAlive the keep alive
+             * @return this for chaining
+             */
+            public Pool setKeepAlive(Duration keepAlive) {
+                this.keepAlive = keepAlive;
+                return this;
+            }
+
+        }
+
+    }
+
+    /**
+     * Mule scheduler pools configuration properties of an application
+     */
+    public static class ApplicationSchedulers {
+
+        /** Whether application runs on shared Mule scheduler pools or on its own dedicated pools */
+        private Isolation isolation = Isolation.DEDICATED;
+        /** Strategy of dedicated thread pools */
+        private Schedulers.Strategy strategy = Schedulers.Strategy.UBER;
+        /** Dedicated uber thread pool, on UBER strategy */
+        private Schedulers.Pool uber = new Schedulers.Pool();
+        /** Dedicated CPU light thread pool, on DEDICATED strategy */
+        private Schedulers.Pool cpuLight = new Schedulers.Pool();
+        /** Dedicated IO thread pool, on DEDICATED strategy */
+        private Schedulers.Pool io = new Schedulers.Pool();
+        /** Dedicated CPU intensive thread pool, on DEDICATED strategy */
+        private Schedulers.Pool cpuIntensive = new Schedulers.Pool();
+
+        /**
+         * Gets isolation.
+         *
+         * @return the isolation
+         */
+        public Isolation getIsolation() {
+            return isolation;
+        }
+
+        /**
+         * Sets isolation.
+         *
+         * @param isolation the isolation
+         * @return this for chaining
+         */
+        public ApplicationSchedulers setIsolation(Isolation isolation) {
+            this.isolation = isolation;
+            return this;
+        }
+
+        /**
+         * Gets strategy.
+         *
+         * @return the strategy
+         */
+        public Schedulers.Strategy getStrategy() {
+            return strategy;
+        }
+
+        /**
+         * Sets strategy.
+         *
+         * @param strategy the strategy
+         * @return this for chaining
+         */
+        public ApplicationSchedulers setStrategy(Schedulers.Strategy strategy) {
+            this.strategy = strategy;
+            return this;
+        }
+
+        /**
+         * Gets uber.
+         *
+         * @return the uber
+         */
+        public Schedulers.Pool getUber() {
+            return uber;
+        }
+
+        /**
+         * Sets uber.
+         *
+         * @param uber the uber
+         * @return this for chaining
+         */
+        public ApplicationSchedulers setUber(Schedulers.Pool uber) {
+            this.uber = uber;
+            return this;
+        }
+
+        /**
+         * Gets cpu light.
+         *
+         * @return the cpu light
+         */
+        public Schedulers.Pool getCpuLight() {
+            return cpuLight;
+        }
+
+        /**
+         * Sets cpu light.
+         *
+         * @param cpuLight the cpu light
+         * @return this for chaining
+         */
+        public ApplicationSchedulers setCpuLight(Schedulers.Pool cpuLight) {
+            this.cpuLight = cpuLight;
+            return this;
+        }
+
+        /**
+         * Gets io.
+         *
+         * @return the io
+         */
+        public Schedulers.Pool getIo() {
+            return io;
+        }
+
+        /**
+         * Sets io.
+         *
+         * @param io the io
+         * @return this for chaining
+         */
+        public ApplicationSchedulers setIo(Schedulers.Pool io) {
+            this.io = io;
+            return this;
+        }
+
+        /**
+         * Gets cpu intensive.
+         *
+         * @return the cpu intensive
+         */
+        public Schedulers.Pool getCpuIntensive() {
+            return cpuIntensive;
+        }
+
+        /**
+         * Sets cpu intensive.
+         *
+         * @param cpuIntensive the cpu intensive
+         * @return this for chaining
+         */
+        public ApplicationSchedulers setCpuIntensive(Schedulers.Pool cpuIntensive) {
+            this.cpuIntensive = cpuIntensive;
+            return this;
+        }
+
+        /**
+         * Isolation of application scheduler pools
+         */
+        public enum Isolation {
+            /** Application runs on Mule container scheduler pools */
+            SHARED,
+            /** Application runs on its own scheduler pools */
+            DEDICATED
+        }
+
+    }
+
+    /**
+     * HTTP bridge configuration properties
+     */
+    public static class HttpBridge {
+
+        /** Whether Mule flows are served from Spring Boot web server */
+        private boolean enabled = false;
+        /** Routes from Spring Boot web server paths to Mule flows */
+        private List<Route> routes = new ArrayList<>();
+        /** Flow variable with response status code */
+        private String statusVariable = "httpStatus";
+        /** Flow variable with response headers */
+        private String headersVariable = "outboundHeaders";
+
+        /**
+         * Is enabled boolean.
+         *
+         * @return the boolean
+         */
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        /**
+         * Sets enabled.
+         *
+         * @param enabled the enabled
+         * @return this for chaining
+         */
+        public HttpBridge setEnabled(boolean enabled) {
+            this.enabled = enabled;
+            return this;
+        }
+
+        /**
+         * Gets routes.
+         *
+         * @return the routes
+         */
+        public List<Route> getRoutes() {
+            return routes;
+        }
+
+        /**
+         * Sets routes.
+         *
+         * @param routes the routes
+         * @return this for chaining
+         */
+        public HttpBridge setRoutes(List<Route> routes) {
+            this.routes = routes;
+            return this;
+        }
+
+        /**
+         * Gets status variable.
+         *
+         * @return the status variable
+         */
+        public String getStatusVariable() {
+            return statusVariable;
+        }
+
+        /**
+         * Sets status variable.
+         *
+         * @param statusVariable the status variable
+         * @return this for chaining
+         */
+        public HttpBridge setStatusVariable(String statusVariable) {
+            this.statusVariable = statusVariable;
+            return this;
+        }
+
+        /**
+         * Gets headers variable.
+         *
+         * @return the headers variable
+         */
+        public String getHeadersVariable() {
+            return headersVariable;
+        }
+
+        /**
+         * Sets headers variable.
+         *
+         * @param headersVariable the headers variable
+         * @return this for chaining
+         */
+        public HttpBridge setHeadersVariable(String headersVariable) {
+            this.headersVariable = headersVariable;
+            return this;
+        }
+
+        /**
+         * Route from a Spring Boot web server path to a Mule flow
+         */
+        public static class Route {
+
+            /** Servlet path, exact ({@code /orders}) or prefix ({@code /orders/*}) */
+            private String path;
+            /** HTTP method, null for any */
+            private String method;
+            /** Application name */
+            private String application;
+            /** Flow name */
+            private String flow;
+
+            /**
+             * Gets path.
+             *
+             * @return the path
+             */
+            public String getPath() {
+                return path;
+            }
+
+            /**
+             * Sets path.
+             *
+             * @param path the path
+             * @return this for chaining
+             */
+            public Route setPath(String path) {
+                this.path = path;
+                return this;
+            }
+
+            /**
+             * Gets method.
+             *
+             * @return the method
+             */
+            public String getMethod() {
+                return method;
+            }
+
+            /**
+             * Sets method.
+             *
+             * @param method the method
+             * @return this for chaining
+             */
+            public Route setMethod(String method) {
+                this.method = method;
+                return this;
+            }
+
+            /**
+             * Gets application.
+             *
+             * @return the application
+             */
+            public String getApplication() {
+                return application;
+            }
+
+            /**
+             * Sets application.
+             *
+             * @param application the application
+             * @return this for chaining
+             */
+            public Route setApplication(String application) {
+                this.application = application;
+                return this;
+            }
+
+            /**
+             * Gets flow.
+             *
+             * @return the flow
+             */
+            public String getFlow() {
+                return flow;
+            }
+
+            /**
+             * Sets flow.
+             *
+             * @param flow the flow
+             * @return this for chaining
+             */
+            public Route setFlow(String flow) {
+                this.flow = flow;
+                return this;
+            }
+
+        }
+
+    }
+
+    /**
+     * Thread budget shared by Spring Boot web server, Spring task executor and Mule scheduler pools
+     */
+    public static class ThreadBudget {
+
+        /**
+         * Whether Spring Boot web server workers, Spring task executor and Mule scheduler pools are sized from this
+         * budget instead of independently. Defaults to false.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Total number of threads of the budget. Defaults to Mule's own default max size of blocking pools, derived
+         * from cores and memory available to this container.
+         */
+        private Integer threads;
+
+        /**
+         * Share of the budget for Spring Boot web server workers. Defaults to 0.25.
+         */
+        private double webShare = 0.25;
+
+        /**
+         * Share of the budget for Spring task executor. Defaults to 0.125.
+         */
+        private double taskShare = 0.125;
+
+        /**
+         * Is enabled.
+         *
+         * @return the boolean
+         */
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        /**
+         * Sets enabled.
+         *
+         * @param enabled
+         *     the enabled
+         * @return this for chaining
+         */
+        public ThreadBudget setEnabled(boolean enabled) {
+            this.enabled = enabled;
+            return this;
+        }
+
+        /**
+         * Gets threads.
+         *
+         * @return the threads
+         */
+        public Integer getThreads() {
+            return threads;
+        }
+
+        /**
+         * Sets threads.
+         *
+         * @param threads
+         *     the threads
+         * @return this for chaining
+         */
+        public ThreadBudget setThreads(Integer threads) {
+            this.threads = threads;
+            return this;
+        }
+
+        /**
+         * Gets web share.
+         *
+         * @return the web share
+         */
+        public double getWebShare() {
+            return webShare;
+        }
+
+        /**
+         * Sets web share.
+         *
+         * @param webShare
+         *     the web share
+         * @return this for chaining
+         */
+        public ThreadBudget setWebShare(double webShare) {
+            this.webShare = webShare;
+            return this;
+        }
+
+        /**
+         * Gets task share.
+         *
+         * @return the task share
+         */
+        public double getTaskShare() {
+            return taskShare;
+        }
+
+        /**
+         * Sets task share.
+         *
+         * @param taskShare
+         *     the task share
+         * @return this for chaining
+         */
+        public ThreadBudget setTaskShare(double taskShare) {
+            this.taskShare = taskShare;
+            return this;
+        }
+
+    }
+
+    /**
+     * Mule Runtime logging configuration properties
+     */
+    public static class Logging {
+
+        /**
+         * Whether Mule container and applications log through Log4j2 async loggers, so flow threads do not block on
+         * appenders I/O. Defaults to false.
+         */
+        private boolean async = false;
+
+        /**
+         * Level of root logger of rendered {@code <mule.base>/conf/log4j2.xml}. Defaults to INFO.
+         */
+        private String level = "INFO";
+
+        /**
+         * Size of async loggers ring buffer (rounded up to a power of 2). Defaults to Log4j2 default.
+         */
+        private Integer ringBufferSize;
+
+        /**
+         * What to do when async loggers ring buffer is full. Defaults to BLOCK.
+         */
+        private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+
+        /**
+         * Events of this level or less severe are discarded when ring buffer is full and overflow policy is DISCARD.
+         * Defaults to INFO.
+         */
+        private String discardThreshold = "INFO";
+
+        /**
+         * Is async.
+         *
+         * @return the boolean
+         */
+        public boolean isAsync() {
+            return async;
+        }
+
+        /**
+         * Sets async.
+         *
+         * @param async
+         *     the async
+         * @return this for chaining
+         */
+        public Logging setAsync(boolean async) {
+            this.async = async;
+            return this;
+        }
+
+        /**
+         * Gets level.
+         *
+         * @return the level
+         */
+        public String getLevel() {
+            return level;
+        }
+
+        /**
+         * Sets level.
+         *
+         * @param level
+         *     the level
+         * @return this for chaining
+         */
+        public Logging setLevel(String level) {
+            this.level = level;
+            return this;
+        }
+
+        /**
+         * Gets ring buffer size.
+         *
+         * @return the ring buffer size
+         */
+        public Integer getRingBufferSize() {
+            return ringBufferSize;
+        }
+
+        /**
+         * Sets ring buffer size.
+         *
+         * @param ringBufferSize
+         *     the ring buffer size
+         * @return this for chaining
+         */
+        public Logging setRingBufferSize(Integer ringBufferSize) {
+            this.ringBufferSize = ringBufferSize;
+            return this;
+        }
+
+        /**
+         * Gets overflow policy.
+         *
+         * @return the overflow policy
+         */
+        public OverflowPolicy getOverflowPolicy() {
+            return overflowPolicy;
+        }
+
+        /**
+         * Sets overflow policy.
+         *
+         * @param overflowPolicy
+         *     the overflow policy
+         * @return this for chaining
+         */
+        public Logging setOverflowPolicy(OverflowPolicy overflowPolicy) {
+            this.overflowPolicy = overflowPolicy;
+            return this;
+        }
+
+        /**
+         * Gets discard threshold.
+         *
+         * @return the discard threshold
+         */
+        public String getDiscardThreshold() {
+            return discardThreshold;
+        }
+
+        /**
+         * Sets discard threshold.
+         *
+         * @param discardThreshold
+         *     the discard threshold
+         * @return this for chaining
+         */
+        public Logging setDiscardThreshold(String discardThreshold) {
+            this.discardThreshold = discardThreshold;
+            return this;
+        }
+
+        /**
+         * Async loggers ring buffer overflow policy
+         */
+        public enum OverflowPolicy {
+            /** Logging thread waits for free space in ring buffer */
+            BLOCK,
+            /** Events of discard threshold level or less severe are discarded */
+            DISCARD
+        }
+
+    }
+
+    /**
+     * Mule object stores configuration properties
+     */
+    public static class ObjectStores {
+
+        /**
+         * In-memory object store configuration
+         */
+        private InMemory inMemory = new InMemory();
+
+        /**
+         * Persistent object store configuration
+         */
+        private Persistent persistent = new Persistent();
+
+        /**
+         * Gets in memory.
+         *
+         * @return the in memory
+         */
+        public InMemory getInMemory() {
+            return inMemory;
+        }
+
+        /**
+         * Sets in memory.
+         *
+         * @param inMemory
+         *     the in memory
+         * @return this for chaining
+         */
+        public ObjectStores setInMemory(InMemory inMemory) {
+            this.inMemory = inMemory;
+            return this;
+        }
+
+        /**
+         * Gets persistent.
+         *
+         * @return the persistent
+         */
+        public Persistent getPersistent() {
+            return persistent;
+        }
+
+        /**
+         * Sets persistent.
+         *
+         * @param persistent
+         *     the persistent
+         * @return this for chaining
+         */
+        public ObjectStores setPersistent(Persistent persistent) {
+            this.persistent = persistent;
+            return this;
+        }
+
+        /**
+         * In-memory object store configuration properties, a bounded cache per application replacing Mule default
+         * in-memory object store
+         */
+        public static class InMemory {
+
+            /**
+             * Whether applications use a bounded Caffeine cache as default in-memory object store. Defaults to false.
+             */
+            private boolean enabled = false;
+
+            /**
+             * Max estimated size of entries of an application in-memory object store, least recently used entries
+             * are evicted above it. Defaults to 64MB.
+             */
+            private DataSize maxSize = DataSize.ofMegabytes(64);
+
+            /**
+             * Estimated size of an entry whose value size is unknown (neither bytes nor text). Defaults to 1KB.
+             */
+            private DataSize entrySize = DataSize.ofKilobytes(1);
+
+            /**
+             * Time an entry is kept since it was stored, null to keep it until evicted or removed. Object stores
+             * with their own entry TTL still expire entries by it.
+             */
+            private Duration entryTtl;
+
+            /**
+             * Is enabled.
+             *
+             * @return the boolean
+             */
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            /**
+             * Sets enabled.
+             *
+             * @param enabled
+             *     the enabled
+             * @return this for chaining
+             */
+            public InMemory setEnabled(boolean enabled) {
+                this.enabled = enabled;
+                return this;
+            }
+
+            /**
+             * Gets max size.
+             *
+             * @return the max size
+             */
+            public DataSize getMaxSize() {
+                return maxSize;
+            }
+
+            /**
+             * Sets max size.
+             *
+             * @param maxSize
+             *     the max size
+             * @return this for chaining
+             */
+            public InMemory setMaxSize(DataSize maxSize) {
+                this.maxSize = maxSize;
+                return this;
+            }
+
+            /**
+             * Gets entry size.
+             *
+             * @return the entry size
+             */
+            public DataSize getEntrySize() {
+                return entrySize;
+            }
+
+            /**
+             * Sets entry size.
+             *
+             * @param entrySize
+             *     the entry size
+             * @return this for chaining
+             */
+            public InMemory setEntrySize(DataSize entrySize) {
+                this.entrySize = entrySize;
+                return this;
+            }
+
+            /**
+             * Gets entry ttl.
+             *
+             * @return the entry ttl
+             */
+            public Duration getEntryTtl() {
+                return entryTtl;
+            }
+
+            /**
+             * Sets entry ttl.
+             *
+             * @param entryTtl
+             *     the entry ttl
+             * @return this for chaining
+             */
+            public InMemory setEntryTtl(Duration entryTtl) {
+                this.entryTtl = entryTtl;
+                return this;
+            }
+
+        }
+
+        /**
+         * Persistent object store configuration properties, a memory-mapped append-only log per application replacing
+         * Mule default persistent object store
+         */
+        public static class Persistent {
+
+            /**
+             * Whether applications use a memory-mapped append-only log as default persistent object store. Defaults to
+             * false.
+             */
+            private boolean enabled = false;
+
+            /**
+             * Initial size of the log of an application, it grows as needed. Defaults to 16MB.
+             */
+            private DataSize initialSize = DataSize.ofMegabytes(16);
+
+            /**
+             * Ratio of log size taken by removed or replaced entries that triggers a background compaction of the log.
+             * Defaults to 0.5.
+             */
+            private double compactionThreshold = 0.5;
+
+            /**
+             * Whether every write is forced to storage device, so entries survive an operating system crash, not only a
+             * process one. Defaults to false.
+             */
+            private boolean syncWrites = false;
+
+            /**
+             * Is enabled.
+             *
+             * @return the boolean
+             */
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            /**
+             * Sets enabled.
+             *
+             * @param enabled
+             *     the enabled
+             * @return this for chaining
+             */
+            public Persistent setEnabled(boolean enabled) {
+                this.enabled = enabled;
+                return this;
+            }
+
+            /**
+             * Gets initial size.
+             *
+             * @return the initial size
+             */
+            public DataSize getInitialSize() {
+                return initialSize;
+            }
+
+            /**
+             * Sets initial size.
+             *
+             * @param initialSize
+             *     the initial size
+             * @return this for chaining
+             */
+            public Persistent setInitialSize(DataSize initialSize) {
+                this.initialSize = initialSize;
+                return this;
+            }
+
+            /**
+             * Gets compaction threshold.
+             *
+             * @return the compaction threshold
+             */
+            public double getCompactionThreshold() {
+                return compactionThreshold;
+            }
+
+            /**
+             * Sets compaction threshold.
+             *
+             * @param compactionThreshold
+             *     the compaction threshold
+             * @return this for chaining
+             */
+            public Persistent setCompactionThreshold(double compactionThreshold) {
+                this.compactionThreshold = compactionThreshold;
+                return this;
+            }
+
+            /**
+             * Is sync writes.
+             *
+             * @return the boolean
+             */
+            public boolean isSyncWrites() {
+                return syncWrites;
+            }
+
+            /**
+             * Sets sync writes.
+             *
+             * @param syncWrites
+             *     the sync writes
+             * @return this for chaining
+             */
+            public Persistent setSyncWrites(boolean syncWrites) {
+                this.syncWrites = syncWrites;
+                return this;
+            }
+
+        }
+
+    }
+
+    /**
+     * Spring beans shared with Mule artifacts configuration properties
+     */
+    public static class SharedBeans {
+
+        /**
+         * Whether selected Spring beans are registered into the registry of every deployed Mule application and
+         * domain. Defaults to false.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Names of Spring beans to share, registered with the same name.
+         */
+        private List<String> names = new ArrayList<>();
+
+        /**
+         * Fully qualified class names of Spring beans to share, every bean of these types is registered with its name.
+         */
+        private List<String> types = new ArrayList<>();
+
+        /**
+         * Is enabled.
+         *
+         * @return the boolean
+         */
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        /**
+         * Sets enabled.
+         *
+         * @param enabled
+         *     the enabled
+         * @return this for chaining
+         */
+        public SharedBeans setEnabled(boolean enabled) {
+            this.enabled = enabled;
+            return this;
+        }
+
+        /**
+         * Gets names.
+         *
+         * @return the names
+         */
+        public List<String> getNames() {
+            return names;
+        }
+
+        /**
+         * Sets names.
+         *
+         * @param names
+         *     the names
+         * @return this for chaining
+         */
+        public SharedBeans setNames(List<String> names) {
+            this.names = names;
+            return this;
+        }
+
+        /**
+         * Gets types.
+         *
+         * @return the types
+         */
+        public List<String> getTypes() {
+            return types;
+        }
+
+        /**
+         * Sets types.
+         *
+         * @param types
+         *     the types
+         * @return this for chaining
+         */
+        public SharedBeans setTypes(List<String> types) {
+            this.types = types;
+            return this;
+        }
+
+    }
+
+    /**
+     * Mule Runtime shutdown configuration properties
+     */
+    public static class Shutdown {
+
+        /**
+         * Time to wait for in-flight events of applications to complete once their message sources are stopped.
+         * Zero to stop applications without waiting for in-flight events. Defaults to 10 seconds.
+         */
+        private Duration drainTimeout = Duration.ofSeconds(10);
+
+        /**
+         * Max number of applications (and domains) stopped concurrently. Defaults to available processors.
+         */
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+
+        /**
+         * Gets drain timeout.
+         *
+         * @return the drain timeout
+         */
+        public Duration getDrainTimeout() {
+            return drainTimeout;
+        }
+
+        /**
+         * Sets drain timeout.
+         *
+         * @param drainTimeout
+         *     the drain timeout
+         * @return this for chaining
+         */
+        public Shutdown setDrainTimeout(Duration drainTimeout) {
+            this.drainTimeout = drainTimeout;
+            return this;
+        }
+
+        /**
+         * Gets parallelism.
+         *
+         * @return the parallelism
+         */
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        /**
+         * Sets parallelism.
+         *
+         * @param parallelism
+         *     the parallelism
+         * @return this for chaining
+         */
+        public Shutdown setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+            return this;
+        }
+
+    }
+
+    /**
+     * Direct flow invocation configuration properties
+     */
+    public static class Flows {
+
+        /** Max time a synchronous flow invocation waits for its result. Negative for no timeout */
+        private Duration invocationTimeout = Duration.ofMinutes(1);
+
+        /**
+         * Gets invocation timeout.
+         *
+         * @return the invocation timeout
+         */
+        public Duration getInvocationTimeout() {
+            return invocationTimeout;
+        }
+
+        /**
+         * Sets invocation timeout.
+         *
+         * @param invocationTimeout the invocation timeout
+         * @return this for chaining
+         */
+        public Flows setInvocationTimeout(Duration invocationTimeout) {
+            this.invocationTimeout = invocationTimeout;
+            return this;
+        }
+
+    }
+
 }
@@ -15,16 +15,35 @@
  */
 package org.hawkore.springframework.boot.mule.config;
 
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.hawkore.springframework.boot.mule.bridge.MuleHttpBridgeConfiguration;
+import org.hawkore.springframework.boot.mule.bridge.SharedBeansCustomizer;
+import org.hawkore.springframework.boot.mule.container.LifecycleTracer;
 import org.hawkore.springframework.boot.mule.container.SpringMuleContainer;
 import org.hawkore.springframework.boot.mule.health.MuleRuntimeHealthIndicator;
+import org.hawkore.springframework.boot.mule.jfr.JfrLifecycleTracer;
+import org.hawkore.springframework.boot.mule.metrics.DeploymentAdmissionMetrics;
+import org.hawkore.springframework.boot.mule.metrics.DeploymentMetrics;
+import org.hawkore.springframework.boot.mule.metrics.FlowMetrics;
+import org.hawkore.springframework.boot.mule.metrics.ObjectStoreMetrics;
+import org.hawkore.springframework.boot.mule.metrics.SchedulerMetrics;
+import org.hawkore.springframework.boot.mule.metrics.ThreadBudgetMetrics;
+import org.hawkore.springframework.boot.mule.objectstore.InMemoryObjectStoreCustomizer;
+import org.hawkore.springframework.boot.mule.objectstore.PersistentObjectStoreCustomizer;
+import org.hawkore.springframework.boot.mule.storage.ArtifactStore;
+import org.hawkore.springframework.boot.mule.storage.ArtifactUploads;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.actuate.health.HealthIndicator;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.DependsOn;
 import org.springframework.context.annotation.Import;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 /**
  * Mule Container configuration
@@ -33,9 +52,19 @@ import org.springframework.context.annotation.Import;
  */
 @Configuration
 @ComponentScan("org.hawkore.springframework.boot.mule.container")
-@Import({MuleConfigProperties.class})
+@Import({MuleConfigProperties.class, MuleHttpBridgeConfiguration.class})
 public class MuleContainerConfiguration {
 
+    /**
+     * Sizes Spring Boot web server workers and Spring task executor from Mule thread budget.
+     *
+     * @return the bean post processor
+     */
+    @Bean
+    public static ThreadBudgetPostProcessor muleThreadBudgetPostProcessor() {
+        return new ThreadBudgetPostProcessor();
+    }
+
     /**
      * Health indicator for Mule runtime.
      *
@@ -50,4 +79,204 @@ public class MuleContainerConfiguration {
         return new MuleRuntimeHealthIndicator(muleContainer);
     }
 
+    /**
+     * Metrics of deployment operations admission control.
+     *
+     * @param muleContainer
+     *     the mule container
+     * @return the meter binder
+     */
+    @Bean
+    @DependsOn("SpringMuleContainer")
+    @ConditionalOnClass(name = "io.micrometer.core.instrument.binder.MeterBinder")
+    public MeterBinder muleDeploymentAdmissionMetrics(@Autowired SpringMuleContainer muleContainer) {
+        return new DeploymentAdmissionMetrics(muleContainer);
+    }
+
+    /**
+     * Metrics of Mule container deployment operations.
+     *
+     * @param muleContainer
+     *     the mule container
+     * @return the meter binder
+     */
+    @Bean
+    @DependsOn("SpringMuleContainer")
+    @ConditionalOnClass(name = "io.micrometer.core.instrument.binder.MeterBinder")
+    public MeterBinder muleDeploymentMetrics(@Autowired SpringMuleContainer muleContainer) {
+        return new DeploymentMetrics(muleContainer);
+    }
+
+    /**
+     * Metrics of Mule flows.
+     *
+     * @param muleContainer
+     *     the mule container
+     * @return the meter binder
+     */
+    @Bean
+    @DependsOn("SpringMuleContainer")
+    @ConditionalOnClass(name = "io.micrometer.core.instrument.binder.MeterBinder")
+    public MeterBinder muleFlowMetrics(@Autowired SpringMuleContainer muleContainer) {
+        return new FlowMetrics(muleContainer);
+    }
+
+    /**
+     * Metrics of Mule scheduler pools.
+     *
+     * @param muleContainer
+     *     the mule container
+     * @param configProperties
+     *     the mule configuration properties
+     * @return the meter binder
+     */
+    @Bean
+    @DependsOn("SpringMuleContainer")
+    @ConditionalOnClass(name = "io.micrometer.core.instrument.binder.MeterBinder")
+    public SchedulerMetrics muleSchedulerMetrics(@Autowired SpringMuleContainer muleContainer,
+        @Autowired MuleConfigProperties configProperties) {
+        return new SchedulerMetrics(muleContainer, configProperties);
+    }
+
+    /**
+     * Metrics of thread budget shared by Spring Boot and Mule Runtime.
+     *
+     * @param configProperties
+     *     the mule configuration properties
+     * @param taskExecutor
+     *     the Spring task executor
+     * @param schedulerMetrics
+     *     the metrics of Mule scheduler pools
+     * @return the meter binder
+     */
+    @Bean
+    @ConditionalOnClass(name = "io.micrometer.core.instrument.binder.MeterBinder")
+    @ConditionalOnProperty(prefix = "mule.threadBudget", name = "enabled", havingValue = "true")
+    public MeterBinder muleThreadBudgetMetrics(@Autowired MuleConfigProperties configProperties,
+        @Autowired ObjectProvider<ThreadPoolTaskExecutor> taskExecutor,
+        @Autowired SchedulerMetrics schedulerMetrics) {
+        return new ThreadBudgetMetrics(configProperties, taskExecutor.getIfUnique(), schedulerMetrics);
+    }
+
+    /**
+     * Caffeine backed default in-memory object store of Mule applications.
+     *
+     * @param muleContainer
+     *     the mule container
+     * @param configProperties
+     *     the mule configuration properties
+     * @return the in-memory object store customizer
+     */
+    @Bean
+    @DependsOn("SpringMuleContainer")
+    @ConditionalOnClass(name = "com.github.benmanes.caffeine.cache.Caffeine")
+    @ConditionalOnProperty(prefix = "mule.objectStore.inMemory", name = "enabled", havingValue = "true")
+    public InMemoryObjectStoreCustomizer muleInMemoryObjectStore(@Autowired SpringMuleContainer muleContainer,
+        @Autowired MuleConfigProperties configProperties) {
+        InMemoryObjectStoreCustomizer customizer = new InMemoryObjectStoreCustomizer(
+            configProperties.getObjectStore().getInMemory());
+        muleContainer.addArtifactRegistryListener(customizer);
+        return customizer;
+    }
+
+    /**
+     * Selected Spring beans shared with Mule applications and domains.
+     *
+     * @param muleContainer
+     *     the mule container
+     * @param configProperties
+     *     the mule configuration properties
+     * @param beanFactory
+     *     the bean factory
+     * @return the shared beans customizer
+     */
+    @Bean
+    @DependsOn("SpringMuleContainer")
+    @ConditionalOnProperty(prefix = "mule.sharedBeans", name = "enabled", havingValue = "true")
+    public SharedBeansCustomizer muleSharedBeans(@Autowired SpringMuleContainer muleContainer,
+        @Autowired MuleConfigProperties configProperties, @Autowired ListableBeanFactory beanFactory) {
+        SharedBeansCustomizer customizer = new SharedBeansCustomizer(beanFactory, configProperties.getSharedBeans());
+        muleContainer.addArtifactRegistryListener(customizer);
+        return customizer;
+    }
+
+    /**
+     * Memory-mapped log backed default persistent object store of Mule applications.
+     *
+     * @param muleContainer
+     *     the mule container
+     * @param configProperties
+     *     the mule configuration properties
+     * @return the persistent object store customizer
+     */
+    @Bean
+    @DependsOn("SpringMuleContainer")
+    @ConditionalOnProperty(prefix = "mule.objectStore.persistent", name = "enabled", havingValue = "true")
+    public PersistentObjectStoreCustomizer mulePersistentObjectStore(@Autowired SpringMuleContainer muleContainer,
+        @Autowired MuleConfigProperties configProperties) {
+        PersistentObjectStoreCustomizer customizer = new PersistentObjectStoreCustomizer(
+            configProperties.getObjectStore().getPersistent());
+        muleContainer.addArtifactRegistryListener(customizer);
+        return customizer;
+    }
+
+    /**
+     * Metrics of Caffeine backed in-memory object stores of Mule applications.
+     *
+     * @param muleContainer
+     *     the mule container
+     * @return the meter binder
+     */
+    @Bean
+    @DependsOn("SpringMuleContainer")
+    @ConditionalOnClass(name = {"io.micrometer.core.instrument.binder.MeterBinder",
+        "com.github.benmanes.caffeine.cache.Caffeine"})
+    @ConditionalOnProperty(prefix = "mule.objectStore.inMemory", name = "enabled", havingValue = "true")
+    public MeterBinder muleObjectStoreMetrics(@Autowired SpringMuleContainer muleContainer) {
+        return new ObjectStoreMetrics(muleContainer);
+    }
+
+    /**
+     * Java Flight Recorder events of Mule container lifecycle phases and deployment operations.
+     *
+     * @param muleContainer
+     *     the mule container
+     * @return the lifecycle tracer
+     */
+    @Bean
+    @DependsOn("SpringMuleContainer")
+    @ConditionalOnClass(name = "jdk.jfr.Event")
+    public LifecycleTracer muleJfrLifecycleTracer(@Autowired SpringMuleContainer muleContainer) {
+        LifecycleTracer tracer = new JfrLifecycleTracer();
+        muleContainer.setLifecycleTracer(tracer);
+        return tracer;
+    }
+
+    /**
+     * Local content-addressable store of Mule artifacts.
+     *
+     * @param configProperties
+     *     the config properties
+     * @return the artifact store
+     */
+    @Bean
+    public ArtifactStore muleArtifactStore(@Autowired MuleConfigProperties configProperties) {
+        return new ArtifactStore(configProperties);
+    }
+
+    /**
+     * Resumable chunked uploads into local artifact store.
+     *
+     * @param artifactStore
+     *     the artifact store
+     * @param configProperties
+     *     the config properties
+     * @return the artifact uploads
+     */
+    @Bean
+    public ArtifactUploads muleArtifactUploads(@Autowired ArtifactStore artifactStore,
+        @Autowired MuleConfigProperties configProperties) {
+        return new ArtifactUploads(artifactStore, configProperties);
+    }
+
 }
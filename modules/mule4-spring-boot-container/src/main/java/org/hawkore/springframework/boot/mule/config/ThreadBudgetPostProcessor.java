@@ -0,0 +1,111 @@
+/*
+ * Copyright 2020 HAWKORE, S.L.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hawkore.springframework.boot.mule.config;
+
+import java.util.Map;
+
+import org.hawkore.springframework.boot.mule.config.MuleConfigProperties.ThreadBudget;
+import org.hawkore.springframework.boot.mule.utils.SchedulerPoolsUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.task.TaskExecutionProperties;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.context.properties.bind.BindResult;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.env.Environment;
+
+/**
+ * Sizes Spring Boot web server workers and Spring task executor from {@code mule.threadBudget}, once their
+ * configuration properties are bound, so they share a single thread budget with Mule scheduler pools.
+ * <p>
+ * Web server workers are sized for Tomcat and Undertow (Jetty thread pool is not configurable by properties). Task
+ * executor gets a fixed number of threads, tasks above it are queued. Sizes explicitly configured are kept, with a
+ * warning as they are not part of the budget.
+ *
+ * @author Manuel Núñez Sánchez (manuel.nunez@hawkore.com)
+ */
+public class ThreadBudgetPostProcessor implements BeanPostProcessor, EnvironmentAware {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ThreadBudgetPostProcessor.class);
+    private Map<String, Integer> budget;
+    private Binder binder;
+
+    /**
+     * Sets environment.
+     *
+     * @param environment
+     *     the environment
+     */
+    @Override
+    public void setEnvironment(Environment environment) {
+        // bound from environment, as this post processor is instantiated before configuration properties beans
+        binder = Binder.get(environment);
+        ThreadBudget threadBudget = binder.bind("mule.thread-budget", ThreadBudget.class).orElseGet(ThreadBudget::new);
+        if (threadBudget.isEnabled()) {
+            budget = SchedulerPoolsUtils.threadBudget(threadBudget);
+            LOGGER.info("Thread budget {}", budget);
+        }
+    }
+
+    /**
+     * Post process after initialization.
+     *
+     * @param bean
+     *     the bean
+     * @param beanName
+     *     the bean name
+     * @return the bean
+     */
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (budget == null) {
+            return bean;
+        }
+        if (bean instanceof ServerProperties) {
+            int web = budget.get(SchedulerPoolsUtils.WEB);
+            ServerProperties server = (ServerProperties)bean;
+            if (unset("server.tomcat.max-threads", web)) {
+                server.getTomcat().setMaxThreads(web);
+                server.getTomcat().setMinSpareThreads(Math.min(server.getTomcat().getMinSpareThreads(), web));
+            }
+            if (unset("server.undertow.worker-threads", web)) {
+                server.getUndertow().setWorkerThreads(web);
+            }
+        } else if (bean instanceof TaskExecutionProperties) {
+            int task = budget.get(SchedulerPoolsUtils.TASK);
+            TaskExecutionProperties.Pool pool = ((TaskExecutionProperties)bean).getPool();
+            if (unset("spring.task.execution.pool.core-size", task)) {
+                pool.setCoreSize(task);
+            }
+            if (unset("spring.task.execution.pool.max-size", task)) {
+                pool.setMaxSize(task);
+            }
+        }
+        return bean;
+    }
+
+    // whether property is not explicitly configured, so it may be sized from thread budget
+    private boolean unset(String property, int threads) {
+        BindResult<Integer> configured = binder.bind(property, Integer.class);
+        configured.ifBound(value -> LOGGER.warn(
+            "'{}' is explicitly set to {}, thread budget of {} threads is not applied to it", property, value,
+            threads));
+        return !configured.isBound();
+    }
+
+}
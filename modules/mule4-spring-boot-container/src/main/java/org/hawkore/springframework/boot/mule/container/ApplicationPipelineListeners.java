@@ -0,0 +1,168 @@
+/*
+ * Copyright 2020 HAWKORE, S.L.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hawkore.springframework.boot.mule.container;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import org.hawkore.springframework.boot.mule.controller.dto.ArtifactType;
+import org.mule.runtime.api.artifact.Registry;
+import org.mule.runtime.api.notification.NotificationListenerRegistry;
+import org.mule.runtime.api.notification.PipelineMessageNotification;
+import org.mule.runtime.api.notification.PipelineMessageNotificationListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Pipeline notification listeners of started Mule applications, one per application.
+ * <p>
+ * A listener is created and registered within every started application and unregistered once application is
+ * stopped, so registry (and so application class loader) of a stopped application is not retained.
+ *
+ * @param <L>
+ *     the listener type
+ * @author Manuel Núñez Sánchez (manuel.nunez@hawkore.com)
+ */
+public class ApplicationPipelineListeners<L extends PipelineMessageNotificationListener<PipelineMessageNotification>>
+    implements ArtifactRegistryListener {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ApplicationPipelineListeners.class);
+    private final Function<String, L> factory;
+    private final Predicate<PipelineMessageNotification> selector;
+    // registered listeners by application
+    private final Map<String, Registration<L>> registrations = new ConcurrentHashMap<>();
+
+    /**
+     * Instantiates a new Application pipeline listeners.
+     *
+     * @param factory
+     *     the listener factory, from application name
+     * @param selector
+     *     the notifications listeners are interested in
+     */
+    public ApplicationPipelineListeners(Function<String, L> factory, Predicate<PipelineMessageNotification> selector) {
+        this.factory = factory;
+        this.selector = selector;
+    }
+
+    /**
+     * Gets listener of a started application.
+     *
+     * @param application
+     *     the application
+     * @return the listener
+     */
+    public Optional<L> get(String application) {
+        return Optional.ofNullable(registrations.get(application)).map(r -> r.listener);
+    }
+
+    /**
+     * Listeners of started applications.
+     *
+     * @return the listeners
+     */
+    public Stream<L> listeners() {
+        return registrations.values().stream().map(r -> r.listener);
+    }
+
+    /**
+     * On artifact started.
+     *
+     * @param type
+     *     the artifact type
+     * @param name
+     *     the artifact name
+     * @param registry
+     *     the artifact registry
+     */
+    @Override
+    public void onArtifactStarted(ArtifactType type, String name, Registry registry) {
+        if (!ArtifactType.APPLICATION.equals(type)) {
+            return;
+        }
+        Registration<L> registration = new Registration<>(name, registry, factory.apply(name));
+        Registration<L> previous = registrations.put(name, registration);
+        if (previous != null) {
+            previous.unregister();
+        }
+        registry.lookupByType(NotificationListenerRegistry.class)
+            .ifPresent(r -> r.registerListener(registration.listener, selector));
+    }
+
+    /**
+     * On artifact stopped.
+     *
+     * @param type
+     *     the artifact type
+     * @param name
+     *     the artifact name
+     * @param registry
+     *     the artifact registry
+     */
+    @Override
+    public void onArtifactStopped(ArtifactType type, String name, Registry registry) {
+        if (ArtifactType.APPLICATION.equals(type)) {
+            remove(name);
+        }
+    }
+
+    /**
+     * Unregister listener of an application.
+     *
+     * @param application
+     *     the application
+     * @return the unregistered listener
+     */
+    public Optional<L> remove(String application) {
+        Registration<L> registration = registrations.remove(application);
+        if (registration == null) {
+            return Optional.empty();
+        }
+        registration.unregister();
+        return Optional.of(registration.listener);
+    }
+
+    // listener registered within an application registry
+    private static class Registration<L extends PipelineMessageNotificationListener<PipelineMessageNotification>> {
+
+        private final String application;
+        private final Registry registry;
+        private final L listener;
+
+        Registration(String application, Registry registry, L listener) {
+            this.application = application;
+            this.registry = registry;
+            this.listener = listener;
+        }
+
+        void unregister() {
+            try {
+                registry.lookupByType(NotificationListenerRegistry.class)
+                    .ifPresent(r -> r.unregisterListener(listener));
+            } catch (Exception e) {
+                // registry already disposed
+                LOGGER.debug("Unable to unregister {} of {}: {}", listener.getClass().getSimpleName(), application,
+                    e.getMessage());
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2020 HAWKORE, S.L.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hawkore.springframework.boot.mule.container;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+
+import org.hawkore.springframework.boot.mule.controller.dto.ArtifactEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bounded journal of Mule artifact deployment state changes.
+ * <p>
+ * Events get a monotonically increasing id and the epoch of the journal, so subscribers may resume from the cursor
+ * ({@code <epoch>-<id>}) of the last event they received as long as it is still retained. A cursor of another epoch
+ * (i.e. from before a restart) is never mistaken for a retained event.
+ *
+ * @author Manuel Núñez Sánchez (manuel.nunez@hawkore.com)
+ */
+public class ArtifactEventJournal {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ArtifactEventJournal.class);
+    private final IntSupplier capacity;
+    private final LongSupplier epoch;
+    private final Deque<ArtifactEvent> events = new ArrayDeque<>();
+    private final List<ArtifactEventListener> listeners = new CopyOnWriteArrayList<>();
+    private long lastEventId;
+
+    /**
+     * Instantiates a new Artifact event journal.
+     *
+     * @param capacity
+     *     the max number of retained events
+     * @param epoch
+     *     the current epoch, changes every time Mule Runtime starts
+     */
+    public ArtifactEventJournal(IntSupplier capacity, LongSupplier epoch) {
+        this.capacity = capacity;
+        this.epoch = epoch;
+    }
+
+    /**
+     * Assign next id to provided event, retain it and notify listeners.
+     *
+     * @param event
+     *     the event
+     * @return the published event
+     */
+    public synchronized ArtifactEvent publish(ArtifactEvent event) {
+        event.setId(++lastEventId).setEpoch(epoch.getAsLong());
+        events.addLast(event);
+        int max = Math.max(1, capacity.getAsInt());
+        while (events.size() > max) {
+            events.removeFirst();
+        }
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Published {}", event);
+        }
+        for (ArtifactEventListener listener : listeners) {
+            notify(listener, event);
+        }
+        return event;
+    }
+
+    /**
+     * Retained events after provided event id.
+     *
+     * @param lastEventId
+     *     the last event id, negative for all retained events
+     * @return the events
+     */
+    public synchronized List<ArtifactEvent> getEvents(long lastEventId) {
+        List<ArtifactEvent> result = new ArrayList<>();
+        for (ArtifactEvent event : events) {
+            if (event.getId() > lastEventId) {
+                result.add(event);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Last published event id.
+     *
+     * @return the last event id, 0 if none
+     */
+    public synchronized long getLastEventId() {
+        return lastEventId;
+    }
+
+    /**
+     * Subscribe listener, replaying retained events after provided cursor before any new one.
+     *
+     * @param cursor
+     *     the cursor of the last event received by listener ({@code <epoch>-<id>}), null to receive only new events
+     * @param listener
+     *     the listener
+     */
+    public synchronized void subscribe(String cursor, ArtifactEventListener listener) {
+        if (cursor != null) {
+            long lastEventId = lastEventId(cursor);
+            long oldest = events.isEmpty() ? this.lastEventId + 1 : events.getFirst().getId();
+            // cursor from another epoch, invalid or older than retained events
+            if (lastEventId < 0 || lastEventId > this.lastEventId || lastEventId + 1 < oldest) {
+                listener.onReset();
+            }
+            for (ArtifactEvent event : getEvents(Math.max(0, lastEventId))) {
+                notify(listener, event);
+            }
+        }
+        listeners.add(listener);
+    }
+
+    /**
+     * Unsubscribe listener.
+     *
+     * @param listener
+     *     the listener
+     */
+    public void unsubscribe(ArtifactEventListener listener) {
+        listeners.remove(listener);
+    }
+
+    // event id of a cursor of current epoch, -1 otherwise
+    private long lastEventId(String cursor) {
+        int separator = cursor.indexOf('-');
+        try {
+            if (separator > 0 && Long.parseLong(cursor.substring(0, separator)) == epoch.getAsLong()) {
+                return Long.parseLong(cursor.substring(separator + 1));
+            }
+        } catch (NumberFormatException e) {
+            // not a cursor
+        }
+        return -1;
+    }
+
+    private static void notify(ArtifactEventListener listener, ArtifactEvent event) {
+        try {
+            listener.onEvent(event);
+        } catch (Exception e) {
+            LOGGER.warn("Unable to notify artifact event listener. Error was: {}", e.getMessage());
+        }
+    }
+
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2020 HAWKORE, S.L.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hawkore.springframework.boot.mule.container;
+
+import org.hawkore.springframework.boot.mule.controller.dto.ArtifactEvent;
+
+/**
+ * Listener for Mule artifact deployment state changes.
+ * <p>
+ * Listeners are notified in event order from the thread that triggered the change (usually a Mule deployment
+ * thread), so implementations must not block.
+ *
+ * @author Manuel Núñez Sánchez (manuel.nunez@hawkore.com)
+ */
+@FunctionalInterface
+public interface ArtifactEventListener {
+
+    /**
+     * On event.
+     *
+     * @param event
+     *     the event
+     */
+    void onEvent(ArtifactEvent event);
+
+    /**
+     * Notified on subscription when requested cursor is no longer retained, so some events were lost and listener
+     * should re-synchronize its state.
+     */
+    default void onReset() {
+        // nothing to do by default
+    }
+
+}
@@ -0,0 +1,239 @@
+/*
+ * Copyright 2020 HAWKORE, S.L.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hawkore.springframework.boot.mule.container;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+import org.hawkore.springframework.boot.mule.controller.dto.Artifact;
+import org.hawkore.springframework.boot.mule.controller.dto.ArtifactPage;
+import org.mule.runtime.deployment.model.api.application.ApplicationStatus;
+
+/**
+ * Index of installed Mule artifacts by name, with secondary indexes by status and by group (domain name for
+ * applications).
+ * <p>
+ * Kept up to date from deployment notifications, so listing artifacts does not require querying Mule Runtime.
+ * Artifacts are sorted by name to provide stable pagination.
+ *
+ * @param <T>
+ *     the type parameter
+ * @author Manuel Núñez Sánchez (manuel.nunez@hawkore.com)
+ */
+public class ArtifactIndex<T extends Artifact<T>> {
+
+    private final Function<T, String> groupKey;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableMap<String, T> byName = new TreeMap<>();
+    private final Map<ApplicationStatus, NavigableSet<String>> byStatus = new HashMap<>();
+    private final Map<String, NavigableSet<String>> byGroup = new HashMap<>();
+
+    /**
+     * Instantiates a new Artifact index.
+     *
+     * @param groupKey
+     *     the group key of an artifact, may return null
+     */
+    public ArtifactIndex(Function<T, String> groupKey) {
+        this.groupKey = groupKey;
+    }
+
+    /**
+     * Add or replace artifact.
+     *
+     * @param artifact
+     *     the artifact
+     */
+    public void put(T artifact) {
+        lock.writeLock().lock();
+        try {
+            unindex(byName.put(artifact.getName(), artifact));
+            index(artifact);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove artifact.
+     *
+     * @param name
+     *     the artifact name
+     */
+    public void remove(String name) {
+        lock.writeLock().lock();
+        try {
+            unindex(byName.remove(name));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replace all indexed artifacts.
+     *
+     * @param artifacts
+     *     the artifacts
+     */
+    public void replaceAll(Collection<T> artifacts) {
+        lock.writeLock().lock();
+        try {
+            byName.clear();
+            byStatus.clear();
+            byGroup.clear();
+            artifacts.forEach(this::put);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Gets artifact.
+     *
+     * @param name
+     *     the artifact name
+     * @return the artifact
+     */
+    public Optional<T> get(String name) {
+        lock.readLock().lock();
+        try {
+            return Optional.ofNullable(byName.get(name));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * All indexed artifacts, sorted by name.
+     *
+     * @return the artifacts
+     */
+    public List<T> list() {
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(byName.values());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Page of artifacts matching provided filters, sorted by name.
+     *
+     * @param status
+     *     the status filter, null for any
+     * @param group
+     *     the group filter, null for any
+     * @param page
+     *     the zero-based page number
+     * @param size
+     *     the page size
+     * @return the artifact page
+     */
+    public ArtifactPage<T> query(ApplicationStatus status, String group, int page, int size) {
+        if (page < 0 || size <= 0) {
+            throw new IllegalArgumentException("Page must not be negative and size must be greater than zero");
+        }
+        lock.readLock().lock();
+        try {
+            Collection<String> names = candidates(status, group);
+            List<T> content = new ArrayList<>(Math.min(size, names.size()));
+            long skip = (long)page * size;
+            long total = 0;
+            for (String name : names) {
+                if (status != null && group != null && !matches(name, status, group)) {
+                    continue;
+                }
+                if (total >= skip && content.size() < size) {
+                    content.add(byName.get(name));
+                }
+                total++;
+            }
+            return new ArtifactPage<T>().setContent(content).setPage(page).setSize(size).setTotalElements(total);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // smallest candidate set, the other filter (if any) is verified on iteration
+    private Collection<String> candidates(ApplicationStatus status, String group) {
+        NavigableSet<String> byStatusNames = status == null ? null : byStatus.getOrDefault(status,
+            Collections.emptyNavigableSet());
+        NavigableSet<String> byGroupNames = group == null ? null : byGroup.getOrDefault(group,
+            Collections.emptyNavigableSet());
+        if (byStatusNames == null && byGroupNames == null) {
+            return byName.keySet();
+        }
+        if (byStatusNames == null) {
+            return byGroupNames;
+        }
+        if (byGroupNames == null) {
+            return byStatusNames;
+        }
+        return byStatusNames.size() <= byGroupNames.size() ? byStatusNames : byGroupNames;
+    }
+
+    private boolean matches(String name, ApplicationStatus status, String group) {
+        T artifact = byName.get(name);
+        return status.equals(artifact.getStatus()) && group.equals(groupKey.apply(artifact));
+    }
+
+    private void index(T artifact) {
+        if (artifact.getStatus() != null) {
+            byStatus.computeIfAbsent(artifact.getStatus(), k -> new TreeSet<>()).add(artifact.getName());
+        }
+        String group = groupKey.apply(artifact);
+        if (group != null) {
+            byGroup.computeIfAbsent(group, k -> new TreeSet<>()).add(artifact.getName());
+        }
+    }
+
+    private void unindex(T artifact) {
+        if (artifact == null) {
+            return;
+        }
+        if (artifact.getStatus() != null) {
+            removeFrom(byStatus, artifact.getStatus(), artifact.getName());
+        }
+        String group = groupKey.apply(artifact);
+        if (group != null) {
+            removeFrom(byGroup, group, artifact.getName());
+        }
+    }
+
+    private static <K> void removeFrom(Map<K, NavigableSet<String>> index, K key, String name) {
+        NavigableSet<String> names = index.get(key);
+        if (names != null) {
+            names.remove(name);
+            if (names.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+}
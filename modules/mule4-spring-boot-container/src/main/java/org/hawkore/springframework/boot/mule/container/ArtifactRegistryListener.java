@@ -0,0 +1,73 @@
+/*
+ * Copyright 2020 HAWKORE, S.L.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hawkore.springframework.boot.mule.container;
+
+import org.hawkore.springframework.boot.mule.controller.dto.ArtifactType;
+import org.mule.runtime.api.artifact.Registry;
+import org.mule.runtime.core.api.config.custom.CustomizationService;
+
+/**
+ * Listener for started and stopped Mule artifacts, giving access to the registry of every running artifact, so
+ * container level components may observe them (i.e. register Mule notification listeners). Listeners are also
+ * notified when an artifact is created, before its registry is built, so they may customize its services.
+ * <p>
+ * Listeners are notified from Mule deployment threads, so implementations must not block.
+ *
+ * @author Manuel Núñez Sánchez (manuel.nunez@hawkore.com)
+ */
+public interface ArtifactRegistryListener {
+
+    /**
+     * On artifact created, before its registry is built.
+     *
+     * @param type
+     *     the artifact type
+     * @param name
+     *     the artifact name
+     * @param customizationService
+     *     the artifact customization service, to override default services or register new ones
+     */
+    default void onArtifactCreated(ArtifactType type, String name, CustomizationService customizationService) {
+        // nothing to do by default
+    }
+
+    /**
+     * On artifact started.
+     *
+     * @param type
+     *     the artifact type
+     * @param name
+     *     the artifact name
+     * @param registry
+     *     the artifact registry
+     */
+    void onArtifactStarted(ArtifactType type, String name, Registry registry);
+
+    /**
+     * On artifact stopped.
+     *
+     * @param type
+     *     the artifact type
+     * @param name
+     *     the artifact name
+     * @param registry
+     *     the artifact registry
+     */
+    default void onArtifactStopped(ArtifactType type, String name, Registry registry) {
+        // nothing to do by default
+    }
+
+}
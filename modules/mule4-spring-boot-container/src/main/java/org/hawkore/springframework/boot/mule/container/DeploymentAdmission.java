@@ -0,0 +1,283 @@
+/*
+ * Copyright 2020 HAWKORE, S.L.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hawkore.springframework.boot.mule.container;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryUsage;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.hawkore.springframework.boot.mule.config.MuleConfigProperties.Admission;
+import org.hawkore.springframework.boot.mule.exception.DeployArtifactException;
+import org.hawkore.springframework.boot.mule.exception.DeploymentRejectedException;
+import org.hawkore.springframework.boot.mule.exception.DeploymentRejectedException.Reason;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Admission control of deployment operations.
+ * <p>
+ * Deployments compete for CPU and metaspace with running Mule artifacts, so just {@code mule.admission.maxConcurrent}
+ * operations run concurrently, up to {@code mule.admission.queueDepth} operations wait for admission (further ones
+ * are rejected) and deployments may be rejected if free heap or metaspace is below configured thresholds, checked
+ * again once a queued deployment is admitted.
+ * <p>
+ * Nested operations (for example, deployments within an admitted batch) are not admitted again.
+ *
+ * @author Manuel Núñez Sánchez (manuel.nunez@hawkore.com)
+ */
+public class DeploymentAdmission {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DeploymentAdmission.class);
+    private static final String METASPACE = "Metaspace";
+    private final Supplier<Admission> config;
+    private final ThreadLocal<Boolean> admitted = ThreadLocal.withInitial(() -> false);
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final LongAdder admittedCount = new LongAdder();
+    private final Map<Reason, LongAdder> rejectedCount = new EnumMap<>(Reason.class);
+    private volatile Semaphore permits;
+
+    /**
+     * Instantiates a new Deployment admission.
+     *
+     * @param config
+     *     the admission configuration
+     */
+    public DeploymentAdmission(Supplier<Admission> config) {
+        this.config = config;
+        for (Reason reason : Reason.values()) {
+            rejectedCount.put(reason, new LongAdder());
+        }
+    }
+
+    /**
+     * Run operation once admitted.
+     *
+     * @param <T>
+     *     the result type
+     * @param operation
+     *     the operation description
+     * @param memoryGated
+     *     whether operation requires free heap and metaspace (deployments) or not (un-deployments)
+     * @param task
+     *     the task
+     * @return the task result
+     * @throws DeploymentRejectedException
+     *     if operation is not admitted
+     */
+    public <T> T admit(String operation, boolean memoryGated, Supplier<T> task) {
+        Admission admission = config.get();
+        if (!admission.isEnabled() || admitted.get()) {
+            return task.get();
+        }
+        if (memoryGated) {
+            checkHeadroom(operation, admission);
+        }
+        Semaphore semaphore = permits(admission);
+        if (acquire(operation, admission, semaphore) && memoryGated) {
+            // other deployments may have used up heap or metaspace while this one was waiting
+            try {
+                checkHeadroom(operation, admission);
+            } catch (DeploymentRejectedException e) {
+                semaphore.release();
+                throw e;
+            }
+        }
+        admittedCount.increment();
+        active.incrementAndGet();
+        admitted.set(true);
+        try {
+            return task.get();
+        } finally {
+            admitted.remove();
+            active.decrementAndGet();
+            semaphore.release();
+        }
+    }
+
+    /**
+     * Run operation once admitted.
+     *
+     * @param operation
+     *     the operation description
+     * @param memoryGated
+     *     whether operation requires free heap and metaspace (deployments) or not (un-deployments)
+     * @param task
+     *     the task
+     * @throws DeploymentRejectedException
+     *     if operation is not admitted
+     */
+    public void admit(String operation, boolean memoryGated, Runnable task) {
+        admit(operation, memoryGated, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * Task running within caller's admission, for operations of an admitted operation run by other threads.
+     *
+     * @param <T>
+     *     the result type
+     * @param task
+     *     the task
+     * @return the task running within caller's admission
+     */
+    public <T> Supplier<T> inherit(Supplier<T> task) {
+        boolean inherited = admitted.get();
+        return () -> {
+            boolean previous = admitted.get();
+            admitted.set(inherited || previous);
+            try {
+                return task.get();
+            } finally {
+                admitted.set(previous);
+            }
+        };
+    }
+
+    /**
+     * Run operations without admission control, for Mule Runtime's own deployments (artifacts deployed at startup).
+     *
+     * @param task
+     *     the task
+     */
+    public void exempt(Runnable task) {
+        boolean previous = admitted.get();
+        admitted.set(true);
+        try {
+            task.run();
+        } finally {
+            admitted.set(previous);
+        }
+    }
+
+    /**
+     * Number of operations running.
+     *
+     * @return the active operations
+     */
+    public int getActive() {
+        return active.get();
+    }
+
+    /**
+     * Number of operations waiting for admission.
+     *
+     * @return the queued operations
+     */
+    public int getQueued() {
+        return queued.get();
+    }
+
+    /**
+     * Number of admitted operations since startup.
+     *
+     * @return the admitted operations
+     */
+    public long getAdmitted() {
+        return admittedCount.sum();
+    }
+
+    /**
+     * Number of rejected operations since startup.
+     *
+     * @param reason
+     *     the rejection reason
+     * @return the rejected operations
+     */
+    public long getRejected(Reason reason) {
+        return rejectedCount.get(reason).sum();
+    }
+
+    // whether operation had to wait for admission
+    private boolean acquire(String operation, Admission admission, Semaphore semaphore) {
+        if (semaphore.tryAcquire()) {
+            return false;
+        }
+        try {
+            if (queued.incrementAndGet() > admission.getQueueDepth()) {
+                throw reject(Reason.QUEUE_FULL, operation + " rejected, " + admission.getQueueDepth()
+                                                    + " deployment operations already waiting");
+            }
+            if (!semaphore.tryAcquire(admission.getQueueTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                throw reject(Reason.QUEUE_TIMEOUT, operation + " rejected, not admitted within "
+                                                       + admission.getQueueTimeout());
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DeployArtifactException(operation + " interrupted while waiting for admission", e);
+        } finally {
+            queued.decrementAndGet();
+        }
+    }
+
+    private void checkHeadroom(String operation, Admission admission) {
+        long minFreeHeap = admission.getMinFreeHeap().toBytes();
+        if (minFreeHeap > 0) {
+            Runtime runtime = Runtime.getRuntime();
+            long freeHeap = runtime.maxMemory() - (runtime.totalMemory() - runtime.freeMemory());
+            if (freeHeap < minFreeHeap) {
+                throw reject(Reason.HEAP, operation + " rejected, free heap " + freeHeap + " bytes is below "
+                                              + minFreeHeap + " bytes");
+            }
+        }
+        long minFreeMetaspace = admission.getMinFreeMetaspace().toBytes();
+        if (minFreeMetaspace > 0) {
+            Optional<MemoryUsage> metaspace = ManagementFactory.getMemoryPoolMXBeans().stream()
+                                                  .filter(p -> METASPACE.equals(p.getName()))
+                                                  .map(MemoryPoolMXBean::getUsage).findFirst();
+            // unbounded metaspace (no MaxMetaspaceSize) is only limited by native memory
+            if (metaspace.isPresent() && metaspace.get().getMax() > 0) {
+                long freeMetaspace = metaspace.get().getMax() - metaspace.get().getUsed();
+                if (freeMetaspace < minFreeMetaspace) {
+                    throw reject(Reason.METASPACE, operation + " rejected, free metaspace " + freeMetaspace
+                                                       + " bytes is below " + minFreeMetaspace + " bytes");
+                }
+            }
+        }
+    }
+
+    private DeploymentRejectedException reject(Reason reason, String message) {
+        rejectedCount.get(reason).increment();
+        LOGGER.warn(message);
+        return new DeploymentRejectedException(reason, message);
+    }
+
+    // permits are sized on first use, once configuration is bound
+    private Semaphore permits(Admission admission) {
+        Semaphore semaphore = permits;
+        if (semaphore == null) {
+            synchronized (this) {
+                if (permits == null) {
+                    permits = new Semaphore(Math.max(1, admission.getMaxConcurrent()), true);
+                }
+                semaphore = permits;
+            }
+        }
+        return semaphore;
+    }
+
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2020 HAWKORE, S.L.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hawkore.springframework.boot.mule.container;
+
+import org.hawkore.springframework.boot.mule.controller.dto.ArtifactType;
+
+/**
+ * Recorder of Mule container deployment operations, so they may be published as metrics without making container
+ * depend on any metrics library.
+ * <p>
+ * Recorder is invoked from the thread running the operation, so implementations must not block.
+ *
+ * @author Manuel Núñez Sánchez (manuel.nunez@hawkore.com)
+ */
+public interface DeploymentRecorder {
+
+    /** Deployment of an artifact */
+    String DEPLOY = "deploy";
+    /** Un-deployment of an artifact */
+    String UNDEPLOY = "undeploy";
+    /** Redeployment of an installed application */
+    String REDEPLOY = "redeploy";
+    /** Copy of an artifact into local file system before deploying it */
+    String STAGE = "stage";
+    /** Extraction of a new version of an installed application before redeploying it */
+    String EXTRACT = "extract";
+
+    /**
+     * Record a finished operation.
+     *
+     * @param operation
+     *     the operation
+     * @param type
+     *     the artifact type
+     * @param name
+     *     the artifact name
+     * @param success
+     *     whether operation succeeded
+     * @param durationNanos
+     *     the operation duration in nanoseconds
+     */
+    default void operation(String operation, ArtifactType type, String name, boolean success, long durationNanos) {
+        // nothing to record by default
+    }
+
+    /**
+     * Record size of an artifact to be deployed.
+     *
+     * @param type
+     *     the artifact type
+     * @param name
+     *     the artifact name
+     * @param size
+     *     the artifact file size in bytes
+     */
+    default void artifactSize(ArtifactType type, String name, long size) {
+        // nothing to record by default
+    }
+
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2020 HAWKORE, S.L.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hawkore.springframework.boot.mule.container;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Properties;
+
+import org.hawkore.springframework.boot.mule.utils.StorageUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+/**
+ * SHA-256 digests of entries of an installed (exploded) Mule application, kept in a file outside the application.
+ * <p>
+ * Each digest is recorded with size, last modification time and file key of the entry it belongs to, so an entry is
+ * digested again only if it changed since, and comparing a new version manifest with installed version just reads
+ * entries attributes. Records are self-validating, so a stale or concurrently rewritten file only costs digesting
+ * entries again.
+ *
+ * @author Manuel Núñez Sánchez (manuel.nunez@hawkore.com)
+ */
+public class EntryDigests {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(EntryDigests.class);
+    private final File file;
+    private final Properties records = new Properties();
+    private boolean changed;
+
+    /**
+     * Load entry digests from provided file, empty if it does not exist or it is not readable.
+     *
+     * @param file
+     *     the entry digests file
+     */
+    public EntryDigests(File file) {
+        this.file = file;
+        if (file.isFile()) {
+            try (InputStream is = Files.newInputStream(file.toPath())) {
+                records.load(is);
+            } catch (IOException | IllegalArgumentException e) {
+                LOGGER.warn("Ignoring unreadable entry digests {}: {}", file, e.getMessage());
+                records.clear();
+            }
+        }
+    }
+
+    /**
+     * Installed entry with provided digest. Entry is only digested if it changed since its digest was recorded.
+     *
+     * @param appFolder
+     *     the installed application folder
+     * @param path
+     *     the entry path
+     * @param digest
+     *     the expected SHA-256 digest (hex encoded)
+     * @return the installed entry, empty if it does not exist or its content is other
+     * @throws IOException
+     *     the io exception
+     */
+    public Optional<File> matching(File appFolder, String path, String digest) throws IOException {
+        File entry = StorageUtils.resolve(appFolder, path);
+        if (!entry.isFile()) {
+            return Optional.empty();
+        }
+        String attributes = attributes(entry);
+        String record = records.getProperty(path);
+        String recorded;
+        if (record != null && record.endsWith(" " + attributes)) {
+            recorded = record.substring(0, record.indexOf(' '));
+        } else {
+            recorded = StorageUtils.sha256(entry);
+            put(path, recorded, attributes);
+        }
+        return recorded.equalsIgnoreCase(digest) ? Optional.of(entry) : Optional.empty();
+    }
+
+    /**
+     * Record digest of an entry, already known (verified) by caller.
+     *
+     * @param path
+     *     the entry path
+     * @param entry
+     *     the entry file
+     * @param digest
+     *     the SHA-256 digest (hex encoded)
+     * @throws IOException
+     *     the io exception
+     */
+    public void record(String path, File entry, String digest) throws IOException {
+        put(path, digest.toLowerCase(), attributes(entry));
+    }
+
+    /**
+     * Forget digests of entries not within provided paths.
+     *
+     * @param paths
+     *     the entry paths to keep
+     */
+    public void retain(Collection<String> paths) {
+        changed |= records.keySet().retainAll(paths);
+    }
+
+    /**
+     * Save entry digests, if changed.
+     */
+    public void save() {
+        if (!changed) {
+            return;
+        }
+        Path temp = null;
+        try {
+            Files.createDirectories(file.getParentFile().toPath());
+            temp = Files.createTempFile(file.getParentFile().toPath(), file.getName(), ".tmp");
+            try (OutputStream os = Files.newOutputStream(temp)) {
+                records.store(os, "Entry digests");
+            }
+            Files.move(temp, file.toPath(), REPLACE_EXISTING, ATOMIC_MOVE);
+            changed = false;
+        } catch (IOException e) {
+            // entries will be digested again next time
+            LOGGER.warn("Unable to save entry digests {}: {}", file, e.getMessage());
+            if (temp != null) {
+                temp.toFile().delete();
+            }
+        }
+    }
+
+    private void put(String path, String digest, String attributes) {
+        records.setProperty(path, digest + " " + attributes);
+        changed = true;
+    }
+
+    // attributes that change whenever entry is rewritten or replaced
+    private static String attributes(File entry) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(entry.toPath(), BasicFileAttributes.class);
+        return attributes.size() + " " + attributes.lastModifiedTime().toMillis() + " " + Objects.toString(
+            attributes.fileKey(), "");
+    }
+
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright 2020 HAWKORE, S.L.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hawkore.springframework.boot.mule.container;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.hawkore.springframework.boot.mule.exception.FlowInvocationException;
+import org.mule.runtime.api.component.execution.ExecutableComponent;
+import org.mule.runtime.api.component.execution.InputEvent;
+import org.mule.runtime.api.message.Message;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Mono;
+
+/**
+ * Invokes a flow of a started Mule application directly within this JVM, dispatching events to it without any
+ * transport, serialization or copy of payloads.
+ * <p>
+ * Invoker is bound to the running instance of the application, so it must be looked up again once application is
+ * redeployed or restarted. Every {@link FlowResult} must be closed once consumed. Synchronous invocations wait for
+ * the result up to a timeout ({@code mule.flows.invocationTimeout} by default), the flow keeps running after it.
+ *
+ * @author Manuel Núñez Sánchez (manuel.nunez@hawkore.com)
+ */
+public class FlowInvoker {
+
+    private final String application;
+    private final String flow;
+    private final ExecutableComponent component;
+    private final Duration timeout;
+
+    /**
+     * Instantiates a new Flow invoker.
+     *
+     * @param application
+     *     the application
+     * @param flow
+     *     the flow
+     * @param component
+     *     the flow executable component
+     * @param timeout
+     *     the default timeout of synchronous invocations, negative for no timeout
+     */
+    FlowInvoker(String application, String flow, ExecutableComponent component, Duration timeout) {
+        this.application = application;
+        this.flow = flow;
+        this.component = component;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Gets application.
+     *
+     * @return the application
+     */
+    public String getApplication() {
+        return application;
+    }
+
+    /**
+     * Gets flow.
+     *
+     * @return the flow
+     */
+    public String getFlow() {
+        return flow;
+    }
+
+    /**
+     * Gets default timeout of synchronous invocations.
+     *
+     * @return the timeout, negative for no timeout
+     */
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * Invoke flow with provided payload, waiting for its result up to default timeout.
+     *
+     * @param payload
+     *     the payload, a {@link Message} is dispatched as is
+     * @return the flow result
+     */
+    public FlowResult invoke(Object payload) {
+        return invoke(event(payload), timeout);
+    }
+
+    /**
+     * Invoke flow with provided event, waiting for its result up to default timeout.
+     *
+     * @param event
+     *     the event
+     * @return the flow result
+     */
+    public FlowResult invoke(InputEvent event) {
+        return invoke(event, timeout);
+    }
+
+    /**
+     * Invoke flow with provided payload, waiting for its result up to provided timeout.
+     *
+     * @param payload
+     *     the payload, a {@link Message} is dispatched as is
+     * @param timeout
+     *     the timeout, negative for no timeout
+     * @return the flow result
+     */
+    public FlowResult invoke(Object payload, Duration timeout) {
+        return invoke(event(payload), timeout);
+    }
+
+    /**
+     * Invoke flow with provided event, waiting for its result up to provided timeout.
+     *
+     * @param event
+     *     the event
+     * @param timeout
+     *     the timeout, negative for no timeout
+     * @return the flow result
+     */
+    public FlowResult invoke(InputEvent event, Duration timeout) {
+        CompletableFuture<FlowResult> future = invokeAsync(event);
+        try {
+            return timeout.isNegative() ? future.get() : future.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw failure(e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof FlowInvocationException
+                      ? (FlowInvocationException)e.getCause() : failure(e.getCause());
+        } catch (TimeoutException e) {
+            // result, if any, is closed once flow finishes
+            future.thenAccept(FlowResult::close);
+            throw new FlowInvocationException(
+                "Flow " + flow + " of application " + application + " did not finish within " + timeout, e);
+        }
+    }
+
+    /**
+     * Invoke flow with provided payload.
+     *
+     * @param payload
+     *     the payload, a {@link Message} is dispatched as is
+     * @return the flow result future, completed by the thread finishing the flow
+     */
+    public CompletableFuture<FlowResult> invokeAsync(Object payload) {
+        return invokeAsync(event(payload));
+    }
+
+    /**
+     * Invoke flow with provided event.
+     *
+     * @param event
+     *     the event
+     * @return the flow result future, completed by the thread finishing the flow
+     */
+    public CompletableFuture<FlowResult> invokeAsync(InputEvent event) {
+        CompletableFuture<FlowResult> future = new CompletableFuture<>();
+        try {
+            component.execute(event).whenComplete((result, error) -> {
+                if (error == null) {
+                    future.complete(new FlowResult(result));
+                } else {
+                    future.completeExceptionally(failure(error));
+                }
+            });
+        } catch (Exception e) {
+            future.completeExceptionally(failure(e));
+        }
+        return future;
+    }
+
+    /**
+     * Invoke flow with provided payload once subscribed.
+     *
+     * @param payload
+     *     the payload, a {@link Message} is dispatched as is
+     * @return the flow result publisher
+     */
+    public Publisher<FlowResult> invokeReactive(Object payload) {
+        return Mono.defer(() -> Mono.fromFuture(invokeAsync(payload)));
+    }
+
+    /**
+     * Invoke flow with provided event once subscribed.
+     *
+     * @param event
+     *     the event
+     * @return the flow result publisher
+     */
+    public Publisher<FlowResult> invokeReactive(InputEvent event) {
+        return Mono.defer(() -> Mono.fromFuture(invokeAsync(event)));
+    }
+
+    private static InputEvent event(Object payload) {
+        return InputEvent.create().message(payload instanceof Message ? (Message)payload : Message.of(payload))
+                   .build();
+    }
+
+    private FlowInvocationException failure(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        return new FlowInvocationException("Flow " + flow + " of application " + application + " failed", cause);
+    }
+
+}
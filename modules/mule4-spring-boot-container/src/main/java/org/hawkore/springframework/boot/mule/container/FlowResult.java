@@ -0,0 +1,120 @@
+/*
+ * Copyright 2020 HAWKORE, S.L.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hawkore.springframework.boot.mule.container;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import org.mule.runtime.api.component.execution.ExecutionResult;
+import org.mule.runtime.api.message.Message;
+import org.mule.runtime.api.metadata.TypedValue;
+import org.mule.runtime.api.streaming.bytes.CursorStreamProvider;
+
+/**
+ * Result of a flow invoked within this JVM.
+ * <p>
+ * Payload is handed over as produced by the flow, without copying it, so a streamed payload is a Mule cursor provider
+ * that stays open until result is closed. Result must always be closed once consumed.
+ *
+ * @author Manuel Núñez Sánchez (manuel.nunez@hawkore.com)
+ */
+public class FlowResult implements AutoCloseable {
+
+    private final ExecutionResult result;
+
+    /**
+     * Instantiates a new Flow result.
+     *
+     * @param result
+     *     the Mule execution result
+     */
+    FlowResult(ExecutionResult result) {
+        this.result = result;
+    }
+
+    /**
+     * Gets resulting message.
+     *
+     * @return the message
+     */
+    public Message getMessage() {
+        return result.getEvent().getMessage();
+    }
+
+    /**
+     * Gets resulting payload value.
+     *
+     * @param <T>
+     *     the payload type
+     * @return the payload
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getPayload() {
+        return (T)getMessage().getPayload().getValue();
+    }
+
+    /**
+     * Gets resulting payload as a stream, without copying it. A cursor is opened if payload is streamed by Mule, so
+     * result must be kept open while it is read. Text is encoded as UTF-8.
+     *
+     * @return the payload stream
+     */
+    public InputStream getPayloadAsStream() {
+        return payloadAsStream(getPayload());
+    }
+
+    /**
+     * Gets a flow payload as a stream, without copying it. A cursor is opened if payload is streamed by Mule. Text is
+     * encoded as UTF-8.
+     *
+     * @param payload
+     *     the payload value
+     * @return the payload stream
+     */
+    public static InputStream payloadAsStream(Object payload) {
+        if (payload instanceof CursorStreamProvider) {
+            return ((CursorStreamProvider)payload).openCursor();
+        } else if (payload instanceof InputStream) {
+            return (InputStream)payload;
+        } else if (payload instanceof byte[]) {
+            return new ByteArrayInputStream((byte[])payload);
+        } else if (payload instanceof String) {
+            return new ByteArrayInputStream(((String)payload).getBytes(StandardCharsets.UTF_8));
+        }
+        throw new IllegalStateException(
+            "Payload is not a stream: " + (payload == null ? null : payload.getClass().getName()));
+    }
+
+    /**
+     * Gets resulting flow variables.
+     *
+     * @return the variables
+     */
+    public Map<String, TypedValue<?>> getVariables() {
+        return result.getEvent().getVariables();
+    }
+
+    /**
+     * Release resources (streams) held by result.
+     */
+    @Override
+    public void close() {
+        result.complete();
+    }
+
+}
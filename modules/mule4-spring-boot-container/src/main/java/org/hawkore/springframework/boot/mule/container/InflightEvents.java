@@ -0,0 +1,132 @@
+/*
+ * Copyright 2020 HAWKORE, S.L.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hawkore.springframework.boot.mule.container;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.hawkore.springframework.boot.mule.controller.dto.ArtifactType;
+import org.mule.runtime.api.artifact.Registry;
+import org.mule.runtime.api.notification.PipelineMessageNotification;
+import org.mule.runtime.api.notification.PipelineMessageNotificationListener;
+
+/**
+ * Counter of in-flight flow executions of started Mule applications, from Mule pipeline notifications, so shutdown
+ * may wait for them to complete once message sources are stopped.
+ *
+ * @author Manuel Núñez Sánchez (manuel.nunez@hawkore.com)
+ */
+public class InflightEvents implements ArtifactRegistryListener {
+
+    private static final long POLL_MILLIS = 50;
+    private final ApplicationPipelineListeners<InflightListener> listeners = new ApplicationPipelineListeners<>(
+        application -> new InflightListener(),
+        n -> n.getAction().getActionId() == PipelineMessageNotification.PROCESS_START
+                 || n.getAction().getActionId() == PipelineMessageNotification.PROCESS_COMPLETE);
+
+    /**
+     * In-flight flow executions of started applications.
+     *
+     * @return the in-flight flow executions
+     */
+    public int getInflight() {
+        return listeners.listeners().mapToInt(l -> Math.max(0, l.inflight.get())).sum();
+    }
+
+    /**
+     * In-flight flow executions of an application.
+     *
+     * @param application
+     *     the application
+     * @return the in-flight flow executions, zero if application is not started
+     */
+    public int getInflight(String application) {
+        return listeners.get(application).map(l -> Math.max(0, l.inflight.get())).orElse(0);
+    }
+
+    /**
+     * Wait for in-flight flow executions of started applications to complete.
+     *
+     * @param timeout
+     *     the max time to wait
+     * @return the in-flight flow executions after waiting, zero if all of them completed
+     * @throws InterruptedException
+     *     the interrupted exception
+     */
+    public int awaitCompletion(Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        int inflight;
+        while ((inflight = getInflight()) > 0 && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(POLL_MILLIS);
+        }
+        return inflight;
+    }
+
+    /**
+     * On artifact started.
+     *
+     * @param type
+     *     the artifact type
+     * @param name
+     *     the artifact name
+     * @param registry
+     *     the artifact registry
+     */
+    @Override
+    public void onArtifactStarted(ArtifactType type, String name, Registry registry) {
+        listeners.onArtifactStarted(type, name, registry);
+    }
+
+    /**
+     * On artifact stopped.
+     *
+     * @param type
+     *     the artifact type
+     * @param name
+     *     the artifact name
+     * @param registry
+     *     the artifact registry
+     */
+    @Override
+    public void onArtifactStopped(ArtifactType type, String name, Registry registry) {
+        listeners.onArtifactStopped(type, name, registry);
+    }
+
+    // started and completed flow executions listener of an application
+    private static class InflightListener
+        implements PipelineMessageNotificationListener<PipelineMessageNotification> {
+
+        private final AtomicInteger inflight = new AtomicInteger();
+
+        @Override
+        public boolean isBlocking() {
+            // counting does not block, so it runs on flow thread without dispatching notification
+            return false;
+        }
+
+        @Override
+        public void onNotification(PipelineMessageNotification notification) {
+            if (notification.getAction().getActionId() == PipelineMessageNotification.PROCESS_START) {
+                inflight.incrementAndGet();
+            } else {
+                inflight.decrementAndGet();
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2020 HAWKORE, S.L.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hawkore.springframework.boot.mule.container;
+
+import org.hawkore.springframework.boot.mule.controller.dto.ArtifactType;
+
+/**
+ * Tracer of Mule container lifecycle phases and deployment operations, so they may be correlated with other runtime
+ * events (for instance, within a Java Flight Recorder recording).
+ * <p>
+ * A phase begins and ends on the thread running it, so implementations must not block. Operations rejected by
+ * deployment admission control were never attempted, so their phase is not ended.
+ *
+ * @author Manuel Núñez Sánchez (manuel.nunez@hawkore.com)
+ */
+@FunctionalInterface
+public interface LifecycleTracer {
+
+    /** Mule container start up, from environment set up until it is ready to deploy artifacts */
+    String CONTAINER_START = "container-start";
+    /** Extraction of Mule services into local file system */
+    String SERVICES_EXTRACTION = "services-extraction";
+    /** Construction of Mule container class loader */
+    String CLASSLOADER = "classloader";
+    /** Stop of message sources of started applications on shutdown */
+    String SOURCES_STOP = "sources-stop";
+    /** Wait for in-flight events of applications to complete on shutdown */
+    String DRAIN = "drain";
+    /** Stop of applications and domains on shutdown */
+    String ARTIFACTS_STOP = "artifacts-stop";
+    /** Disposal of Mule container on shutdown */
+    String CONTAINER_DISPOSE = "container-dispose";
+
+    /**
+     * No-op tracer.
+     */
+    LifecycleTracer NOOP = (phase, type, name) -> Phase.NOOP;
+
+    /**
+     * Begin a phase.
+     *
+     * @param phase
+     *     the phase, one of this interface constants or a {@link DeploymentRecorder} operation
+     * @param type
+     *     the artifact type, null for container phases
+     * @param name
+     *     the artifact name, null for container phases
+     * @return the begun phase
+     */
+    Phase begin(String phase, ArtifactType type, String name);
+
+    /**
+     * Begun phase.
+     */
+    @FunctionalInterface
+    interface Phase {
+
+        /**
+         * No-op phase.
+         */
+        Phase NOOP = (success, bytes) -> {};
+
+        /**
+         * End phase.
+         *
+         * @param success
+         *     whether phase succeeded
+         * @param bytes
+         *     the bytes of artifact or extracted content, negative if unknown
+         */
+        void end(boolean success, long bytes);
+
+    }
+
+}
@@ -17,19 +17,32 @@ package org.hawkore.springframework.boot.mule.container;
 
 import java.io.File;
 import java.net.URI;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 import org.hawkore.springframework.boot.mule.controller.dto.Application;
+import org.hawkore.springframework.boot.mule.controller.dto.ArtifactEvent;
+import org.hawkore.springframework.boot.mule.controller.dto.ArtifactPage;
+import org.hawkore.springframework.boot.mule.controller.dto.DeploymentResult;
 import org.hawkore.springframework.boot.mule.controller.dto.Domain;
+import org.hawkore.springframework.boot.mule.controller.dto.RedeploymentResult;
+import org.springframework.core.io.Resource;
+import org.mule.runtime.deployment.model.api.application.ApplicationStatus;
 import org.springframework.context.ApplicationEvent;
 import org.springframework.context.ApplicationListener;
+import org.springframework.context.SmartLifecycle;
 
 /**
  * SpringMuleContainer contract
+ * <p>
+ * Mule Runtime is started on context refresh and, as a {@link SmartLifecycle}, it is stopped on context close before
+ * other lifecycle beans and before any bean is destroyed.
  *
  * @author Manuel Núñez Sánchez (manuel.nunez@hawkore.com)
  */
-public interface SpringMuleContainer extends ApplicationListener<ApplicationEvent> {
+public interface SpringMuleContainer extends ApplicationListener<ApplicationEvent>, SmartLifecycle {
 
     /**
      * Whether application is deployed and running.
@@ -81,6 +94,52 @@ public interface SpringMuleContainer extends ApplicationListener<ApplicationEven
      */
     List<Domain> getDomains();
 
+    /**
+     * Gets installed application.
+     *
+     * @param application
+     *     the application
+     * @return the application
+     */
+    Optional<Application> getApplication(String application);
+
+    /**
+     * Gets installed domain.
+     *
+     * @param domain
+     *     the domain
+     * @return the domain
+     */
+    Optional<Domain> getDomain(String domain);
+
+    /**
+     * Gets a page of installed applications, sorted by name.
+     *
+     * @param status
+     *     the status filter, null for any
+     * @param domain
+     *     the domain filter, null for any
+     * @param page
+     *     the zero-based page number
+     * @param size
+     *     the page size
+     * @return the applications page
+     */
+    ArtifactPage<Application> getApplications(ApplicationStatus status, String domain, int page, int size);
+
+    /**
+     * Gets a page of installed domains, sorted by name.
+     *
+     * @param status
+     *     the status filter, null for any
+     * @param page
+     *     the zero-based page number
+     * @param size
+     *     the page size
+     * @return the domains page
+     */
+    ArtifactPage<Domain> getDomains(ApplicationStatus status, int page, int size);
+
     /**
      * Deploy application.
      *
@@ -149,6 +208,120 @@ public interface SpringMuleContainer extends ApplicationListener<ApplicationEven
         Boolean xmlValidationsEnabled,
         Boolean lazyConnectionsEnabled);
 
+    /**
+     * Redeploy an installed application with a new version.
+     * <p>
+     * New version is staged and validated while current version keeps running, then versions are swapped and
+     * application is redeployed. If new version fails to start, previous version is restored and redeployed.
+     *
+     * @param application
+     *     the installed application name
+     * @param appFile
+     *     the new version app file
+     * @param lazyInitializationEnabled
+     *     the lazy initialization enabled
+     * @param xmlValidationsEnabled
+     *     the xml validations enabled
+     * @param lazyConnectionsEnabled
+     *     the lazy connections enabled
+     * @return the redeployment result
+     */
+    RedeploymentResult redeployApplication(String application,
+        File appFile,
+        Boolean lazyInitializationEnabled,
+        Boolean xmlValidationsEnabled,
+        Boolean lazyConnectionsEnabled);
+
+    /**
+     * Entries of new version of an installed application that are not available within its installed version.
+     *
+     * @param application
+     *     the installed application name
+     * @param manifest
+     *     the new version manifest, entry path to SHA-256 digest of entry content (hex encoded)
+     * @return the missing entries paths
+     */
+    List<String> getMissingApplicationEntries(String application, Map<String, String> manifest);
+
+    /**
+     * Redeploy an installed application with a new version, assembled from unchanged entries of installed version
+     * and provided changed entries (delta).
+     * <p>
+     * New version is assembled and validated while current version keeps running, then it is swapped as a full
+     * redeployment.
+     *
+     * @param application
+     *     the installed application name
+     * @param manifest
+     *     the new version manifest, entry path to SHA-256 digest of entry content (hex encoded)
+     * @param delta
+     *     the zip file with entries not available within installed version, null if none
+     * @param lazyInitializationEnabled
+     *     the lazy initialization enabled
+     * @param xmlValidationsEnabled
+     *     the xml validations enabled
+     * @param lazyConnectionsEnabled
+     *     the lazy connections enabled
+     * @return the redeployment result
+     */
+    RedeploymentResult redeployApplication(String application,
+        Map<String, String> manifest,
+        File delta,
+        Boolean lazyInitializationEnabled,
+        Boolean xmlValidationsEnabled,
+        Boolean lazyConnectionsEnabled);
+
+    /**
+     * Deploy a batch of domains and applications.
+     * <p>
+     * Artifacts are staged in parallel. Domains are deployed first, then applications are deployed concurrently (up
+     * to {@code mule.batch.parallelism}). Applications whose domain failed to deploy are skipped.
+     *
+     * @param domains
+     *     the domains
+     * @param applications
+     *     the applications
+     * @param lazyInitializationEnabled
+     *     the lazy initialization enabled
+     * @param xmlValidationsEnabled
+     *     the xml validations enabled
+     * @param lazyConnectionsEnabled
+     *     the lazy connections enabled
+     * @return the deployment result of every artifact, domains first
+     */
+    List<DeploymentResult> deployBatch(Collection<Resource> domains,
+        Collection<Resource> applications,
+        Boolean lazyInitializationEnabled,
+        Boolean xmlValidationsEnabled,
+        Boolean lazyConnectionsEnabled);
+
+    /**
+     * Stop an installed application in place, keeping it installed, so it may be started again without deploying it.
+     *
+     * @param application
+     *     the application
+     */
+    void stopApplication(String application);
+
+    /**
+     * Start an installed application previously stopped.
+     *
+     * @param application
+     *     the application
+     */
+    void startApplication(String application);
+
+    /**
+     * Flow of a started application, to invoke it directly within this JVM.
+     *
+     * @param application
+     *     the application
+     * @param flow
+     *     the flow name
+     * @return the flow invoker, empty if application is not started or it has no such flow
+     */
+    Optional<FlowInvoker> getFlow(String application, String flow);
+
     /**
      * Undeploy application.
      *
@@ -170,18 +343,107 @@ public interface SpringMuleContainer extends ApplicationListener<ApplicationEven
      *
      * @return the boolean
      */
+    @Override
     boolean isRunning();
 
     /**
      * Stop Mule runtime.
+     * <p>
+     * Message sources of started applications are stopped first, then in-flight events are given up to
+     * {@code mule.shutdown.drainTimeout} to complete, then applications and domains are stopped in parallel (up to
+     * {@code mule.shutdown.parallelism}), and finally Mule container is disposed. Artifacts are kept installed.
      */
+    @Override
     void stop();
 
     /**
      * Start Mule runtime.
      */
+    @Override
     void start();
 
+    /**
+     * Deployment state version, monotonically increased on any change of deployed artifacts, so it may be used to
+     * detect changes without querying Mule Runtime.
+     *
+     * @return the deployment state version
+     */
+    long getDeploymentStateVersion();
+
+    /**
+     * Deployment state epoch, changes every time Mule Runtime starts, so (epoch, version) pair never repeats.
+     *
+     * @return the deployment state epoch
+     */
+    long getDeploymentStateEpoch();
+
+    /**
+     * Retained artifact deployment state changes after provided event id.
+     *
+     * @param lastEventId
+     *     the last event id, negative for all retained events
+     * @return the artifact events
+     */
+    List<ArtifactEvent> getArtifactEvents(long lastEventId);
+
+    /**
+     * Add artifact deployment state changes listener.
+     *
+     * @param cursor
+     *     the cursor ({@code <epoch>-<id>}) of the last event received by listener, retained events after it will
+     *     be replayed, or a reset notified if it is not retained. Null to receive only new events
+     * @param listener
+     *     the listener
+     */
+    void addArtifactEventListener(String cursor, ArtifactEventListener listener);
+
+    /**
+     * Remove artifact deployment state changes listener.
+     *
+     * @param listener
+     *     the listener
+     */
+    void removeArtifactEventListener(ArtifactEventListener listener);
+
+    /**
+     * Add listener for started and stopped artifacts.
+     *
+     * @param listener
+     *     the listener
+     */
+    void addArtifactRegistryListener(ArtifactRegistryListener listener);
+
+    /**
+     * Remove listener for started and stopped artifacts.
+     *
+     * @param listener
+     *     the listener
+     */
+    void removeArtifactRegistryListener(ArtifactRegistryListener listener);
+
+    /**
+     * Deployment operations admission control.
+     *
+     * @return the deployment admission
+     */
+    DeploymentAdmission getDeploymentAdmission();
+
+    /**
+     * Set recorder of deployment operations.
+     *
+     * @param deploymentRecorder
+     *     the deployment recorder
+     */
+    void setDeploymentRecorder(DeploymentRecorder deploymentRecorder);
+
+    /**
+     * Set tracer of container lifecycle phases and deployment operations.
+     *
+     * @param lifecycleTracer
+     *     the lifecycle tracer
+     */
+    void setLifecycleTracer(LifecycleTracer lifecycleTracer);
+
     /**
      * Init Mule container.
      *
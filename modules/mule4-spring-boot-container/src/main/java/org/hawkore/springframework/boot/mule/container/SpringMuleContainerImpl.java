@@ -16,49 +16,99 @@
 package org.hawkore.springframework.boot.mule.container;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.lang.reflect.InvocationTargetException;
+import java.net.URI;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.net.URLStreamHandler;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.hawkore.springframework.boot.mule.config.MuleConfigProperties;
+import org.hawkore.springframework.boot.mule.config.MuleConfigProperties.ApplicationSchedulers;
+import org.hawkore.springframework.boot.mule.config.MuleConfigProperties.ApplicationSchedulers.Isolation;
+import org.hawkore.springframework.boot.mule.config.MuleConfigProperties.Shutdown;
+import org.hawkore.springframework.boot.mule.controller.dto.Application;
+import org.hawkore.springframework.boot.mule.controller.dto.ArtifactEvent;
+import org.hawkore.springframework.boot.mule.controller.dto.ArtifactEvent.Action;
+import org.hawkore.springframework.boot.mule.controller.dto.ArtifactPage;
+import org.hawkore.springframework.boot.mule.controller.dto.ArtifactType;
+import org.hawkore.springframework.boot.mule.controller.dto.DeploymentResult;
+import org.hawkore.springframework.boot.mule.controller.dto.DeploymentResult.Status;
+import org.hawkore.springframework.boot.mule.controller.dto.Domain;
+import org.hawkore.springframework.boot.mule.controller.dto.RedeploymentResult;
 import org.hawkore.springframework.boot.mule.exception.DeployArtifactException;
+import org.hawkore.springframework.boot.mule.exception.DeploymentRejectedException;
 import org.hawkore.springframework.boot.mule.utils.CompositeClassLoader;
 import org.hawkore.springframework.boot.mule.utils.CompositeClassLoader.DefaultStrategy;
+import org.hawkore.springframework.boot.mule.utils.LoggingUtils;
+import org.hawkore.springframework.boot.mule.utils.SchedulerPoolsUtils;
 import org.hawkore.springframework.boot.mule.utils.StorageUtils;
+import org.mule.runtime.api.artifact.Registry;
+import org.mule.runtime.api.component.execution.ExecutableComponent;
+import org.mule.runtime.api.lifecycle.Stoppable;
 import org.mule.runtime.api.util.MuleSystemProperties;
+import org.mule.runtime.core.api.MuleContext;
 import org.mule.runtime.core.api.config.MuleManifest;
+import org.mule.runtime.core.api.config.custom.CustomizationService;
+import org.mule.runtime.core.api.construct.Flow;
 import org.mule.runtime.core.api.util.ClassUtils;
+import org.mule.runtime.deployment.model.api.DeployableArtifact;
+import org.mule.runtime.deployment.model.api.application.ApplicationStatus;
 import org.mule.runtime.module.artifact.api.classloader.net.MuleUrlStreamHandlerFactory;
+import org.mule.runtime.module.deployment.api.DeploymentListener;
+import org.mule.runtime.module.deployment.api.DeploymentService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.SpringBootVersion;
+import org.springframework.boot.json.JsonParserFactory;
 import org.springframework.context.ApplicationEvent;
-import org.springframework.context.event.ContextClosedEvent;
 import org.springframework.context.event.ContextRefreshedEvent;
 import org.springframework.core.SpringVersion;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
 import org.springframework.util.CollectionUtils;
+import org.springframework.util.StreamUtils;
 
 import static java.lang.String.valueOf;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.lang.System.clearProperty;
 import static java.lang.System.setProperty;
 
+import static org.apache.commons.io.FilenameUtils.getBaseName;
 import static org.apache.commons.io.FilenameUtils.getName;
 import static org.mule.runtime.container.api.MuleFoldersUtil.getAppFolder;
 import static org.mule.runtime.container.api.MuleFoldersUtil.getAppsFolder;
@@ -97,6 +147,11 @@ public abstract class SpringMuleContainerImpl implements SpringMuleContainer {
     private static final String MULE_SERVICE_SUFFIX = "-mule-service";
     private static final String MULE_DOMAIN_SUFFIX = "-mule-domain";
     private static final String MULE_APPLICATION_SUFFIX = "-mule-application";
+    private static final String DEFAULT_DOMAIN = "default";
+    private static final String CLASSLOADER_MODEL = "META-INF/mule-artifact/classloader-model.json";
+    private static final String ARTIFACT_DESCRIPTOR = "META-INF/mule-artifact/mule-artifact.json";
+    private static final String REDEPLOY_FORDER = "redeploy";
+    private static final String ENTRY_DIGESTS_FOLDER = "digests";
     private static final String JAR_HANDLER = "org.springframework.boot.loader.jar.Handler";
     private static final String FILE_HANDLER = "sun.net.www.protocol.file.Handler";
     private static final String JAR_PROTOCOL = "jar";
@@ -117,6 +172,19 @@ public abstract class SpringMuleContainerImpl implements SpringMuleContainer {
     private static final AtomicBoolean started = new AtomicBoolean(false);
     private static final AtomicBoolean running = new AtomicBoolean(false);
     private ClassLoader containerClassLoader;
+    private final AtomicLong deploymentStateVersion = new AtomicLong();
+    private volatile long deploymentStateEpoch = System.currentTimeMillis();
+    private final ArtifactEventJournal artifactEventJournal = new ArtifactEventJournal(
+        () -> configProperties.getEvents().getBufferSize(), () -> deploymentStateEpoch);
+    private final ArtifactIndex<Application> applicationIndex = new ArtifactIndex<>(Application::getDomain);
+    private final ArtifactIndex<Domain> domainIndex = new ArtifactIndex<>(d -> null);
+    private final DeploymentAdmission deploymentAdmission = new DeploymentAdmission(
+        () -> configProperties.getAdmission());
+    private volatile DeploymentRecorder deploymentRecorder = new DeploymentRecorder() {};
+    private volatile LifecycleTracer lifecycleTracer = LifecycleTracer.NOOP;
+    private final List<ArtifactRegistryListener> artifactRegistryListeners = new CopyOnWriteArrayList<>();
+    private final Map<String, Registry> applicationRegistries = new ConcurrentHashMap<>();
+    private final InflightEvents inflightEvents = new InflightEvents();
 
     /**
      * On application event.
@@ -131,170 +199,1252 @@ public abstract class SpringMuleContainerImpl implements SpringMuleContainer {
                 LOGGER.debug("Starting Mule Runtime by ContextRefreshedEvent");
             }
             start();
-        } else if (event instanceof ContextClosedEvent) {
-            if (LOGGER.isDebugEnabled()) {
-                LOGGER.debug("Stopping Mule Runtime by ContextClosedEvent");
+        }
+    }
+
+    /**
+     * Mule Runtime is started on context refresh, so it is not started as a lifecycle bean, but it is stopped as a
+     * lifecycle bean on context close.
+     *
+     * @return the boolean
+     */
+    @Override
+    public boolean isAutoStartup() {
+        return false;
+    }
+
+    /**
+     * Whether application is installed (application directory exists).
+     *
+     * @param application
+     *     the application
+     * @return the boolean
+     */
+    @Override
+    public boolean isApplicationInstalled(String application) {
+        checkRunning();
+        return getAppFolder(application).exists();
+    }
+
+    /**
+     * Whether domain is installed (domain directory exists).
+     *
+     * @param domain
+     *     the domain
+     * @return the boolean
+     */
+    @Override
+    public boolean isDomainInstalled(String domain) {
+        checkRunning();
+        return getDomainFolder(domain).exists();
+    }
+
+    /**
+     * Gets installed applications.
+     *
+     * @return the applications
+     */
+    @Override
+    public List<Application> getApplications() {
+        checkRunning();
+        return applicationIndex.list();
+    }
+
+    /**
+     * Gets installed domains.
+     *
+     * @return the domains
+     */
+    @Override
+    public List<Domain> getDomains() {
+        checkRunning();
+        return domainIndex.list();
+    }
+
+    /**
+     * Gets installed application.
+     *
+     * @param application
+     *     the application
+     * @return the application
+     */
+    @Override
+    public Optional<Application> getApplication(String application) {
+        checkRunning();
+        return applicationIndex.get(application);
+    }
+
+    /**
+     * Gets installed domain.
+     *
+     * @param domain
+     *     the domain
+     * @return the domain
+     */
+    @Override
+    public Optional<Domain> getDomain(String domain) {
+        checkRunning();
+        return domainIndex.get(domain);
+    }
+
+    /**
+     * Gets a page of installed applications, sorted by name.
+     *
+     * @param status
+     *     the status filter, null for any
+     * @param domain
+     *     the domain filter, null for any
+     * @param page
+     *     the zero-based page number
+     * @param size
+     *     the page size
+     * @return the applications page
+     */
+    @Override
+    public ArtifactPage<Application> getApplications(ApplicationStatus status, String domain, int page, int size) {
+        checkRunning();
+        return applicationIndex.query(status, domain, page, size);
+    }
+
+    /**
+     * Gets a page of installed domains, sorted by name.
+     *
+     * @param status
+     *     the status filter, null for any
+     * @param page
+     *     the zero-based page number
+     * @param size
+     *     the page size
+     * @return the domains page
+     */
+    @Override
+    public ArtifactPage<Domain> getDomains(ApplicationStatus status, int page, int size) {
+        checkRunning();
+        return domainIndex.query(status, null, page, size);
+    }
+
+    /**
+     * Find installed application within Mule Runtime.
+     *
+     * @param application
+     *     the application
+     * @return the application
+     */
+    protected abstract Optional<Application> findApplication(String application);
+
+    /**
+     * Find installed domain within Mule Runtime.
+     *
+     * @param domain
+     *     the domain
+     * @return the domain
+     */
+    protected abstract Optional<Domain> findDomain(String domain);
+
+    /**
+     * Find installed applications within Mule Runtime.
+     *
+     * @return the applications
+     */
+    protected abstract List<Application> findApplications();
+
+    /**
+     * Find installed domains within Mule Runtime.
+     *
+     * @return the domains
+     */
+    protected abstract List<Domain> findDomains();
+
+    /**
+     * Refresh indexed state of an artifact from Mule Runtime.
+     *
+     * @param type
+     *     the artifact type
+     * @param name
+     *     the artifact name
+     */
+    protected void refreshArtifactIndex(ArtifactType type, String name) {
+        try {
+            if (ArtifactType.DOMAIN.equals(type)) {
+                Optional<Domain> domain = findDomain(name);
+                if (domain.isPresent()) {
+                    domainIndex.put(domain.get());
+                } else {
+                    domainIndex.remove(name);
+                }
+            } else {
+                Optional<Application> application = findApplication(name);
+                if (application.isPresent()) {
+                    applicationIndex.put(application.get());
+                } else {
+                    applicationIndex.remove(name);
+                }
+            }
+        } catch (Exception e) {
+            LOGGER.warn("Unable to refresh indexed state of {} {}. Error was: {}", type, name, e.getMessage());
+        }
+    }
+
+    /**
+     * Rebuild indexed state of all artifacts from Mule Runtime.
+     */
+    protected void rebuildArtifactIndex() {
+        domainIndex.replaceAll(findDomains());
+        applicationIndex.replaceAll(findApplications());
+    }
+
+    /**
+     * Deploy application.
+     *
+     * @param appFile
+     *     the app file
+     * @param lazyInitializationEnabled
+     *     the lazy initialization enabled
+     * @param xmlValidationsEnabled
+     *     the xml validations enabled
+     * @param lazyConnectionsEnabled
+     *     the lazy connections enabled
+     */
+    @Override
+    public void deployApplication(File appFile,
+        Boolean lazyInitializationEnabled,
+        Boolean xmlValidationsEnabled,
+        Boolean lazyConnectionsEnabled) {
+        checkRunning();
+        deployApplication(appFile.toURI(), lazyInitializationEnabled, xmlValidationsEnabled, lazyConnectionsEnabled);
+    }
+
+    /**
+     * Deploy domain.
+     *
+     * @param domainFile
+     *     the domain file
+     * @param lazyInitializationEnabled
+     *     the lazy initialization enabled
+     * @param xmlValidationsEnabled
+     *     the xml validations enabled
+     * @param lazyConnectionsEnabled
+     *     the lazy connections enabled
+     */
+    @Override
+    public void deployDomain(File domainFile,
+        Boolean lazyInitializationEnabled,
+        Boolean xmlValidationsEnabled,
+        Boolean lazyConnectionsEnabled) {
+        checkRunning();
+        deployDomain(domainFile.toURI(), lazyInitializationEnabled, xmlValidationsEnabled, lazyConnectionsEnabled);
+    }
+
+    /**
+     * Redeploy an installed application with a new version.
+     *
+     * @param application
+     *     the installed application name
+     * @param appFile
+     *     the new version app file
+     * @param lazyInitializationEnabled
+     *     the lazy initialization enabled
+     * @param xmlValidationsEnabled
+     *     the xml validations enabled
+     * @param lazyConnectionsEnabled
+     *     the lazy connections enabled
+     * @return the redeployment result
+     */
+    @Override
+    public RedeploymentResult redeployApplication(String application,
+        File appFile,
+        Boolean lazyInitializationEnabled,
+        Boolean xmlValidationsEnabled,
+        Boolean lazyConnectionsEnabled) {
+        return redeployApplication(application, (staged, workFolder) -> {
+            try (InputStream is = new FileInputStream(appFile)) {
+                StorageUtils.unzip(is, staged);
+            }
+        }, lazyInitializationEnabled, xmlValidationsEnabled, lazyConnectionsEnabled);
+    }
+
+    /**
+     * Entries of new version of an installed application that are not available within its installed version.
+     *
+     * @param application
+     *     the installed application name
+     * @param manifest
+     *     the new version manifest, entry path to SHA-256 digest of entry content (hex encoded)
+     * @return the missing entries paths
+     */
+    @Override
+    public List<String> getMissingApplicationEntries(String application, Map<String, String> manifest) {
+        if (!isApplicationInstalled(application)) {
+            throw new DeployArtifactException("Application not found: " + application);
+        }
+        File appFolder = getAppFolder(application);
+        EntryDigests digests = new EntryDigests(getEntryDigestsFile(application));
+        List<String> missing = new ArrayList<>();
+        try {
+            for (Map.Entry<String, String> entry : manifest.entrySet()) {
+                if (!digests.matching(appFolder, entry.getKey(), entry.getValue()).isPresent()) {
+                    missing.add(entry.getKey());
+                }
+            }
+        } catch (IOException e) {
+            throw new DeployArtifactException("Unable to compare mule application: " + application, e);
+        } finally {
+            // entries digested now are not digested again by next comparison
+            digests.save();
+        }
+        Collections.sort(missing);
+        return missing;
+    }
+
+    /**
+     * Redeploy an installed application with a new version, assembled from unchanged entries of installed version
+     * and provided changed entries (delta).
+     *
+     * @param application
+     *     the installed application name
+     * @param manifest
+     *     the new version manifest, entry path to SHA-256 digest of entry content (hex encoded)
+     * @param delta
+     *     the zip file with entries not available within installed version, null if none
+     * @param lazyInitializationEnabled
+     *     the lazy initialization enabled
+     * @param xmlValidationsEnabled
+     *     the xml validations enabled
+     * @param lazyConnectionsEnabled
+     *     the lazy connections enabled
+     * @return the redeployment result
+     */
+    @Override
+    public RedeploymentResult redeployApplication(String application,
+        Map<String, String> manifest,
+        File delta,
+        Boolean lazyInitializationEnabled,
+        Boolean xmlValidationsEnabled,
+        Boolean lazyConnectionsEnabled) {
+        return redeployApplication(application, (staged, workFolder) -> {
+            File deltaFolder = new File(workFolder, "delta");
+            if (delta != null) {
+                try (InputStream is = new FileInputStream(delta)) {
+                    StorageUtils.unzip(is, deltaFolder);
+                }
+            }
+            File appFolder = getAppFolder(application);
+            EntryDigests digests = new EntryDigests(getEntryDigestsFile(application));
+            for (Map.Entry<String, String> entry : manifest.entrySet()) {
+                File target = StorageUtils.resolve(staged, entry.getKey());
+                Files.createDirectories(target.getParentFile().toPath());
+                // unchanged entries are matched by their recorded digests and linked, so assembling cost scales
+                // with changes size
+                Optional<File> installed = digests.matching(appFolder, entry.getKey(), entry.getValue());
+                if (installed.isPresent()) {
+                    StorageUtils.linkOrCopy(installed.get(), target);
+                } else {
+                    File provided = StorageUtils.resolve(deltaFolder, entry.getKey());
+                    if (!provided.isFile()) {
+                        throw new DeployArtifactException("Missing application entry: " + entry.getKey());
+                    }
+                    if (!StorageUtils.sha256(provided).equalsIgnoreCase(entry.getValue())) {
+                        throw new DeployArtifactException("Application entry digest mismatch: " + entry.getKey());
+                    }
+                    Files.move(provided.toPath(), target.toPath());
+                }
+                // staged entries keep their attributes once swapped, so new version is not digested again
+                digests.record(entry.getKey(), target, entry.getValue());
+            }
+            digests.retain(manifest.keySet());
+            digests.save();
+        }, lazyInitializationEnabled, xmlValidationsEnabled, lazyConnectionsEnabled);
+    }
+
+    // digests of entries of an installed application, outside apps folder so Mule ignores it
+    private File getEntryDigestsFile(String application) {
+        return new File(new File(new File(getMuleBaseFolder(), REDEPLOY_FORDER), ENTRY_DIGESTS_FOLDER),
+            application + ".properties");
+    }
+
+    private RedeploymentResult redeployApplication(String application,
+        StagingTask stagingTask,
+        Boolean lazyInitializationEnabled,
+        Boolean xmlValidationsEnabled,
+        Boolean lazyConnectionsEnabled) {
+        if (!isApplicationInstalled(application)) {
+            throw new DeployArtifactException("Application not found: " + application);
+        }
+        // staging is admitted too, as it is as heavy as deployment itself
+        return deploymentAdmission.admit("Redeployment of " + application, true,
+            () -> redeployAdmittedApplication(application, stagingTask, lazyInitializationEnabled,
+                xmlValidationsEnabled, lazyConnectionsEnabled));
+    }
+
+    private RedeploymentResult redeployAdmittedApplication(String application,
+        StagingTask stagingTask,
+        Boolean lazyInitializationEnabled,
+        Boolean xmlValidationsEnabled,
+        Boolean lazyConnectionsEnabled) {
+        RedeploymentResult result = new RedeploymentResult().setName(application);
+        File workFolder = null;
+        long started = System.nanoTime();
+        LifecycleTracer.Phase redeployment = trace(DeploymentRecorder.REDEPLOY, ArtifactType.APPLICATION, application);
+        try {
+            long start = System.currentTimeMillis();
+            // 1. stage and validate new version (outside deployment lock) while current version keeps running. Work
+            // folder is within Mule base folder, so swap is just a rename, and outside apps folder, so Mule will not
+            // try to deploy it
+            File redeployFolder = new File(getMuleBaseFolder(), REDEPLOY_FORDER);
+            redeployFolder.mkdirs();
+            workFolder = Files.createTempDirectory(redeployFolder.toPath(), application).toFile();
+            File staged = new File(workFolder, "staged");
+            long extraction = System.nanoTime();
+            LifecycleTracer.Phase extractionPhase = trace(DeploymentRecorder.EXTRACT, ArtifactType.APPLICATION,
+                application);
+            boolean extracted = false;
+            try {
+                stagingTask.stage(staged, workFolder);
+                extracted = true;
+            } finally {
+                record(DeploymentRecorder.EXTRACT, ArtifactType.APPLICATION, application, extracted, extraction);
+                end(extractionPhase, extracted, -1);
+            }
+            if (!new File(staged, ARTIFACT_DESCRIPTOR).isFile()) {
+                throw new DeployArtifactException(
+                    "Provided file is not a Mule application, " + ARTIFACT_DESCRIPTOR + " not found");
+            }
+            result.setStagingTime(System.currentTimeMillis() - start);
+            // 2. swap versions
+            File backup = new File(workFolder, "backup");
+            deployArtifact(application,
+                deploymentProperties -> swapApplication(application, staged, backup, deploymentProperties, result),
+                lazyInitializationEnabled, xmlValidationsEnabled, lazyConnectionsEnabled);
+            LOGGER.info("Mule application {} redeployment {} (staging {} ms, swap {} ms)", application,
+                result.getStatus(), result.getStagingTime(), result.getSwapTime());
+            return result;
+        } catch (DeployArtifactException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new DeployArtifactException("Unable to redeploy mule application: " + application, e);
+        } finally {
+            if (workFolder != null) {
+                StorageUtils.cleanUpFolder(workFolder);
+            }
+            refreshArtifactIndex(ArtifactType.APPLICATION, application);
+            record(DeploymentRecorder.REDEPLOY, ArtifactType.APPLICATION, application,
+                RedeploymentResult.Status.REDEPLOYED.equals(result.getStatus()), started);
+            end(redeployment, RedeploymentResult.Status.REDEPLOYED.equals(result.getStatus()), -1);
+        }
+    }
+
+    // must run within deployment lock
+    private void swapApplication(String application,
+        File staged,
+        File backup,
+        Properties deploymentProperties,
+        RedeploymentResult result) throws IOException {
+        File appFolder = getAppFolder(application);
+        if (!appFolder.exists()) {
+            throw new DeployArtifactException("Application not found: " + application);
+        }
+        long start = System.currentTimeMillis();
+        // running version keeps its already opened resources while folders are renamed, right before Mule stops it
+        Files.move(appFolder.toPath(), backup.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        Files.move(staged.toPath(), appFolder.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        Exception failure = redeploy(application, deploymentProperties);
+        if (failure == null && isApplicationDeployed(application)) {
+            result.setStatus(RedeploymentResult.Status.REDEPLOYED).setSwapTime(System.currentTimeMillis() - start);
+            return;
+        }
+        LOGGER.warn("New version of Mule application {} failed to start, rolling back to previous version",
+            application);
+        StorageUtils.cleanUpFolder(appFolder);
+        Files.move(backup.toPath(), appFolder.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        Exception rollbackFailure = redeploy(application, deploymentProperties);
+        result.setStatus(rollbackFailure == null && isApplicationDeployed(application)
+                             ? RedeploymentResult.Status.ROLLED_BACK
+                             : RedeploymentResult.Status.FAILED)
+            .setMessage(failure == null ? "New version did not start" : ExceptionUtils.getRootCauseMessage(failure))
+            .setSwapTime(System.currentTimeMillis() - start);
+    }
+
+    private Exception redeploy(String application, Properties deploymentProperties) {
+        try {
+            getDeploymentService().redeploy(application, deploymentProperties);
+            return null;
+        } catch (Exception e) {
+            LOGGER.error("Error redeploying Mule application " + application, e);
+            return e;
+        }
+    }
+
+    /**
+     * Flow of a started application, to invoke it directly within this JVM.
+     *
+     * @param application
+     *     the application
+     * @param flow
+     *     the flow name
+     * @return the flow invoker, empty if application is not started or it has no such flow
+     */
+    @Override
+    public Optional<FlowInvoker> getFlow(String application, String flow) {
+        checkRunning();
+        Registry registry = applicationRegistries.get(application);
+        if (registry == null) {
+            return Optional.empty();
+        }
+        return registry.lookupByName(flow).filter(ExecutableComponent.class::isInstance)
+                   .map(c -> new FlowInvoker(application, flow, (ExecutableComponent)c,
+                       configProperties.getFlows().getInvocationTimeout()));
+    }
+
+    /**
+     * Stop an installed application in place, keeping it installed, so it may be started again without deploying it.
+     *
+     * @param application
+     *     the application
+     */
+    @Override
+    public void stopApplication(String application) {
+        runAdmitted("Stop of " + application, false, () -> {
+            checkRunning();
+            org.mule.runtime.deployment.model.api.application.Application muleApplication = findMuleApplication(
+                application);
+            try {
+                if (ApplicationStatus.STARTED.equals(muleApplication.getStatus())) {
+                    muleApplication.stop();
+                    LOGGER.info("Mule application {} stopped", application);
+                }
+            } catch (Exception e) {
+                throw new DeployArtifactException("Unable to stop mule application: " + application, e);
+            } finally {
+                refreshArtifactIndex(ArtifactType.APPLICATION, application);
+                deploymentStateChanged();
             }
+        });
+    }
+
+    /**
+     * Start an installed application previously stopped.
+     *
+     * @param application
+     *     the application
+     */
+    @Override
+    public void startApplication(String application) {
+        runAdmitted("Start of " + application, true, () -> {
+            checkRunning();
+            org.mule.runtime.deployment.model.api.application.Application muleApplication = findMuleApplication(
+                application);
+            try {
+                if (ApplicationStatus.STARTED.equals(muleApplication.getStatus())) {
+                    return;
+                }
+                if (!ApplicationStatus.STOPPED.equals(muleApplication.getStatus())) {
+                    throw new DeployArtifactException(
+                        "Mule application " + application + " can not be started from status "
+                            + muleApplication.getStatus() + ", it must be deployed again");
+                }
+                muleApplication.start();
+                LOGGER.info("Mule application {} started", application);
+            } catch (DeployArtifactException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new DeployArtifactException("Unable to start mule application: " + application, e);
+            } finally {
+                refreshArtifactIndex(ArtifactType.APPLICATION, application);
+                deploymentStateChanged();
+            }
+        });
+    }
+
+    private org.mule.runtime.deployment.model.api.application.Application findMuleApplication(String application) {
+        return Optional.ofNullable(getDeploymentService().findApplication(application)).orElseThrow(
+            () -> new DeployArtifactException("Application not found: " + application));
+    }
+
+    /**
+     * Mule deployment service.
+     *
+     * @return the deployment service
+     */
+    protected abstract DeploymentService getDeploymentService();
+
+    /**
+     * Deploy a batch of domains and applications.
+     *
+     * @param domains
+     *     the domains
+     * @param applications
+     *     the applications
+     * @param lazyInitializationEnabled
+     *     the lazy initialization enabled
+     * @param xmlValidationsEnabled
+     *     the xml validations enabled
+     * @param lazyConnectionsEnabled
+     *     the lazy connections enabled
+     * @return the deployment result of every artifact, domains first
+     */
+    @Override
+    public List<DeploymentResult> deployBatch(Collection<Resource> domains,
+        Collection<Resource> applications,
+        Boolean lazyInitializationEnabled,
+        Boolean xmlValidationsEnabled,
+        Boolean lazyConnectionsEnabled) {
+        checkRunning();
+        // whole batch is admitted as a single operation
+        return deploymentAdmission.admit(
+            "Batch of " + domains.size() + " domains and " + applications.size() + " applications", true,
+            () -> deployAdmittedBatch(domains, applications, lazyInitializationEnabled, xmlValidationsEnabled,
+                lazyConnectionsEnabled));
+    }
+
+    private List<DeploymentResult> deployAdmittedBatch(Collection<Resource> domains,
+        Collection<Resource> applications,
+        Boolean lazyInitializationEnabled,
+        Boolean xmlValidationsEnabled,
+        Boolean lazyConnectionsEnabled) {
+        int parallelism = Math.max(1, configProperties.getBatch().getParallelism());
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism,
+            new DaemonThreadFactory("mule-batch-deployer-"));
+        try {
+            long start = System.currentTimeMillis();
+            // stage all artifacts in parallel, so applications are staged while domains are deployed. Staging tasks
+            // must be submitted before any deployment task, as deployment tasks wait for them on same executor
+            Map<Resource, CompletableFuture<File>> staged = new LinkedHashMap<>();
+            domains.forEach(r -> staged.put(r, CompletableFuture.supplyAsync(() -> stage(ArtifactType.DOMAIN, r),
+                executor)));
+            applications.forEach(r -> staged.put(r,
+                CompletableFuture.supplyAsync(() -> stage(ArtifactType.APPLICATION, r), executor)));
+            // 1. deploy domains
+            List<DeploymentResult> results = domains.stream().map(r -> CompletableFuture.supplyAsync(
+                deploymentAdmission.inherit(
+                    () -> deployBatchArtifact(ArtifactType.DOMAIN, r, staged.get(r), Collections.emptySet(),
+                        lazyInitializationEnabled, xmlValidationsEnabled, lazyConnectionsEnabled)), executor))
+                                                 .collect(Collectors.toList()).stream().map(CompletableFuture::join)
+                                                 .collect(Collectors.toList());
+            Set<String> failedDomains = results.stream().filter(r -> r.getStatus() != Status.DEPLOYED)
+                                            .map(DeploymentResult::getName).collect(Collectors.toSet());
+            // 2. deploy applications of successfully deployed domains
+            applications.stream().map(r -> CompletableFuture.supplyAsync(deploymentAdmission.inherit(
+                () -> deployBatchArtifact(ArtifactType.APPLICATION, r, staged.get(r), failedDomains,
+                    lazyInitializationEnabled, xmlValidationsEnabled, lazyConnectionsEnabled)), executor))
+                .collect(Collectors.toList()).stream().map(CompletableFuture::join).forEach(results::add);
+            LOGGER.info("Batch of {} domains and {} applications processed in {} ms", domains.size(),
+                applications.size(), System.currentTimeMillis() - start);
+            return results;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private DeploymentResult deployBatchArtifact(ArtifactType type,
+        Resource resource,
+        CompletableFuture<File> staged,
+        Set<String> failedDomains,
+        Boolean lazyInitializationEnabled,
+        Boolean xmlValidationsEnabled,
+        Boolean lazyConnectionsEnabled) {
+        long start = System.currentTimeMillis();
+        DeploymentResult result = new DeploymentResult().setType(type).setName(getBaseName(resource.getFilename()));
+        try {
+            File file = staged.join();
+            result.setName(getBaseName(file.getName()));
+            if (ArtifactType.DOMAIN.equals(type)) {
+                deployDomain(file, lazyInitializationEnabled, xmlValidationsEnabled, lazyConnectionsEnabled);
+            } else {
+                String domain = getApplicationDomain(file);
+                result.setDomain(domain);
+                if (failedDomains.contains(domain)) {
+                    return result.setStatus(Status.SKIPPED).setMessage("Domain not deployed: " + domain)
+                               .setElapsed(System.currentTimeMillis() - start);
+                }
+                deployApplication(file, lazyInitializationEnabled, xmlValidationsEnabled, lazyConnectionsEnabled);
+            }
+            result.setStatus(Status.DEPLOYED);
+        } catch (Exception e) {
+            LOGGER.error("Error deploying " + type + " " + result.getName() + " within batch", e);
+            result.setStatus(Status.FAILED).setMessage(ExceptionUtils.getRootCauseMessage(e));
+        }
+        return result.setElapsed(System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Name of the domain an application belongs to, resolved from its class loader model.
+     *
+     * @param applicationFile
+     *     the application file
+     * @return the domain name, 'default' if application does not depend on any domain
+     * @throws IOException
+     *     the io exception
+     */
+    protected String getApplicationDomain(File applicationFile) throws IOException {
+        try (ZipFile zip = new ZipFile(applicationFile)) {
+            ZipEntry entry = zip.getEntry(CLASSLOADER_MODEL);
+            if (entry == null) {
+                return DEFAULT_DOMAIN;
+            }
+            String json;
+            try (InputStream is = zip.getInputStream(entry)) {
+                json = StreamUtils.copyToString(is, UTF_8);
+            }
+            Object dependencies = JsonParserFactory.getJsonParser().parseMap(json).get("dependencies");
+            if (dependencies instanceof List) {
+                for (Object dependency : (List<?>)dependencies) {
+                    Object coordinates = dependency instanceof Map
+                                             ? ((Map<?, ?>)dependency).get("artifactCoordinates")
+                                             : null;
+                    if (coordinates instanceof Map) {
+                        Map<?, ?> c = (Map<?, ?>)coordinates;
+                        if ("mule-domain".equals(c.get("classifier"))) {
+                            return c.get("artifactId") + "-" + c.get("version") + MULE_DOMAIN_SUFFIX;
+                        }
+                    }
+                }
+            }
+            return DEFAULT_DOMAIN;
+        }
+    }
+
+    /**
+     * Whether Mule is ready.
+     *
+     * @return the boolean
+     */
+    @Override
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    /**
+     * Interface for running deployment tasks within the container class loader.
+     */
+    @FunctionalInterface
+    public interface DeploymentTask {
+
+        /**
+         * Deploy.
+         *
+         * @param deploymentProperties
+         *     the deployment properties
+         * @throws IOException
+         *     the io exception
+         */
+        void deploy(Properties deploymentProperties) throws IOException;
+
+    }
+
+    // stages new version of an application
+    @FunctionalInterface
+    private interface StagingTask {
+
+        void stage(File staged, File workFolder) throws IOException;
+
+    }
+
+    // container lifecycle phase, returns processed bytes or negative if unknown
+    @FunctionalInterface
+    private interface PhaseTask {
+
+        long run() throws Exception; //NOSONAR
+
+    }
+
+    /**
+     * Interface for running tasks within the container class loader.
+     */
+    @FunctionalInterface
+    public interface ContainerTask {
+
+        /**
+         * Run.
+         *
+         * @throws Exception
+         *     the exception
+         */
+        void run() throws Exception; //NOSONAR
+
+    }
+
+    /**
+     * Start.
+     */
+    @Override
+    public synchronized void start() {
+        try {
+            if (started.getAndSet(true)) {
+                LOGGER.warn("Mule Runtime already started!");
+                return;
+            }
+            LOGGER.info("Starting Mule Runtime [{} {} build {} + Spring Boot {} + Spring Framework {}]...",
+                MuleManifest.getProductName(), MuleManifest.getProductVersion(), MuleManifest.getBuildNumber(),
+                SpringBootVersion.getVersion(), SpringVersion.getVersion());
+            deploymentStateEpoch = System.currentTimeMillis();
+            // count in-flight events of every started application, so they may be drained on shutdown
+            artifactRegistryListeners.remove(inflightEvents);
+            if (!configProperties.getShutdown().getDrainTimeout().isZero()) {
+                artifactRegistryListeners.add(inflightEvents);
+            }
+            tracePhase(LifecycleTracer.CONTAINER_START, () -> {
+                setUpEnvironmentAndStart();
+                rebuildArtifactIndex();
+                return -1;
+            });
+            running.set(true);
+            deploymentStateChanged();
+            LOGGER.info("Mule Runtime is ready");
+        } catch (Exception e) {
             stop();
+            throw new IllegalStateException("Unable to start Mule Runtime", e);
+        }
+        // ORDER MATTERS!!
+        // artifacts to deploy at startup are not subject to admission control
+        deploymentAdmission.exempt(() -> {
+            // 1. deploy domains found on mule.domains property
+            deployMuleDomains();
+            // 2. deploy applications found on mule.apps property
+            deployMuleApplications();
+        });
+    }
+
+    /**
+     * Stop.
+     */
+    @Override
+    public synchronized void stop() {
+        boolean wasRunning = running.getAndSet(false);
+        if (!wasRunning && !started.get()) {
+            LOGGER.warn("Mule Runtime already stopped!");
+            return;
+        }
+        try {
+            LOGGER.info("Stopping Mule Runtime ...");
+            long start = System.currentTimeMillis();
+            if (wasRunning) {
+                Shutdown shutdown = configProperties.getShutdown();
+                ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, shutdown.getParallelism()),
+                    new DaemonThreadFactory("mule-shutdown-"));
+                try {
+                    // ORDER MATTERS!! no new events are accepted while in-flight ones complete
+                    shutdownPhase(LifecycleTracer.SOURCES_STOP, () -> stopMessageSources(executor));
+                    shutdownPhase(LifecycleTracer.DRAIN, () -> drainInflightEvents(shutdown.getDrainTimeout()));
+                    shutdownPhase(LifecycleTracer.ARTIFACTS_STOP, () -> stopArtifacts(executor));
+                } finally {
+                    executor.shutdown();
+                }
+            }
+            shutdownPhase(LifecycleTracer.CONTAINER_DISPOSE, () -> {
+                disposeMuleContainer(containerClassLoader);
+                return -1;
+            });
+            LOGGER.info("Mule Runtime stopped in {} ms", System.currentTimeMillis() - start);
+        } finally {
+            started.set(false);
+            domainIndex.replaceAll(Collections.emptyList());
+            applicationIndex.replaceAll(Collections.emptyList());
+            applicationRegistries.clear();
+            deploymentStateChanged();
+        }
+    }
+
+    // shutdown phases are timed and best effort, so a failed phase does not prevent next ones
+    private void shutdownPhase(String phase, PhaseTask task) {
+        long start = System.currentTimeMillis();
+        try {
+            tracePhase(phase, task);
+        } catch (Exception e) {
+            LOGGER.warn("Mule Runtime shutdown phase " + phase + " failed", e);
+        } finally {
+            LOGGER.info("Mule Runtime shutdown phase {} took {} ms", phase, System.currentTimeMillis() - start);
+        }
+    }
+
+    private long stopMessageSources(ExecutorService executor) {
+        runAll(executor, new ArrayList<>(applicationRegistries.entrySet()),
+            e -> stopMessageSources(e.getKey(), e.getValue()));
+        return -1;
+    }
+
+    private void stopMessageSources(String application, Registry registry) {
+        try {
+            ClassLoader classLoader = registry.lookupByType(MuleContext.class).map(
+                MuleContext::getExecutionClassLoader).orElse(Thread.currentThread().getContextClassLoader());
+            executeWithinClassLoader(classLoader, () -> {
+                for (Flow flow : registry.lookupAllByType(Flow.class)) {
+                    if (flow.getSource() instanceof Stoppable) {
+                        ((Stoppable)flow.getSource()).stop();
+                    }
+                }
+            });
+            LOGGER.debug("Message sources of Mule application {} stopped", application);
+        } catch (Exception e) {
+            LOGGER.warn("Unable to stop message sources of Mule application " + application, e);
+        }
+    }
+
+    private long drainInflightEvents(Duration timeout) {
+        int inflight = inflightEvents.getInflight();
+        if (inflight == 0) {
+            return -1;
+        }
+        LOGGER.info("Waiting up to {} ms for {} in-flight events to complete", timeout.toMillis(), inflight);
+        try {
+            inflight = inflightEvents.awaitCompletion(timeout);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
+        if (inflight > 0) {
+            LOGGER.warn("{} in-flight events did not complete within {} ms", inflight, timeout.toMillis());
+        }
+        return -1;
+    }
+
+    private long stopArtifacts(ExecutorService executor) {
+        DeploymentService deploymentService = getDeploymentService();
+        // applications do not depend on each other, domains are stopped once all their applications are stopped
+        runAll(executor, new ArrayList<>(deploymentService.getApplications()),
+            a -> stopArtifact(ArtifactType.APPLICATION, a));
+        runAll(executor, new ArrayList<>(deploymentService.getDomains()), d -> stopArtifact(ArtifactType.DOMAIN, d));
+        return -1;
+    }
+
+    // stops an artifact, keeping it installed, it is disposed along with Mule container
+    private void stopArtifact(ArtifactType type, DeployableArtifact artifact) {
+        if (ArtifactType.APPLICATION.equals(type) && !ApplicationStatus.STARTED.equals(
+            ((org.mule.runtime.deployment.model.api.application.Application)artifact).getStatus())) {
+            // already stopped in place, or failed
+            return;
+        }
+        long start = System.currentTimeMillis();
+        try {
+            artifact.stop();
+            LOGGER.info("Mule {} {} stopped in {} ms", type.name().toLowerCase(), artifact.getArtifactName(),
+                System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            LOGGER.warn("Error stopping " + type + " " + artifact.getArtifactName(), e);
+        }
+    }
+
+    // runs a task per item on executor and waits for all of them, tasks must handle their own errors
+    private static <T> void runAll(ExecutorService executor, Collection<T> items, Consumer<T> task) {
+        items.stream().map(i -> CompletableFuture.runAsync(() -> task.accept(i), executor))
+            .collect(Collectors.toList()).forEach(CompletableFuture::join);
+    }
+
+    /**
+     * Deployment state version, monotonically increased on any change of deployed artifacts.
+     *
+     * @return the deployment state version
+     */
+    @Override
+    public long getDeploymentStateVersion() {
+        return deploymentStateVersion.get();
+    }
+
+    /**
+     * Deployment state epoch, changes every time Mule Runtime starts.
+     *
+     * @return the deployment state epoch
+     */
+    @Override
+    public long getDeploymentStateEpoch() {
+        return deploymentStateEpoch;
+    }
+
+    /**
+     * Signal a change of deployed artifacts.
+     */
+    protected void deploymentStateChanged() {
+        deploymentStateVersion.incrementAndGet();
     }
 
     /**
-     * Whether application is installed (application directory exists).
+     * Add listener for started and stopped artifacts.
      *
-     * @param application
-     *     the application
-     * @return the boolean
+     * @param listener
+     *     the listener
      */
     @Override
-    public boolean isApplicationInstalled(String application) {
-        checkRunning();
-        return getAppFolder(application).exists();
+    public void addArtifactRegistryListener(ArtifactRegistryListener listener) {
+        artifactRegistryListeners.add(listener);
     }
 
     /**
-     * Whether domain is installed (domain directory exists).
+     * Remove listener for started and stopped artifacts.
      *
-     * @param domain
-     *     the domain
-     * @return the boolean
+     * @param listener
+     *     the listener
      */
     @Override
-    public boolean isDomainInstalled(String domain) {
-        checkRunning();
-        return getDomainFolder(domain).exists();
+    public void removeArtifactRegistryListener(ArtifactRegistryListener listener) {
+        artifactRegistryListeners.remove(listener);
     }
 
     /**
-     * Deploy application.
+     * Deployment operations admission control.
      *
-     * @param appFile
-     *     the app file
-     * @param lazyInitializationEnabled
-     *     the lazy initialization enabled
-     * @param xmlValidationsEnabled
-     *     the xml validations enabled
-     * @param lazyConnectionsEnabled
-     *     the lazy connections enabled
+     * @return the deployment admission
      */
     @Override
-    public synchronized void deployApplication(File appFile,
-        Boolean lazyInitializationEnabled,
-        Boolean xmlValidationsEnabled,
-        Boolean lazyConnectionsEnabled) {
-        checkRunning();
-        deployApplication(appFile.toURI(), lazyInitializationEnabled, xmlValidationsEnabled, lazyConnectionsEnabled);
+    public DeploymentAdmission getDeploymentAdmission() {
+        return deploymentAdmission;
     }
 
     /**
-     * Deploy domain.
+     * Set recorder of deployment operations.
      *
-     * @param domainFile
-     *     the domain file
-     * @param lazyInitializationEnabled
-     *     the lazy initialization enabled
-     * @param xmlValidationsEnabled
-     *     the xml validations enabled
-     * @param lazyConnectionsEnabled
-     *     the lazy connections enabled
+     * @param deploymentRecorder
+     *     the deployment recorder
      */
     @Override
-    public synchronized void deployDomain(File domainFile,
-        Boolean lazyInitializationEnabled,
-        Boolean xmlValidationsEnabled,
-        Boolean lazyConnectionsEnabled) {
-        checkRunning();
-        deployDomain(domainFile.toURI(), lazyInitializationEnabled, xmlValidationsEnabled, lazyConnectionsEnabled);
+    public void setDeploymentRecorder(DeploymentRecorder deploymentRecorder) {
+        this.deploymentRecorder = deploymentRecorder;
     }
 
     /**
-     * Whether Mule is ready.
+     * Set tracer of container lifecycle phases and deployment operations.
      *
-     * @return the boolean
+     * @param lifecycleTracer
+     *     the lifecycle tracer
      */
     @Override
-    public boolean isRunning() {
-        return running.get();
+    public void setLifecycleTracer(LifecycleTracer lifecycleTracer) {
+        this.lifecycleTracer = lifecycleTracer;
     }
 
     /**
-     * Interface for running deployment tasks within the container class loader.
+     * Run an operation over an artifact, recording its duration and outcome.
+     *
+     * @param operation
+     *     the operation, see {@link DeploymentRecorder}
+     * @param type
+     *     the artifact type
+     * @param name
+     *     the artifact name
+     * @param task
+     *     the task
      */
-    @FunctionalInterface
-    public interface DeploymentTask {
-
-        /**
-         * Deploy.
-         *
-         * @param deploymentProperties
-         *     the deployment properties
-         * @throws IOException
-         *     the io exception
-         */
-        void deploy(Properties deploymentProperties) throws IOException;
-
+    protected void recordOperation(String operation, ArtifactType type, String name, Runnable task) {
+        recordOperation(operation, type, name, () -> {
+            task.run();
+            return null;
+        });
     }
 
     /**
-     * Interface for running tasks within the container class loader.
+     * Run an operation over an artifact, recording its duration and outcome.
+     *
+     * @param <T>
+     *     the result type
+     * @param operation
+     *     the operation, see {@link DeploymentRecorder}
+     * @param type
+     *     the artifact type
+     * @param name
+     *     the artifact name
+     * @param task
+     *     the task
+     * @return the task result
      */
-    @FunctionalInterface
-    public interface ContainerTask {
-
-        /**
-         * Run.
-         *
-         * @throws Exception
-         *     the exception
-         */
-        void run() throws Exception; //NOSONAR
+    protected <T> T recordOperation(String operation, ArtifactType type, String name, Supplier<T> task) {
+        return recordOperation(operation, type, name, -1, task);
+    }
 
+    /**
+     * Run an operation over an artifact of known size, recording its duration and outcome.
+     *
+     * @param operation
+     *     the operation, see {@link DeploymentRecorder}
+     * @param type
+     *     the artifact type
+     * @param name
+     *     the artifact name
+     * @param bytes
+     *     the artifact size in bytes, negative if unknown
+     * @param task
+     *     the task
+     */
+    protected void recordOperation(String operation, ArtifactType type, String name, long bytes, Runnable task) {
+        recordOperation(operation, type, name, bytes, () -> {
+            task.run();
+            return null;
+        });
     }
 
     /**
-     * Start.
+     * Run an operation over an artifact of known size, recording its duration and outcome.
+     *
+     * @param <T>
+     *     the result type
+     * @param operation
+     *     the operation, see {@link DeploymentRecorder}
+     * @param type
+     *     the artifact type
+     * @param name
+     *     the artifact name
+     * @param bytes
+     *     the artifact size in bytes, negative if unknown
+     * @param task
+     *     the task
+     * @return the task result
      */
-    @Override
-    public synchronized void start() {
+    protected <T> T recordOperation(String operation,
+        ArtifactType type,
+        String name,
+        long bytes,
+        Supplier<T> task) {
+        long start = System.nanoTime();
+        LifecycleTracer.Phase phase = trace(operation, type, name);
         try {
-            if (started.getAndSet(true)) {
-                LOGGER.warn("Mule Runtime already started!");
-                return;
-            }
-            LOGGER.info("Starting Mule Runtime [{} {} build {} + Spring Boot {} + Spring Framework {}]...",
-                MuleManifest.getProductName(), MuleManifest.getProductVersion(), MuleManifest.getBuildNumber(),
-                SpringBootVersion.getVersion(), SpringVersion.getVersion());
-            setUpEnvironmentAndStart();
-            running.set(true);
-            LOGGER.info("Mule Runtime is ready");
-        } catch (Exception e) {
-            stop();
-            throw new IllegalStateException("Unable to start Mule Runtime", e);
+            T result = task.get();
+            record(operation, type, name, true, start);
+            end(phase, true, bytes);
+            return result;
+        } catch (DeploymentRejectedException e) {
+            // operation not attempted, already accounted by admission control
+            throw e;
+        } catch (RuntimeException e) {
+            record(operation, type, name, false, start);
+            end(phase, false, bytes);
+            throw e;
         }
-        // ORDER MATTERS!!
-        // 1. deploy domains found on mule.domains property
-        deployMuleDomains();
-        // 2. deploy applications found on mule.apps property
-        deployMuleApplications();
     }
 
     /**
-     * Stop.
+     * Size of an artifact to be deployed.
+     *
+     * @param uri
+     *     the artifact uri
+     * @return the artifact size in bytes, negative if unknown
      */
-    @Override
-    public synchronized void stop() {
-        if (!running.getAndSet(false) && !started.get()) {
-            LOGGER.warn("Mule Runtime already stopped!");
-            return;
+    protected long artifactBytes(URI uri) {
+        return "file".equals(uri.getScheme()) ? new File(uri).length() : -1;
+    }
+
+    // tracer must never break a container phase
+    private LifecycleTracer.Phase trace(String phase, ArtifactType type, String name) {
+        try {
+            return lifecycleTracer.begin(phase, type, name);
+        } catch (Exception e) {
+            LOGGER.debug("Unable to trace {} of {} {}: {}", phase, type, name, e.getMessage());
+            return LifecycleTracer.Phase.NOOP;
         }
+    }
+
+    private void end(LifecycleTracer.Phase phase, boolean success, long bytes) {
         try {
-            LOGGER.info("Stopping Mule Runtime ...");
-            disposeMuleContainer(containerClassLoader);
+            phase.end(success, bytes);
+        } catch (Exception e) {
+            LOGGER.debug("Unable to end traced phase: {}", e.getMessage());
+        }
+    }
+
+    private long tracePhase(String name, PhaseTask task) throws Exception {
+        LifecycleTracer.Phase phase = trace(name, null, null);
+        boolean success = false;
+        long bytes = -1;
+        try {
+            bytes = task.run();
+            success = true;
+            return bytes;
         } finally {
-            started.set(false);
+            end(phase, success, bytes);
+        }
+    }
+
+    // recorder must never break a deployment operation
+    private void record(String operation, ArtifactType type, String name, boolean success, long start) {
+        try {
+            deploymentRecorder.operation(operation, type, name, success, System.nanoTime() - start);
+        } catch (Exception e) {
+            LOGGER.debug("Unable to record {} of {} {}: {}", operation, type, name, e.getMessage());
+        }
+    }
+
+    // size of a deployed artifact, unknown for remote ones
+    private void recordArtifactSize(ArtifactType type, URI artifact) {
+        try {
+            long bytes = artifactBytes(artifact);
+            if (bytes >= 0) {
+                deploymentRecorder.artifactSize(type, getBaseName(artifact.getPath()), bytes);
+            }
+        } catch (Exception e) {
+            LOGGER.debug("Unable to record size of {} {}: {}", type, artifact, e.getMessage());
         }
     }
 
+    // copy artifact into local file system (if required) to deploy it
+    private File stage(ArtifactType type, Resource resource) {
+        return recordOperation(DeploymentRecorder.STAGE, type, getBaseName(resource.getFilename()),
+            () -> StorageUtils.storeArtifactTempOrGet(resource));
+    }
+
+    /**
+     * Retained artifact deployment state changes after provided event id.
+     *
+     * @param lastEventId
+     *     the last event id, negative for all retained events
+     * @return the artifact events
+     */
+    @Override
+    public List<ArtifactEvent> getArtifactEvents(long lastEventId) {
+        return artifactEventJournal.getEvents(lastEventId);
+    }
+
+    /**
+     * Add artifact deployment state changes listener.
+     *
+     * @param cursor
+     *     the cursor ({@code <epoch>-<id>}) of the last event received by listener, retained events after it will
+     *     be replayed, or a reset notified if it is not retained. Null to receive only new events
+     * @param listener
+     *     the listener
+     */
+    @Override
+    public void addArtifactEventListener(String cursor, ArtifactEventListener listener) {
+        artifactEventJournal.subscribe(cursor, listener);
+    }
+
+    /**
+     * Remove artifact deployment state changes listener.
+     *
+     * @param listener
+     *     the listener
+     */
+    @Override
+    public void removeArtifactEventListener(ArtifactEventListener listener) {
+        artifactEventJournal.unsubscribe(listener);
+    }
+
+    /**
+     * Register deployment listeners to track artifact deployment state changes. Must be called before Mule
+     * container starts to also track artifacts deployed at start time.
+     *
+     * @param deploymentService
+     *     the deployment service
+     */
+    protected void registerDeploymentListeners(DeploymentService deploymentService) {
+        deploymentService.addDomainDeploymentListener(new ArtifactDeploymentListener(ArtifactType.DOMAIN));
+        deploymentService.addDeploymentListener(new ArtifactDeploymentListener(ArtifactType.APPLICATION));
+    }
+
+    /**
+     * Publish artifact deployment state change.
+     *
+     * @param type
+     *     the artifact type
+     * @param name
+     *     the artifact name
+     * @param action
+     *     the action
+     * @param cause
+     *     the failure cause, may be null
+     */
+    protected void publishArtifactEvent(ArtifactType type, String name, Action action, Throwable cause) {
+        refreshArtifactIndex(type, name);
+        deploymentStateChanged();
+        artifactEventJournal.publish(new ArtifactEvent().setType(type).setName(name).setAction(action)
+                                         .setMessage(cause == null ? null : cause.getMessage())
+                                         .setTimestamp(System.currentTimeMillis()));
+    }
+
     /**
      * Container class loader.
      *
@@ -331,7 +1481,8 @@ public abstract class SpringMuleContainerImpl implements SpringMuleContainer {
 
             setProperty(MULE_HOME_DIRECTORY_PROPERTY, configProperties.getBase().toURI().getPath());
 
-            if (configProperties.isSimpleLog()) {
+            // simple log configuration is synchronous, so async logging takes precedence
+            if (configProperties.isSimpleLog() && !configProperties.getLogging().isAsync()) {
                 setProperty(MuleSystemProperties.MULE_SIMPLE_LOG, "true");
             } else {
                 clearProperty(MuleSystemProperties.MULE_SIMPLE_LOG);
@@ -340,6 +1491,14 @@ public abstract class SpringMuleContainerImpl implements SpringMuleContainer {
             getMuleBaseFolder().mkdirs();
             getConfFolder().mkdirs();
             getLogFolder().mkdirs();
+            if (configProperties.getLogging().isAsync()) {
+                LoggingUtils.log4jProperties(configProperties.getLogging()).forEach(System::setProperty);
+                LoggingUtils.writeLog4jConf(configProperties.getLogging(), getConfFolder());
+            }
+            if (configProperties.getSchedulers().isEnabled()) {
+                SchedulerPoolsUtils.writeSchedulerPoolsConf(configProperties.getSchedulers(),
+                    configProperties.getThreadBudget(), getConfFolder());
+            }
 
             if (configProperties.isCleanStartup()) {
                 LOGGER.info("Cleaning-up artifact forders before start Mule Runtime ...");
@@ -351,26 +1510,30 @@ public abstract class SpringMuleContainerImpl implements SpringMuleContainer {
             getAppsFolder().mkdirs();
             // extract Mule services as they must be loaded from local file system (Mule Runtime requirement).
             // We will do it always to allow update Mule runtime version on an existing mule forder.
-            installOrUpgradeServices();
+            tracePhase(LifecycleTracer.SERVICES_EXTRACTION, this::installOrUpgradeServices);
             // extract Mule server plugins as they must be loaded from local file system (Mule Runtime requirement).
             // We will do it always to allow update Mule runtime version on an existing mule forder.
             installOrUpgradeServerPlugins();
-            // Create a composite classloader to avoid loading mule services or patches from container classloader.
-            containerClassLoader = new CompositeClassLoader(buildContainerClassloader());
-            // Create a high priority patches classloader to ensure those patches take precedence over rest of
-            // classes/resources
-            ClassLoader patchesClassLoader = buildPatchesClassloader();
-            if (patchesClassLoader != null) {
-                containerClassLoader = new CompositeClassLoader(patchesClassLoader, containerClassLoader);
-            }
+            tracePhase(LifecycleTracer.CLASSLOADER, () -> {
+                // Create a composite classloader to avoid loading mule services or patches from container
+                // classloader.
+                containerClassLoader = new CompositeClassLoader(buildContainerClassloader());
+                // Create a high priority patches classloader to ensure those patches take precedence over rest of
+                // classes/resources
+                ClassLoader patchesClassLoader = buildPatchesClassloader();
+                if (patchesClassLoader != null) {
+                    containerClassLoader = new CompositeClassLoader(patchesClassLoader, containerClassLoader);
+                }
+                return -1;
+            });
             initMuleContainer(containerClassLoader);
         } catch (Exception e) {
             throw new IllegalStateException("Unable to start Mule Runtime container!", e);
         }
     }
 
-    // load mule services URLs from classloader and install them on local file system
-    private void installOrUpgradeServices() throws IOException {
+    // load mule services URLs from classloader and install them on local file system, returns extracted bytes
+    private long installOrUpgradeServices() throws IOException {
         // delete services folder to allow update mule runtime on existing base folder
         StorageUtils.cleanUpFolder(getServicesFolder());
         getServicesFolder().mkdirs();
@@ -386,6 +1549,7 @@ public abstract class SpringMuleContainerImpl implements SpringMuleContainer {
 
         // extract Mule services as they must be loaded from local file system (Mule Runtime requirement).
         // We will do it always to allow update Mule runtime version on an existing mule forder.
+        long bytes = 0;
         for (URL url : services) {
             if (LOGGER.isDebugEnabled()) {
                 LOGGER.debug("Installing Mule service {} ...", url.getPath());
@@ -393,8 +1557,9 @@ public abstract class SpringMuleContainerImpl implements SpringMuleContainer {
             File destinationFile = new File(getServicesFolder(),
                 getName(url.getFile().replace("-mule-service.jar", "").replace(WITHIN_JAR, "")));
             destinationFile.mkdirs();
-            StorageUtils.unzip(url.openStream(), destinationFile);
+            bytes += StorageUtils.unzip(url.openStream(), destinationFile);
         }
+        return bytes;
     }
 
     // load mule server plugins Resources from configuration and install them on local file system
@@ -546,7 +1711,93 @@ public abstract class SpringMuleContainerImpl implements SpringMuleContainer {
      * @param lazyConnectionsEnabled
      *     the lazy connections enabled
      */
-    public synchronized void deployArtifact(DeploymentTask deploymentTask,
+    public void deployArtifact(DeploymentTask deploymentTask,
+        Boolean lazyInitializationEnabled,
+        Boolean xmlValidationsEnabled,
+        Boolean lazyConnectionsEnabled) {
+        deployArtifact(null, deploymentTask, lazyInitializationEnabled, xmlValidationsEnabled,
+            lazyConnectionsEnabled);
+    }
+
+    /**
+     * Deploy artifact, applying scheduler pools configuration of application if any.
+     *
+     * @param application
+     *     the application name, null for domains
+     * @param deploymentTask
+     *     the deployment task
+     * @param lazyInitializationEnabled
+     *     the lazy initialization enabled
+     * @param xmlValidationsEnabled
+     *     the xml validations enabled
+     * @param lazyConnectionsEnabled
+     *     the lazy connections enabled
+     */
+    public void deployArtifact(String application,
+        DeploymentTask deploymentTask,
+        Boolean lazyInitializationEnabled,
+        Boolean xmlValidationsEnabled,
+        Boolean lazyConnectionsEnabled) {
+        runAdmitted("Deployment", true,
+            () -> deployAdmittedArtifact(application, null, null, deploymentTask, lazyInitializationEnabled,
+                xmlValidationsEnabled, lazyConnectionsEnabled));
+    }
+
+    /**
+     * Deploy artifact from provided location, applying scheduler pools configuration of application if any. Size of
+     * artifact is recorded once it is deployed.
+     *
+     * @param type
+     *     the artifact type
+     * @param artifact
+     *     the artifact location
+     * @param deploymentTask
+     *     the deployment task
+     * @param lazyInitializationEnabled
+     *     the lazy initialization enabled
+     * @param xmlValidationsEnabled
+     *     the xml validations enabled
+     * @param lazyConnectionsEnabled
+     *     the lazy connections enabled
+     */
+    public void deployArtifact(ArtifactType type,
+        URI artifact,
+        DeploymentTask deploymentTask,
+        Boolean lazyInitializationEnabled,
+        Boolean xmlValidationsEnabled,
+        Boolean lazyConnectionsEnabled) {
+        String application = ArtifactType.APPLICATION.equals(type) ? getBaseName(artifact.getPath()) : null;
+        runAdmitted("Deployment", true,
+            () -> deployAdmittedArtifact(application, type, artifact, deploymentTask, lazyInitializationEnabled,
+                xmlValidationsEnabled, lazyConnectionsEnabled));
+    }
+
+    /**
+     * Run a deployment operation once admitted, within deployment lock.
+     * <p>
+     * Deployment lock serializes operations, so admission permits beyond one ({@code mule.admission.maxConcurrent})
+     * just let admitted operations wait for it.
+     *
+     * @param operation
+     *     the operation description
+     * @param memoryGated
+     *     whether operation requires free heap and metaspace (deployments) or not (un-deployments)
+     * @param task
+     *     the task
+     */
+    protected void runAdmitted(String operation, boolean memoryGated, Runnable task) {
+        deploymentAdmission.admit(operation, memoryGated, () -> {
+            synchronized (this) {
+                task.run();
+            }
+        });
+    }
+
+    // artifact location is provided to record its size once deployed
+    private void deployAdmittedArtifact(String application,
+        ArtifactType type,
+        URI artifact,
+        DeploymentTask deploymentTask,
         Boolean lazyInitializationEnabled,
         Boolean xmlValidationsEnabled,
         Boolean lazyConnectionsEnabled) {
@@ -559,10 +1810,23 @@ public abstract class SpringMuleContainerImpl implements SpringMuleContainer {
                 valueOf(Optional.ofNullable(xmlValidationsEnabled).orElse(configProperties.isXmlValidationsEnabled())));
             deploymentProperties.put(MULE_LAZY_CONNECTIONS_DEPLOYMENT_PROPERTY, valueOf(
                 Optional.ofNullable(lazyConnectionsEnabled).orElse(configProperties.isLazyConnectionsEnabled())));
+            // dedicated scheduler pools of application, as Mule scheduler pools configuration properties
+            ApplicationSchedulers schedulers =
+                application == null ? null : configProperties.getApplicationSchedulers().get(application);
+            if (schedulers != null && Isolation.DEDICATED.equals(schedulers.getIsolation())) {
+                SchedulerPoolsUtils.warnFixedPoolsMaxSize(application, schedulers);
+                deploymentProperties.putAll(SchedulerPoolsUtils.schedulerPoolsConf(schedulers,
+                    configProperties.getSchedulers().getGracefulShutdownTimeout()));
+            }
             // deploy artifact
             deploymentTask.deploy(deploymentProperties);
+            if (artifact != null) {
+                recordArtifactSize(type, artifact);
+            }
         } catch (Exception e) {
             throw new DeployArtifactException("Unable to deploy actifact", e);
+        } finally {
+            deploymentStateChanged();
         }
     }
 
@@ -615,7 +1879,7 @@ public abstract class SpringMuleContainerImpl implements SpringMuleContainer {
             configProperties.setApps(artifacts);
 
             for (Resource res : configProperties.getApps()) {
-                File f = StorageUtils.storeArtifactTempOrGet(res);
+                File f = stage(ArtifactType.APPLICATION, res);
                 if (!isDeployed(getAppsFolder(), f)) {
                     deployApplication(f, null, null, null);
                 } else {
@@ -658,7 +1922,7 @@ public abstract class SpringMuleContainerImpl implements SpringMuleContainer {
             configProperties.setDomains(artifacts);
 
             for (Resource res : configProperties.getDomains()) {
-                File f = StorageUtils.storeArtifactTempOrGet(res);
+                File f = stage(ArtifactType.DOMAIN, res);
                 if (!isDeployed(getDomainsFolder(), f)) {
                     deployDomain(f, null, null, null);
                 } else {
@@ -710,4 +1974,105 @@ public abstract class SpringMuleContainerImpl implements SpringMuleContainer {
         }
     }
 
+    // translates Mule deployment notifications into artifact events
+    private class ArtifactDeploymentListener implements DeploymentListener {
+
+        private final ArtifactType type;
+
+        ArtifactDeploymentListener(ArtifactType type) {
+            this.type = type;
+        }
+
+        @Override
+        public void onDeploymentStart(String artifactName) {
+            publishArtifactEvent(type, artifactName, Action.DEPLOYMENT_START, null);
+        }
+
+        @Override
+        public void onDeploymentSuccess(String artifactName) {
+            publishArtifactEvent(type, artifactName, Action.DEPLOYMENT_SUCCESS, null);
+        }
+
+        @Override
+        public void onDeploymentFailure(String artifactName, Throwable cause) {
+            publishArtifactEvent(type, artifactName, Action.DEPLOYMENT_FAILURE, cause);
+        }
+
+        @Override
+        public void onUndeploymentStart(String artifactName) {
+            publishArtifactEvent(type, artifactName, Action.UNDEPLOYMENT_START, null);
+        }
+
+        @Override
+        public void onUndeploymentSuccess(String artifactName) {
+            publishArtifactEvent(type, artifactName, Action.UNDEPLOYMENT_SUCCESS, null);
+        }
+
+        @Override
+        public void onUndeploymentFailure(String artifactName, Throwable cause) {
+            publishArtifactEvent(type, artifactName, Action.UNDEPLOYMENT_FAILURE, cause);
+        }
+
+        @Override
+        public void onArtifactCreated(String artifactName, CustomizationService customizationService) {
+            for (ArtifactRegistryListener listener : artifactRegistryListeners) {
+                try {
+                    listener.onArtifactCreated(type, artifactName, customizationService);
+                } catch (Exception e) {
+                    LOGGER.warn("Error notifying created " + type + " " + artifactName, e);
+                }
+            }
+        }
+
+        @Override
+        public void onArtifactStarted(String artifactName, Registry registry) {
+            if (ArtifactType.APPLICATION.equals(type)) {
+                applicationRegistries.put(artifactName, registry);
+            }
+            publishArtifactEvent(type, artifactName, Action.STARTED, null);
+            for (ArtifactRegistryListener listener : artifactRegistryListeners) {
+                try {
+                    listener.onArtifactStarted(type, artifactName, registry);
+                } catch (Exception e) {
+                    LOGGER.warn("Error notifying started " + type + " " + artifactName, e);
+                }
+            }
+        }
+
+        @Override
+        public void onArtifactStopped(String artifactName, Registry registry) {
+            if (ArtifactType.APPLICATION.equals(type)) {
+                applicationRegistries.remove(artifactName, registry);
+            }
+            publishArtifactEvent(type, artifactName, Action.STOPPED, null);
+            for (ArtifactRegistryListener listener : artifactRegistryListeners) {
+                try {
+                    listener.onArtifactStopped(type, artifactName, registry);
+                } catch (Exception e) {
+                    LOGGER.warn("Error notifying stopped " + type + " " + artifactName, e);
+                }
+            }
+        }
+
+    }
+
+    // daemon threads for batch deployments
+    private static class DaemonThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger counter = new AtomicInteger();
+        private final String prefix;
+
+        DaemonThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+
+    }
+
 }
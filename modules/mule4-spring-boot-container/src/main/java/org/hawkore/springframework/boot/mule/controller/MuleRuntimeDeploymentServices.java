@@ -16,24 +16,74 @@
 package org.hawkore.springframework.boot.mule.controller;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.hawkore.springframework.boot.mule.config.MuleConfigProperties;
 import org.hawkore.springframework.boot.mule.container.SpringMuleContainer;
+import org.hawkore.springframework.boot.mule.controller.dto.Artifact;
+import org.hawkore.springframework.boot.mule.controller.dto.ArtifactPage;
+import org.hawkore.springframework.boot.mule.controller.dto.ArtifactType;
+import org.hawkore.springframework.boot.mule.controller.dto.ArtifactUpload;
+import org.hawkore.springframework.boot.mule.controller.dto.DeploymentResult;
+import org.hawkore.springframework.boot.mule.controller.dto.DeploymentResult.Status;
 import org.hawkore.springframework.boot.mule.controller.dto.ErrorMessage;
+import org.hawkore.springframework.boot.mule.controller.dto.RedeploymentResult;
+import org.hawkore.springframework.boot.mule.controller.dto.StoredArtifact;
+import org.hawkore.springframework.boot.mule.exception.DeployArtifactException;
+import org.hawkore.springframework.boot.mule.exception.DeploymentRejectedException;
+import org.hawkore.springframework.boot.mule.exception.UploadRejectedException;
+import org.hawkore.springframework.boot.mule.storage.ArtifactStore;
+import org.hawkore.springframework.boot.mule.storage.ArtifactUploads;
 import org.hawkore.springframework.boot.mule.utils.StorageUtils;
+import org.mule.runtime.deployment.model.api.application.ApplicationStatus;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.CollectionUtils;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import static org.apache.commons.io.FilenameUtils.getBaseName;
 
 /**
  * Simple REST controller for Mule Runtime Deployment Services
@@ -42,22 +92,87 @@ import org.springframework.web.multipart.MultipartFile;
  */
 @RestController
 @RequestMapping(value = "mule")
-@ConditionalOnWebApplication
+@ConditionalOnWebApplication(type = Type.SERVLET)
 public class MuleRuntimeDeploymentServices {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(MuleRuntimeDeploymentServices.class);
+    private static final String MULE_DOMAIN_JAR = "-mule-domain.jar";
+    private static final String MULE_APPLICATION_JAR = "-mule-application.jar";
     @Autowired
     private SpringMuleContainer muleContainer;
+    @Autowired
+    private MuleConfigProperties configProperties;
+    @Autowired
+    private ArtifactStore artifactStore;
+    @Autowired
+    private ArtifactUploads artifactUploads;
+    // at most one pending task per events client
+    private ExecutorService eventSenders;
+
+    /**
+     * Create artifact events senders, a small pool of threads shared by all events clients.
+     */
+    @PostConstruct
+    public void init() {
+        AtomicInteger count = new AtomicInteger();
+        eventSenders = Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors()), r -> {
+            Thread thread = new Thread(r, "mule-events-sse-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Shutdown artifact events senders.
+     */
+    @PreDestroy
+    public void destroy() {
+        eventSenders.shutdownNow();
+    }
 
     /**
      * List Mule domains.
+     * <p>
+     * Response is tagged with current deployment state version, so a conditional request (If-None-Match) is
+     * answered with 304 Not Modified without querying Mule Runtime whether nothing changed.
+     * <p>
+     * Without parameters, all installed domains are returned. Domains may be filtered by status, paginated (a page
+     * object is returned if page or size are provided) and reduced to a subset of fields.
      *
+     * @param request
+     *     the request
+     * @param status
+     *     the status filter
+     * @param page
+     *     the zero-based page number
+     * @param size
+     *     the page size
+     * @param fields
+     *     the fields to return
      * @return the domains
      */
     @GetMapping(value = "/domains", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<Object> getDomains() {
+    public ResponseEntity<Object> getDomains(WebRequest request,
+        @RequestParam(name = "status", required = false) ApplicationStatus status,
+        @RequestParam(name = "page", required = false) Integer page,
+        @RequestParam(name = "size", required = false) Integer size,
+        @RequestParam(name = "fields", required = false) Set<String> fields) {
         try {
-            return ResponseEntity.ok(muleContainer.getDomains());
+            // take version before listing, so a concurrent change will not be hidden by the returned tag
+            String eTag = deploymentStateETag();
+            if (request.checkNotModified(eTag)) {
+                return null;
+            }
+            Object body;
+            if (status == null && page == null && size == null) {
+                body = select(muleContainer.getDomains(), fields);
+            } else {
+                body = select(muleContainer.getDomains(status, Optional.ofNullable(page).orElse(0),
+                    Optional.ofNullable(size).orElse(Integer.MAX_VALUE)), fields, page != null || size != null);
+            }
+            return ResponseEntity.ok().eTag(eTag).body(body);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new ErrorMessage().setMessage(e.getMessage()));
         } catch (Exception e) {
             LOGGER.error("Error retrieving domains", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -67,13 +182,50 @@ public class MuleRuntimeDeploymentServices {
 
     /**
      * List Mule applications.
+     * <p>
+     * Response is tagged with current deployment state version, so a conditional request (If-None-Match) is
+     * answered with 304 Not Modified without querying Mule Runtime whether nothing changed.
+     * <p>
+     * Without parameters, all installed applications are returned. Applications may be filtered by status and
+     * domain, paginated (a page object is returned if page or size are provided) and reduced to a subset of fields.
      *
+     * @param request
+     *     the request
+     * @param status
+     *     the status filter
+     * @param domain
+     *     the domain filter
+     * @param page
+     *     the zero-based page number
+     * @param size
+     *     the page size
+     * @param fields
+     *     the fields to return
      * @return the apps
      */
     @GetMapping(value = "/applications", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<Object> getApps() {
+    public ResponseEntity<Object> getApps(WebRequest request,
+        @RequestParam(name = "status", required = false) ApplicationStatus status,
+        @RequestParam(name = "domain", required = false) String domain,
+        @RequestParam(name = "page", required = false) Integer page,
+        @RequestParam(name = "size", required = false) Integer size,
+        @RequestParam(name = "fields", required = false) Set<String> fields) {
         try {
-            return ResponseEntity.ok(muleContainer.getApplications());
+            // take version before listing, so a concurrent change will not be hidden by the returned tag
+            String eTag = deploymentStateETag();
+            if (request.checkNotModified(eTag)) {
+                return null;
+            }
+            Object body;
+            if (status == null && domain == null && page == null && size == null) {
+                body = select(muleContainer.getApplications(), fields);
+            } else {
+                body = select(muleContainer.getApplications(status, domain, Optional.ofNullable(page).orElse(0),
+                    Optional.ofNullable(size).orElse(Integer.MAX_VALUE)), fields, page != null || size != null);
+            }
+            return ResponseEntity.ok().eTag(eTag).body(body);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new ErrorMessage().setMessage(e.getMessage()));
         } catch (Exception e) {
             LOGGER.error("Error retrieving applications", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -82,7 +234,7 @@ public class MuleRuntimeDeploymentServices {
     }
 
     /**
-     * Deploy Mule application.
+     * Deploy Mule application. Application is kept within artifact store, so it may be deployed again by digest.
      *
      * @param app
      *     the app
@@ -99,12 +251,13 @@ public class MuleRuntimeDeploymentServices {
         @RequestParam(name = "lazyInitializationEnabled", required = false) Boolean lazyInitializationEnabled,
         @RequestParam(name = "xmlValidationsEnabled", required = false) Boolean xmlValidationsEnabled,
         @RequestParam(name = "lazyConnectionsEnabled", required = false) Boolean lazyConnectionsEnabled) {
-        File artifact = null;
         try {
-            artifact = StorageUtils.storeArtifactTemp(app);
-            muleContainer.deployApplication(artifact, lazyInitializationEnabled, xmlValidationsEnabled,
-                lazyConnectionsEnabled);
+            StoredArtifact stored = artifactStore.store(app);
+            deployStoredApplication(stored.getDigest(), StringUtils.getFilename(app.getOriginalFilename()),
+                lazyInitializationEnabled, xmlValidationsEnabled, lazyConnectionsEnabled);
             return ResponseEntity.ok(muleContainer.getApplications());
+        } catch (DeploymentRejectedException e) {
+            return rejected(e);
         } catch (Exception e) {
             LOGGER.error("Error deploying application: " + app.getOriginalFilename(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -113,7 +266,126 @@ public class MuleRuntimeDeploymentServices {
     }
 
     /**
-     * Deploy Mule domain.
+     * Redeploy Mule application with minimal downtime.
+     * <p>
+     * New version is staged and validated while current version keeps running, then versions are swapped. If new
+     * version fails to start, previous version is restored automatically.
+     *
+     * @param name
+     *     the installed application name
+     * @param app
+     *     the new version of the app
+     * @param lazyInitializationEnabled
+     *     the lazy initialization enabled flag
+     * @param xmlValidationsEnabled
+     *     the xml validations enabled flag
+     * @param lazyConnectionsEnabled
+     *     the lazy connections enabled flag
+     * @return the redeployment result, with status 500 if new version is not running
+     */
+    @PutMapping(value = "/applications/{name}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Object> redeployApp(@PathVariable("name") String name,
+        @RequestParam("file") MultipartFile app,
+        @RequestParam(name = "lazyInitializationEnabled", required = false) Boolean lazyInitializationEnabled,
+        @RequestParam(name = "xmlValidationsEnabled", required = false) Boolean xmlValidationsEnabled,
+        @RequestParam(name = "lazyConnectionsEnabled", required = false) Boolean lazyConnectionsEnabled) {
+        try {
+            StoredArtifact stored = artifactStore.store(app);
+            File artifact = storedFile(stored.getDigest(), StringUtils.getFilename(app.getOriginalFilename()));
+            RedeploymentResult result = muleContainer.redeployApplication(name, artifact, lazyInitializationEnabled,
+                xmlValidationsEnabled, lazyConnectionsEnabled);
+            if (RedeploymentResult.Status.REDEPLOYED.equals(result.getStatus())) {
+                artifactStore.reference(stored.getDigest(), name);
+            }
+            return ResponseEntity.status(RedeploymentResult.Status.REDEPLOYED.equals(result.getStatus())
+                                             ? HttpStatus.OK
+                                             : HttpStatus.INTERNAL_SERVER_ERROR).body(result);
+        } catch (DeploymentRejectedException e) {
+            return rejected(e);
+        } catch (Exception e) {
+            LOGGER.error("Error redeploying application: " + name, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                       .body(new ErrorMessage().setMessage(e.getMessage() + ": " + name));
+        }
+    }
+
+    /**
+     * Compare new version manifest of an installed Mule application with installed version, in order to redeploy it
+     * by uploading just changed entries.
+     *
+     * @param name
+     *     the installed application name
+     * @param manifest
+     *     the new version manifest, entry path to SHA-256 digest of entry content (hex encoded)
+     * @return the paths of entries that must be uploaded
+     */
+    @PostMapping(value = "/applications/{name}/manifest", consumes = MediaType.APPLICATION_JSON_VALUE,
+        produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Object> compareAppManifest(@PathVariable("name") String name,
+        @RequestBody Map<String, String> manifest) {
+        try {
+            return ResponseEntity.ok(muleContainer.getMissingApplicationEntries(name, manifest));
+        } catch (Exception e) {
+            LOGGER.error("Error comparing application manifest: " + name, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                       .body(new ErrorMessage().setMessage(e.getMessage() + ": " + name));
+        }
+    }
+
+    /**
+     * Redeploy Mule application uploading just changed entries.
+     * <p>
+     * New version is assembled from unchanged entries of installed version plus provided entries, then it is
+     * redeployed as a full redeployment (previous version is restored if new version fails to start).
+     *
+     * @param name
+     *     the installed application name
+     * @param manifest
+     *     the new version manifest, entry path to SHA-256 digest of entry content (hex encoded)
+     * @param entries
+     *     the zip file with entries reported as missing by manifest comparison
+     * @param lazyInitializationEnabled
+     *     the lazy initialization enabled flag
+     * @param xmlValidationsEnabled
+     *     the xml validations enabled flag
+     * @param lazyConnectionsEnabled
+     *     the lazy connections enabled flag
+     * @return the redeployment result, with status 500 if new version is not running
+     */
+    @PutMapping(value = "/applications/{name}/delta", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Object> redeployAppDelta(@PathVariable("name") String name,
+        @RequestPart("manifest") Map<String, String> manifest,
+        @RequestParam(name = "entries", required = false) MultipartFile entries,
+        @RequestParam(name = "lazyInitializationEnabled", required = false) Boolean lazyInitializationEnabled,
+        @RequestParam(name = "xmlValidationsEnabled", required = false) Boolean xmlValidationsEnabled,
+        @RequestParam(name = "lazyConnectionsEnabled", required = false) Boolean lazyConnectionsEnabled) {
+        File delta = null;
+        try {
+            delta = entries == null ? null : StorageUtils.storeArtifactTemp(entries);
+            RedeploymentResult result = muleContainer.redeployApplication(name, manifest, delta,
+                lazyInitializationEnabled, xmlValidationsEnabled, lazyConnectionsEnabled);
+            if (RedeploymentResult.Status.REDEPLOYED.equals(result.getStatus())) {
+                // new version does not match any stored artifact
+                artifactStore.release(name);
+            }
+            return ResponseEntity.status(RedeploymentResult.Status.REDEPLOYED.equals(result.getStatus())
+                                             ? HttpStatus.OK
+                                             : HttpStatus.INTERNAL_SERVER_ERROR).body(result);
+        } catch (DeploymentRejectedException e) {
+            return rejected(e);
+        } catch (Exception e) {
+            LOGGER.error("Error redeploying application delta: " + name, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                       .body(new ErrorMessage().setMessage(e.getMessage() + ": " + name));
+        } finally {
+            if (delta != null) {
+                StorageUtils.cleanUpFolder(delta.getParentFile());
+            }
+        }
+    }
+
+    /**
+     * Deploy Mule domain. Domain is kept within artifact store, so it may be deployed again by digest.
      *
      * @param domain
      *     the domain
@@ -130,12 +402,13 @@ public class MuleRuntimeDeploymentServices {
         @RequestParam(name = "lazyInitializationEnabled", required = false) Boolean lazyInitializationEnabled,
         @RequestParam(name = "xmlValidationsEnabled", required = false) Boolean xmlValidationsEnabled,
         @RequestParam(name = "lazyConnectionsEnabled", required = false) Boolean lazyConnectionsEnabled) {
-        File artifact = null;
         try {
-            artifact = StorageUtils.storeArtifactTemp(domain);
-            muleContainer.deployDomain(artifact, lazyInitializationEnabled, xmlValidationsEnabled,
-                lazyConnectionsEnabled);
+            StoredArtifact stored = artifactStore.store(domain);
+            deployStoredDomainArtifact(stored.getDigest(), StringUtils.getFilename(domain.getOriginalFilename()),
+                lazyInitializationEnabled, xmlValidationsEnabled, lazyConnectionsEnabled);
             return ResponseEntity.ok(muleContainer.getDomains());
+        } catch (DeploymentRejectedException e) {
+            return rejected(e);
         } catch (Exception e) {
             LOGGER.error("Error deploying domain: " + domain.getOriginalFilename(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -143,6 +416,385 @@ public class MuleRuntimeDeploymentServices {
         }
     }
 
+    /**
+     * Deploy a batch of Mule domains and applications.
+     * <p>
+     * Artifacts may be provided as multipart files and/or within a zip archive (domains and applications are
+     * identified by their {@code -mule-domain.jar} and {@code -mule-application.jar} suffixes). Domains are deployed
+     * first, then applications are deployed concurrently. Applications whose domain failed are skipped.
+     *
+     * @param domains
+     *     the domains
+     * @param applications
+     *     the applications
+     * @param archive
+     *     the zip archive with domains and applications
+     * @param lazyInitializationEnabled
+     *     the lazy initialization enabled
+     * @param xmlValidationsEnabled
+     *     the xml validations enabled
+     * @param lazyConnectionsEnabled
+     *     the lazy connections enabled
+     * @return the deployment result of every artifact, with status 500 if any artifact was not deployed
+     */
+    @PostMapping(value = "/batch", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Object> deployBatch(
+        @RequestParam(name = "domains", required = false) List<MultipartFile> domains,
+        @RequestParam(name = "applications", required = false) List<MultipartFile> applications,
+        @RequestParam(name = "archive", required = false) MultipartFile archive,
+        @RequestParam(name = "lazyInitializationEnabled", required = false) Boolean lazyInitializationEnabled,
+        @RequestParam(name = "xmlValidationsEnabled", required = false) Boolean xmlValidationsEnabled,
+        @RequestParam(name = "lazyConnectionsEnabled", required = false) Boolean lazyConnectionsEnabled) {
+        File folder = null;
+        try {
+            List<Resource> domainResources = new ArrayList<>();
+            List<Resource> applicationResources = new ArrayList<>();
+            Optional.ofNullable(domains).ifPresent(l -> l.forEach(f -> domainResources.add(f.getResource())));
+            Optional.ofNullable(applications).ifPresent(
+                l -> l.forEach(f -> applicationResources.add(f.getResource())));
+            if (archive != null) {
+                folder = StorageUtils.extractArchiveTemp(archive);
+                for (File f : listFiles(folder)) {
+                    if (f.getName().endsWith(MULE_DOMAIN_JAR)) {
+                        domainResources.add(new FileSystemResource(f));
+                    } else if (f.getName().endsWith(MULE_APPLICATION_JAR)) {
+                        applicationResources.add(new FileSystemResource(f));
+                    }
+                }
+            }
+            if (domainResources.isEmpty() && applicationResources.isEmpty()) {
+                throw new DeployArtifactException("You must provide at least one domain or application");
+            }
+            List<DeploymentResult> results = muleContainer.deployBatch(domainResources, applicationResources,
+                lazyInitializationEnabled, xmlValidationsEnabled, lazyConnectionsEnabled);
+            return ResponseEntity.status(results.stream().allMatch(r -> Status.DEPLOYED.equals(r.getStatus()))
+                                             ? HttpStatus.OK
+                                             : HttpStatus.INTERNAL_SERVER_ERROR).body(results);
+        } catch (DeploymentRejectedException e) {
+            return rejected(e);
+        } catch (Exception e) {
+            LOGGER.error("Error deploying batch", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                       .body(new ErrorMessage().setMessage(e.getMessage()));
+        } finally {
+            // extracted artifacts are no longer needed once the batch is processed
+            if (folder != null) {
+                StorageUtils.cleanUpFolder(folder);
+            }
+        }
+    }
+
+    /**
+     * List artifacts within local artifact store, most recently used first.
+     *
+     * @return the stored artifacts
+     */
+    @GetMapping(value = "/artifacts", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Object> getStoredArtifacts() {
+        try {
+            return ResponseEntity.ok(artifactStore.list());
+        } catch (Exception e) {
+            LOGGER.error("Error retrieving stored artifacts", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                       .body(new ErrorMessage().setMessage(e.getMessage()));
+        }
+    }
+
+    /**
+     * Get artifact within local artifact store. Clients may check whether an artifact is already stored before
+     * uploading it, and deploy it by digest instead.
+     *
+     * @param digest
+     *     the SHA-256 digest of artifact content
+     * @return the stored artifact, with status 404 if not stored
+     */
+    @GetMapping(value = "/artifacts/{digest}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Object> getStoredArtifact(@PathVariable("digest") String digest) {
+        try {
+            return artifactStore.get(digest).<ResponseEntity<Object>>map(ResponseEntity::ok).orElseGet(
+                () -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                          .body(new ErrorMessage().setMessage("Artifact not stored: " + digest)));
+        } catch (Exception e) {
+            LOGGER.error("Error retrieving stored artifact: " + digest, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                       .body(new ErrorMessage().setMessage(e.getMessage()));
+        }
+    }
+
+    /**
+     * Store artifact within local artifact store without deploying it. Already stored content is kept just once.
+     *
+     * @param artifact
+     *     the artifact
+     * @return the stored artifact
+     */
+    @PostMapping(value = "/artifacts", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Object> storeArtifact(@RequestParam("file") MultipartFile artifact) {
+        try {
+            return ResponseEntity.ok(artifactStore.store(artifact));
+        } catch (Exception e) {
+            LOGGER.error("Error storing artifact: " + artifact.getOriginalFilename(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                       .body(new ErrorMessage().setMessage(e.getMessage() + ": " + artifact.getOriginalFilename()));
+        }
+    }
+
+    /**
+     * Deploy Mule application from local artifact store.
+     *
+     * @param digest
+     *     the SHA-256 digest of application content
+     * @param fileName
+     *     the file name application was stored with, only required if it was stored with several names
+     * @param lazyInitializationEnabled
+     *     the lazy initialization enabled flag
+     * @param xmlValidationsEnabled
+     *     the xml validations enabled flag
+     * @param lazyConnectionsEnabled
+     *     the lazy connections enabled flag
+     * @return List of Mule applications
+     */
+    @PostMapping(value = "/applications/digest/{digest}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Object> deployStoredApp(@PathVariable("digest") String digest,
+        @RequestParam(name = "fileName", required = false) String fileName,
+        @RequestParam(name = "lazyInitializationEnabled", required = false) Boolean lazyInitializationEnabled,
+        @RequestParam(name = "xmlValidationsEnabled", required = false) Boolean xmlValidationsEnabled,
+        @RequestParam(name = "lazyConnectionsEnabled", required = false) Boolean lazyConnectionsEnabled) {
+        try {
+            deployStoredApplication(digest, fileName, lazyInitializationEnabled, xmlValidationsEnabled,
+                lazyConnectionsEnabled);
+            return ResponseEntity.ok(muleContainer.getApplications());
+        } catch (DeploymentRejectedException e) {
+            return rejected(e);
+        } catch (Exception e) {
+            LOGGER.error("Error deploying stored application: " + digest, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                       .body(new ErrorMessage().setMessage(e.getMessage() + ": " + digest));
+        }
+    }
+
+    /**
+     * Deploy Mule domain from local artifact store.
+     *
+     * @param digest
+     *     the SHA-256 digest of domain content
+     * @param fileName
+     *     the file name domain was stored with, only required if it was stored with several names
+     * @param lazyInitializationEnabled
+     *     the lazy initialization enabled flag
+     * @param xmlValidationsEnabled
+     *     the xml validations enabled flag
+     * @param lazyConnectionsEnabled
+     *     the lazy connections enabled flag
+     * @return List of Mule domains
+     */
+    @PostMapping(value = "/domains/digest/{digest}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Object> deployStoredDomain(@PathVariable("digest") String digest,
+        @RequestParam(name = "fileName", required = false) String fileName,
+        @RequestParam(name = "lazyInitializationEnabled", required = false) Boolean lazyInitializationEnabled,
+        @RequestParam(name = "xmlValidationsEnabled", required = false) Boolean xmlValidationsEnabled,
+        @RequestParam(name = "lazyConnectionsEnabled", required = false) Boolean lazyConnectionsEnabled) {
+        try {
+            deployStoredDomainArtifact(digest, fileName, lazyInitializationEnabled, xmlValidationsEnabled,
+                lazyConnectionsEnabled);
+            return ResponseEntity.ok(muleContainer.getDomains());
+        } catch (DeploymentRejectedException e) {
+            return rejected(e);
+        } catch (Exception e) {
+            LOGGER.error("Error deploying stored domain: " + digest, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                       .body(new ErrorMessage().setMessage(e.getMessage() + ": " + digest));
+        }
+    }
+
+    /**
+     * Initiate a resumable chunked upload of a Mule artifact.
+     * <p>
+     * Artifact content is then sent as byte ranges ({@code PUT /uploads/{id}}) and upload is completed
+     * ({@code POST /uploads/{id}/complete}), so large artifacts do not require a single long-lived request and an
+     * interrupted upload may be resumed.
+     *
+     * @param fileName
+     *     the artifact file name
+     * @param size
+     *     the artifact size in bytes
+     * @param digest
+     *     the SHA-256 digest of artifact content, verified on completion
+     * @return the upload, with status 201, 413 if artifact is too large, or 429 if too many uploads are in progress
+     */
+    @PostMapping(value = "/uploads", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Object> initiateUpload(@RequestParam("fileName") String fileName,
+        @RequestParam("size") long size,
+        @RequestParam("digest") String digest) {
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED).body(artifactUploads.initiate(fileName, size, digest));
+        } catch (UploadRejectedException e) {
+            if (UploadRejectedException.Reason.TOO_LARGE.equals(e.getReason())) {
+                return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                           .body(new ErrorMessage().setMessage(e.getMessage()));
+            }
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                       .header(HttpHeaders.RETRY_AFTER,
+                           String.valueOf(configProperties.getAdmission().getRetryAfter().getSeconds()))
+                       .body(new ErrorMessage().setMessage(e.getMessage()));
+        } catch (IllegalArgumentException | DeployArtifactException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new ErrorMessage().setMessage(e.getMessage()));
+        } catch (Exception e) {
+            LOGGER.error("Error initiating upload: " + fileName, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                       .body(new ErrorMessage().setMessage(e.getMessage() + ": " + fileName));
+        }
+    }
+
+    /**
+     * Get upload, with received byte ranges, so an interrupted upload may be resumed.
+     *
+     * @param id
+     *     the upload id
+     * @return the upload, with status 404 if it does not exist
+     */
+    @GetMapping(value = "/uploads/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Object> getUpload(@PathVariable("id") String id) {
+        return artifactUploads.get(id).<ResponseEntity<Object>>map(ResponseEntity::ok)
+                   .orElseGet(() -> uploadNotFound(id));
+    }
+
+    /**
+     * Upload a byte range of artifact content. Ranges may be sent in any order, and concurrently.
+     *
+     * @param id
+     *     the upload id
+     * @param contentRange
+     *     the content range ({@code bytes first-last/size})
+     * @param content
+     *     the range content
+     * @return the upload, with status 404 if it does not exist, or 409 if it is being completed
+     */
+    @PutMapping(value = "/uploads/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Object> uploadRange(@PathVariable("id") String id,
+        @RequestHeader(name = "Content-Range", required = false) String contentRange,
+        InputStream content) {
+        try {
+            return artifactUploads.write(id, contentRange, content).<ResponseEntity<Object>>map(ResponseEntity::ok)
+                       .orElseGet(() -> uploadNotFound(id));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new ErrorMessage().setMessage(e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new ErrorMessage().setMessage(e.getMessage()));
+        } catch (Exception e) {
+            LOGGER.error("Error uploading range " + contentRange + " of upload " + id, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                       .body(new ErrorMessage().setMessage(e.getMessage()));
+        }
+    }
+
+    /**
+     * Complete upload. Content digest is verified and artifact is moved into local artifact store, then it is
+     * deployed if artifact type is provided.
+     *
+     * @param id
+     *     the upload id
+     * @param type
+     *     the artifact type to deploy, none to just store it
+     * @param lazyInitializationEnabled
+     *     the lazy initialization enabled flag
+     * @param xmlValidationsEnabled
+     *     the xml validations enabled flag
+     * @param lazyConnectionsEnabled
+     *     the lazy connections enabled flag
+     * @return the stored artifact, or List of Mule applications or domains if it was deployed
+     */
+    @PostMapping(value = "/uploads/{id}/complete", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Object> completeUpload(@PathVariable("id") String id,
+        @RequestParam(name = "type", required = false) ArtifactType type,
+        @RequestParam(name = "lazyInitializationEnabled", required = false) Boolean lazyInitializationEnabled,
+        @RequestParam(name = "xmlValidationsEnabled", required = false) Boolean xmlValidationsEnabled,
+        @RequestParam(name = "lazyConnectionsEnabled", required = false) Boolean lazyConnectionsEnabled) {
+        try {
+            Optional<ArtifactUpload> upload = artifactUploads.get(id);
+            Optional<StoredArtifact> stored = artifactUploads.complete(id);
+            if (!stored.isPresent()) {
+                return uploadNotFound(id);
+            }
+            String fileName = upload.map(ArtifactUpload::getFileName).orElse(null);
+            if (ArtifactType.APPLICATION.equals(type)) {
+                deployStoredApplication(stored.get().getDigest(), fileName, lazyInitializationEnabled,
+                    xmlValidationsEnabled, lazyConnectionsEnabled);
+                return ResponseEntity.ok(muleContainer.getApplications());
+            }
+            if (ArtifactType.DOMAIN.equals(type)) {
+                deployStoredDomainArtifact(stored.get().getDigest(), fileName, lazyInitializationEnabled,
+                    xmlValidationsEnabled, lazyConnectionsEnabled);
+                return ResponseEntity.ok(muleContainer.getDomains());
+            }
+            return ResponseEntity.ok(stored.get());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new ErrorMessage().setMessage(e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new ErrorMessage().setMessage(e.getMessage()));
+        } catch (DeploymentRejectedException e) {
+            return rejected(e);
+        } catch (Exception e) {
+            LOGGER.error("Error completing upload: " + id, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                       .body(new ErrorMessage().setMessage(e.getMessage() + ": " + id));
+        }
+    }
+
+    /**
+     * Abort upload, discarding received content.
+     *
+     * @param id
+     *     the upload id
+     * @return status 204, or 404 if upload does not exist
+     */
+    @DeleteMapping(value = "/uploads/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Object> abortUpload(@PathVariable("id") String id) {
+        return artifactUploads.abort(id) ? ResponseEntity.noContent().build() : uploadNotFound(id);
+    }
+
+    /**
+     * Stop Mule application in place. Application stays installed, so it is resumed just by starting it again.
+     *
+     * @param name
+     *     the application name
+     * @return the application
+     */
+    @PostMapping(value = "/applications/{name}/stop", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Object> stopApp(@PathVariable("name") String name) {
+        try {
+            muleContainer.stopApplication(name);
+            return ResponseEntity.ok(muleContainer.getApplication(name).orElse(null));
+        } catch (DeploymentRejectedException e) {
+            return rejected(e);
+        } catch (Exception e) {
+            LOGGER.error("Error stopping application: " + name, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                       .body(new ErrorMessage().setMessage(e.getMessage()));
+        }
+    }
+
+    /**
+     * Start a stopped Mule application.
+     *
+     * @param name
+     *     the application name
+     * @return the application
+     */
+    @PostMapping(value = "/applications/{name}/start", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Object> startApp(@PathVariable("name") String name) {
+        try {
+            muleContainer.startApplication(name);
+            return ResponseEntity.ok(muleContainer.getApplication(name).orElse(null));
+        } catch (DeploymentRejectedException e) {
+            return rejected(e);
+        } catch (Exception e) {
+            LOGGER.error("Error starting application: " + name, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                       .body(new ErrorMessage().setMessage(e.getMessage()));
+        }
+    }
+
     /**
      * Undeploy Mule application.
      *
@@ -154,7 +806,10 @@ public class MuleRuntimeDeploymentServices {
     public ResponseEntity<Object> undeployApp(@RequestParam("name") String app) {
         try {
             muleContainer.undeployApplication(app);
+            artifactStore.release(app);
             return ResponseEntity.ok(muleContainer.getApplications());
+        } catch (DeploymentRejectedException e) {
+            return rejected(e);
         } catch (Exception e) {
             LOGGER.error("Error un-deploying application: " + app, e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -173,7 +828,10 @@ public class MuleRuntimeDeploymentServices {
     public ResponseEntity<Object> undeployDomain(@RequestParam("name") String domain) {
         try {
             muleContainer.undeployDomain(domain);
+            artifactStore.release(domain);
             return ResponseEntity.ok(muleContainer.getDomains());
+        } catch (DeploymentRejectedException e) {
+            return rejected(e);
         } catch (Exception e) {
             LOGGER.error("Error un-deploying domain: " + domain, e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -181,4 +839,114 @@ public class MuleRuntimeDeploymentServices {
         }
     }
 
+    /**
+     * Stream of Mule artifacts deployment state changes (Server-Sent Events).
+     * <p>
+     * Each event carries its cursor ({@code <epoch>-<id>}) as id, so reconnecting clients may resume from last
+     * received event using the standard {@code Last-Event-ID} header (or {@code lastEventId} request parameter). A
+     * {@code reset} event is sent when requested event is no longer retained or it is from a previous Mule Runtime
+     * start, so client should re-synchronize its state from listing endpoints.
+     *
+     * @param lastEventIdHeader
+     *     the last event id received by client, from Last-Event-ID header
+     * @param lastEventId
+     *     the last event id received by client, from request parameter
+     * @return the sse emitter
+     */
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter events(@RequestHeader(name = "Last-Event-ID", required = false) String lastEventIdHeader,
+        @RequestParam(name = "lastEventId", required = false) String lastEventId) {
+        SseEmitter emitter = new SseEmitter(configProperties.getEvents().getTimeout());
+        // room for a reset and a replay of all retained events, besides new ones
+        SseArtifactEventSender sender = new SseArtifactEventSender(emitter, eventSenders,
+            1 + configProperties.getEvents().getBufferSize() + configProperties.getEvents().getClientBufferSize());
+        Runnable unsubscribe = () -> {
+            muleContainer.removeArtifactEventListener(sender);
+            sender.close();
+        };
+        emitter.onCompletion(unsubscribe);
+        emitter.onTimeout(unsubscribe);
+        emitter.onError(e -> unsubscribe.run());
+        muleContainer.addArtifactEventListener(Optional.ofNullable(lastEventIdHeader).orElse(lastEventId), sender);
+        return emitter;
+    }
+
+    // page or just its content, reduced to requested fields
+    private static Object select(ArtifactPage<? extends Artifact<?>> artifacts, Set<String> fields, boolean paged) {
+        List<?> content = select(artifacts.getContent(), fields);
+        return paged
+                   ? new ArtifactPage<Object>().setContent(new ArrayList<>(content)).setPage(artifacts.getPage())
+                         .setSize(artifacts.getSize()).setTotalElements(artifacts.getTotalElements())
+                   : content;
+    }
+
+    // artifacts reduced to requested fields (sparse fieldset), all fields if none requested
+    private static List<?> select(List<? extends Artifact<?>> artifacts, Set<String> fields) {
+        if (CollectionUtils.isEmpty(fields)) {
+            return artifacts;
+        }
+        return artifacts.stream().map(a -> {
+            BeanWrapper bean = PropertyAccessorFactory.forBeanPropertyAccess(a);
+            Map<String, Object> selected = new LinkedHashMap<>();
+            for (String field : fields) {
+                if (!bean.isReadableProperty(field)) {
+                    throw new IllegalArgumentException("Unknown field: " + field);
+                }
+                selected.put(field, bean.getPropertyValue(field));
+            }
+            return selected;
+        }).collect(Collectors.toList());
+    }
+
+    private static List<File> listFiles(File folder) throws IOException {
+        try (Stream<Path> paths = Files.walk(folder.toPath())) {
+            return paths.map(Path::toFile).filter(File::isFile).sorted().collect(Collectors.toList());
+        }
+    }
+
+    private void deployStoredApplication(String digest,
+        String fileName,
+        Boolean lazyInitializationEnabled,
+        Boolean xmlValidationsEnabled,
+        Boolean lazyConnectionsEnabled) {
+        File artifact = storedFile(digest, fileName);
+        muleContainer.deployApplication(artifact, lazyInitializationEnabled, xmlValidationsEnabled,
+            lazyConnectionsEnabled);
+        artifactStore.reference(digest, getBaseName(artifact.getName()));
+    }
+
+    private void deployStoredDomainArtifact(String digest,
+        String fileName,
+        Boolean lazyInitializationEnabled,
+        Boolean xmlValidationsEnabled,
+        Boolean lazyConnectionsEnabled) {
+        File artifact = storedFile(digest, fileName);
+        muleContainer.deployDomain(artifact, lazyInitializationEnabled, xmlValidationsEnabled,
+            lazyConnectionsEnabled);
+        artifactStore.reference(digest, getBaseName(artifact.getName()));
+    }
+
+    // deployment operation not admitted, client should retry later
+    private ResponseEntity<Object> rejected(DeploymentRejectedException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                   .header(HttpHeaders.RETRY_AFTER,
+                       String.valueOf(configProperties.getAdmission().getRetryAfter().getSeconds()))
+                   .body(new ErrorMessage().setMessage(e.getMessage()));
+    }
+
+    private static ResponseEntity<Object> uploadNotFound(String id) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                   .body(new ErrorMessage().setMessage("Upload not found: " + id));
+    }
+
+    private File storedFile(String digest, String fileName) {
+        return artifactStore.getFile(digest, fileName).orElseThrow(
+            () -> new DeployArtifactException("Artifact not stored: " + digest));
+    }
+
+    private String deploymentStateETag() {
+        return "W/\"" + muleContainer.getDeploymentStateEpoch() + "-" + muleContainer.getDeploymentStateVersion()
+                   + "\"";
+    }
+
 }
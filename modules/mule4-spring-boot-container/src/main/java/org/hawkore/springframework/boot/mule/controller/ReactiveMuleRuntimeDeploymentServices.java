@@ -0,0 +1,458 @@
+/*
+ * Copyright 2020 HAWKORE, S.L.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hawkore.springframework.boot.mule.controller;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.hawkore.springframework.boot.mule.config.MuleConfigProperties;
+import org.hawkore.springframework.boot.mule.container.ArtifactEventListener;
+import org.hawkore.springframework.boot.mule.container.SpringMuleContainer;
+import org.hawkore.springframework.boot.mule.controller.dto.ArtifactEvent;
+import org.hawkore.springframework.boot.mule.controller.dto.ErrorMessage;
+import org.hawkore.springframework.boot.mule.controller.dto.RedeploymentResult;
+import org.hawkore.springframework.boot.mule.controller.dto.StoredArtifact;
+import org.hawkore.springframework.boot.mule.exception.DeployArtifactException;
+import org.hawkore.springframework.boot.mule.exception.DeploymentRejectedException;
+import org.hawkore.springframework.boot.mule.storage.ArtifactStore;
+import org.hawkore.springframework.boot.mule.utils.StorageUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.http.codec.multipart.FilePart;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RequestPart;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.Exceptions;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import static org.apache.commons.io.FilenameUtils.getBaseName;
+
+/**
+ * Reactive (WebFlux) REST controller for Mule Runtime Deployment Services
+ * <p>
+ * Same contract as {@link MuleRuntimeDeploymentServices} for the core deployment operations. Uploaded artifacts are
+ * streamed to the artifact store without blocking the event loop, and deployment operations, which block for as long
+ * as Mule takes to deploy an artifact, run on a dedicated bounded scheduler ({@code mule.reactive.threads} threads, up
+ * to {@code mule.reactive.queueSize} waiting operations, further ones are rejected), so a few event loop threads may
+ * serve many concurrent long deployments.
+ *
+ * @author Manuel Núñez Sánchez (manuel.nunez@hawkore.com)
+ */
+@RestController
+@RequestMapping(value = "mule")
+@ConditionalOnWebApplication(type = Type.REACTIVE)
+public class ReactiveMuleRuntimeDeploymentServices {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReactiveMuleRuntimeDeploymentServices.class);
+    @Autowired
+    private SpringMuleContainer muleContainer;
+    @Autowired
+    private MuleConfigProperties configProperties;
+    @Autowired
+    private ArtifactStore artifactStore;
+    private Scheduler deployments;
+
+    /**
+     * Create deployment operations scheduler.
+     */
+    @PostConstruct
+    public void init() {
+        AtomicInteger count = new AtomicInteger();
+        int threads = Math.max(1, configProperties.getReactive().getThreads());
+        deployments = Schedulers.fromExecutorService(
+            new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, configProperties.getReactive().getQueueSize())), r -> {
+                Thread thread = new Thread(r, "mule-deployment-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }));
+    }
+
+    /**
+     * Dispose deployment operations scheduler.
+     */
+    @PreDestroy
+    public void destroy() {
+        deployments.dispose();
+    }
+
+    /**
+     * List Mule domains.
+     * <p>
+     * Response is tagged with current deployment state version, so a conditional request (If-None-Match) is
+     * answered with 304 Not Modified without querying Mule Runtime whether nothing changed.
+     *
+     * @param exchange
+     *     the exchange
+     * @return the domains
+     */
+    @GetMapping(value = "/domains", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<Object>> getDomains(ServerWebExchange exchange) {
+        return list(exchange, () -> muleContainer.getDomains(), "Error retrieving domains");
+    }
+
+    /**
+     * List Mule applications.
+     * <p>
+     * Response is tagged with current deployment state version, so a conditional request (If-None-Match) is
+     * answered with 304 Not Modified without querying Mule Runtime whether nothing changed.
+     *
+     * @param exchange
+     *     the exchange
+     * @return the apps
+     */
+    @GetMapping(value = "/applications", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<Object>> getApps(ServerWebExchange exchange) {
+        return list(exchange, () -> muleContainer.getApplications(), "Error retrieving applications");
+    }
+
+    /**
+     * Deploy Mule application.
+     *
+     * @param app
+     *     the app
+     * @param lazyInitializationEnabled
+     *     the lazy initialization enabled flag
+     * @param xmlValidationsEnabled
+     *     the xml validations enabled flag
+     * @param lazyConnectionsEnabled
+     *     the lazy connections enabled flag
+     * @return List of Mule applications
+     */
+    @PostMapping(value = "/applications", consumes = MediaType.MULTIPART_FORM_DATA_VALUE,
+        produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<Object>> deployApp(@RequestPart("file") FilePart app,
+        @RequestParam(name = "lazyInitializationEnabled", required = false) Boolean lazyInitializationEnabled,
+        @RequestParam(name = "xmlValidationsEnabled", required = false) Boolean xmlValidationsEnabled,
+        @RequestParam(name = "lazyConnectionsEnabled", required = false) Boolean lazyConnectionsEnabled) {
+        return store(app).flatMap(stored -> deployment(() -> {
+            File artifact = storedFile(stored.getDigest(), app.filename());
+            muleContainer.deployApplication(artifact, lazyInitializationEnabled, xmlValidationsEnabled,
+                lazyConnectionsEnabled);
+            artifactStore.reference(stored.getDigest(), getBaseName(artifact.getName()));
+            return ResponseEntity.ok(muleContainer.getApplications());
+        })).onErrorResume(e -> Mono.just(error("Error deploying application: " + app.filename(), e)));
+    }
+
+    /**
+     * Redeploy Mule application with minimal downtime.
+     * <p>
+     * New version is staged and validated while current version keeps running, then versions are swapped. If new
+     * version fails to start, previous version is restored automatically.
+     *
+     * @param name
+     *     the installed application name
+     * @param app
+     *     the new version of the app
+     * @param lazyInitializationEnabled
+     *     the lazy initialization enabled flag
+     * @param xmlValidationsEnabled
+     *     the xml validations enabled flag
+     * @param lazyConnectionsEnabled
+     *     the lazy connections enabled flag
+     * @return the redeployment result, with status 500 if new version is not running
+     */
+    @PutMapping(value = "/applications/{name}", consumes = MediaType.MULTIPART_FORM_DATA_VALUE,
+        produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<Object>> redeployApp(@PathVariable("name") String name,
+        @RequestPart("file") FilePart app,
+        @RequestParam(name = "lazyInitializationEnabled", required = false) Boolean lazyInitializationEnabled,
+        @RequestParam(name = "xmlValidationsEnabled", required = false) Boolean xmlValidationsEnabled,
+        @RequestParam(name = "lazyConnectionsEnabled", required = false) Boolean lazyConnectionsEnabled) {
+        return store(app).flatMap(stored -> deployment(() -> {
+            RedeploymentResult result = muleContainer.redeployApplication(name,
+                storedFile(stored.getDigest(), app.filename()), lazyInitializationEnabled, xmlValidationsEnabled,
+                lazyConnectionsEnabled);
+            boolean redeployed = RedeploymentResult.Status.REDEPLOYED.equals(result.getStatus());
+            if (redeployed) {
+                artifactStore.reference(stored.getDigest(), name);
+            }
+            return ResponseEntity.status(redeployed ? HttpStatus.OK : HttpStatus.INTERNAL_SERVER_ERROR)
+                       .body((Object)result);
+        })).onErrorResume(e -> Mono.just(error("Error redeploying application: " + name, e)));
+    }
+
+    /**
+     * Deploy Mule domain.
+     *
+     * @param domain
+     *     the domain
+     * @param lazyInitializationEnabled
+     *     the lazy initialization enabled flag
+     * @param xmlValidationsEnabled
+     *     the xml validations enabled flag
+     * @param lazyConnectionsEnabled
+     *     the lazy connections enabled flag
+     * @return List of Mule domains
+     */
+    @PostMapping(value = "/domains", consumes = MediaType.MULTIPART_FORM_DATA_VALUE,
+        produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<Object>> deployDomain(@RequestPart("file") FilePart domain,
+        @RequestParam(name = "lazyInitializationEnabled", required = false) Boolean lazyInitializationEnabled,
+        @RequestParam(name = "xmlValidationsEnabled", required = false) Boolean xmlValidationsEnabled,
+        @RequestParam(name = "lazyConnectionsEnabled", required = false) Boolean lazyConnectionsEnabled) {
+        return store(domain).flatMap(stored -> deployment(() -> {
+            File artifact = storedFile(stored.getDigest(), domain.filename());
+            muleContainer.deployDomain(artifact, lazyInitializationEnabled, xmlValidationsEnabled,
+                lazyConnectionsEnabled);
+            artifactStore.reference(stored.getDigest(), getBaseName(artifact.getName()));
+            return ResponseEntity.ok(muleContainer.getDomains());
+        })).onErrorResume(e -> Mono.just(error("Error deploying domain: " + domain.filename(), e)));
+    }
+
+    /**
+     * Stop Mule application in place. Application stays installed, so it is resumed just by starting it again.
+     *
+     * @param name
+     *     the application name
+     * @return the application
+     */
+    @PostMapping(value = "/applications/{name}/stop", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<Object>> stopApp(@PathVariable("name") String name) {
+        return deployment(() -> {
+            muleContainer.stopApplication(name);
+            return ResponseEntity.ok(muleContainer.getApplication(name).orElse(null));
+        }).onErrorResume(e -> Mono.just(error("Error stopping application: " + name, e)));
+    }
+
+    /**
+     * Start a stopped Mule application.
+     *
+     * @param name
+     *     the application name
+     * @return the application
+     */
+    @PostMapping(value = "/applications/{name}/start", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<Object>> startApp(@PathVariable("name") String name) {
+        return deployment(() -> {
+            muleContainer.startApplication(name);
+            return ResponseEntity.ok(muleContainer.getApplication(name).orElse(null));
+        }).onErrorResume(e -> Mono.just(error("Error starting application: " + name, e)));
+    }
+
+    /**
+     * Undeploy Mule application.
+     *
+     * @param app
+     *     the application name
+     * @return List of Mule Applications
+     */
+    @DeleteMapping(value = "/applications", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<Object>> undeployApp(@RequestParam("name") String app) {
+        return deployment(() -> {
+            muleContainer.undeployApplication(app);
+            artifactStore.release(app);
+            return ResponseEntity.ok(muleContainer.getApplications());
+        }).onErrorResume(e -> Mono.just(error("Error un-deploying application: " + app, e)));
+    }
+
+    /**
+     * Undeploy Mule domain.
+     *
+     * @param domain
+     *     the domain name
+     * @return List of Mule domains
+     */
+    @DeleteMapping(value = "/domains", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<Object>> undeployDomain(@RequestParam("name") String domain) {
+        return deployment(() -> {
+            muleContainer.undeployDomain(domain);
+            artifactStore.release(domain);
+            return ResponseEntity.ok(muleContainer.getDomains());
+        }).onErrorResume(e -> Mono.just(error("Error un-deploying domain: " + domain, e)));
+    }
+
+    /**
+     * Stream of Mule artifacts deployment state changes (Server-Sent Events).
+     * <p>
+     * Each event carries its cursor ({@code <epoch>-<id>}) as id, so reconnecting clients may resume from last
+     * received event using the standard {@code Last-Event-ID} header (or {@code lastEventId} request parameter). A
+     * {@code reset} event is sent when requested event is no longer retained or it is from a previous Mule Runtime
+     * start, so client should re-synchronize its state from listing endpoints.
+     *
+     * @param lastEventIdHeader
+     *     the last event id received by client, from Last-Event-ID header
+     * @param lastEventId
+     *     the last event id received by client, from request parameter
+     * @return the events
+     */
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Object>> events(
+        @RequestHeader(name = "Last-Event-ID", required = false) String lastEventIdHeader,
+        @RequestParam(name = "lastEventId", required = false) String lastEventId) {
+        // Mule notifies listeners from deployment threads, events are pushed without waiting for client demand so slow
+        // clients do not block deployments
+        Flux<ServerSentEvent<Object>> events = Flux.<ServerSentEvent<Object>>create(sink -> {
+            ArtifactEventListener listener = new ArtifactEventListener() {
+
+                @Override
+                public void onEvent(ArtifactEvent event) {
+                    sink.next(ServerSentEvent.builder((Object)event).id(event.getCursor()).build());
+                }
+
+                @Override
+                public void onReset() {
+                    sink.next(ServerSentEvent.builder((Object)"").event("reset").build());
+                }
+            };
+            sink.onDispose(() -> muleContainer.removeArtifactEventListener(listener));
+            muleContainer.addArtifactEventListener(Optional.ofNullable(lastEventIdHeader).orElse(lastEventId),
+                listener);
+        }, FluxSink.OverflowStrategy.IGNORE);
+        // room for a reset and a replay of all retained events, besides new ones
+        events = bounded(events,
+            1 + configProperties.getEvents().getBufferSize() + configProperties.getEvents().getClientBufferSize());
+        // negative timeout for no timeout
+        long timeout = configProperties.getEvents().getTimeout();
+        return timeout < 0 ? events : events.take(Duration.ofMillis(timeout));
+    }
+
+    /**
+     * Buffer events pending to be sent to a client up to given size. A client that falls behind (its buffer is full)
+     * receives the already buffered events and a final {@code reset} event, so it may re-synchronize its state and
+     * reconnect.
+     *
+     * @param events
+     *     the events
+     * @param bufferSize
+     *     the max number of events pending to be sent
+     * @return the bounded events
+     */
+    static Flux<ServerSentEvent<Object>> bounded(Flux<ServerSentEvent<Object>> events, int bufferSize) {
+        return events.onBackpressureBuffer(Math.max(1, bufferSize), dropped -> LOGGER.warn(
+            "Disconnecting artifact events client, more than {} events pending to be sent", bufferSize),
+            BufferOverflowStrategy.ERROR).onErrorResume(Exceptions::isOverflow,
+            e -> Flux.just(ServerSentEvent.builder((Object)"").event("reset").build()));
+    }
+
+    // stream uploaded content into artifact store, digesting it while it is written
+    private Mono<StoredArtifact> store(FilePart file) {
+        return Mono.defer(() -> {
+            File temp = artifactStore.createTempFile();
+            MessageDigest digest = StorageUtils.newSha256();
+            Mono<Void> written = Mono.using(() -> AsynchronousFileChannel.open(temp.toPath(), StandardOpenOption.WRITE),
+                channel -> DataBufferUtils.write(file.content(), channel, 0)
+                               .doOnNext(buffer -> digest.update(buffer.asByteBuffer()))
+                               .doOnNext(DataBufferUtils::release).then(),
+                ReactiveMuleRuntimeDeploymentServices::close);
+            // store may evict artifacts from file system, so it is not done within event loop
+            Mono<StoredArtifact> stored = Mono.fromCallable(
+                () -> artifactStore.store(file.filename(), StorageUtils.toHex(digest.digest()), temp))
+                                              .subscribeOn(deployments);
+            return written.then(stored).doFinally(signal -> {
+                if (temp.exists() && !temp.delete()) {
+                    LOGGER.warn("Unable to delete temporal file {}", temp.getAbsolutePath());
+                }
+            });
+        });
+    }
+
+    // run a deployment operation off the event loop
+    private Mono<ResponseEntity<Object>> deployment(Callable<ResponseEntity<Object>> operation) {
+        return Mono.fromCallable(operation).subscribeOn(deployments);
+    }
+
+    private Mono<ResponseEntity<Object>> list(ServerWebExchange exchange, Callable<Object> artifacts, String error) {
+        return Mono.defer(() -> {
+            // take version before listing, so a concurrent change will not be hidden by the returned tag
+            String eTag = deploymentStateETag();
+            if (exchange.checkNotModified(eTag)) {
+                return Mono.<ResponseEntity<Object>>empty();
+            }
+            return Mono.fromCallable(artifacts).map(body -> ResponseEntity.ok().eTag(eTag).body(body));
+        }).onErrorResume(e -> Mono.just(error(error, e)));
+    }
+
+    private ResponseEntity<Object> error(String message, Throwable e) {
+        if (e instanceof DeploymentRejectedException) {
+            // deployment operation not admitted, client should retry later
+            return rejected(e.getMessage());
+        }
+        if (e instanceof RejectedExecutionException) {
+            // too many deployment operations waiting for a thread, client should retry later
+            return rejected("Too many deployment operations waiting, retry later");
+        }
+        if (e instanceof IllegalArgumentException) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new ErrorMessage().setMessage(e.getMessage()));
+        }
+        LOGGER.error(message, e);
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                   .body(new ErrorMessage().setMessage(e.getMessage()));
+    }
+
+    private ResponseEntity<Object> rejected(String message) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                   .header(HttpHeaders.RETRY_AFTER,
+                       String.valueOf(configProperties.getAdmission().getRetryAfter().getSeconds()))
+                   .body(new ErrorMessage().setMessage(message));
+    }
+
+    private File storedFile(String digest, String fileName) {
+        return artifactStore.getFile(digest, StringUtils.getFilename(fileName)).orElseThrow(
+            () -> new DeployArtifactException("Artifact not stored: " + digest));
+    }
+
+    private String deploymentStateETag() {
+        return "W/\"" + muleContainer.getDeploymentStateEpoch() + "-" + muleContainer.getDeploymentStateVersion()
+                   + "\"";
+    }
+
+    private static void close(AsynchronousFileChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            LOGGER.warn("Unable to close temporal file channel: {}", e.getMessage());
+        }
+    }
+
+}
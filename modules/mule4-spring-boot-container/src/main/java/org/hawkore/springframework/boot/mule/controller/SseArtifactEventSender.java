@@ -0,0 +1,148 @@
+/*
+ * Copyright 2020 HAWKORE, S.L.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hawkore.springframework.boot.mule.controller;
+
+import java.io.IOException;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.hawkore.springframework.boot.mule.container.ArtifactEventListener;
+import org.hawkore.springframework.boot.mule.controller.dto.ArtifactEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter.SseEventBuilder;
+
+/**
+ * Sends artifact events to a Server-Sent Events client, in order, from a bounded buffer.
+ * <p>
+ * Mule notifies listeners from deployment threads, so events are queued and sent by a small pool of threads shared
+ * by all clients, instead of a thread per client. A client that falls behind (its buffer is full) is disconnected, so
+ * it may reconnect to resume from its last received event.
+ *
+ * @author Manuel Núñez Sánchez (manuel.nunez@hawkore.com)
+ */
+class SseArtifactEventSender implements ArtifactEventListener {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SseArtifactEventSender.class);
+    private final SseEmitter emitter;
+    // at most one pending task per client
+    private final Executor senders;
+    private final Queue<SseEventBuilder> buffer;
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private volatile boolean overflow;
+    private volatile boolean closed;
+
+    /**
+     * Instantiates a new Sse artifact event sender.
+     *
+     * @param emitter
+     *     the client emitter
+     * @param senders
+     *     the executor, shared by all clients, that sends events
+     * @param bufferSize
+     *     the max number of events pending to be sent
+     */
+    SseArtifactEventSender(SseEmitter emitter, Executor senders, int bufferSize) {
+        this.emitter = emitter;
+        this.senders = senders;
+        this.buffer = new ArrayBlockingQueue<>(Math.max(1, bufferSize));
+    }
+
+    /**
+     * On event.
+     *
+     * @param event
+     *     the event
+     */
+    @Override
+    public void onEvent(ArtifactEvent event) {
+        enqueue(SseEmitter.event().id(event.getCursor()).data(event, MediaType.APPLICATION_JSON));
+    }
+
+    /**
+     * On reset.
+     */
+    @Override
+    public void onReset() {
+        enqueue(SseEmitter.event().name("reset").data(""));
+    }
+
+    /**
+     * Discard pending events, once client is gone.
+     */
+    void close() {
+        closed = true;
+        buffer.clear();
+    }
+
+    private void enqueue(SseEventBuilder event) {
+        if (closed || overflow) {
+            return;
+        }
+        if (!buffer.offer(event)) {
+            LOGGER.warn("Disconnecting artifact events client, more than {} events pending to be sent",
+                buffer.size());
+            overflow = true;
+        }
+        if (draining.compareAndSet(false, true)) {
+            try {
+                senders.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                // shutting down
+                close();
+                emitter.complete();
+            }
+        }
+    }
+
+    private void drain() {
+        do {
+            SseEventBuilder event;
+            while (!closed && (event = buffer.poll()) != null) {
+                send(event);
+            }
+            if (overflow && !closed) {
+                close();
+                emitter.complete();
+            }
+            draining.set(false);
+            // an event may be queued after buffer was found empty but before draining flag was cleared
+        } while (!closed && !buffer.isEmpty() && draining.compareAndSet(false, true));
+    }
+
+    private void send(SseEventBuilder event) {
+        try {
+            emitter.send(event);
+        } catch (IOException | IllegalStateException e) {
+            // client gone
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Unable to send artifact event to client: {}", e.getMessage());
+            }
+            close();
+            try {
+                emitter.completeWithError(e);
+            } catch (Exception ignore) {
+                // already completed
+            }
+        }
+    }
+
+}
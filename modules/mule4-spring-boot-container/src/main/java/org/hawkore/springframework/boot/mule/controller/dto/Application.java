@@ -24,14 +24,37 @@ import java.util.Objects;
  */
 public class Application extends Artifact<Application> {
 
+    private String domain;
+
+    /**
+     * Name of the domain the application belongs to.
+     *
+     * @return the domain
+     */
+    public String getDomain() {
+        return domain;
+    }
+
+    /**
+     * Sets domain.
+     *
+     * @param domain
+     *     the domain
+     * @return this for chaining
+     */
+    public Application setDomain(String domain) {
+        this.domain = domain;
+        return this;
+    }
+
     @Override
     public boolean equals(Object o) {
-        return super.equals(o) && o instanceof Application;
+        return super.equals(o) && o instanceof Application && Objects.equals(domain, ((Application)o).domain);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(super.hashCode(), "a");
+        return Objects.hash(super.hashCode(), "a", domain);
     }
 
 }
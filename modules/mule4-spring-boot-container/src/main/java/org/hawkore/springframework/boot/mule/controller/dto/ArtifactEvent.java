@@ -0,0 +1,228 @@
+/*
+ * Copyright 2020 HAWKORE, S.L.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hawkore.springframework.boot.mule.controller.dto;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.StringJoiner;
+
+/**
+ * Mule artifact deployment state change
+ *
+ * @author Manuel Núñez Sánchez (manuel.nunez@hawkore.com)
+ */
+public class ArtifactEvent {
+
+    /**
+     * Deployment state change.
+     */
+    public enum Action {
+        DEPLOYMENT_START,
+        DEPLOYMENT_SUCCESS,
+        DEPLOYMENT_FAILURE,
+        UNDEPLOYMENT_START,
+        UNDEPLOYMENT_SUCCESS,
+        UNDEPLOYMENT_FAILURE,
+        STARTED,
+        STOPPED
+    }
+
+    private long id;
+    private long epoch;
+    private ArtifactType type;
+    private String name;
+    private Action action;
+    private String message;
+    private long timestamp;
+
+    /**
+     * Monotonically increasing event id within this JVM, see {@link #getCursor()} for a resume cursor.
+     *
+     * @return the id
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Sets id.
+     *
+     * @param id
+     *     the id
+     * @return this for chaining
+     */
+    public ArtifactEvent setId(long id) {
+        this.id = id;
+        return this;
+    }
+
+    /**
+     * Epoch of the journal that published this event, changes every time Mule Runtime starts.
+     *
+     * @return the epoch
+     */
+    public long getEpoch() {
+        return epoch;
+    }
+
+    /**
+     * Sets epoch.
+     *
+     * @param epoch
+     *     the epoch
+     * @return this for chaining
+     */
+    public ArtifactEvent setEpoch(long epoch) {
+        this.epoch = epoch;
+        return this;
+    }
+
+    /**
+     * Resume cursor of this event, {@code <epoch>-<id>}, so it never repeats across restarts.
+     *
+     * @return the cursor
+     */
+    public String getCursor() {
+        return epoch + "-" + id;
+    }
+
+    /**
+     * Gets type.
+     *
+     * @return the type
+     */
+    public ArtifactType getType() {
+        return type;
+    }
+
+    /**
+     * Sets type.
+     *
+     * @param type
+     *     the type
+     * @return this for chaining
+     */
+    public ArtifactEvent setType(ArtifactType type) {
+        this.type = type;
+        return this;
+    }
+
+    /**
+     * Gets name.
+     *
+     * @return the name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Sets name.
+     *
+     * @param name
+     *     the name
+     * @return this for chaining
+     */
+    public ArtifactEvent setName(String name) {
+        this.name = name;
+        return this;
+    }
+
+    /**
+     * Gets action.
+     *
+     * @return the action
+     */
+    public Action getAction() {
+        return action;
+    }
+
+    /**
+     * Sets action.
+     *
+     * @param action
+     *     the action
+     * @return this for chaining
+     */
+    public ArtifactEvent setAction(Action action) {
+        this.action = action;
+        return this;
+    }
+
+    /**
+     * Failure message, if any.
+     *
+     * @return the message
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * Sets message.
+     *
+     * @param message
+     *     the message
+     * @return this for chaining
+     */
+    public ArtifactEvent setMessage(String message) {
+        this.message = message;
+        return this;
+    }
+
+    /**
+     * Time the event was recorded, measured in milliseconds since the epoch.
+     *
+     * @return the timestamp
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Sets timestamp.
+     *
+     * @param timestamp
+     *     the timestamp
+     * @return this for chaining
+     */
+    public ArtifactEvent setTimestamp(long timestamp) {
+        this.timestamp = timestamp;
+        return this;
+    }
+
+    /**
+     * Gets timestamp utc date time.
+     *
+     * @return the timestamp utc date time
+     */
+    public String getTimestampUTCDateTime() {
+        return LocalDateTime.ofEpochSecond(timestamp / 1000, 0, ZoneOffset.UTC).toString();
+    }
+
+    /**
+     * To string string.
+     *
+     * @return the string
+     */
+    @Override
+    public String toString() {
+        return new StringJoiner(", ", ArtifactEvent.class.getSimpleName() + "[", "]").add("id=" + id)
+                   .add("epoch=" + epoch).add("type=" + type).add("name='" + name + "'").add("action=" + action)
+                   .add("message='" + message + "'").add("timestamp=" + timestamp).toString();
+    }
+
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2020 HAWKORE, S.L.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hawkore.springframework.boot.mule.controller.dto;
+
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * A page of Mule artifacts
+ *
+ * @param <T>
+ *     the type parameter
+ * @author Manuel Núñez Sánchez (manuel.nunez@hawkore.com)
+ */
+public class ArtifactPage<T> {
+
+    private List<T> content;
+    private int page;
+    private int size;
+    private long totalElements;
+
+    /**
+     * Gets content.
+     *
+     * @return the content
+     */
+    public List<T> getContent() {
+        return content;
+    }
+
+    /**
+     * Sets content.
+     *
+     * @param content
+     *     the content
+     * @return this for chaining
+     */
+    public ArtifactPage<T> setContent(List<T> content) {
+        this.content = content;
+        return this;
+    }
+
+    /**
+     * Zero-based page number.
+     *
+     * @return the page
+     */
+    public int getPage() {
+        return page;
+    }
+
+    /**
+     * Sets page.
+     *
+     * @param page
+     *     the page
+     * @return this for chaining
+     */
+    public ArtifactPage<T> setPage(int page) {
+        this.page = page;
+        return this;
+    }
+
+    /**
+     * Requested page size.
+     *
+     * @return the size
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Sets size.
+     *
+     * @param size
+     *     the size
+     * @return this for chaining
+     */
+    public ArtifactPage<T> setSize(int size) {
+        this.size = size;
+        return this;
+    }
+
+    /**
+     * Total number of artifacts matching filters.
+     *
+     * @return the total elements
+     */
+    public long getTotalElements() {
+        return totalElements;
+    }
+
+    /**
+     * Sets total elements.
+     *
+     * @param totalElements
+     *     the total elements
+     * @return this for chaining
+     */
+    public ArtifactPage<T> setTotalElements(long totalElements) {
+        this.totalElements = totalElements;
+        return this;
+    }
+
+    /**
+     * Gets total pages.
+     *
+     * @return the total pages
+     */
+    public long getTotalPages() {
+        return size <= 0 ? 0 : (totalElements + size - 1) / size;
+    }
+
+    /**
+     * To string string.
+     *
+     * @return the string
+     */
+    @Override
+    public String toString() {
+        return new StringJoiner(", ", ArtifactPage.class.getSimpleName() + "[", "]").add("page=" + page)
+                   .add("size=" + size).add("totalElements=" + totalElements).add("content=" + content).toString();
+    }
+
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2020 HAWKORE, S.L.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hawkore.springframework.boot.mule.controller.dto;
+
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * Resumable chunked upload of a Mule artifact
+ *
+ * @author Manuel Núñez Sánchez (manuel.nunez@hawkore.com)
+ */
+public class ArtifactUpload {
+
+    private String id;
+    private String fileName;
+    private long size;
+    private String digest;
+    private long received;
+    private List<String> ranges;
+
+    /**
+     * Upload id.
+     *
+     * @return the id
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Sets id.
+     *
+     * @param id
+     *     the id
+     * @return this for chaining
+     */
+    public ArtifactUpload setId(String id) {
+        this.id = id;
+        return this;
+    }
+
+    /**
+     * Artifact file name.
+     *
+     * @return the file name
+     */
+    public String getFileName() {
+        return fileName;
+    }
+
+    /**
+     * Sets file name.
+     *
+     * @param fileName
+     *     the file name
+     * @return this for chaining
+     */
+    public ArtifactUpload setFileName(String fileName) {
+        this.fileName = fileName;
+        return this;
+    }
+
+    /**
+     * Artifact size in bytes.
+     *
+     * @return the size
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * Sets size.
+     *
+     * @param size
+     *     the size
+     * @return this for chaining
+     */
+    public ArtifactUpload setSize(long size) {
+        this.size = size;
+        return this;
+    }
+
+    /**
+     * Expected SHA-256 digest of artifact content (hex encoded), verified on completion.
+     *
+     * @return the digest
+     */
+    public String getDigest() {
+        return digest;
+    }
+
+    /**
+     * Sets digest.
+     *
+     * @param digest
+     *     the digest
+     * @return this for chaining
+     */
+    public ArtifactUpload setDigest(String digest) {
+        this.digest = digest;
+        return this;
+    }
+
+    /**
+     * Number of bytes received.
+     *
+     * @return the received bytes
+     */
+    public long getReceived() {
+        return received;
+    }
+
+    /**
+     * Sets received.
+     *
+     * @param received
+     *     the received bytes
+     * @return this for chaining
+     */
+    public ArtifactUpload setReceived(long received) {
+        this.received = received;
+        return this;
+    }
+
+    /**
+     * Received byte ranges ({@code first-last}, both inclusive), so an interrupted upload may be resumed by sending
+     * just the missing ones.
+     *
+     * @return the received ranges
+     */
+    public List<String> getRanges() {
+        return ranges;
+    }
+
+    /**
+     * Sets ranges.
+     *
+     * @param ranges
+     *     the received ranges
+     * @return this for chaining
+     */
+    public ArtifactUpload setRanges(List<String> ranges) {
+        this.ranges = ranges;
+        return this;
+    }
+
+    /**
+     * Whether all bytes were received.
+     *
+     * @return the boolean
+     */
+    public boolean isComplete() {
+        return received == size;
+    }
+
+    /**
+     * To string string.
+     *
+     * @return the string
+     */
+    @Override
+    public String toString() {
+        return new StringJoiner(", ", ArtifactUpload.class.getSimpleName() + "[", "]").add("id='" + id + "'")
+                   .add("fileName='" + fileName + "'").add("size=" + size).add("digest='" + digest + "'")
+                   .add("received=" + received).add("ranges=" + ranges).toString();
+    }
+
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2020 HAWKORE, S.L.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hawkore.springframework.boot.mule.controller.dto;
+
+import java.util.StringJoiner;
+
+/**
+ * Result of a single Mule artifact deployment within a batch
+ *
+ * @author Manuel Núñez Sánchez (manuel.nunez@hawkore.com)
+ */
+public class DeploymentResult {
+
+    /**
+     * Deployment outcome.
+     */
+    public enum Status {
+        DEPLOYED,
+        FAILED,
+        SKIPPED
+    }
+
+    private ArtifactType type;
+    private String name;
+    private String domain;
+    private Status status;
+    private String message;
+    private long elapsed;
+
+    /**
+     * Gets type.
+     *
+     * @return the type
+     */
+    public ArtifactType getType() {
+        return type;
+    }
+
+    /**
+     * Sets type.
+     *
+     * @param type
+     *     the type
+     * @return this for chaining
+     */
+    public DeploymentResult setType(ArtifactType type) {
+        this.type = type;
+        return this;
+    }
+
+    /**
+     * Gets name.
+     *
+     * @return the name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Sets name.
+     *
+     * @param name
+     *     the name
+     * @return this for chaining
+     */
+    public DeploymentResult setName(String name) {
+        this.name = name;
+        return this;
+    }
+
+    /**
+     * Domain of the application, null for domains.
+     *
+     * @return the domain
+     */
+    public String getDomain() {
+        return domain;
+    }
+
+    /**
+     * Sets domain.
+     *
+     * @param domain
+     *     the domain
+     * @return this for chaining
+     */
+    public DeploymentResult setDomain(String domain) {
+        this.domain = domain;
+        return this;
+    }
+
+    /**
+     * Gets status.
+     *
+     * @return the status
+     */
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * Sets status.
+     *
+     * @param status
+     *     the status
+     * @return this for chaining
+     */
+    public DeploymentResult setStatus(Status status) {
+        this.status = status;
+        return this;
+    }
+
+    /**
+     * Failure or skip reason, if any.
+     *
+     * @return the message
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * Sets message.
+     *
+     * @param message
+     *     the message
+     * @return this for chaining
+     */
+    public DeploymentResult setMessage(String message) {
+        this.message = message;
+        return this;
+    }
+
+    /**
+     * Time spent on staging and deploying the artifact, in milliseconds.
+     *
+     * @return the elapsed
+     */
+    public long getElapsed() {
+        return elapsed;
+    }
+
+    /**
+     * Sets elapsed.
+     *
+     * @param elapsed
+     *     the elapsed
+     * @return this for chaining
+     */
+    public DeploymentResult setElapsed(long elapsed) {
+        this.elapsed = elapsed;
+        return this;
+    }
+
+    /**
+     * To string string.
+     *
+     * @return the string
+     */
+    @Override
+    public String toString() {
+        return new StringJoiner(", ", DeploymentResult.class.getSimpleName() + "[", "]").add("type=" + type)
+                   .add("name='" + name + "'").add("domain='" + domain + "'").add("status=" + status)
+                   .add("message='" + message + "'").add("elapsed=" + elapsed).toString();
+    }
+
+}
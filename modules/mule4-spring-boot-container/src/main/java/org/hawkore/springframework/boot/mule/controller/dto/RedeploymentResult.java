@@ -0,0 +1,163 @@
+/*
+ * Copyright 2020 HAWKORE, S.L.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hawkore.springframework.boot.mule.controller.dto;
+
+import java.util.StringJoiner;
+
+/**
+ * Result of a Mule application redeployment
+ *
+ * @author Manuel Núñez Sánchez (manuel.nunez@hawkore.com)
+ */
+public class RedeploymentResult {
+
+    /**
+     * Redeployment outcome.
+     */
+    public enum Status {
+        /** New version is running */
+        REDEPLOYED,
+        /** New version failed to start, previous version is running again */
+        ROLLED_BACK,
+        /** Neither new nor previous version are running */
+        FAILED
+    }
+
+    private String name;
+    private Status status;
+    private String message;
+    private long stagingTime;
+    private long swapTime;
+
+    /**
+     * Gets name.
+     *
+     * @return the name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Sets name.
+     *
+     * @param name
+     *     the name
+     * @return this for chaining
+     */
+    public RedeploymentResult setName(String name) {
+        this.name = name;
+        return this;
+    }
+
+    /**
+     * Gets status.
+     *
+     * @return the status
+     */
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * Sets status.
+     *
+     * @param status
+     *     the status
+     * @return this for chaining
+     */
+    public RedeploymentResult setStatus(Status status) {
+        this.status = status;
+        return this;
+    }
+
+    /**
+     * Failure reason, if any.
+     *
+     * @return the message
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * Sets message.
+     *
+     * @param message
+     *     the message
+     * @return this for chaining
+     */
+    public RedeploymentResult setMessage(String message) {
+        this.message = message;
+        return this;
+    }
+
+    /**
+     * Time spent on staging and validating new version while previous one was running, in milliseconds.
+     *
+     * @return the staging time
+     */
+    public long getStagingTime() {
+        return stagingTime;
+    }
+
+    /**
+     * Sets staging time.
+     *
+     * @param stagingTime
+     *     the staging time
+     * @return this for chaining
+     */
+    public RedeploymentResult setStagingTime(long stagingTime) {
+        this.stagingTime = stagingTime;
+        return this;
+    }
+
+    /**
+     * Time the application was not serving, from previous version stop to new (or rolled back) version start, in
+     * milliseconds.
+     *
+     * @return the swap time
+     */
+    public long getSwapTime() {
+        return swapTime;
+    }
+
+    /**
+     * Sets swap time.
+     *
+     * @param swapTime
+     *     the swap time
+     * @return this for chaining
+     */
+    public RedeploymentResult setSwapTime(long swapTime) {
+        this.swapTime = swapTime;
+        return this;
+    }
+
+    /**
+     * To string string.
+     *
+     * @return the string
+     */
+    @Override
+    public String toString() {
+        return new StringJoiner(", ", RedeploymentResult.class.getSimpleName() + "[", "]").add("name='" + name + "'")
+                   .add("status=" + status).add("message='" + message + "'").add("stagingTime=" + stagingTime)
+                   .add("swapTime=" + swapTime).toString();
+    }
+
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2020 HAWKORE, S.L.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hawkore.springframework.boot.mule.controller.dto;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * Mule artifact within local content-addressable store
+ *
+ * @author Manuel Núñez Sánchez (manuel.nunez@hawkore.com)
+ */
+public class StoredArtifact {
+
+    private String digest;
+    private List<String> fileNames;
+    private long size;
+    private long lastAccess;
+    private List<String> references;
+
+    /**
+     * SHA-256 digest of artifact content (hex encoded).
+     *
+     * @return the digest
+     */
+    public String getDigest() {
+        return digest;
+    }
+
+    /**
+     * Sets digest.
+     *
+     * @param digest
+     *     the digest
+     * @return this for chaining
+     */
+    public StoredArtifact setDigest(String digest) {
+        this.digest = digest;
+        return this;
+    }
+
+    /**
+     * File names artifact content was uploaded with. As Mule names artifacts after their file name, same content may
+     * be deployed with different names.
+     *
+     * @return the file names
+     */
+    public List<String> getFileNames() {
+        return fileNames;
+    }
+
+    /**
+     * Sets file names.
+     *
+     * @param fileNames
+     *     the file names
+     * @return this for chaining
+     */
+    public StoredArtifact setFileNames(List<String> fileNames) {
+        this.fileNames = fileNames;
+        return this;
+    }
+
+    /**
+     * Size in bytes.
+     *
+     * @return the size
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * Sets size.
+     *
+     * @param size
+     *     the size
+     * @return this for chaining
+     */
+    public StoredArtifact setSize(long size) {
+        this.size = size;
+        return this;
+    }
+
+    /**
+     * Last time artifact was stored or used, measured in milliseconds since the epoch.
+     *
+     * @return the last access
+     */
+    public long getLastAccess() {
+        return lastAccess;
+    }
+
+    /**
+     * Sets last access.
+     *
+     * @param lastAccess
+     *     the last access
+     * @return this for chaining
+     */
+    public StoredArtifact setLastAccess(long lastAccess) {
+        this.lastAccess = lastAccess;
+        return this;
+    }
+
+    /**
+     * Gets last access utc date time.
+     *
+     * @return the last access utc date time
+     */
+    public String getLastAccessUTCDateTime() {
+        return LocalDateTime.ofEpochSecond(lastAccess / 1000, 0, ZoneOffset.UTC).toString();
+    }
+
+    /**
+     * Names of deployed artifacts referencing this content. Referenced artifacts are never evicted.
+     *
+     * @return the references
+     */
+    public List<String> getReferences() {
+        return references;
+    }
+
+    /**
+     * Sets references.
+     *
+     * @param references
+     *     the references
+     * @return this for chaining
+     */
+    public StoredArtifact setReferences(List<String> references) {
+        this.references = references;
+        return this;
+    }
+
+    /**
+     * To string string.
+     *
+     * @return the string
+     */
+    @Override
+    public String toString() {
+        return new StringJoiner(", ", StoredArtifact.class.getSimpleName() + "[", "]").add("digest='" + digest + "'")
+                   .add("fileNames=" + fileNames).add("size=" + size).add("lastAccess=" + lastAccess)
+                   .add("references=" + references).toString();
+    }
+
+}
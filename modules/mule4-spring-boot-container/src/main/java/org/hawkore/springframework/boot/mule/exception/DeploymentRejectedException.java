@@ -0,0 +1,63 @@
+/*
+ * Copyright 2020 HAWKORE, S.L.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hawkore.springframework.boot.mule.exception;
+
+/**
+ * DeploymentRejectedException, deployment operation not admitted to protect running Mule artifacts.
+ *
+ * @author Manuel Núñez Sánchez (manuel.nunez@hawkore.com)
+ */
+public class DeploymentRejectedException extends DeployArtifactException {
+
+    private final Reason reason;
+
+    /**
+     * Instantiates a new Deployment rejected exception.
+     *
+     * @param reason
+     *     the reason
+     * @param message
+     *     the message
+     */
+    public DeploymentRejectedException(Reason reason, String message) {
+        super(message);
+        this.reason = reason;
+    }
+
+    /**
+     * Rejection reason.
+     *
+     * @return the reason
+     */
+    public Reason getReason() {
+        return reason;
+    }
+
+    /**
+     * Rejection reasons
+     */
+    public enum Reason {
+        /** Too many deployment operations waiting for admission */
+        QUEUE_FULL,
+        /** Deployment operation waited too long for admission */
+        QUEUE_TIMEOUT,
+        /** Not enough free heap */
+        HEAP,
+        /** Not enough free metaspace */
+        METASPACE
+    }
+
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2020 HAWKORE, S.L.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hawkore.springframework.boot.mule.exception;
+
+/**
+ * FlowInvocationException, a flow invoked within this JVM failed or could not be invoked.
+ *
+ * @author Manuel Núñez Sánchez (manuel.nunez@hawkore.com)
+ */
+public class FlowInvocationException extends RuntimeException {
+
+    /**
+     * Instantiates a new Flow invocation exception.
+     *
+     * @param message
+     *     the message
+     * @param cause
+     *     the cause
+     */
+    public FlowInvocationException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2020 HAWKORE, S.L.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hawkore.springframework.boot.mule.exception;
+
+
+/**
+ * UploadRejectedException, chunked upload not initiated to protect artifact store disk space.
+ *
+ * @author Manuel Núñez Sánchez (manuel.nunez@hawkore.com)
+ */
+public class UploadRejectedException extends DeployArtifactException {
+
+    private final Reason reason;
+
+    /**
+     * Instantiates a new Upload rejected exception.
+     *
+     * @param reason
+     *     the reason
+     * @param message
+     *     the message
+     */
+    public UploadRejectedException(Reason reason, String message) {
+        super(message);
+        this.reason = reason;
+    }
+
+    /**
+     * Rejection reason.
+     *
+     * @return the reason
+     */
+    public Reason getReason() {
+        return reason;
+    }
+
+    /**
+     * Rejection reasons
+     */
+    public enum Reason {
+        /** Artifact is larger than artifact store max size */
+        TOO_LARGE,
+        /** Too many uploads in progress */
+        TOO_MANY
+    }
+
+}
@@ -17,6 +17,7 @@ package org.hawkore.springframework.boot.mule.health;
 
 import org.hawkore.springframework.boot.mule.container.SpringMuleContainer;
 import org.mule.runtime.core.api.config.MuleManifest;
+import org.mule.runtime.deployment.model.api.application.ApplicationStatus;
 import org.springframework.boot.SpringBootVersion;
 import org.springframework.boot.actuate.health.AbstractHealthIndicator;
 import org.springframework.boot.actuate.health.Health;
@@ -57,7 +58,9 @@ public class MuleRuntimeHealthIndicator extends AbstractHealthIndicator {
             return;
         }
 
-        boolean failed = muleContainer.getApplications().stream().anyMatch(a -> !a.isDeployed()) ||
+        // applications stopped on purpose are not failures
+        boolean failed = muleContainer.getApplications().stream()
+                             .anyMatch(a -> !a.isDeployed() && !ApplicationStatus.STOPPED.equals(a.getStatus())) ||
                              //domains
                              muleContainer.getDomains().stream().anyMatch(a -> !a.isDeployed());
 
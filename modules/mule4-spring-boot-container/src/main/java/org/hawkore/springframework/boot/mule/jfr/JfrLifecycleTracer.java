@@ -0,0 +1,92 @@
+/*
+ * Copyright 2020 HAWKORE, S.L.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hawkore.springframework.boot.mule.jfr;
+
+import org.hawkore.springframework.boot.mule.container.DeploymentRecorder;
+import org.hawkore.springframework.boot.mule.container.LifecycleTracer;
+import org.hawkore.springframework.boot.mule.controller.dto.ArtifactType;
+
+/**
+ * Emits Mule container lifecycle phases and deployment operations as Java Flight Recorder events, so they may be
+ * correlated with GC and safepoint pauses within a recording.
+ * <p>
+ * Events are only built while a recording has them enabled, otherwise phases are no-ops. On a JVM without Flight
+ * Recorder (JDK 8 before 8u262) this tracer is not installed at all.
+ *
+ * @author Manuel Núñez Sánchez (manuel.nunez@hawkore.com)
+ */
+public class JfrLifecycleTracer implements LifecycleTracer {
+
+    /**
+     * Begin a phase.
+     *
+     * @param phase
+     *     the phase
+     * @param type
+     *     the artifact type
+     * @param name
+     *     the artifact name
+     * @return the begun phase
+     */
+    @Override
+    public Phase begin(String phase, ArtifactType type, String name) {
+        MuleEvent event = newEvent(phase);
+        if (event == null || !event.isEnabled()) {
+            return Phase.NOOP;
+        }
+        event.artifactType = type == null ? null : type.name();
+        event.artifactName = name;
+        event.begin();
+        return (success, bytes) -> {
+            event.end();
+            if (event.shouldCommit()) {
+                event.success = success;
+                event.bytes = bytes;
+                event.commit();
+            }
+        };
+    }
+
+    private static MuleEvent newEvent(String phase) {
+        switch (phase) {
+            case LifecycleTracer.CONTAINER_START:
+                return new ContainerStartEvent();
+            case LifecycleTracer.SERVICES_EXTRACTION:
+                return new ServicesExtractionEvent();
+            case LifecycleTracer.CLASSLOADER:
+                return new ClassLoaderEvent();
+            case LifecycleTracer.SOURCES_STOP:
+            case LifecycleTracer.DRAIN:
+            case LifecycleTracer.ARTIFACTS_STOP:
+            case LifecycleTracer.CONTAINER_DISPOSE:
+                ShutdownEvent shutdownEvent = new ShutdownEvent();
+                shutdownEvent.phase = phase;
+                return shutdownEvent;
+            case DeploymentRecorder.UNDEPLOY:
+                return new UndeploymentEvent();
+            case DeploymentRecorder.DEPLOY:
+            case DeploymentRecorder.REDEPLOY:
+            case DeploymentRecorder.STAGE:
+            case DeploymentRecorder.EXTRACT:
+                DeploymentEvent event = new DeploymentEvent();
+                event.operation = phase;
+                return event;
+            default:
+                return null;
+        }
+    }
+
+}
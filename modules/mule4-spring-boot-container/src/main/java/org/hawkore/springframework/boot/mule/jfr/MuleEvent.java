@@ -0,0 +1,48 @@
+/*
+ * Copyright 2020 HAWKORE, S.L.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hawkore.springframework.boot.mule.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/**
+ * Base Java Flight Recorder event of Mule container phases.
+ *
+ * @author Manuel Núñez Sánchez (manuel.nunez@hawkore.com)
+ */
+@Category({"Mule", "Container"})
+@StackTrace(false)
+abstract class MuleEvent extends Event {
+
+    @Label("Artifact Type")
+    String artifactType;
+
+    @Label("Artifact Name")
+    String artifactName;
+
+    @Label("Bytes")
+    @Description("Size of artifact or extracted content, negative if unknown")
+    @DataAmount(DataAmount.BYTES)
+    long bytes;
+
+    @Label("Success")
+    boolean success;
+
+}
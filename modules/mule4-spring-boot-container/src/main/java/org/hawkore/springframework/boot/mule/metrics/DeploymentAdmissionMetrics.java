@@ -0,0 +1,66 @@
+/*
+ * Copyright 2020 HAWKORE, S.L.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hawkore.springframework.boot.mule.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.hawkore.springframework.boot.mule.container.DeploymentAdmission;
+import org.hawkore.springframework.boot.mule.container.SpringMuleContainer;
+import org.hawkore.springframework.boot.mule.exception.DeploymentRejectedException.Reason;
+
+/**
+ * Deployment operations admission control metrics
+ *
+ * @author Manuel Núñez Sánchez (manuel.nunez@hawkore.com)
+ */
+public class DeploymentAdmissionMetrics implements MeterBinder {
+
+    private final SpringMuleContainer muleContainer;
+
+    /**
+     * Instantiates a new Deployment admission metrics.
+     *
+     * @param muleContainer
+     *     the mule container
+     */
+    public DeploymentAdmissionMetrics(SpringMuleContainer muleContainer) {
+        this.muleContainer = muleContainer;
+    }
+
+    /**
+     * Bind to.
+     *
+     * @param registry
+     *     the registry
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        DeploymentAdmission admission = muleContainer.getDeploymentAdmission();
+        Gauge.builder("mule.deployments.active", admission, DeploymentAdmission::getActive)
+            .description("Deployment operations running").register(registry);
+        Gauge.builder("mule.deployments.queued", admission, DeploymentAdmission::getQueued)
+            .description("Deployment operations waiting for admission").register(registry);
+        FunctionCounter.builder("mule.deployments.admitted", admission, DeploymentAdmission::getAdmitted)
+            .description("Admitted deployment operations").register(registry);
+        for (Reason reason : Reason.values()) {
+            FunctionCounter.builder("mule.deployments.rejected", admission, a -> a.getRejected(reason))
+                .tag("reason", reason.name()).description("Rejected deployment operations").register(registry);
+        }
+    }
+
+}
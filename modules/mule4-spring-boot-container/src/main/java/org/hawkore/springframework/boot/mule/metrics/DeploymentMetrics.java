@@ -0,0 +1,113 @@
+/*
+ * Copyright 2020 HAWKORE, S.L.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hawkore.springframework.boot.mule.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.hawkore.springframework.boot.mule.container.DeploymentRecorder;
+import org.hawkore.springframework.boot.mule.container.SpringMuleContainer;
+import org.hawkore.springframework.boot.mule.controller.dto.ArtifactType;
+import org.mule.runtime.deployment.model.api.application.ApplicationStatus;
+
+/**
+ * Mule container deployment operations metrics
+ * <p>
+ * Operations (deploy, undeploy, redeploy, stage and extract) are timed and counted by artifact type, name and
+ * outcome, installed artifacts are gauged by type and status and sizes of deployed artifacts are summarized by type.
+ *
+ * @author Manuel Núñez Sánchez (manuel.nunez@hawkore.com)
+ */
+public class DeploymentMetrics implements MeterBinder, DeploymentRecorder {
+
+    private final SpringMuleContainer muleContainer;
+    private volatile MeterRegistry registry;
+
+    /**
+     * Instantiates a new Deployment metrics.
+     *
+     * @param muleContainer
+     *     the mule container
+     */
+    public DeploymentMetrics(SpringMuleContainer muleContainer) {
+        this.muleContainer = muleContainer;
+    }
+
+    /**
+     * Bind to.
+     *
+     * @param registry
+     *     the registry
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.registry = registry;
+        for (ApplicationStatus status : ApplicationStatus.values()) {
+            Gauge.builder("mule.artifacts", muleContainer,
+                c -> c.isRunning() ? c.getApplications(status, null, 0, 1).getTotalElements() : 0)
+                .tag("type", ArtifactType.APPLICATION.name()).tag("status", status.name())
+                .description("Installed artifacts").register(registry);
+            Gauge.builder("mule.artifacts", muleContainer,
+                c -> c.isRunning() ? c.getDomains(status, 0, 1).getTotalElements() : 0)
+                .tag("type", ArtifactType.DOMAIN.name()).tag("status", status.name())
+                .description("Installed artifacts").register(registry);
+        }
+        muleContainer.setDeploymentRecorder(this);
+    }
+
+    /**
+     * Record a finished operation.
+     *
+     * @param operation
+     *     the operation
+     * @param type
+     *     the artifact type
+     * @param name
+     *     the artifact name
+     * @param success
+     *     whether operation succeeded
+     * @param durationNanos
+     *     the operation duration in nanoseconds
+     */
+    @Override
+    public void operation(String operation, ArtifactType type, String name, boolean success, long durationNanos) {
+        Timer.builder("mule.artifact.operations").tag("operation", operation).tag("type", type.name())
+            .tag("name", name).tag("outcome", success ? "SUCCESS" : "FAILURE")
+            .description("Mule container deployment operations").register(registry)
+            .record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Record size of an artifact to be deployed.
+     *
+     * @param type
+     *     the artifact type
+     * @param name
+     *     the artifact name
+     * @param size
+     *     the artifact file size in bytes
+     */
+    @Override
+    public void artifactSize(ArtifactType type, String name, long size) {
+        DistributionSummary.builder("mule.artifact.size").tag("type", type.name()).baseUnit("bytes")
+            .description("Size of deployed artifacts").publishPercentileHistogram().register(registry).record(size);
+    }
+
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2020 HAWKORE, S.L.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hawkore.springframework.boot.mule.metrics;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.hawkore.springframework.boot.mule.container.ApplicationPipelineListeners;
+import org.hawkore.springframework.boot.mule.container.ArtifactRegistryListener;
+import org.hawkore.springframework.boot.mule.container.SpringMuleContainer;
+import org.hawkore.springframework.boot.mule.controller.dto.ArtifactType;
+import org.mule.runtime.api.artifact.Registry;
+import org.mule.runtime.api.event.Event;
+import org.mule.runtime.api.notification.PipelineMessageNotification;
+import org.mule.runtime.api.notification.PipelineMessageNotificationListener;
+
+/**
+ * Mule flows metrics
+ * <p>
+ * A pipeline notification listener is registered within every started Mule application, so completed flow
+ * executions are timed (rate and latency histogram) and failed ones are counted, by application and flow. Listener
+ * runs on flow thread, it just resolves already registered meters and records into them (registries record into
+ * striped adders and histograms), so it may stay enabled in production.
+ *
+ * @author Manuel Núñez Sánchez (manuel.nunez@hawkore.com)
+ */
+public class FlowMetrics implements MeterBinder, ArtifactRegistryListener {
+
+    private final SpringMuleContainer muleContainer;
+    private final ApplicationPipelineListeners<FlowListener> listeners = new ApplicationPipelineListeners<>(
+        FlowListener::new, n -> n.getAction().getActionId() == PipelineMessageNotification.PROCESS_COMPLETE);
+    private volatile MeterRegistry registry;
+
+    /**
+     * Instantiates a new Flow metrics.
+     *
+     * @param muleContainer
+     *     the mule container
+     */
+    public FlowMetrics(SpringMuleContainer muleContainer) {
+        this.muleContainer = muleContainer;
+    }
+
+    /**
+     * Bind to.
+     *
+     * @param registry
+     *     the registry
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.registry = registry;
+        muleContainer.addArtifactRegistryListener(this);
+    }
+
+    /**
+     * On artifact started.
+     *
+     * @param type
+     *     the artifact type
+     * @param name
+     *     the artifact name
+     * @param artifactRegistry
+     *     the artifact registry
+     */
+    @Override
+    public void onArtifactStarted(ArtifactType type, String name, Registry artifactRegistry) {
+        listeners.onArtifactStarted(type, name, artifactRegistry);
+    }
+
+    /**
+     * On artifact stopped.
+     *
+     * @param type
+     *     the artifact type
+     * @param name
+     *     the artifact name
+     * @param artifactRegistry
+     *     the artifact registry
+     */
+    @Override
+    public void onArtifactStopped(ArtifactType type, String name, Registry artifactRegistry) {
+        if (ArtifactType.APPLICATION.equals(type)) {
+            // meters of a stopped application are not updated anymore, a new version may not have same flows
+            listeners.remove(name).ifPresent(FlowListener::removeMeters);
+        }
+    }
+
+    // meters of a flow
+    private static class FlowMeters {
+
+        private final Timer duration;
+        private final Counter errors;
+
+        FlowMeters(MeterRegistry registry, String application, String flow) {
+            duration = Timer.builder("mule.flow.duration").tag("application", application).tag("flow", flow)
+                           .description("Completed flow executions").publishPercentileHistogram().register(registry);
+            errors = Counter.builder("mule.flow.errors").tag("application", application).tag("flow", flow)
+                         .description("Failed flow executions").register(registry);
+        }
+
+    }
+
+    // completed flow executions listener of an application
+    private class FlowListener implements PipelineMessageNotificationListener<PipelineMessageNotification> {
+
+        private final String application;
+        private final Map<String, FlowMeters> meters = new ConcurrentHashMap<>();
+
+        FlowListener(String application) {
+            this.application = application;
+        }
+
+        @Override
+        public boolean isBlocking() {
+            // recording does not block, so it runs on flow thread without dispatching notification
+            return false;
+        }
+
+        @Override
+        public void onNotification(PipelineMessageNotification notification) {
+            String flow = notification.getResourceIdentifier();
+            if (flow == null) {
+                return;
+            }
+            FlowMeters flowMeters = meters.get(flow);
+            if (flowMeters == null) {
+                flowMeters = meters.computeIfAbsent(flow, f -> new FlowMeters(registry, application, f));
+            }
+            Event event = notification.getEvent();
+            if (event != null && event.getContext().getReceivedTime() != null) {
+                flowMeters.duration.record(Duration.between(event.getContext().getReceivedTime(), Instant.now()));
+            }
+            if (notification.getInfo() != null && notification.getInfo().getException() != null) {
+                flowMeters.errors.increment();
+            }
+        }
+
+        void removeMeters() {
+            meters.values().forEach(m -> {
+                registry.remove(m.duration);
+                registry.remove(m.errors);
+            });
+            meters.clear();
+        }
+
+    }
+
+}
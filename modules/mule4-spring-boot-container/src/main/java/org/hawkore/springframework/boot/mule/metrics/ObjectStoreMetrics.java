@@ -0,0 +1,120 @@
+/*
+ * Copyright 2020 HAWKORE, S.L.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hawkore.springframework.boot.mule.metrics;
+
+import java.util.ArrayList;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.hawkore.springframework.boot.mule.container.ArtifactRegistryListener;
+import org.hawkore.springframework.boot.mule.container.SpringMuleContainer;
+import org.hawkore.springframework.boot.mule.controller.dto.ArtifactType;
+import org.hawkore.springframework.boot.mule.objectstore.CaffeineObjectStore;
+import org.mule.runtime.api.artifact.Registry;
+
+import static org.mule.runtime.core.api.config.MuleProperties.BASE_IN_MEMORY_OBJECT_STORE_KEY;
+
+/**
+ * Mule in-memory object stores metrics
+ * <p>
+ * Caffeine backed in-memory object store of every started application is monitored as cache {@code mule.objectStore}
+ * tagged by {@code application}: {@code cache.gets} (hits and misses), {@code cache.puts}, {@code cache.evictions},
+ * {@code cache.eviction.weight} and {@code cache.size}.
+ *
+ * @author Manuel Núñez Sánchez (manuel.nunez@hawkore.com)
+ */
+public class ObjectStoreMetrics implements MeterBinder, ArtifactRegistryListener {
+
+    private static final String CACHE = "mule.objectStore";
+    private final SpringMuleContainer muleContainer;
+    private volatile MeterRegistry registry;
+
+    /**
+     * Instantiates a new Object store metrics.
+     *
+     * @param muleContainer
+     *     the mule container
+     */
+    public ObjectStoreMetrics(SpringMuleContainer muleContainer) {
+        this.muleContainer = muleContainer;
+    }
+
+    /**
+     * Bind to.
+     *
+     * @param registry
+     *     the registry
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.registry = registry;
+        muleContainer.addArtifactRegistryListener(this);
+    }
+
+    /**
+     * On artifact started.
+     *
+     * @param type
+     *     the artifact type
+     * @param name
+     *     the artifact name
+     * @param artifactRegistry
+     *     the artifact registry
+     */
+    @Override
+    public void onArtifactStarted(ArtifactType type, String name, Registry artifactRegistry) {
+        if (!ArtifactType.APPLICATION.equals(type)) {
+            return;
+        }
+        artifactRegistry.lookupByName(BASE_IN_MEMORY_OBJECT_STORE_KEY).filter(CaffeineObjectStore.class::isInstance)
+            .ifPresent(store -> {
+                // application restarted with a new store
+                removeMeters(name);
+                new CaffeineCacheMetrics(((CaffeineObjectStore)store).getCache(), CACHE,
+                    Tags.of("application", name)).bindTo(registry);
+            });
+    }
+
+    /**
+     * On artifact stopped.
+     *
+     * @param type
+     *     the artifact type
+     * @param name
+     *     the artifact name
+     * @param artifactRegistry
+     *     the artifact registry
+     */
+    @Override
+    public void onArtifactStopped(ArtifactType type, String name, Registry artifactRegistry) {
+        if (ArtifactType.APPLICATION.equals(type)) {
+            removeMeters(name);
+        }
+    }
+
+    private void removeMeters(String application) {
+        for (Meter meter : new ArrayList<>(registry.getMeters())) {
+            Meter.Id id = meter.getId();
+            if (CACHE.equals(id.getTag("cache")) && application.equals(id.getTag("application"))) {
+                registry.remove(meter);
+            }
+        }
+    }
+
+}
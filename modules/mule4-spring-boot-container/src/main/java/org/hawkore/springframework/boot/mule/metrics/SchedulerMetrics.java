@@ -0,0 +1,328 @@
+/*
+ * Copyright 2020 HAWKORE, S.L.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hawkore.springframework.boot.mule.metrics;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.hawkore.springframework.boot.mule.config.MuleConfigProperties;
+import org.hawkore.springframework.boot.mule.config.MuleConfigProperties.ApplicationSchedulers;
+import org.hawkore.springframework.boot.mule.config.MuleConfigProperties.ApplicationSchedulers.Isolation;
+import org.hawkore.springframework.boot.mule.container.ArtifactRegistryListener;
+import org.hawkore.springframework.boot.mule.container.SpringMuleContainer;
+import org.hawkore.springframework.boot.mule.controller.dto.ArtifactType;
+import org.hawkore.springframework.boot.mule.utils.SchedulerPoolsUtils;
+import org.mule.runtime.api.artifact.Registry;
+import org.mule.runtime.api.scheduler.Scheduler;
+import org.mule.runtime.api.scheduler.SchedulerService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Mule scheduler pools metrics
+ * <p>
+ * Mule scheduler service does not expose its pools, so they are observed from outside:
+ * <ul>
+ * <li>Threads of every pool are sampled (at most once per second) by name. Mule names them
+ * {@code [<owner>].<pool>.<n>}, where owner is {@code MuleRuntime} for container pools or the application name for its
+ * dedicated pools, and appends {@code : [<artifact>].<scheduler>} while they run a task, so running threads are counted
+ * by pool (container pools) and by application (container and dedicated pools).</li>
+ * <li>A no-op task is submitted periodically to CPU_LIGHT, IO and CPU_INTENSIVE schedulers, its start delay is the
+ * time a task waits for a thread of that scheduler and it is counted as rejected if scheduler is full.</li>
+ * </ul>
+ * Saturation gauge is the number of threads running tasks within CPU bound pools per available processor, while
+ * utilization of an application is the number of threads running its tasks per thread of pools it may use, its
+ * dedicated pools (see {@code mule.applicationSchedulers}) or shared ones.
+ *
+ * @author Manuel Núñez Sánchez (manuel.nunez@hawkore.com)
+ */
+public class SchedulerMetrics implements MeterBinder, ArtifactRegistryListener, AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SchedulerMetrics.class);
+    private static final Pattern THREAD_NAME = Pattern.compile(
+        "^\\[([^\\]]+)\\]\\.(\\w+)\\.\\d+(: \\[([^\\]]+)\\])?");
+    private static final String CONTAINER_POOLS_OWNER = "MuleRuntime";
+    private static final List<String> POOLS = Arrays.asList("uber", "cpuLight", "io", "cpuIntensive");
+    private static final List<String> CPU_POOLS = Arrays.asList("uber", "cpuLight", "cpuIntensive");
+    private static final long SNAPSHOT_TTL = TimeUnit.SECONDS.toNanos(1);
+    private static final long PROBE_INTERVAL_SECONDS = 5;
+    private final SpringMuleContainer muleContainer;
+    private final MuleConfigProperties configProperties;
+    private final Map<String, List<Gauge>> applicationGauges = new ConcurrentHashMap<>();
+    private volatile MeterRegistry registry;
+    private volatile Snapshot snapshot;
+    private volatile Probe probe;
+    private ScheduledExecutorService prober;
+
+    /**
+     * Instantiates a new Scheduler metrics.
+     *
+     * @param muleContainer
+     *     the mule container
+     * @param configProperties
+     *     the mule configuration properties
+     */
+    public SchedulerMetrics(SpringMuleContainer muleContainer, MuleConfigProperties configProperties) {
+        this.muleContainer = muleContainer;
+        this.configProperties = configProperties;
+    }
+
+    /**
+     * Bind to.
+     *
+     * @param registry
+     *     the registry
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.registry = registry;
+        for (String pool : POOLS) {
+            Gauge.builder("mule.scheduler.threads", this, m -> m.snapshot().threads.getOrDefault(pool, 0))
+                .tag("pool", pool).description("Threads of Mule scheduler pool").register(registry);
+            Gauge.builder("mule.scheduler.active", this, m -> m.snapshot().active.getOrDefault(pool, 0))
+                .tag("pool", pool).description("Threads of Mule scheduler pool running a task").register(registry);
+        }
+        Gauge.builder("mule.scheduler.saturation", this,
+            m -> (double)m.snapshot().cpuActive / Runtime.getRuntime().availableProcessors())
+            .description("Threads running a task within CPU bound Mule scheduler pools per available processor")
+            .register(registry);
+        muleContainer.addArtifactRegistryListener(this);
+    }
+
+    /**
+     * On artifact started.
+     *
+     * @param type
+     *     the artifact type
+     * @param name
+     *     the artifact name
+     * @param artifactRegistry
+     *     the artifact registry
+     */
+    @Override
+    public void onArtifactStarted(ArtifactType type, String name, Registry artifactRegistry) {
+        if (ArtifactType.APPLICATION.equals(type)) {
+            applicationGauges.computeIfAbsent(name, this::registerApplicationGauges);
+        }
+        // scheduler service is shared by all artifacts, but a new one is created whenever Mule Runtime starts
+        artifactRegistry.lookupByType(SchedulerService.class).ifPresent(this::probe);
+    }
+
+    /**
+     * On artifact stopped.
+     *
+     * @param type
+     *     the artifact type
+     * @param name
+     *     the artifact name
+     * @param artifactRegistry
+     *     the artifact registry
+     */
+    @Override
+    public void onArtifactStopped(ArtifactType type, String name, Registry artifactRegistry) {
+        List<Gauge> gauges = ArtifactType.APPLICATION.equals(type) ? applicationGauges.remove(name) : null;
+        if (gauges != null) {
+            gauges.forEach(registry::remove);
+        }
+    }
+
+    /**
+     * Stop probing Mule schedulers.
+     */
+    @Override
+    public synchronized void close() {
+        if (prober != null) {
+            prober.shutdownNow();
+            prober = null;
+        }
+        if (probe != null) {
+            probe.stop();
+            probe = null;
+        }
+    }
+
+    /**
+     * Threads of a Mule container scheduler pool running a task, sampled at most once per second.
+     *
+     * @param pool
+     *     the pool (uber, cpuLight, io or cpuIntensive)
+     * @return the active threads
+     */
+    public int getActiveThreads(String pool) {
+        return snapshot().active.getOrDefault(pool, 0);
+    }
+
+    private List<Gauge> registerApplicationGauges(String application) {
+        // threads application may use, its dedicated pools or Mule container ones
+        ApplicationSchedulers schedulers = configProperties.getApplicationSchedulers().get(application);
+        boolean dedicated = schedulers != null && Isolation.DEDICATED.equals(schedulers.getIsolation());
+        int maxThreads = Math.max(1, SchedulerPoolsUtils.maxThreads(
+            dedicated ? SchedulerPoolsUtils.schedulerPoolsConf(schedulers,
+                configProperties.getSchedulers().getGracefulShutdownTimeout())
+                : SchedulerPoolsUtils.schedulerPoolsConf(configProperties.getSchedulers(),
+                    configProperties.getThreadBudget())));
+        String isolation = (dedicated ? Isolation.DEDICATED : Isolation.SHARED).name();
+        Gauge active = Gauge.builder("mule.scheduler.application.active", this,
+            m -> m.snapshot().applications.getOrDefault(application, 0)).tag("application", application)
+                           .tag("isolation", isolation)
+                           .description("Threads of Mule scheduler pools running a task of application")
+                           .register(registry);
+        Gauge utilization = Gauge.builder("mule.scheduler.application.utilization", this,
+            m -> (double)m.snapshot().applications.getOrDefault(application, 0) / maxThreads)
+                                .tag("application", application).tag("isolation", isolation)
+                                .description("Threads running a task of application per thread it may use")
+                                .register(registry);
+        return Arrays.asList(active, utilization);
+    }
+
+    private synchronized void probe(SchedulerService schedulerService) {
+        if (probe != null && probe.schedulerService == schedulerService) {
+            return;
+        }
+        if (probe != null) {
+            probe.stop();
+        }
+        probe = new Probe(schedulerService);
+        if (prober == null) {
+            prober = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "mule-scheduler-probe");
+                thread.setDaemon(true);
+                return thread;
+            });
+            prober.scheduleWithFixedDelay(() -> {
+                Probe current = probe;
+                if (current != null && muleContainer.isRunning()) {
+                    current.run();
+                }
+            }, PROBE_INTERVAL_SECONDS, PROBE_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    // threads of Mule scheduler pools, sampled at most once per SNAPSHOT_TTL
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        long now = System.nanoTime();
+        if (current != null && now - current.time < SNAPSHOT_TTL) {
+            return current;
+        }
+        ThreadGroup root = Thread.currentThread().getThreadGroup();
+        while (root.getParent() != null) {
+            root = root.getParent();
+        }
+        Thread[] threads = new Thread[root.activeCount() * 2];
+        int count = root.enumerate(threads, true);
+        current = new Snapshot(now);
+        for (int i = 0; i < count; i++) {
+            Matcher matcher = THREAD_NAME.matcher(threads[i].getName());
+            if (!matcher.find()) {
+                continue;
+            }
+            boolean running = matcher.group(3) != null;
+            if (running) {
+                current.applications.merge(matcher.group(4), 1, Integer::sum);
+            }
+            if (!CONTAINER_POOLS_OWNER.equals(matcher.group(1))) {
+                // dedicated pool of an application
+                continue;
+            }
+            String pool = matcher.group(2);
+            current.threads.merge(pool, 1, Integer::sum);
+            if (running) {
+                current.active.merge(pool, 1, Integer::sum);
+                if (CPU_POOLS.contains(pool)) {
+                    current.cpuActive++;
+                }
+            }
+        }
+        snapshot = current;
+        return current;
+    }
+
+    private static class Snapshot {
+
+        private final long time;
+        private final Map<String, Integer> threads = new HashMap<>();
+        private final Map<String, Integer> active = new HashMap<>();
+        private final Map<String, Integer> applications = new HashMap<>();
+        private int cpuActive;
+
+        Snapshot(long time) {
+            this.time = time;
+        }
+
+    }
+
+    // measures time a task waits for a thread of every Mule scheduler
+    private class Probe {
+
+        private final SchedulerService schedulerService;
+        private final Map<String, Scheduler> schedulers = new LinkedHashMap<>();
+
+        Probe(SchedulerService schedulerService) {
+            this.schedulerService = schedulerService;
+            schedulers.put("CPU_LIGHT", schedulerService.cpuLightScheduler());
+            schedulers.put("IO", schedulerService.ioScheduler());
+            schedulers.put("CPU_INTENSIVE", schedulerService.cpuIntensiveScheduler());
+        }
+
+        void run() {
+            schedulers.forEach((type, scheduler) -> {
+                if (scheduler.isShutdown()) {
+                    return;
+                }
+                long submitted = System.nanoTime();
+                try {
+                    scheduler.execute(
+                        () -> Timer.builder("mule.scheduler.latency").tag("scheduler", type)
+                                  .description("Time a task waits for a thread of Mule scheduler")
+                                  .publishPercentileHistogram().register(registry)
+                                  .record(System.nanoTime() - submitted, TimeUnit.NANOSECONDS));
+                } catch (RejectedExecutionException e) {
+                    Counter.builder("mule.scheduler.rejections").tag("scheduler", type)
+                        .description("Tasks rejected by Mule scheduler").register(registry).increment();
+                }
+            });
+        }
+
+        void stop() {
+            schedulers.values().forEach(scheduler -> {
+                try {
+                    scheduler.stop();
+                } catch (Exception e) {
+                    // scheduler service already stopped
+                    LOGGER.debug("Unable to stop probe scheduler {}: {}", scheduler.getName(), e.getMessage());
+                }
+            });
+        }
+
+    }
+
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2020 HAWKORE, S.L.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hawkore.springframework.boot.mule.metrics;
+
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.hawkore.springframework.boot.mule.config.MuleConfigProperties;
+import org.hawkore.springframework.boot.mule.utils.SchedulerPoolsUtils;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Thread budget metrics
+ * <p>
+ * Threads allocated to every consumer of {@code mule.threadBudget}, plus threads running a task and utilization of
+ * Spring task executor and Mule blocking pool. Web server workers utilization is exported by web server metrics
+ * (for instance {@code tomcat.threads.busy}).
+ *
+ * @author Manuel Núñez Sánchez (manuel.nunez@hawkore.com)
+ */
+public class ThreadBudgetMetrics implements MeterBinder {
+
+    private final Map<String, Integer> budget;
+    private final ThreadPoolTaskExecutor taskExecutor;
+    private final SchedulerMetrics schedulerMetrics;
+
+    /**
+     * Instantiates a new Thread budget metrics.
+     *
+     * @param configProperties
+     *     the mule configuration properties
+     * @param taskExecutor
+     *     the Spring task executor, null if none
+     * @param schedulerMetrics
+     *     the Mule scheduler pools metrics, Mule blocking pool threads are sampled from
+     */
+    public ThreadBudgetMetrics(MuleConfigProperties configProperties,
+        ThreadPoolTaskExecutor taskExecutor,
+        SchedulerMetrics schedulerMetrics) {
+        this.budget = SchedulerPoolsUtils.threadBudget(configProperties.getThreadBudget());
+        this.taskExecutor = taskExecutor;
+        this.schedulerMetrics = schedulerMetrics;
+    }
+
+    /**
+     * Bind to.
+     *
+     * @param registry
+     *     the registry
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("mule.threads.budget", budget, b -> b.values().stream().mapToInt(Integer::intValue).sum())
+            .description("Threads of thread budget").register(registry);
+        for (Map.Entry<String, Integer> consumer : budget.entrySet()) {
+            Gauge.builder("mule.threads.budget.allocated", consumer, Map.Entry::getValue)
+                .tag("consumer", consumer.getKey()).description("Threads of thread budget allocated to consumer")
+                .register(registry);
+        }
+        if (taskExecutor != null) {
+            register(registry, SchedulerPoolsUtils.TASK, m -> m.taskExecutor.getActiveCount());
+        }
+        // Mule blocking pool is io, or uber with UBER strategy
+        register(registry, SchedulerPoolsUtils.MULE,
+            m -> m.schedulerMetrics.getActiveThreads("io") + m.schedulerMetrics.getActiveThreads("uber"));
+    }
+
+    private void register(MeterRegistry registry, String consumer, ToDoubleFunction<ThreadBudgetMetrics> active) {
+        int allocated = budget.get(consumer);
+        Gauge.builder("mule.threads.budget.active", this, active).tag("consumer", consumer)
+            .description("Threads of thread budget consumer running a task").register(registry);
+        Gauge.builder("mule.threads.budget.utilization", this, m -> active.applyAsDouble(m) / allocated)
+            .tag("consumer", consumer).description("Threads running a task per thread allocated to consumer")
+            .register(registry);
+    }
+
+}
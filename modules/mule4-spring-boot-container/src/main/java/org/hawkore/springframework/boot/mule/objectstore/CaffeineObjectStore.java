@@ -0,0 +1,464 @@
+/*
+ * Copyright 2020 HAWKORE, S.L.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hawkore.springframework.boot.mule.objectstore;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.hawkore.springframework.boot.mule.config.MuleConfigProperties.ObjectStores.InMemory;
+import org.mule.runtime.api.store.ObjectAlreadyExistsException;
+import org.mule.runtime.api.store.ObjectDoesNotExistException;
+import org.mule.runtime.api.store.ObjectStoreException;
+import org.mule.runtime.core.api.store.PartitionableExpirableObjectStore;
+
+import static org.mule.runtime.api.i18n.I18nMessageFactory.createStaticMessage;
+
+/**
+ * Mule in-memory object store backed by a Caffeine cache.
+ * <p>
+ * Entries of every partition share a single cache bounded by estimated size of entries (keys and values), so least
+ * recently used entries are evicted above {@code mule.objectStore.inMemory.maxSize} and, if configured, entries
+ * expire {@code mule.objectStore.inMemory.entryTtl} after they were stored. Size of a value is its length for bytes
+ * and text, and {@code mule.objectStore.inMemory.entrySize} otherwise. Values are kept as they are, without copying.
+ * <p>
+ * Object stores with their own expiration settings are still expired by Mule through
+ * {@link #expire(long, int, String)}.
+ *
+ * @author Manuel Núñez Sánchez (manuel.nunez@hawkore.com)
+ */
+public class CaffeineObjectStore implements PartitionableExpirableObjectStore<Serializable> {
+
+    /**
+     * The default partition name.
+     */
+    public static final String DEFAULT_PARTITION = "DEFAULT_PARTITION";
+    private final Cache<EntryKey, Entry> cache;
+    private final Set<String> partitions = ConcurrentHashMap.newKeySet();
+    private final int entrySize;
+
+    /**
+     * Instantiates a new Caffeine object store.
+     *
+     * @param configProperties
+     *     the in-memory object store configuration properties
+     */
+    public CaffeineObjectStore(InMemory configProperties) {
+        this.entrySize = (int)Math.min(Integer.MAX_VALUE, configProperties.getEntrySize().toBytes());
+        Caffeine<EntryKey, Entry> builder = Caffeine.newBuilder().maximumWeight(
+            configProperties.getMaxSize().toBytes()).weigher((EntryKey k, Entry v) -> v.weight).recordStats();
+        if (configProperties.getEntryTtl() != null) {
+            builder.expireAfterWrite(configProperties.getEntryTtl());
+        }
+        this.cache = builder.build();
+    }
+
+    /**
+     * Backing cache.
+     *
+     * @return the cache
+     */
+    public Cache<?, ?> getCache() {
+        return cache;
+    }
+
+    /**
+     * Contains.
+     *
+     * @param key
+     *     the key
+     * @param partitionName
+     *     the partition name
+     * @return the boolean
+     * @throws ObjectStoreException
+     *     the object store exception
+     */
+    @Override
+    public boolean contains(String key, String partitionName) throws ObjectStoreException {
+        return cache.getIfPresent(new EntryKey(partitionName, validKey(key))) != null;
+    }
+
+    /**
+     * Store.
+     *
+     * @param key
+     *     the key
+     * @param value
+     *     the value
+     * @param partitionName
+     *     the partition name
+     * @throws ObjectStoreException
+     *     the object store exception
+     */
+    @Override
+    public void store(String key, Serializable value, String partitionName) throws ObjectStoreException {
+        EntryKey entryKey = new EntryKey(partitionName, validKey(key));
+        partitions.add(partitionName);
+        if (cache.asMap().putIfAbsent(entryKey, new Entry(value, weight(key, value))) != null) {
+            throw new ObjectAlreadyExistsException(createStaticMessage("Key already exists: " + key));
+        }
+    }
+
+    /**
+     * Retrieve.
+     *
+     * @param key
+     *     the key
+     * @param partitionName
+     *     the partition name
+     * @return the value
+     * @throws ObjectStoreException
+     *     the object store exception
+     */
+    @Override
+    public Serializable retrieve(String key, String partitionName) throws ObjectStoreException {
+        Entry entry = cache.getIfPresent(new EntryKey(partitionName, validKey(key)));
+        if (entry == null) {
+            throw new ObjectDoesNotExistException(createStaticMessage("Key does not exist: " + key));
+        }
+        return entry.value;
+    }
+
+    /**
+     * Remove.
+     *
+     * @param key
+     *     the key
+     * @param partitionName
+     *     the partition name
+     * @return the value
+     * @throws ObjectStoreException
+     *     the object store exception
+     */
+    @Override
+    public Serializable remove(String key, String partitionName) throws ObjectStoreException {
+        Entry entry = cache.asMap().remove(new EntryKey(partitionName, validKey(key)));
+        if (entry == null) {
+            throw new ObjectDoesNotExistException(createStaticMessage("Key does not exist: " + key));
+        }
+        return entry.value;
+    }
+
+    /**
+     * All keys.
+     *
+     * @param partitionName
+     *     the partition name
+     * @return the keys
+     */
+    @Override
+    public List<String> allKeys(String partitionName) {
+        return cache.asMap().keySet().stream().filter(k -> k.partition.equals(partitionName)).map(k -> k.key)
+                   .collect(Collectors.toList());
+    }
+
+    /**
+     * Retrieve all.
+     *
+     * @param partitionName
+     *     the partition name
+     * @return the entries
+     */
+    @Override
+    public Map<String, Serializable> retrieveAll(String partitionName) {
+        Map<String, Serializable> entries = new LinkedHashMap<>();
+        cache.asMap().forEach((k, v) -> {
+            if (k.partition.equals(partitionName)) {
+                entries.put(k.key, v.value);
+            }
+        });
+        return entries;
+    }
+
+    /**
+     * All partitions.
+     *
+     * @return the partitions
+     */
+    @Override
+    public List<String> allPartitions() {
+        return new ArrayList<>(partitions);
+    }
+
+    /**
+     * Open.
+     *
+     * @param partitionName
+     *     the partition name
+     */
+    @Override
+    public void open(String partitionName) {
+        partitions.add(partitionName);
+    }
+
+    /**
+     * Close.
+     *
+     * @param partitionName
+     *     the partition name
+     */
+    @Override
+    public void close(String partitionName) {
+        // entries are kept until partition is disposed
+    }
+
+    /**
+     * Dispose partition.
+     *
+     * @param partitionName
+     *     the partition name
+     */
+    @Override
+    public void disposePartition(String partitionName) {
+        clear(partitionName);
+        partitions.remove(partitionName);
+    }
+
+    /**
+     * Clear.
+     *
+     * @param partitionName
+     *     the partition name
+     */
+    @Override
+    public void clear(String partitionName) {
+        cache.asMap().keySet().removeIf(k -> k.partition.equals(partitionName));
+    }
+
+    /**
+     * Expire entries.
+     *
+     * @param entryTTL
+     *     the entry ttl
+     * @param maxEntries
+     *     the max entries
+     * @param partitionName
+     *     the partition name
+     */
+    @Override
+    public void expire(long entryTTL, int maxEntries, String partitionName) {
+        long now = System.currentTimeMillis();
+        List<Map.Entry<EntryKey, Entry>> entries = cache.asMap().entrySet().stream()
+                                                       .filter(e -> e.getKey().partition.equals(partitionName))
+                                                       .sorted(Comparator.comparingLong(e -> e.getValue().created))
+                                                       .collect(Collectors.toList());
+        int remaining = entries.size();
+        for (Map.Entry<EntryKey, Entry> entry : entries) {
+            boolean expired = entryTTL > 0 && now - entry.getValue().created >= entryTTL;
+            // oldest entries above max entries are removed too
+            boolean overflow = maxEntries > 0 && remaining > maxEntries;
+            if ((expired || overflow) && cache.asMap().remove(entry.getKey(), entry.getValue())) {
+                remaining--;
+            }
+        }
+    }
+
+    /**
+     * Expire entries.
+     *
+     * @param entryTTL
+     *     the entry ttl
+     * @param maxEntries
+     *     the max entries
+     */
+    @Override
+    public void expire(long entryTTL, int maxEntries) {
+        expire(entryTTL, maxEntries, DEFAULT_PARTITION);
+    }
+
+    /**
+     * Contains.
+     *
+     * @param key
+     *     the key
+     * @return the boolean
+     * @throws ObjectStoreException
+     *     the object store exception
+     */
+    @Override
+    public boolean contains(String key) throws ObjectStoreException {
+        return contains(key, DEFAULT_PARTITION);
+    }
+
+    /**
+     * Store.
+     *
+     * @param key
+     *     the key
+     * @param value
+     *     the value
+     * @throws ObjectStoreException
+     *     the object store exception
+     */
+    @Override
+    public void store(String key, Serializable value) throws ObjectStoreException {
+        store(key, value, DEFAULT_PARTITION);
+    }
+
+    /**
+     * Retrieve.
+     *
+     * @param key
+     *     the key
+     * @return the value
+     * @throws ObjectStoreException
+     *     the object store exception
+     */
+    @Override
+    public Serializable retrieve(String key) throws ObjectStoreException {
+        return retrieve(key, DEFAULT_PARTITION);
+    }
+
+    /**
+     * Remove.
+     *
+     * @param key
+     *     the key
+     * @return the value
+     * @throws ObjectStoreException
+     *     the object store exception
+     */
+    @Override
+    public Serializable remove(String key) throws ObjectStoreException {
+        return remove(key, DEFAULT_PARTITION);
+    }
+
+    /**
+     * Is persistent.
+     *
+     * @return the boolean
+     */
+    @Override
+    public boolean isPersistent() {
+        return false;
+    }
+
+    /**
+     * Clear.
+     */
+    @Override
+    public void clear() {
+        clear(DEFAULT_PARTITION);
+    }
+
+    /**
+     * Open.
+     */
+    @Override
+    public void open() {
+        open(DEFAULT_PARTITION);
+    }
+
+    /**
+     * Close.
+     */
+    @Override
+    public void close() {
+        close(DEFAULT_PARTITION);
+    }
+
+    /**
+     * All keys.
+     *
+     * @return the keys
+     */
+    @Override
+    public List<String> allKeys() {
+        return allKeys(DEFAULT_PARTITION);
+    }
+
+    /**
+     * Retrieve all.
+     *
+     * @return the entries
+     */
+    @Override
+    public Map<String, Serializable> retrieveAll() {
+        return retrieveAll(DEFAULT_PARTITION);
+    }
+
+    private static String validKey(String key) throws ObjectStoreException {
+        if (key == null) {
+            throw new ObjectStoreException(createStaticMessage("Key cannot be null"));
+        }
+        return key;
+    }
+
+    // estimated size of an entry
+    private int weight(String key, Serializable value) {
+        long weight = 2L * key.length();
+        if (value instanceof byte[]) {
+            weight += ((byte[])value).length;
+        } else if (value instanceof CharSequence) {
+            weight += 2L * ((CharSequence)value).length();
+        } else if (value != null) {
+            weight += entrySize;
+        }
+        return (int)Math.min(Integer.MAX_VALUE, weight);
+    }
+
+    private static class EntryKey {
+
+        private final String partition;
+        private final String key;
+
+        EntryKey(String partition, String key) {
+            this.partition = partition;
+            this.key = key;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof EntryKey)) {
+                return false;
+            }
+            EntryKey that = (EntryKey)o;
+            return partition.equals(that.partition) && key.equals(that.key);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(partition, key);
+        }
+
+    }
+
+    private static class Entry {
+
+        private final Serializable value;
+        private final long created = System.currentTimeMillis();
+        private final int weight;
+
+        Entry(Serializable value, int weight) {
+            this.value = value;
+            this.weight = weight;
+        }
+
+    }
+
+}
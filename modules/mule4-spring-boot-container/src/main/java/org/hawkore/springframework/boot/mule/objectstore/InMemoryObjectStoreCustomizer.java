@@ -0,0 +1,79 @@
+/*
+ * Copyright 2020 HAWKORE, S.L.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hawkore.springframework.boot.mule.objectstore;
+
+import org.hawkore.springframework.boot.mule.config.MuleConfigProperties.ObjectStores.InMemory;
+import org.hawkore.springframework.boot.mule.container.ArtifactRegistryListener;
+import org.hawkore.springframework.boot.mule.controller.dto.ArtifactType;
+import org.mule.runtime.api.artifact.Registry;
+import org.mule.runtime.core.api.config.custom.CustomizationService;
+
+import static org.mule.runtime.core.api.config.MuleProperties.BASE_IN_MEMORY_OBJECT_STORE_KEY;
+
+/**
+ * Provides a {@link CaffeineObjectStore} as default in-memory object store of every created application, so object
+ * stores of the application not configured as persistent are partitions of it.
+ *
+ * @author Manuel Núñez Sánchez (manuel.nunez@hawkore.com)
+ */
+public class InMemoryObjectStoreCustomizer implements ArtifactRegistryListener {
+
+    private final InMemory configProperties;
+
+    /**
+     * Instantiates a new In memory object store customizer.
+     *
+     * @param configProperties
+     *     the in-memory object store configuration properties
+     */
+    public InMemoryObjectStoreCustomizer(InMemory configProperties) {
+        this.configProperties = configProperties;
+    }
+
+    /**
+     * On artifact created.
+     *
+     * @param type
+     *     the artifact type
+     * @param name
+     *     the artifact name
+     * @param customizationService
+     *     the artifact customization service
+     */
+    @Override
+    public void onArtifactCreated(ArtifactType type, String name, CustomizationService customizationService) {
+        if (ArtifactType.APPLICATION.equals(type)) {
+            customizationService.overrideDefaultServiceImpl(BASE_IN_MEMORY_OBJECT_STORE_KEY,
+                new CaffeineObjectStore(configProperties));
+        }
+    }
+
+    /**
+     * On artifact started.
+     *
+     * @param type
+     *     the artifact type
+     * @param name
+     *     the artifact name
+     * @param registry
+     *     the artifact registry
+     */
+    @Override
+    public void onArtifactStarted(ArtifactType type, String name, Registry registry) {
+        // nothing to do
+    }
+
+}
@@ -0,0 +1,860 @@
+/*
+ * Copyright 2020 HAWKORE, S.L.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hawkore.springframework.boot.mule.objectstore;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+
+import org.hawkore.springframework.boot.mule.config.MuleConfigProperties.ObjectStores.Persistent;
+import org.mule.runtime.api.lifecycle.Disposable;
+import org.mule.runtime.api.store.ObjectAlreadyExistsException;
+import org.mule.runtime.api.store.ObjectDoesNotExistException;
+import org.mule.runtime.api.store.ObjectStoreException;
+import org.mule.runtime.core.api.store.PartitionableExpirableObjectStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static org.mule.runtime.api.i18n.I18nMessageFactory.createStaticMessage;
+
+/**
+ * Mule persistent object store backed by a memory-mapped append-only log.
+ * <p>
+ * Every change (store, remove or clear of a partition) is appended to a single log file as a checksummed record, and
+ * an in-memory index keeps the location of the value of every live entry, so there is no file I/O per key. Values are
+ * read back from the mapped log and deserialized on retrieval. On open, the log is replayed to rebuild the index, up
+ * to the last complete record, so a record torn by a crash is discarded.
+ * <p>
+ * Log grows as needed, and it is compacted in background (live entries are copied into a new log that replaces it)
+ * once removed or replaced entries take {@code mule.objectStore.persistent.compactionThreshold} of it.
+ * <p>
+ * Record layout: {@code length (int), type (byte), created (long), partition, key, value (int length prefixed bytes),
+ * CRC32 (int)}. A zero length marks the end of the log.
+ *
+ * @author Manuel Núñez Sánchez (manuel.nunez@hawkore.com)
+ */
+public class MappedObjectStore implements PartitionableExpirableObjectStore<Serializable>, Disposable {
+
+    /**
+     * The log file name.
+     */
+    public static final String LOG_FILE = "objectstore.log";
+    private static final Logger LOGGER = LoggerFactory.getLogger(MappedObjectStore.class);
+    private static final String DEFAULT_PARTITION = CaffeineObjectStore.DEFAULT_PARTITION;
+    // "MOS1"
+    private static final int MAGIC = 0x4d4f5331;
+    private static final int HEADER = 4;
+    private static final byte PUT = 1;
+    private static final byte REMOVE = 2;
+    private static final byte CLEAR = 3;
+    // garbage below it does not trigger a compaction
+    private static final long MIN_COMPACTION_GARBAGE = 1024 * 1024;
+    private static final ExecutorService COMPACTOR = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "mule-objectstore-compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final File file;
+    private final Persistent configProperties;
+    private final Map<EntryKey, Location> index = new ConcurrentHashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicBoolean compacting = new AtomicBoolean();
+    private FileChannel channel;
+    private MappedByteBuffer log;
+    private int position;
+    private long liveBytes;
+    private volatile boolean disposed;
+
+    /**
+     * Instantiates a new Mapped object store, replaying its log if it exists.
+     *
+     * @param folder
+     *     the folder of the log
+     * @param configProperties
+     *     the persistent object store configuration properties
+     * @throws IOException
+     *     the io exception
+     */
+    public MappedObjectStore(File folder, Persistent configProperties) throws IOException {
+        this.configProperties = configProperties;
+        this.file = new File(folder, LOG_FILE);
+        Files.createDirectories(folder.toPath());
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+        log = map(channel, Math.max(channel.size(), configProperties.getInitialSize().toBytes()));
+        if (log.getInt(0) != MAGIC) {
+            if (log.getInt(0) != 0) {
+                throw new IOException("Not an object store log: " + file);
+            }
+            log.putInt(0, MAGIC);
+        }
+        replay();
+    }
+
+    /**
+     * Log size, including removed or replaced entries.
+     *
+     * @return the log size
+     */
+    public long getLogSize() {
+        return position;
+    }
+
+    /**
+     * Size of live entries within the log.
+     *
+     * @return the live size
+     */
+    public long getLiveSize() {
+        return liveBytes;
+    }
+
+    /**
+     * Contains.
+     *
+     * @param key
+     *     the key
+     * @param partitionName
+     *     the partition name
+     * @return the boolean
+     * @throws ObjectStoreException
+     *     the object store exception
+     */
+    @Override
+    public boolean contains(String key, String partitionName) throws ObjectStoreException {
+        return index.containsKey(new EntryKey(partitionName, validKey(key)));
+    }
+
+    /**
+     * Store.
+     *
+     * @param key
+     *     the key
+     * @param value
+     *     the value
+     * @param partitionName
+     *     the partition name
+     * @throws ObjectStoreException
+     *     the object store exception
+     */
+    @Override
+    public void store(String key, Serializable value, String partitionName) throws ObjectStoreException {
+        EntryKey entryKey = new EntryKey(partitionName, validKey(key));
+        byte[] bytes = serialize(value);
+        lock.writeLock().lock();
+        try {
+            checkNotDisposed();
+            if (index.containsKey(entryKey)) {
+                throw new ObjectAlreadyExistsException(createStaticMessage("Key already exists: " + key));
+            }
+            apply(entryKey, append(PUT, System.currentTimeMillis(), partitionName, key, bytes));
+        } finally {
+            lock.writeLock().unlock();
+        }
+        compactIfNeeded();
+    }
+
+    /**
+     * Retrieve.
+     *
+     * @param key
+     *     the key
+     * @param partitionName
+     *     the partition name
+     * @return the value
+     * @throws ObjectStoreException
+     *     the object store exception
+     */
+    @Override
+    public Serializable retrieve(String key, String partitionName) throws ObjectStoreException {
+        EntryKey entryKey = new EntryKey(partitionName, validKey(key));
+        byte[] bytes;
+        lock.readLock().lock();
+        try {
+            Location location = index.get(entryKey);
+            if (location == null) {
+                throw new ObjectDoesNotExistException(createStaticMessage("Key does not exist: " + key));
+            }
+            bytes = read(location);
+        } finally {
+            lock.readLock().unlock();
+        }
+        return deserialize(bytes);
+    }
+
+    /**
+     * Remove.
+     *
+     * @param key
+     *     the key
+     * @param partitionName
+     *     the partition name
+     * @return the value
+     * @throws ObjectStoreException
+     *     the object store exception
+     */
+    @Override
+    public Serializable remove(String key, String partitionName) throws ObjectStoreException {
+        EntryKey entryKey = new EntryKey(partitionName, validKey(key));
+        Serializable value;
+        lock.writeLock().lock();
+        try {
+            checkNotDisposed();
+            Location location = index.get(entryKey);
+            if (location == null) {
+                throw new ObjectDoesNotExistException(createStaticMessage("Key does not exist: " + key));
+            }
+            // entry is kept if its value cannot be returned
+            value = deserialize(read(location));
+            delete(entryKey);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        compactIfNeeded();
+        return value;
+    }
+
+    /**
+     * All keys.
+     *
+     * @param partitionName
+     *     the partition name
+     * @return the keys
+     */
+    @Override
+    public List<String> allKeys(String partitionName) {
+        return index.keySet().stream().filter(k -> k.partition.equals(partitionName)).map(k -> k.key)
+                   .collect(Collectors.toList());
+    }
+
+    /**
+     * Retrieve all.
+     *
+     * @param partitionName
+     *     the partition name
+     * @return the entries
+     * @throws ObjectStoreException
+     *     the object store exception
+     */
+    @Override
+    public Map<String, Serializable> retrieveAll(String partitionName) throws ObjectStoreException {
+        Map<String, Serializable> entries = new LinkedHashMap<>();
+        for (String key : allKeys(partitionName)) {
+            try {
+                entries.put(key, retrieve(key, partitionName));
+            } catch (ObjectDoesNotExistException e) {
+                // removed meanwhile
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * All partitions.
+     *
+     * @return the partitions
+     */
+    @Override
+    public List<String> allPartitions() {
+        return index.keySet().stream().map(k -> k.partition).distinct().collect(Collectors.toList());
+    }
+
+    /**
+     * Open.
+     *
+     * @param partitionName
+     *     the partition name
+     */
+    @Override
+    public void open(String partitionName) {
+        // partitions exist while they have entries
+    }
+
+    /**
+     * Close.
+     *
+     * @param partitionName
+     *     the partition name
+     */
+    @Override
+    public void close(String partitionName) {
+        // entries are kept until partition is disposed
+    }
+
+    /**
+     * Dispose partition.
+     *
+     * @param partitionName
+     *     the partition name
+     * @throws ObjectStoreException
+     *     the object store exception
+     */
+    @Override
+    public void disposePartition(String partitionName) throws ObjectStoreException {
+        clear(partitionName);
+    }
+
+    /**
+     * Clear.
+     *
+     * @param partitionName
+     *     the partition name
+     * @throws ObjectStoreException
+     *     the object store exception
+     */
+    @Override
+    public void clear(String partitionName) throws ObjectStoreException {
+        lock.writeLock().lock();
+        try {
+            checkNotDisposed();
+            append(CLEAR, System.currentTimeMillis(), partitionName, "", new byte[0]);
+            new ArrayList<>(index.keySet()).stream().filter(k -> k.partition.equals(partitionName))
+                .forEach(this::unindex);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        compactIfNeeded();
+    }
+
+    /**
+     * Expire entries.
+     *
+     * @param entryTTL
+     *     the entry ttl
+     * @param maxEntries
+     *     the max entries
+     * @param partitionName
+     *     the partition name
+     * @throws ObjectStoreException
+     *     the object store exception
+     */
+    @Override
+    public void expire(long entryTTL, int maxEntries, String partitionName) throws ObjectStoreException {
+        long now = System.currentTimeMillis();
+        List<Map.Entry<EntryKey, Location>> entries = index.entrySet().stream()
+                                                          .filter(e -> e.getKey().partition.equals(partitionName))
+                                                          .sorted(Comparator.comparingLong(e -> e.getValue().created))
+                                                          .collect(Collectors.toList());
+        int remaining = entries.size();
+        for (Map.Entry<EntryKey, Location> entry : entries) {
+            boolean expired = entryTTL > 0 && now - entry.getValue().created >= entryTTL;
+            // oldest entries above max entries are removed too
+            boolean overflow = maxEntries > 0 && remaining > maxEntries;
+            if (expired || overflow) {
+                lock.writeLock().lock();
+                try {
+                    checkNotDisposed();
+                    // value is not read, so entries with values that cannot be deserialized expire too
+                    if (index.containsKey(entry.getKey())) {
+                        delete(entry.getKey());
+                        remaining--;
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        }
+        compactIfNeeded();
+    }
+
+    /**
+     * Expire entries.
+     *
+     * @param entryTTL
+     *     the entry ttl
+     * @param maxEntries
+     *     the max entries
+     * @throws ObjectStoreException
+     *     the object store exception
+     */
+    @Override
+    public void expire(long entryTTL, int maxEntries) throws ObjectStoreException {
+        expire(entryTTL, maxEntries, DEFAULT_PARTITION);
+    }
+
+    /**
+     * Contains.
+     *
+     * @param key
+     *     the key
+     * @return the boolean
+     * @throws ObjectStoreException
+     *     the object store exception
+     */
+    @Override
+    public boolean contains(String key) throws ObjectStoreException {
+        return contains(key, DEFAULT_PARTITION);
+    }
+
+    /**
+     * Store.
+     *
+     * @param key
+     *     the key
+     * @param value
+     *     the value
+     * @throws ObjectStoreException
+     *     the object store exception
+     */
+    @Override
+    public void store(String key, Serializable value) throws ObjectStoreException {
+        store(key, value, DEFAULT_PARTITION);
+    }
+
+    /**
+     * Retrieve.
+     *
+     * @param key
+     *     the key
+     * @return the value
+     * @throws ObjectStoreException
+     *     the object store exception
+     */
+    @Override
+    public Serializable retrieve(String key) throws ObjectStoreException {
+        return retrieve(key, DEFAULT_PARTITION);
+    }
+
+    /**
+     * Remove.
+     *
+     * @param key
+     *     the key
+     * @return the value
+     * @throws ObjectStoreException
+     *     the object store exception
+     */
+    @Override
+    public Serializable remove(String key) throws ObjectStoreException {
+        return remove(key, DEFAULT_PARTITION);
+    }
+
+    /**
+     * Is persistent.
+     *
+     * @return the boolean
+     */
+    @Override
+    public boolean isPersistent() {
+        return true;
+    }
+
+    /**
+     * Clear.
+     *
+     * @throws ObjectStoreException
+     *     the object store exception
+     */
+    @Override
+    public void clear() throws ObjectStoreException {
+        clear(DEFAULT_PARTITION);
+    }
+
+    /**
+     * Open.
+     */
+    @Override
+    public void open() {
+        open(DEFAULT_PARTITION);
+    }
+
+    /**
+     * Close.
+     */
+    @Override
+    public void close() {
+        close(DEFAULT_PARTITION);
+    }
+
+    /**
+     * All keys.
+     *
+     * @return the keys
+     */
+    @Override
+    public List<String> allKeys() {
+        return allKeys(DEFAULT_PARTITION);
+    }
+
+    /**
+     * Retrieve all.
+     *
+     * @return the entries
+     * @throws ObjectStoreException
+     *     the object store exception
+     */
+    @Override
+    public Map<String, Serializable> retrieveAll() throws ObjectStoreException {
+        return retrieveAll(DEFAULT_PARTITION);
+    }
+
+    /**
+     * Compact the log, copying live entries into a new log that replaces it.
+     *
+     * @throws IOException
+     *     the io exception
+     */
+    public void compact() throws IOException {
+        lock.writeLock().lock();
+        try {
+            compactLog();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Flush the log to storage device and close it.
+     */
+    @Override
+    public void dispose() {
+        lock.writeLock().lock();
+        try {
+            disposed = true;
+            if (channel != null && channel.isOpen()) {
+                log.force();
+                channel.close();
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Unable to close object store log {}", file, e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void replay() throws IOException {
+        position = HEADER;
+        int length;
+        while ((length = log.getInt(position)) > 0 && position + 4L + length <= log.capacity()) {
+            ByteBuffer record = slice(position + 4, length);
+            if (!valid(record)) {
+                LOGGER.warn("Discarding incomplete object store log record at {} of {}", position, file);
+                break;
+            }
+            byte type = record.get();
+            long created = record.getLong();
+            String partition = string(record);
+            String key = string(record);
+            EntryKey entryKey = new EntryKey(partition, key);
+            if (type == PUT) {
+                apply(entryKey, new Location(position, 4 + length, position + 4 + record.position() + 4,
+                    record.getInt(), created));
+            } else if (type == REMOVE) {
+                unindex(entryKey);
+            } else if (type == CLEAR) {
+                new ArrayList<>(index.keySet()).stream().filter(k -> k.partition.equals(partition))
+                    .forEach(this::unindex);
+            }
+            position += 4 + length;
+        }
+        // end mark, over any incomplete record
+        log.putInt(position, 0);
+    }
+
+    // appends a remove record and unindexes entry, must be called holding write lock
+    private void delete(EntryKey entryKey) throws ObjectStoreException {
+        append(REMOVE, System.currentTimeMillis(), entryKey.partition, entryKey.key, new byte[0]);
+        unindex(entryKey);
+    }
+
+    private void checkNotDisposed() throws ObjectStoreException {
+        if (disposed) {
+            throw new ObjectStoreException(createStaticMessage("Object store " + file + " is disposed"));
+        }
+    }
+
+    private void apply(EntryKey entryKey, Location location) {
+        unindex(entryKey);
+        index.put(entryKey, location);
+        liveBytes += location.size;
+    }
+
+    private void unindex(EntryKey entryKey) {
+        Location location = index.remove(entryKey);
+        if (location != null) {
+            liveBytes -= location.size;
+        }
+    }
+
+    // appends a record, must be called holding write lock
+    private Location append(byte type, long created, String partition, String key, byte[] value)
+        throws ObjectStoreException {
+        byte[] partitionBytes = partition.getBytes(StandardCharsets.UTF_8);
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        int length = 1 + 8 + 4 + partitionBytes.length + 4 + keyBytes.length + 4 + value.length + 4;
+        try {
+            // room for record and end mark
+            ensureCapacity(4 + length + 4);
+        } catch (IOException e) {
+            throw new ObjectStoreException(createStaticMessage("Unable to grow object store log " + file), e);
+        }
+        ByteBuffer record = slice(position + 4, length);
+        record.put(type).putLong(created).putInt(partitionBytes.length).put(partitionBytes).putInt(keyBytes.length)
+            .put(keyBytes).putInt(value.length);
+        int valueOffset = position + 4 + record.position();
+        record.put(value);
+        record.putInt(crc(slice(position + 4, length - 4)));
+        // end mark first, so record is complete before it is linked by its length
+        log.putInt(position + 4 + length, 0);
+        log.putInt(position, length);
+        Location location = new Location(position, 4 + length, valueOffset, value.length, created);
+        position += 4 + length;
+        if (configProperties.isSyncWrites()) {
+            log.force();
+        }
+        return location;
+    }
+
+    private void ensureCapacity(int bytes) throws IOException {
+        if ((long)position + bytes <= log.capacity()) {
+            return;
+        }
+        if (garbage() > bytes) {
+            compactLog();
+        }
+        long capacity = log.capacity();
+        while ((long)position + bytes > capacity) {
+            capacity *= 2;
+        }
+        if (capacity > Integer.MAX_VALUE) {
+            throw new IOException("Object store log " + file + " is full");
+        }
+        if (capacity > log.capacity()) {
+            log.force();
+            log = map(channel, capacity);
+        }
+    }
+
+    private long garbage() {
+        return position - HEADER - liveBytes;
+    }
+
+    private void compactIfNeeded() {
+        if (garbage() > MIN_COMPACTION_GARBAGE && garbage() > configProperties.getCompactionThreshold() * position
+                && compacting.compareAndSet(false, true)) {
+            COMPACTOR.execute(() -> {
+                try {
+                    compact();
+                } catch (Exception e) {
+                    LOGGER.warn("Unable to compact object store log {}", file, e);
+                } finally {
+                    compacting.set(false);
+                }
+            });
+        }
+    }
+
+    // copies live records into a new log that replaces current one, must be called holding write lock
+    private void compactLog() throws IOException {
+        if (disposed || !channel.isOpen()) {
+            return;
+        }
+        File compacted = new File(file.getParentFile(), LOG_FILE + ".compact");
+        Files.deleteIfExists(compacted.toPath());
+        FileChannel compactedChannel = FileChannel.open(compacted.toPath(), StandardOpenOption.CREATE_NEW,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long capacity = Math.max(configProperties.getInitialSize().toBytes(), 2 * (HEADER + liveBytes + 4));
+        MappedByteBuffer compactedLog = map(compactedChannel, Math.min(capacity, Integer.MAX_VALUE));
+        compactedLog.putInt(0, MAGIC);
+        int compactedPosition = HEADER;
+        // keep records order, so replaying compacted log preserves creation order
+        List<Map.Entry<EntryKey, Location>> entries = index.entrySet().stream()
+                                                          .sorted(Comparator.comparingInt(e -> e.getValue().offset))
+                                                          .collect(Collectors.toList());
+        for (Map.Entry<EntryKey, Location> entry : entries) {
+            Location location = entry.getValue();
+            ByteBuffer record = slice(location.offset, location.size);
+            compactedLog.position(compactedPosition);
+            compactedLog.put(record);
+            entry.setValue(new Location(compactedPosition, location.size,
+                compactedPosition + location.valueOffset - location.offset, location.valueLength, location.created));
+            compactedPosition += location.size;
+        }
+        compactedLog.putInt(compactedPosition, 0);
+        compactedLog.force();
+        Files.move(compacted.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+        channel.close();
+        LOGGER.debug("Compacted object store log {} from {} to {} bytes", file, position, compactedPosition);
+        channel = compactedChannel;
+        log = compactedLog;
+        position = compactedPosition;
+    }
+
+    private byte[] read(Location location) {
+        byte[] bytes = new byte[location.valueLength];
+        slice(location.valueOffset, location.valueLength).get(bytes);
+        return bytes;
+    }
+
+    private ByteBuffer slice(int offset, int length) {
+        ByteBuffer buffer = log.duplicate();
+        buffer.position(offset);
+        buffer.limit(offset + length);
+        return buffer.slice();
+    }
+
+    private static boolean valid(ByteBuffer record) {
+        if (record.remaining() < 4) {
+            return false;
+        }
+        ByteBuffer content = record.duplicate();
+        content.limit(record.limit() - 4);
+        return crc(content) == record.getInt(record.limit() - 4);
+    }
+
+    private static int crc(ByteBuffer content) {
+        byte[] bytes = new byte[content.remaining()];
+        content.get(bytes);
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length);
+        return (int)crc.getValue();
+    }
+
+    private static String string(ByteBuffer record) {
+        byte[] bytes = new byte[record.getInt()];
+        record.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, long capacity) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+    }
+
+    private static String validKey(String key) throws ObjectStoreException {
+        if (key == null) {
+            throw new ObjectStoreException(createStaticMessage("Key cannot be null"));
+        }
+        return key;
+    }
+
+    private static byte[] serialize(Serializable value) throws ObjectStoreException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(value);
+        } catch (IOException e) {
+            throw new ObjectStoreException(createStaticMessage("Unable to serialize value"), e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Serializable deserialize(byte[] bytes) throws ObjectStoreException {
+        try (ObjectInputStream in = new ContextObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return (Serializable)in.readObject();
+        } catch (IOException | ClassNotFoundException e) {
+            throw new ObjectStoreException(createStaticMessage("Unable to deserialize value"), e);
+        }
+    }
+
+    // resolves classes of values with context class loader, the application one while a flow runs
+    private static class ContextObjectInputStream extends ObjectInputStream {
+
+        ContextObjectInputStream(InputStream in) throws IOException {
+            super(in);
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+            ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+            if (classLoader != null) {
+                try {
+                    return Class.forName(desc.getName(), false, classLoader);
+                } catch (ClassNotFoundException e) {
+                    // fall back to default resolution
+                }
+            }
+            return super.resolveClass(desc);
+        }
+
+    }
+
+    private static class EntryKey {
+
+        private final String partition;
+        private final String key;
+
+        EntryKey(String partition, String key) {
+            this.partition = partition;
+            this.key = key;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof EntryKey)) {
+                return false;
+            }
+            EntryKey that = (EntryKey)o;
+            return partition.equals(that.partition) && key.equals(that.key);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(partition, key);
+        }
+
+    }
+
+    // location of a live record and its value within the log
+    private static class Location {
+
+        private final int offset;
+        private final int size;
+        private final int valueOffset;
+        private final int valueLength;
+        private final long created;
+
+        Location(int offset, int size, int valueOffset, int valueLength, long created) {
+            this.offset = offset;
+            this.size = size;
+            this.valueOffset = valueOffset;
+            this.valueLength = valueLength;
+            this.created = created;
+        }
+
+    }
+
+}
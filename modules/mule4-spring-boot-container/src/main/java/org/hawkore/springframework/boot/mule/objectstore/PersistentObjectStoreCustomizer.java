@@ -0,0 +1,126 @@
+/*
+ * Copyright 2020 HAWKORE, S.L.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hawkore.springframework.boot.mule.objectstore;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.hawkore.springframework.boot.mule.config.MuleConfigProperties.ObjectStores.Persistent;
+import org.hawkore.springframework.boot.mule.container.ArtifactRegistryListener;
+import org.hawkore.springframework.boot.mule.controller.dto.ArtifactType;
+import org.mule.runtime.api.artifact.Registry;
+import org.mule.runtime.core.api.config.custom.CustomizationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static org.mule.runtime.container.api.MuleFoldersUtil.getAppDataFolder;
+import static org.mule.runtime.core.api.config.MuleProperties.BASE_PERSISTENT_OBJECT_STORE_KEY;
+
+/**
+ * Provides a {@link MappedObjectStore} as default persistent object store of every created application, so
+ * persistent object stores of the application are partitions of a memory-mapped log within application data folder.
+ * <p>
+ * If the log cannot be opened, application keeps Mule default persistent object store.
+ *
+ * @author Manuel Núñez Sánchez (manuel.nunez@hawkore.com)
+ */
+public class PersistentObjectStoreCustomizer implements ArtifactRegistryListener {
+
+    /**
+     * The object store folder within application data folder.
+     */
+    public static final String OBJECT_STORE_FOLDER = "mapped-objectstore";
+    private static final Logger LOGGER = LoggerFactory.getLogger(PersistentObjectStoreCustomizer.class);
+    private final Persistent configProperties;
+    private final Map<String, MappedObjectStore> objectStores = new ConcurrentHashMap<>();
+
+    /**
+     * Instantiates a new Persistent object store customizer.
+     *
+     * @param configProperties
+     *     the persistent object store configuration properties
+     */
+    public PersistentObjectStoreCustomizer(Persistent configProperties) {
+        this.configProperties = configProperties;
+    }
+
+    /**
+     * On artifact created.
+     *
+     * @param type
+     *     the artifact type
+     * @param name
+     *     the artifact name
+     * @param customizationService
+     *     the artifact customization service
+     */
+    @Override
+    public void onArtifactCreated(ArtifactType type, String name, CustomizationService customizationService) {
+        if (!ArtifactType.APPLICATION.equals(type)) {
+            return;
+        }
+        File folder = new File(getAppDataFolder(name), OBJECT_STORE_FOLDER);
+        try {
+            MappedObjectStore objectStore = new MappedObjectStore(folder, configProperties);
+            MappedObjectStore previous = objectStores.put(name, objectStore);
+            if (previous != null) {
+                previous.dispose();
+            }
+            customizationService.overrideDefaultServiceImpl(BASE_PERSISTENT_OBJECT_STORE_KEY, objectStore);
+        } catch (IOException e) {
+            LOGGER.warn("Unable to open persistent object store {} of application {}, using default one", folder,
+                name, e);
+        }
+    }
+
+    /**
+     * On artifact started.
+     *
+     * @param type
+     *     the artifact type
+     * @param name
+     *     the artifact name
+     * @param registry
+     *     the artifact registry
+     */
+    @Override
+    public void onArtifactStarted(ArtifactType type, String name, Registry registry) {
+        // nothing to do
+    }
+
+    /**
+     * On artifact stopped, flush and close application object store log.
+     *
+     * @param type
+     *     the artifact type
+     * @param name
+     *     the artifact name
+     * @param registry
+     *     the artifact registry
+     */
+    @Override
+    public void onArtifactStopped(ArtifactType type, String name, Registry registry) {
+        if (ArtifactType.APPLICATION.equals(type)) {
+            MappedObjectStore objectStore = objectStores.remove(name);
+            if (objectStore != null) {
+                objectStore.dispose();
+            }
+        }
+    }
+
+}
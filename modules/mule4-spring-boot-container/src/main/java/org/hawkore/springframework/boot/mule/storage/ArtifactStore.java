@@ -0,0 +1,420 @@
+/*
+ * Copyright 2020 HAWKORE, S.L.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hawkore.springframework.boot.mule.storage;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.hawkore.springframework.boot.mule.config.MuleConfigProperties;
+import org.hawkore.springframework.boot.mule.controller.dto.StoredArtifact;
+import org.hawkore.springframework.boot.mule.exception.DeployArtifactException;
+import org.hawkore.springframework.boot.mule.utils.StorageUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.StringUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+
+/**
+ * Local content-addressable store of Mule artifacts.
+ * <p>
+ * Artifacts are stored once by their SHA-256 digest ({@code <store>/<digest>/<fileName>}), so uploading an already
+ * stored artifact does not consume additional space and stored artifacts may be deployed by digest without uploading
+ * them again. Deployed artifacts reference their content, least recently used unreferenced artifacts are evicted when
+ * store exceeds {@code mule.store.max-size} or {@code mule.store.max-entries}. Stored or fetched artifacts are pinned,
+ * so they are not evicted by concurrent uploads before being referenced, until {@code mule.store.pin-timeout} elapses.
+ *
+ * @author Manuel Núñez Sánchez (manuel.nunez@hawkore.com)
+ */
+public class ArtifactStore {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ArtifactStore.class);
+    private static final String DEFAULT_FOLDER = "store";
+    private static final String TEMP_FOLDER = ".tmp";
+    private static final String REFERENCES = "references.properties";
+    private static final Pattern DIGEST = Pattern.compile("[0-9a-f]{64}");
+    private final MuleConfigProperties configProperties;
+    // stored artifacts by digest
+    private final Map<String, Entry> entries = new HashMap<>();
+    // deployed artifact name -> digest
+    private final Properties references = new Properties();
+    private File folder;
+
+    /**
+     * Instantiates a new Artifact store.
+     *
+     * @param configProperties
+     *     the config properties
+     */
+    public ArtifactStore(MuleConfigProperties configProperties) {
+        this.configProperties = configProperties;
+    }
+
+    /**
+     * Store artifact.
+     *
+     * @param file
+     *     the file
+     * @return the stored artifact
+     */
+    public StoredArtifact store(MultipartFile file) {
+        try (InputStream is = file.getInputStream()) {
+            return store(file.getOriginalFilename(), is);
+        } catch (IOException ex) {
+            throw new DeployArtifactException("Could not store mule artifact. Please try again!", ex);
+        }
+    }
+
+    /**
+     * Store artifact. Content is digested while it is copied into store, so it is read just once.
+     *
+     * @param name
+     *     the artifact file name
+     * @param content
+     *     the content
+     * @return the stored artifact
+     */
+    public StoredArtifact store(String name, InputStream content) {
+        String fileName = validFileName(name);
+        File temp = null;
+        try {
+            temp = Files.createTempFile(getFolder(TEMP_FOLDER).toPath(), "upload", ".tmp").toFile();
+            MessageDigest messageDigest = StorageUtils.newSha256();
+            try (InputStream is = new DigestInputStream(content, messageDigest)) {
+                Files.copy(is, temp.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            return put(StorageUtils.toHex(messageDigest.digest()), fileName, temp);
+        } catch (IOException ex) {
+            throw new DeployArtifactException("Could not store artifact file " + fileName + ". Please try again!", ex);
+        } finally {
+            if (temp != null && temp.exists() && !temp.delete()) {
+                LOGGER.warn("Unable to delete temporal file {}", temp.getAbsolutePath());
+            }
+        }
+    }
+
+    /**
+     * Create a temporal file within store, so content written into it by caller may be stored without copying it.
+     *
+     * @return the temporal file
+     */
+    public File createTempFile() {
+        try {
+            return Files.createTempFile(getFolder(TEMP_FOLDER).toPath(), "upload", ".tmp").toFile();
+        } catch (IOException ex) {
+            throw new DeployArtifactException("Could not create temporal file within artifact store", ex);
+        }
+    }
+
+    /**
+     * Store artifact content written into a temporal file of this store (see {@link #createTempFile()}), moving it
+     * into the store.
+     *
+     * @param name
+     *     the artifact file name
+     * @param digest
+     *     the SHA-256 digest of content (hex encoded), computed by caller while writing it
+     * @param temp
+     *     the temporal file
+     * @return the stored artifact
+     */
+    public StoredArtifact store(String name, String digest, File temp) {
+        String fileName = validFileName(name);
+        try {
+            return put(digest, fileName, temp);
+        } catch (IOException ex) {
+            throw new DeployArtifactException("Could not store artifact file " + fileName + ". Please try again!", ex);
+        }
+    }
+
+    /**
+     * Gets stored artifact.
+     *
+     * @param digest
+     *     the digest
+     * @return the stored artifact
+     */
+    public synchronized Optional<StoredArtifact> get(String digest) {
+        load();
+        return Optional.ofNullable(entries.get(digest)).map(this::toStoredArtifact);
+    }
+
+    /**
+     * Gets stored artifact file, marking it as recently used and pinning it until it is referenced.
+     *
+     * @param digest
+     *     the digest
+     * @param fileName
+     *     the file name, null for any file name artifact was stored with
+     * @return the file
+     */
+    public synchronized Optional<File> getFile(String digest, String fileName) {
+        load();
+        Entry entry = entries.get(digest);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        Optional<File> file = fileName == null
+                                  ? entry.files().stream().findFirst()
+                                  : entry.files().stream().filter(f -> f.getName().equals(fileName)).findFirst();
+        file.ifPresent(f -> {
+            touch(entry);
+            pin(entry);
+        });
+        return file;
+    }
+
+    /**
+     * List stored artifacts, most recently used first.
+     *
+     * @return the stored artifacts
+     */
+    public synchronized List<StoredArtifact> list() {
+        load();
+        return entries.values().stream().sorted(Comparator.comparingLong((Entry e) -> e.lastAccess).reversed())
+                   .map(this::toStoredArtifact).collect(Collectors.toList());
+    }
+
+    /**
+     * Mark stored artifact as referenced by a deployed artifact, so it will not be evicted, and unpin it. Any previous
+     * reference of deployed artifact is released.
+     *
+     * @param digest
+     *     the digest
+     * @param artifactName
+     *     the deployed artifact name
+     */
+    public synchronized void reference(String digest, String artifactName) {
+        load();
+        Entry entry = entries.get(digest);
+        if (entry == null) {
+            return;
+        }
+        references.setProperty(artifactName, digest);
+        entry.pinnedUntil = 0;
+        touch(entry);
+        saveReferences();
+    }
+
+    /**
+     * Release stored artifact referenced by a deployed artifact, if any.
+     *
+     * @param artifactName
+     *     the deployed artifact name
+     */
+    public synchronized void release(String artifactName) {
+        load();
+        if (references.remove(artifactName) != null) {
+            saveReferences();
+            evict();
+        }
+    }
+
+    /**
+     * Put already digested content into store. Content file is moved into store if not already stored. Stored
+     * artifact is pinned until it is referenced.
+     *
+     * @param digest
+     *     the digest
+     * @param fileName
+     *     the artifact file name
+     * @param temp
+     *     the content file, within store folder
+     * @return the stored artifact
+     * @throws IOException
+     *     the io exception
+     */
+    synchronized StoredArtifact put(String digest, String fileName, File temp) throws IOException {
+        load();
+        Entry entry = entries.get(digest);
+        if (entry == null) {
+            File dir = new File(getFolder(), digest);
+            Files.createDirectories(dir.toPath());
+            Files.move(temp.toPath(), new File(dir, fileName).toPath(), ATOMIC_MOVE);
+            entry = new Entry(digest, dir);
+            entries.put(digest, entry);
+            LOGGER.info("Stored artifact {} with digest {}", fileName, digest);
+        } else {
+            File file = new File(entry.dir, fileName);
+            if (!file.exists()) {
+                // same content stored with another name, Mule names artifacts after their file name
+                StorageUtils.linkOrCopy(entry.files().get(0), file);
+            }
+            LOGGER.info("Artifact {} with digest {} already stored", fileName, digest);
+        }
+        touch(entry);
+        pin(entry);
+        evict();
+        return toStoredArtifact(entry);
+    }
+
+    // evict least recently used unreferenced and unpinned artifacts while store limits are exceeded
+    private void evict() {
+        long maxSize = configProperties.getStore().getMaxSize().toBytes();
+        int maxEntries = configProperties.getStore().getMaxEntries();
+        long size = entries.values().stream().mapToLong(e -> e.size).sum();
+        long now = System.currentTimeMillis();
+        List<Entry> candidates = entries.values().stream()
+                                     .filter(e -> e.pinnedUntil <= now && !references.containsValue(e.digest))
+                                     .sorted(Comparator.comparingLong(e -> e.lastAccess)).collect(Collectors.toList());
+        for (Entry entry : candidates) {
+            if (size <= maxSize && entries.size() <= maxEntries) {
+                break;
+            }
+            StorageUtils.cleanUpFolder(entry.dir);
+            entries.remove(entry.digest);
+            size -= entry.size;
+            LOGGER.info("Evicted stored artifact {} {}", entry.digest, entry.fileNames());
+        }
+    }
+
+    private synchronized void load() {
+        if (folder != null) {
+            return;
+        }
+        File store = Optional.ofNullable(configProperties.getStore().getDir())
+                         .orElseGet(() -> new File(configProperties.getBase(), DEFAULT_FOLDER));
+        // discard incomplete uploads
+        StorageUtils.cleanUpFolder(new File(store, TEMP_FOLDER));
+        File[] dirs = store.listFiles(f -> f.isDirectory() && DIGEST.matcher(f.getName()).matches());
+        for (File dir : Optional.ofNullable(dirs).orElse(new File[0])) {
+            Entry entry = new Entry(dir.getName(), dir);
+            if (entry.files().isEmpty()) {
+                StorageUtils.cleanUpFolder(dir);
+            } else {
+                entries.put(entry.digest, entry);
+            }
+        }
+        File referencesFile = new File(store, REFERENCES);
+        if (referencesFile.exists()) {
+            try (InputStream is = Files.newInputStream(referencesFile.toPath())) {
+                references.load(is);
+            } catch (IOException e) {
+                LOGGER.warn("Unable to load artifact store references. Error was: {}", e.getMessage());
+            }
+        }
+        folder = store;
+        LOGGER.info("Loaded artifact store {} with {} artifacts", store.getAbsolutePath(), entries.size());
+    }
+
+    private void saveReferences() {
+        try {
+            Path temp = Files.createTempFile(getFolder(TEMP_FOLDER).toPath(), "references", ".tmp");
+            try (OutputStream os = new FileOutputStream(temp.toFile())) {
+                references.store(os, "Deployed artifacts store references");
+            }
+            Files.move(temp, new File(getFolder(), REFERENCES).toPath(), StandardCopyOption.REPLACE_EXISTING,
+                ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOGGER.warn("Unable to save artifact store references. Error was: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Gets store folder or a child folder, creating it if required.
+     *
+     * @param children
+     *     the children path
+     * @return the folder
+     * @throws IOException
+     *     the io exception
+     */
+    File getFolder(String... children) throws IOException {
+        load();
+        File dir = folder;
+        for (String child : children) {
+            dir = new File(dir, child);
+        }
+        Files.createDirectories(dir.toPath());
+        return dir;
+    }
+
+    // keep entry until it is referenced by a deployed artifact or pin timeout elapses
+    private void pin(Entry entry) {
+        entry.pinnedUntil = System.currentTimeMillis() + configProperties.getStore().getPinTimeout().toMillis();
+    }
+
+    private static void touch(Entry entry) {
+        entry.lastAccess = System.currentTimeMillis();
+        // persist last access, so it survives restarts
+        if (!entry.dir.setLastModified(entry.lastAccess)) {
+            LOGGER.debug("Unable to update last access of stored artifact {}", entry.digest);
+        }
+    }
+
+    static String validFileName(String name) {
+        String fileName = StringUtils.getFilename(StringUtils.cleanPath(Optional.ofNullable(name).orElse("")));
+        if (StringUtils.isEmpty(fileName) || fileName.contains("..") || fileName.startsWith(".")) {
+            throw new DeployArtifactException("You must provide a valid artifact file name. Please try again!");
+        }
+        return fileName;
+    }
+
+    private StoredArtifact toStoredArtifact(Entry entry) {
+        return new StoredArtifact().setDigest(entry.digest).setFileNames(entry.fileNames()).setSize(entry.size)
+                   .setLastAccess(entry.lastAccess).setReferences(
+                references.stringPropertyNames().stream().filter(n -> entry.digest.equals(references.getProperty(n)))
+                    .sorted().collect(Collectors.toList()));
+    }
+
+    private static class Entry {
+
+        private final String digest;
+        private final File dir;
+        private final long size;
+        private long lastAccess;
+        private long pinnedUntil;
+
+        Entry(String digest, File dir) {
+            this.digest = digest;
+            this.dir = dir;
+            this.size = files().stream().findFirst().map(File::length).orElse(0L);
+            this.lastAccess = dir.lastModified();
+        }
+
+        // file names are links to same content
+        List<File> files() {
+            File[] files = Optional.ofNullable(dir.listFiles(File::isFile)).orElse(new File[0]);
+            Arrays.sort(files);
+            return new ArrayList<>(Arrays.asList(files));
+        }
+
+        List<String> fileNames() {
+            return files().stream().map(File::getName).collect(Collectors.toList());
+        }
+
+    }
+
+}
@@ -0,0 +1,463 @@
+/*
+ * Copyright 2020 HAWKORE, S.L.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hawkore.springframework.boot.mule.storage;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.hawkore.springframework.boot.mule.config.MuleConfigProperties;
+import org.hawkore.springframework.boot.mule.controller.dto.ArtifactUpload;
+import org.hawkore.springframework.boot.mule.controller.dto.StoredArtifact;
+import org.hawkore.springframework.boot.mule.exception.DeployArtifactException;
+import org.hawkore.springframework.boot.mule.exception.UploadRejectedException;
+import org.hawkore.springframework.boot.mule.exception.UploadRejectedException.Reason;
+import org.hawkore.springframework.boot.mule.utils.StorageUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+
+/**
+ * Resumable chunked uploads into {@link ArtifactStore}.
+ * <p>
+ * An upload is initiated with artifact file name, size and expected SHA-256 digest. Then byte ranges are sent in any
+ * order (and concurrently) and written in place with positional writes, so an interrupted upload is resumed by
+ * sending just the missing ranges. On completion, content digest is verified and artifact is moved into store: it
+ * waits for ranges being written, and further ranges are rejected while it is in progress.
+ * <p>
+ * Uploads are kept within store folder ({@code .uploads/<id>}), so they survive restarts. As space of whole artifact is
+ * reserved on initiation, artifacts larger than {@code mule.store.max-size} are rejected, just
+ * {@code mule.store.max-uploads} uploads may be in progress, and uploads not updated within
+ * {@code mule.store.upload-expiration} are periodically discarded.
+ *
+ * @author Manuel Núñez Sánchez (manuel.nunez@hawkore.com)
+ */
+public class ArtifactUploads {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ArtifactUploads.class);
+    private static final String UPLOADS_FOLDER = ".uploads";
+    private static final String DATA = "data";
+    private static final String DESCRIPTOR = "upload.properties";
+    private static final Pattern CONTENT_RANGE = Pattern.compile("bytes (\\d+)-(\\d+)/(\\d+)");
+    private static final Pattern DIGEST = Pattern.compile("[0-9a-f]{64}");
+    private static final Pattern ID = Pattern.compile("[0-9a-f\\-]{36}");
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final long PURGE_INTERVAL_MINUTES = 5;
+    private final ArtifactStore artifactStore;
+    private final MuleConfigProperties configProperties;
+    private final Map<String, Upload> uploads = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService purger;
+
+    /**
+     * Instantiates a new Artifact uploads.
+     *
+     * @param artifactStore
+     *     the artifact store
+     * @param configProperties
+     *     the config properties
+     */
+    public ArtifactUploads(ArtifactStore artifactStore, MuleConfigProperties configProperties) {
+        this.artifactStore = artifactStore;
+        this.configProperties = configProperties;
+        // abandoned uploads, including ones from before a restart, hold their reserved space until discarded
+        this.purger = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "mule-uploads-purger");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.purger.scheduleWithFixedDelay(this::purgeExpired, 0, PURGE_INTERVAL_MINUTES, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Stop discarding expired uploads.
+     */
+    public void close() {
+        purger.shutdownNow();
+    }
+
+    /**
+     * Initiate upload.
+     *
+     * @param name
+     *     the artifact file name
+     * @param size
+     *     the artifact size in bytes
+     * @param digest
+     *     the expected SHA-256 digest of artifact content (hex encoded)
+     * @return the upload
+     * @throws UploadRejectedException
+     *     if artifact is larger than artifact store max size, or too many uploads are in progress
+     */
+    public ArtifactUpload initiate(String name, long size, String digest) {
+        String fileName = ArtifactStore.validFileName(name);
+        String expected = Optional.ofNullable(digest).map(String::toLowerCase).orElse("");
+        if (size <= 0) {
+            throw new IllegalArgumentException("Invalid artifact size: " + size);
+        }
+        if (!DIGEST.matcher(expected).matches()) {
+            throw new IllegalArgumentException("Invalid SHA-256 digest: " + digest);
+        }
+        long maxSize = configProperties.getStore().getMaxSize().toBytes();
+        if (size > maxSize) {
+            throw new UploadRejectedException(Reason.TOO_LARGE,
+                "Artifact " + fileName + " of " + size + " bytes is larger than artifact store max size " + maxSize
+                    + " bytes");
+        }
+        try {
+            String id = UUID.randomUUID().toString();
+            File dir = reserve(id);
+            // reserve space, so ranges may be written in any order
+            try (FileChannel channel = FileChannel.open(new File(dir, DATA).toPath(), StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.WRITE)) {
+                channel.write(ByteBuffer.allocate(1), size - 1);
+            }
+            Upload upload = new Upload(id, dir, fileName, size, expected);
+            upload.save();
+            uploads.put(id, upload);
+            LOGGER.info("Initiated upload {} of {} ({} bytes)", id, fileName, size);
+            return upload.toArtifactUpload();
+        } catch (IOException ex) {
+            throw new DeployArtifactException("Could not initiate upload of " + fileName + ". Please try again!", ex);
+        }
+    }
+
+    /**
+     * Gets upload.
+     *
+     * @param id
+     *     the upload id
+     * @return the upload
+     */
+    public Optional<ArtifactUpload> get(String id) {
+        return find(id).map(Upload::toArtifactUpload);
+    }
+
+    /**
+     * Write a byte range of artifact content.
+     *
+     * @param id
+     *     the upload id
+     * @param contentRange
+     *     the content range ({@code bytes first-last/size})
+     * @param content
+     *     the range content
+     * @return the upload, empty if it does not exist
+     * @throws IllegalStateException
+     *     if upload is being completed
+     */
+    public Optional<ArtifactUpload> write(String id, String contentRange, InputStream content) {
+        Optional<Upload> found = find(id);
+        if (!found.isPresent()) {
+            return Optional.empty();
+        }
+        Upload upload = found.get();
+        Matcher range = CONTENT_RANGE.matcher(Optional.ofNullable(contentRange).orElse(""));
+        if (!range.matches()) {
+            throw new IllegalArgumentException("Invalid Content-Range: " + contentRange);
+        }
+        long first = Long.parseLong(range.group(1));
+        long last = Long.parseLong(range.group(2));
+        if (first > last || last >= upload.size || Long.parseLong(range.group(3)) != upload.size) {
+            throw new IllegalArgumentException("Invalid Content-Range for " + upload.size + " bytes: " + contentRange);
+        }
+        upload.startWrite();
+        try {
+            long written = 0;
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            try (ReadableByteChannel in = Channels.newChannel(content);
+                 FileChannel out = FileChannel.open(upload.data().toPath(), StandardOpenOption.WRITE)) {
+                while (written <= last - first && in.read(buffer) >= 0) {
+                    buffer.flip();
+                    // never write beyond declared range
+                    buffer.limit((int)Math.min(buffer.limit(), last - first + 1 - written));
+                    while (buffer.hasRemaining()) {
+                        written += out.write(buffer, first + written);
+                    }
+                    buffer.clear();
+                }
+            } catch (IOException ex) {
+                throw new DeployArtifactException("Could not write range " + contentRange + " of upload " + id, ex);
+            }
+            if (written != last - first + 1) {
+                throw new IllegalArgumentException(
+                    "Incomplete range " + contentRange + " of upload " + id + ", received " + written + " bytes");
+            }
+            upload.add(first, last);
+        } finally {
+            upload.endWrite();
+        }
+        return Optional.of(upload.toArtifactUpload());
+    }
+
+    /**
+     * Complete upload, verifying content digest and moving artifact into store.
+     *
+     * @param id
+     *     the upload id
+     * @return the stored artifact, empty if upload does not exist
+     * @throws IllegalStateException
+     *     if upload is incomplete or it is already being completed
+     */
+    public Optional<StoredArtifact> complete(String id) {
+        Optional<Upload> found = find(id);
+        if (!found.isPresent()) {
+            return Optional.empty();
+        }
+        Upload upload = found.get();
+        upload.startCompletion();
+        try {
+            if (upload.received() != upload.size) {
+                throw new IllegalStateException(
+                    "Upload " + id + " is incomplete, received " + upload.received() + " of " + upload.size + " bytes");
+            }
+            String digest = StorageUtils.sha256(upload.data());
+            if (!digest.equals(upload.digest)) {
+                abort(id);
+                throw new IllegalArgumentException(
+                    "Upload " + id + " digest " + digest + " does not match expected " + upload.digest);
+            }
+            StoredArtifact stored = artifactStore.put(digest, upload.fileName, upload.data());
+            abort(id);
+            LOGGER.info("Completed upload {} of {}", id, upload.fileName);
+            return Optional.of(stored);
+        } catch (IOException ex) {
+            throw new DeployArtifactException("Could not complete upload " + id + ". Please try again!", ex);
+        } finally {
+            upload.endCompletion();
+        }
+    }
+
+    /**
+     * Abort upload, discarding received content.
+     *
+     * @param id
+     *     the upload id
+     * @return whether upload existed
+     */
+    public boolean abort(String id) {
+        Optional<Upload> upload = find(id);
+        upload.ifPresent(u -> {
+            uploads.remove(id);
+            StorageUtils.cleanUpFolder(u.dir);
+        });
+        return upload.isPresent();
+    }
+
+    // upload folder, once there is room for one more upload in progress
+    private synchronized File reserve(String id) throws IOException {
+        File folder = artifactStore.getFolder(UPLOADS_FOLDER);
+        int maxUploads = configProperties.getStore().getMaxUploads();
+        if (inProgress(folder) >= maxUploads) {
+            purgeExpired();
+            if (inProgress(folder) >= maxUploads) {
+                throw new UploadRejectedException(Reason.TOO_MANY,
+                    "Upload rejected, " + maxUploads + " uploads already in progress");
+            }
+        }
+        File dir = new File(folder, id);
+        Files.createDirectories(dir.toPath());
+        return dir;
+    }
+
+    private static int inProgress(File folder) {
+        return Optional.ofNullable(folder.listFiles(File::isDirectory)).map(dirs -> dirs.length).orElse(0);
+    }
+
+    // known upload or one received before a restart
+    private Optional<Upload> find(String id) {
+        if (id == null || !ID.matcher(id).matches()) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(uploads.computeIfAbsent(id, k -> {
+            try {
+                File dir = new File(artifactStore.getFolder(UPLOADS_FOLDER), k);
+                return dir.isDirectory() ? Upload.load(dir) : null;
+            } catch (IOException | RuntimeException e) {
+                LOGGER.warn("Unable to load upload {}. Error was: {}", k, e.getMessage());
+                return null;
+            }
+        }));
+    }
+
+    private synchronized void purgeExpired() {
+        long expiration = System.currentTimeMillis() - configProperties.getStore().getUploadExpiration().toMillis();
+        try {
+            File[] dirs = artifactStore.getFolder(UPLOADS_FOLDER).listFiles(File::isDirectory);
+            for (File dir : Optional.ofNullable(dirs).orElse(new File[0])) {
+                // an upload being initiated has no descriptor yet
+                if (Math.max(dir.lastModified(), new File(dir, DESCRIPTOR).lastModified()) < expiration) {
+                    LOGGER.info("Discarding expired upload {}", dir.getName());
+                    uploads.remove(dir.getName());
+                    StorageUtils.cleanUpFolder(dir);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Unable to discard expired uploads. Error was: {}", e.getMessage());
+        }
+    }
+
+    private static class Upload {
+
+        private final String id;
+        private final File dir;
+        private final String fileName;
+        private final long size;
+        private final String digest;
+        // received ranges, first -> last, merged
+        private final TreeMap<Long, Long> ranges = new TreeMap<>();
+        // ranges being written, and whether upload is being completed
+        private int writers;
+        private boolean completing;
+
+        Upload(String id, File dir, String fileName, long size, String digest) {
+            this.id = id;
+            this.dir = dir;
+            this.fileName = fileName;
+            this.size = size;
+            this.digest = digest;
+        }
+
+        File data() {
+            return new File(dir, DATA);
+        }
+
+        synchronized void add(long first, long last) {
+            long start = first;
+            long end = last;
+            Entry<Long, Long> previous = ranges.floorEntry(start);
+            if (previous != null && previous.getValue() >= start - 1) {
+                start = previous.getKey();
+                end = Math.max(end, previous.getValue());
+            }
+            Entry<Long, Long> next;
+            while ((next = ranges.ceilingEntry(start)) != null && next.getKey() <= end + 1) {
+                end = Math.max(end, next.getValue());
+                ranges.remove(next.getKey());
+            }
+            ranges.put(start, end);
+            try {
+                save();
+            } catch (IOException e) {
+                // ranges will be sent again after a restart
+                LOGGER.warn("Unable to save upload {}. Error was: {}", id, e.getMessage());
+            }
+        }
+
+        synchronized void startWrite() {
+            if (completing) {
+                throw new IllegalStateException("Upload " + id + " is being completed");
+            }
+            writers++;
+        }
+
+        synchronized void endWrite() {
+            writers--;
+            notifyAll();
+        }
+
+        // rejects further writes, then waits for ranges being written
+        synchronized void startCompletion() {
+            if (completing) {
+                throw new IllegalStateException("Upload " + id + " is already being completed");
+            }
+            completing = true;
+            try {
+                while (writers > 0) {
+                    wait();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                completing = false;
+                throw new IllegalStateException("Interrupted while waiting for ranges of upload " + id, e);
+            }
+        }
+
+        synchronized void endCompletion() {
+            completing = false;
+        }
+
+        synchronized long received() {
+            return ranges.entrySet().stream().mapToLong(e -> e.getValue() - e.getKey() + 1).sum();
+        }
+
+        synchronized List<String> ranges() {
+            List<String> list = new ArrayList<>();
+            ranges.forEach((first, last) -> list.add(first + "-" + last));
+            return list;
+        }
+
+        synchronized void save() throws IOException {
+            Properties properties = new Properties();
+            properties.setProperty("fileName", fileName);
+            properties.setProperty("size", String.valueOf(size));
+            properties.setProperty("digest", digest);
+            properties.setProperty("ranges", String.join(",", ranges()));
+            Path temp = new File(dir, DESCRIPTOR + ".tmp").toPath();
+            try (OutputStream os = new FileOutputStream(temp.toFile())) {
+                properties.store(os, "Artifact upload " + id);
+            }
+            Files.move(temp, new File(dir, DESCRIPTOR).toPath(), StandardCopyOption.REPLACE_EXISTING, ATOMIC_MOVE);
+        }
+
+        static Upload load(File dir) throws IOException {
+            Properties properties = new Properties();
+            try (InputStream is = Files.newInputStream(new File(dir, DESCRIPTOR).toPath())) {
+                properties.load(is);
+            }
+            Upload upload = new Upload(dir.getName(), dir, properties.getProperty("fileName"),
+                Long.parseLong(properties.getProperty("size")), properties.getProperty("digest"));
+            for (String range : properties.getProperty("ranges", "").split(",")) {
+                if (!range.isEmpty()) {
+                    String[] bounds = range.split("-");
+                    upload.ranges.put(Long.parseLong(bounds[0]), Long.parseLong(bounds[1]));
+                }
+            }
+            return upload;
+        }
+
+        ArtifactUpload toArtifactUpload() {
+            return new ArtifactUpload().setId(id).setFileName(fileName).setSize(size).setDigest(digest)
+                       .setReceived(received()).setRanges(ranges());
+        }
+
+    }
+
+}
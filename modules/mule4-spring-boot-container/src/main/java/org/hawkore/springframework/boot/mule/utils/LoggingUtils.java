@@ -0,0 +1,113 @@
+/*
+ * Copyright 2020 HAWKORE, S.L.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hawkore.springframework.boot.mule.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.hawkore.springframework.boot.mule.config.MuleConfigProperties.Logging;
+import org.hawkore.springframework.boot.mule.config.MuleConfigProperties.Logging.OverflowPolicy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Mule Runtime logging configuration utils.
+ * <p>
+ * Mule creates a Log4j2 logger context per artifact through its own context selector, so async logging is configured
+ * with async logger configs (backed by a disruptor ring buffer per context) instead of replacing it: container
+ * {@code log4j2.xml}, also used by applications without their own configuration, is rendered with an async root
+ * logger, and ring buffer size and overflow policy are provided as Log4j2 system properties.
+ *
+ * @author Manuel Núñez Sánchez (manuel.nunez@hawkore.com)
+ */
+public class LoggingUtils {
+
+    /**
+     * The Mule Log4j2 configuration file name.
+     */
+    public static final String LOG4J2_CONF = "log4j2.xml";
+    private static final Logger LOGGER = LoggerFactory.getLogger(LoggingUtils.class);
+    private static final String GENERATED = "<!-- Generated from mule.logging.* properties -->";
+    private static final String LOGS = "${sys:mule.home}${sys:file.separator}logs${sys:file.separator}";
+    private static final String PATTERN = "%-5p %d [%t] [event: %X{correlationId}] %c: %m%n";
+
+    private LoggingUtils() {}
+
+    /**
+     * Write Mule async Log4j2 configuration into provided conf folder, unless it holds a hand-written one.
+     *
+     * @param logging
+     *     the logging configuration properties
+     * @param confFolder
+     *     the Mule conf folder
+     * @return whether configuration was written
+     * @throws IOException
+     *     the io exception
+     */
+    public static boolean writeLog4jConf(Logging logging, File confFolder) throws IOException {
+        File file = new File(confFolder, LOG4J2_CONF);
+        if (file.isFile() && !new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8)
+                                  .contains(GENERATED)) {
+            LOGGER.info("Keeping hand-written Mule logging configuration {}", file);
+            return false;
+        }
+        String conf = "<?xml version=\"1.0\" encoding=\"utf-8\"?>\n" + GENERATED + "\n"
+                          + "<Configuration>\n"
+                          + "    <Appenders>\n"
+                          + "        <RollingRandomAccessFile name=\"file\" fileName=\"" + LOGS + "mule_ee.log\"\n"
+                          + "                 filePattern=\"" + LOGS + "mule_ee-%i.log\">\n"
+                          + "            <PatternLayout pattern=\"" + PATTERN + "\"/>\n"
+                          + "            <SizeBasedTriggeringPolicy size=\"10 MB\"/>\n"
+                          + "            <DefaultRolloverStrategy max=\"10\"/>\n"
+                          + "        </RollingRandomAccessFile>\n"
+                          + "    </Appenders>\n"
+                          + "    <Loggers>\n"
+                          + "        <AsyncRoot level=\"" + logging.getLevel() + "\" includeLocation=\"false\">\n"
+                          + "            <AppenderRef ref=\"file\"/>\n"
+                          + "        </AsyncRoot>\n"
+                          + "    </Loggers>\n"
+                          + "</Configuration>\n";
+        Files.write(file.toPath(), conf.getBytes(StandardCharsets.UTF_8));
+        return true;
+    }
+
+    /**
+     * Log4j2 system properties of async loggers.
+     *
+     * @param logging
+     *     the logging configuration properties
+     * @return the system properties
+     */
+    public static Map<String, String> log4jProperties(Logging logging) {
+        Map<String, String> properties = new LinkedHashMap<>();
+        if (logging.getRingBufferSize() != null) {
+            properties.put("log4j2.asyncLoggerConfigRingBufferSize", String.valueOf(logging.getRingBufferSize()));
+            properties.put("log4j2.asyncLoggerRingBufferSize", String.valueOf(logging.getRingBufferSize()));
+        }
+        if (OverflowPolicy.DISCARD.equals(logging.getOverflowPolicy())) {
+            properties.put("log4j2.asyncQueueFullPolicy", "Discard");
+            properties.put("log4j2.discardThreshold", logging.getDiscardThreshold());
+        } else {
+            properties.put("log4j2.asyncQueueFullPolicy", "Default");
+        }
+        return properties;
+    }
+
+}
@@ -0,0 +1,324 @@
+/*
+ * Copyright 2020 HAWKORE, S.L.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hawkore.springframework.boot.mule.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.hawkore.springframework.boot.mule.config.MuleConfigProperties.ApplicationSchedulers;
+import org.hawkore.springframework.boot.mule.config.MuleConfigProperties.Schedulers;
+import org.hawkore.springframework.boot.mule.config.MuleConfigProperties.Schedulers.Pool;
+import org.hawkore.springframework.boot.mule.config.MuleConfigProperties.Schedulers.Strategy;
+import org.hawkore.springframework.boot.mule.config.MuleConfigProperties.ThreadBudget;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static java.lang.String.valueOf;
+
+/**
+ * Mule scheduler pools configuration utils.
+ * <p>
+ * Renders {@code mule.schedulers.*} properties as Mule's {@code schedulers-pools.conf}. Unset pool sizes are derived
+ * with Mule's own defaults, but from cores and memory available to this container (cgroup limits aware) instead of
+ * host ones. Same configuration is provided to applications with dedicated pools as deployment properties.
+ * <p>
+ * When {@code mule.threadBudget} is enabled, blocking threads are split between Spring Boot web server workers,
+ * Spring task executor and Mule blocking pool ({@code io}, or {@code uber} with {@code UBER} strategy), and CPU
+ * bound pools are sized to available cores, so they do not oversubscribe a small container.
+ *
+ * @author Manuel Núñez Sánchez (manuel.nunez@hawkore.com)
+ */
+public class SchedulerPoolsUtils {
+
+    /**
+     * The Mule scheduler pools configuration file name.
+     */
+    public static final String SCHEDULER_POOLS_CONF = "schedulers-pools.conf";
+    /**
+     * The Spring Boot web server workers thread budget consumer.
+     */
+    public static final String WEB = "web";
+    /**
+     * The Spring task executor thread budget consumer.
+     */
+    public static final String TASK = "task";
+    /**
+     * The Mule blocking pool thread budget consumer.
+     */
+    public static final String MULE = "mule";
+    private static final Logger LOGGER = LoggerFactory.getLogger(SchedulerPoolsUtils.class);
+    private static final String PREFIX = "org.mule.runtime.scheduler.";
+    private static final String GENERATED = "# Generated from mule.schedulers.* properties";
+    private static final Duration KEEP_ALIVE = Duration.ofSeconds(30);
+    // Mule reserves this memory (KB) before sizing elastic pools, then adds a thread per 5 MB
+    private static final long RESERVED_MEMORY_KB = 245760;
+    private static final long MEMORY_PER_THREAD_KB = 5120;
+
+    private SchedulerPoolsUtils() {}
+
+    /**
+     * Write Mule scheduler pools configuration into provided conf folder, unless it holds a hand-written one.
+     *
+     * @param schedulers
+     *     the schedulers configuration properties
+     * @param threadBudget
+     *     the thread budget configuration properties, null for none
+     * @param confFolder
+     *     the Mule conf folder
+     * @return whether configuration was written
+     * @throws IOException
+     *     the io exception
+     */
+    public static boolean writeSchedulerPoolsConf(Schedulers schedulers, ThreadBudget threadBudget, File confFolder)
+        throws IOException {
+        File file = new File(confFolder, SCHEDULER_POOLS_CONF);
+        if (file.isFile() && !new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8)
+                                  .contains(GENERATED)) {
+            LOGGER.info("Keeping hand-written Mule scheduler pools configuration {}", file);
+            return false;
+        }
+        warnFixedPoolsMaxSize("Mule container", schedulers.getCpuLight(), schedulers.getCpuIntensive());
+        StringBuilder conf = new StringBuilder();
+        conf.append(GENERATED).append(", ").append(availableCores()).append(" cores and ")
+            .append(availableMemory() / 1024).append(" KB of memory available\n");
+        if (threadBudget != null && threadBudget.isEnabled()) {
+            conf.append("# Thread budget ").append(threadBudget(threadBudget)).append('\n');
+        }
+        schedulerPoolsConf(schedulers, threadBudget)
+            .forEach((k, v) -> conf.append(k).append('=').append(v).append('\n'));
+        Files.write(file.toPath(), conf.toString().getBytes(StandardCharsets.UTF_8));
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Mule scheduler pools configuration {}:\n{}", file, conf);
+        }
+        return true;
+    }
+
+    /**
+     * Mule scheduler pools configuration of Mule container.
+     *
+     * @param schedulers
+     *     the schedulers configuration properties
+     * @return the Mule scheduler pools configuration
+     */
+    public static Map<String, String> schedulerPoolsConf(Schedulers schedulers) {
+        return schedulerPoolsConf(schedulers, null);
+    }
+
+    /**
+     * Mule scheduler pools configuration of Mule container, within a thread budget.
+     *
+     * @param schedulers
+     *     the schedulers configuration properties
+     * @param threadBudget
+     *     the thread budget configuration properties, null for none
+     * @return the Mule scheduler pools configuration
+     */
+    public static Map<String, String> schedulerPoolsConf(Schedulers schedulers, ThreadBudget threadBudget) {
+        boolean budget = threadBudget != null && threadBudget.isEnabled();
+        return schedulerPoolsConf(schedulers.getStrategy(), schedulers.getGracefulShutdownTimeout(),
+            budget ? threadBudget(threadBudget).get(MULE) : null, schedulers.getUber(), schedulers.getCpuLight(),
+            schedulers.getIo(), schedulers.getCpuIntensive());
+    }
+
+    /**
+     * Threads of a thread budget by consumer ({@link #WEB}, {@link #TASK} and {@link #MULE}), every consumer gets at
+     * least one thread, and Mule blocking pool the remaining ones.
+     *
+     * @param threadBudget
+     *     the thread budget configuration properties
+     * @return the threads by consumer
+     */
+    public static Map<String, Integer> threadBudget(ThreadBudget threadBudget) {
+        int threads = threadBudget.getThreads() != null ? threadBudget.getThreads() : elasticThreads(availableCores());
+        int web = Math.max(1, (int)(threads * threadBudget.getWebShare()));
+        int task = Math.max(1, (int)(threads * threadBudget.getTaskShare()));
+        Map<String, Integer> budget = new LinkedHashMap<>();
+        budget.put(WEB, web);
+        budget.put(TASK, task);
+        budget.put(MULE, Math.max(2, threads - web - task));
+        return budget;
+    }
+
+    /**
+     * Mule scheduler pools configuration of an application with dedicated pools.
+     *
+     * @param schedulers
+     *     the application schedulers configuration properties
+     * @param gracefulShutdownTimeout
+     *     the graceful shutdown timeout
+     * @return the Mule scheduler pools configuration
+     */
+    public static Map<String, String> schedulerPoolsConf(ApplicationSchedulers schedulers,
+        Duration gracefulShutdownTimeout) {
+        return schedulerPoolsConf(schedulers.getStrategy(), gracefulShutdownTimeout, null, schedulers.getUber(),
+            schedulers.getCpuLight(), schedulers.getIo(), schedulers.getCpuIntensive());
+    }
+
+    /**
+     * Warns about maxSize set on fixed size pools of an application with dedicated pools, as it is ignored.
+     *
+     * @param application
+     *     the application name
+     * @param schedulers
+     *     the application schedulers configuration properties
+     */
+    public static void warnFixedPoolsMaxSize(String application, ApplicationSchedulers schedulers) {
+        warnFixedPoolsMaxSize("application " + application, schedulers.getCpuLight(), schedulers.getCpuIntensive());
+    }
+
+    /**
+     * Max number of threads of pools used by a Mule scheduler pools configuration.
+     *
+     * @param conf
+     *     the Mule scheduler pools configuration
+     * @return the max number of threads
+     */
+    public static int maxThreads(Map<String, String> conf) {
+        List<String> pools = Strategy.UBER.name().equals(conf.get(PREFIX + "SchedulerPoolStrategy"))
+                                 ? Collections.singletonList("uber") : Arrays.asList("cpuLight", "io", "cpuIntensive");
+        int threads = 0;
+        for (String pool : pools) {
+            String size = conf.getOrDefault(PREFIX + pool + ".threadPool.maxSize",
+                conf.get(PREFIX + pool + ".threadPool.size"));
+            threads += size == null ? 0 : Integer.parseInt(size);
+        }
+        return threads;
+    }
+
+    // budget is the max size of blocking pools within a thread budget, null for Mule defaults
+    private static Map<String, String> schedulerPoolsConf(Strategy strategy,
+        Duration gracefulShutdownTimeout,
+        Integer budget,
+        Pool uber,
+        Pool cpuLight,
+        Pool io,
+        Pool cpuIntensive) {
+        int cores = availableCores();
+        int elastic = budget != null ? budget : elasticThreads(cores);
+        // within a budget CPU bound pools do not oversubscribe available cores
+        int cpuSize = budget != null ? cores : 2 * cores;
+        int elasticCore = budget != null ? Math.min(cores, budget) : cores;
+        Map<String, String> conf = new LinkedHashMap<>();
+        conf.put(PREFIX + "SchedulerPoolStrategy", strategy.name());
+        conf.put(PREFIX + "gracefulShutdownTimeout", valueOf(gracefulShutdownTimeout.toMillis()));
+        elasticPool(conf, "uber", uber, elasticCore, elastic);
+        fixedPool(conf, "cpuLight", cpuLight, cpuSize, 0);
+        elasticPool(conf, "io", io, elasticCore, elastic);
+        fixedPool(conf, "cpuIntensive", cpuIntensive, cpuSize, 2 * cores);
+        return conf;
+    }
+
+    // Mule default max size of elastic pools
+    private static int elasticThreads(int cores) {
+        long memory = availableMemory() / 1024;
+        return (int)Math.max(2, cores + (memory - RESERVED_MEMORY_KB) / MEMORY_PER_THREAD_KB);
+    }
+
+    /**
+     * Cores available to this container, the lower of available processors and cgroup CPU quota.
+     *
+     * @return the available cores
+     */
+    public static int availableCores() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        long quota;
+        long period;
+        // cgroup v2, "max <period>" or "<quota> <period>"
+        String[] cpuMax = read(Paths.get("/sys/fs/cgroup/cpu.max")).split(" ");
+        if (cpuMax.length == 2) {
+            quota = parse(cpuMax[0]);
+            period = parse(cpuMax[1]);
+        } else {
+            quota = parse(read(Paths.get("/sys/fs/cgroup/cpu/cpu.cfs_quota_us")));
+            period = parse(read(Paths.get("/sys/fs/cgroup/cpu/cpu.cfs_period_us")));
+        }
+        if (quota > 0 && period > 0) {
+            cores = (int)Math.min(cores, Math.max(1, (quota + period - 1) / period));
+        }
+        return cores;
+    }
+
+    /**
+     * Memory (bytes) available to this container, the lower of max heap and cgroup memory limit.
+     *
+     * @return the available memory
+     */
+    public static long availableMemory() {
+        long memory = Runtime.getRuntime().maxMemory();
+        long limit = parse(read(Paths.get("/sys/fs/cgroup/memory.max")));
+        if (limit <= 0) {
+            limit = parse(read(Paths.get("/sys/fs/cgroup/memory/memory.limit_in_bytes")));
+        }
+        return limit > 0 ? Math.min(memory, limit) : memory;
+    }
+
+    private static void elasticPool(Map<String, String> conf, String name, Pool pool, int cores, int elastic) {
+        int coreSize = pool.getCoreSize() != null ? pool.getCoreSize() : cores;
+        int maxSize = pool.getMaxSize() != null ? pool.getMaxSize() : Math.max(coreSize, elastic);
+        conf.put(PREFIX + name + ".threadPool.coreSize", valueOf(coreSize));
+        conf.put(PREFIX + name + ".threadPool.maxSize", valueOf(maxSize));
+        conf.put(PREFIX + name + ".workQueue.size", valueOf(pool.getQueueSize() != null ? pool.getQueueSize() : 0));
+        conf.put(PREFIX + name + ".threadPool.threadKeepAlive",
+            valueOf((pool.getKeepAlive() != null ? pool.getKeepAlive() : KEEP_ALIVE).toMillis()));
+    }
+
+    // cpuLight and cpuIntensive pools have a fixed size, coreSize
+    private static void warnFixedPoolsMaxSize(String owner, Pool cpuLight, Pool cpuIntensive) {
+        if (cpuLight.getMaxSize() != null) {
+            LOGGER.warn("Ignoring maxSize {} of {} cpuLight pool, it is a fixed size pool: set its coreSize instead",
+                cpuLight.getMaxSize(), owner);
+        }
+        if (cpuIntensive.getMaxSize() != null) {
+            LOGGER.warn(
+                "Ignoring maxSize {} of {} cpuIntensive pool, it is a fixed size pool: set its coreSize instead",
+                cpuIntensive.getMaxSize(), owner);
+        }
+    }
+
+    private static void fixedPool(Map<String, String> conf, String name, Pool pool, int size, int queueSize) {
+        conf.put(PREFIX + name + ".threadPool.size", valueOf(pool.getCoreSize() != null ? pool.getCoreSize() : size));
+        conf.put(PREFIX + name + ".workQueue.size",
+            valueOf(pool.getQueueSize() != null ? pool.getQueueSize() : queueSize));
+    }
+
+    private static String read(Path path) {
+        try {
+            return Files.isReadable(path) ? new String(Files.readAllBytes(path), StandardCharsets.UTF_8).trim() : "";
+        } catch (IOException e) {
+            return "";
+        }
+    }
+
+    // unlimited ("max", "-1" or empty) as -1
+    private static long parse(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+}
@@ -25,6 +25,9 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 
@@ -38,7 +41,7 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 import static org.apache.commons.io.FileUtils.deleteDirectory;
-import static org.apache.commons.io.IOUtils.copy;
+import static org.apache.commons.io.IOUtils.copyLarge;
 
 /**
  * Storage utils.
@@ -48,6 +51,7 @@ import static org.apache.commons.io.IOUtils.copy;
 public class StorageUtils {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(StorageUtils.class);
+    private static final int BUFFER_SIZE = 64 * 1024;
 
     private StorageUtils() {}
 
@@ -58,13 +62,15 @@ public class StorageUtils {
      *     the archive
      * @param directory
      *     the directory
+     * @return the extracted bytes
      * @throws IOException
      *     the io exception
      */
-    public static void unzip(InputStream archive, File directory) throws IOException {
+    public static long unzip(InputStream archive, File directory) throws IOException {
 
         ensureDirectoryExists(directory);
 
+        long bytes = 0;
         try (ZipInputStream zip = new ZipInputStream(archive)) {
             ZipEntry entry;
             while ((entry = zip.getNextEntry()) != null) {
@@ -80,11 +86,12 @@ public class StorageUtils {
                     // ensure parent directory exists
                     ensureDirectoryExists(file.getParentFile());
                     try (OutputStream os = new BufferedOutputStream(new FileOutputStream(f))) {
-                        copy(zip, os);
+                        bytes += copyLarge(zip, os);
                     }
                 }
             }
         }
+        return bytes;
     }
 
     /**
@@ -196,6 +203,111 @@ public class StorageUtils {
         }
     }
 
+    /**
+     * Extract archive into a temporal folder.
+     *
+     * @param archive
+     *     the archive
+     * @return the folder
+     */
+    public static File extractArchiveTemp(MultipartFile archive) {
+        try (InputStream is = archive.getInputStream()) {
+            File folder = Files.createTempDirectory("mule_archive").toFile();
+            unzip(is, folder);
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Extracted archive '{}' at {}", archive.getOriginalFilename(), folder.getAbsolutePath());
+            }
+            return folder;
+        } catch (Exception ex) {
+            throw new DeployArtifactException(
+                "Could not extract archive " + archive.getOriginalFilename() + ". Please try again!", ex);
+        }
+    }
+
+    /**
+     * Resolve a relative path within a directory, checking it does not point outside the directory.
+     *
+     * @param directory
+     *     the directory
+     * @param path
+     *     the relative path
+     * @return the file
+     * @throws InvalidZipFileException
+     *     if path is absolute or external
+     */
+    public static File resolve(File directory, String path) throws InvalidZipFileException {
+        verifyZipFilePaths(new ZipEntry(path));
+        return new File(directory, path);
+    }
+
+    /**
+     * SHA-256 digest of file content, hex encoded.
+     *
+     * @param file
+     *     the file
+     * @return the digest
+     * @throws IOException
+     *     the io exception
+     */
+    public static String sha256(File file) throws IOException {
+        MessageDigest messageDigest = newSha256();
+        try (InputStream is = new DigestInputStream(Files.newInputStream(file.toPath()), messageDigest)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (is.read(buffer) >= 0) {
+                // digest while reading
+            }
+        }
+        return toHex(messageDigest.digest());
+    }
+
+    /**
+     * New SHA-256 message digest.
+     *
+     * @return the message digest
+     */
+    public static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform implementation supports SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Hex encode.
+     *
+     * @param bytes
+     *     the bytes
+     * @return the hex string
+     */
+    public static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Hard link target to source file, so content is not duplicated, or copy it if file system does not support
+     * links.
+     *
+     * @param source
+     *     the source
+     * @param target
+     *     the target
+     * @throws IOException
+     *     the io exception
+     */
+    public static void linkOrCopy(File source, File target) throws IOException {
+        try {
+            Files.createLink(target.toPath(), source.toPath());
+        } catch (UnsupportedOperationException | IOException e) {
+            Files.copy(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
     /**
      * Clean up folder.
      *
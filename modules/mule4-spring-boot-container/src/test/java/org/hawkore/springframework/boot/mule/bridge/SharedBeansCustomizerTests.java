@@ -0,0 +1,99 @@
+/*
+ * Copyright 2020 HAWKORE, S.L.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hawkore.springframework.boot.mule.bridge;
+
+import java.io.Closeable;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.hawkore.springframework.boot.mule.config.MuleConfigProperties.SharedBeans;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+/**
+ * SharedBeansCustomizerTests
+ *
+ * @author Manuel Núñez Sánchez (manuel.nunez@hawkore.com)
+ */
+public class SharedBeansCustomizerTests {
+
+    private final StringReader pool = new StringReader("shared");
+
+    @Test
+    public void sharedBeans() {
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("sharedPool", pool);
+        beanFactory.addBean("sharedValue", "value");
+        SharedBeansCustomizer customizer = new SharedBeansCustomizer(beanFactory,
+            new SharedBeans().setNames(Arrays.asList("sharedValue", "missing"))
+                .setTypes(Collections.singletonList(Reader.class.getName())));
+        Assert.assertEquals(Arrays.asList("sharedValue", "sharedPool"),
+            new ArrayList<>(customizer.getSharedBeans().keySet()));
+    }
+
+    @Test
+    public void missingType() {
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("sharedPool", pool);
+        // missing types are skipped
+        SharedBeansCustomizer customizer = new SharedBeansCustomizer(beanFactory,
+            new SharedBeans().setTypes(Arrays.asList("com.example.MissingType", Reader.class.getName())));
+        Assert.assertEquals(Collections.singletonMap("sharedPool", Reader.class), customizer.getSharedBeanTypes());
+    }
+
+    @Test
+    public void shareable() throws Exception {
+        // closeable beans are shared through a proxy of their class that does not close them
+        SharedPool sharedPool = new SharedPool();
+        Object shared = SharedBeansCustomizer.shareable(sharedPool, SharedPool.class);
+        Assert.assertNotSame(sharedPool, shared);
+        Assert.assertTrue(shared instanceof SharedPool);
+        ((Closeable)shared).close();
+        Assert.assertFalse(sharedPool.isClosed());
+        Assert.assertEquals('s', ((SharedPool)shared).read());
+        // or through a proxy of requested interface
+        shared = SharedBeansCustomizer.shareable(pool, Closeable.class);
+        Assert.assertFalse(shared instanceof Reader);
+        ((Closeable)shared).close();
+        Assert.assertEquals('s', pool.read());
+        Assert.assertSame("value", SharedBeansCustomizer.shareable("value", String.class));
+    }
+
+    // closeable bean shared by its class
+    public static class SharedPool implements Closeable {
+
+        private boolean closed;
+
+        public char read() {
+            return 's';
+        }
+
+        public boolean isClosed() {
+            return closed;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+
+    }
+
+}
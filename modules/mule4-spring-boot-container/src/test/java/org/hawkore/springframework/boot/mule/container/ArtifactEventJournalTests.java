@@ -0,0 +1,122 @@
+/*
+ * Copyright 2020 HAWKORE, S.L.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hawkore.springframework.boot.mule.container;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import org.hawkore.springframework.boot.mule.controller.dto.ArtifactEvent;
+import org.hawkore.springframework.boot.mule.controller.dto.ArtifactEvent.Action;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * ArtifactEventJournalTests
+ *
+ * @author Manuel Núñez Sánchez (manuel.nunez@hawkore.com)
+ */
+public class ArtifactEventJournalTests {
+
+    private final AtomicLong epoch = new AtomicLong(1000);
+    private final ArtifactEventJournal journal = new ArtifactEventJournal(() -> 3, epoch::get);
+
+    @Test
+    public void replayFromCursor() {
+        List<ArtifactEvent> published = publish(3);
+        Assert.assertEquals("1000-1", published.get(0).getCursor());
+        RecordingListener listener = new RecordingListener();
+        journal.subscribe(published.get(0).getCursor(), listener);
+        Assert.assertEquals(0, listener.resets);
+        Assert.assertEquals(cursors(published.subList(1, 3)), cursors(listener.events));
+        // new events are notified after replayed ones
+        published = publish(1);
+        Assert.assertEquals(cursors(published), cursors(listener.events.subList(2, 3)));
+    }
+
+    @Test
+    public void resetOnEvictedCursor() {
+        List<ArtifactEvent> published = publish(5);
+        RecordingListener listener = new RecordingListener();
+        journal.subscribe(published.get(0).getCursor(), listener);
+        Assert.assertEquals(1, listener.resets);
+        Assert.assertEquals(cursors(published.subList(2, 5)), cursors(listener.events));
+    }
+
+    @Test
+    public void resetOnCursorOfAnotherEpoch() {
+        List<ArtifactEvent> published = publish(2);
+        // same event id, but from a previous run
+        RecordingListener listener = new RecordingListener();
+        journal.subscribe("999-1", listener);
+        Assert.assertEquals(1, listener.resets);
+        Assert.assertEquals(cursors(published), cursors(listener.events));
+        // not a cursor
+        listener = new RecordingListener();
+        journal.subscribe("1", listener);
+        Assert.assertEquals(1, listener.resets);
+        // new epoch on restart
+        epoch.set(2000);
+        listener = new RecordingListener();
+        journal.subscribe(published.get(1).getCursor(), listener);
+        Assert.assertEquals(1, listener.resets);
+        Assert.assertEquals("2000-3", publish(1).get(0).getCursor());
+    }
+
+    @Test
+    public void onlyNewEvents() {
+        publish(2);
+        RecordingListener listener = new RecordingListener();
+        journal.subscribe(null, listener);
+        Assert.assertTrue(listener.events.isEmpty());
+        publish(1);
+        Assert.assertEquals(1, listener.events.size());
+        journal.unsubscribe(listener);
+        publish(1);
+        Assert.assertEquals(1, listener.events.size());
+    }
+
+    private List<ArtifactEvent> publish(int count) {
+        List<ArtifactEvent> published = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            published.add(journal.publish(new ArtifactEvent().setName("app").setAction(Action.STARTED)));
+        }
+        return published;
+    }
+
+    private static List<String> cursors(List<ArtifactEvent> events) {
+        return events.stream().map(ArtifactEvent::getCursor).collect(Collectors.toList());
+    }
+
+    private static class RecordingListener implements ArtifactEventListener {
+
+        private final List<ArtifactEvent> events = new ArrayList<>();
+        private int resets;
+
+        @Override
+        public void onEvent(ArtifactEvent event) {
+            events.add(event);
+        }
+
+        @Override
+        public void onReset() {
+            resets++;
+        }
+
+    }
+
+}
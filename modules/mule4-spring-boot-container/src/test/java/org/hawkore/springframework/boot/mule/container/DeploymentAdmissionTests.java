@@ -0,0 +1,124 @@
+/*
+ * Copyright 2020 HAWKORE, S.L.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hawkore.springframework.boot.mule.container;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.hawkore.springframework.boot.mule.config.MuleConfigProperties;
+import org.hawkore.springframework.boot.mule.exception.DeploymentRejectedException;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * DeploymentAdmissionTests
+ *
+ * @author Manuel Núñez Sánchez (manuel.nunez@hawkore.com)
+ */
+public class DeploymentAdmissionTests {
+
+    @Test
+    public void admissionRejections() throws Exception {
+        DeploymentAdmission admission = new DeploymentAdmission(
+            () -> new MuleConfigProperties.Admission().setMaxConcurrent(1).setQueueDepth(0)
+                      .setMinFreeHeap(DataSize.ofBytes(Long.MAX_VALUE)));
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = new Thread(() -> admission.admit("holder", false, () -> {
+            running.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        holder.start();
+        running.await();
+
+        // no queue left while holder is running
+        try {
+            admission.admit("queued", false, () -> {});
+            Assert.fail("Operation should be rejected");
+        } catch (DeploymentRejectedException e) {
+            Assert.assertEquals(DeploymentRejectedException.Reason.QUEUE_FULL, e.getReason());
+        }
+        // holder keeps running
+        Assert.assertEquals(1, admission.getActive());
+
+        release.countDown();
+        holder.join();
+
+        // not enough free heap for a deployment
+        try {
+            admission.admit("deployment", true, () -> {});
+            Assert.fail("Operation should be rejected");
+        } catch (DeploymentRejectedException e) {
+            Assert.assertEquals(DeploymentRejectedException.Reason.HEAP, e.getReason());
+        }
+        // un-deployments are not memory gated
+        admission.admit("un-deployment", false, () -> {});
+
+        Assert.assertEquals(2, admission.getAdmitted());
+        Assert.assertEquals(1, admission.getRejected(DeploymentRejectedException.Reason.QUEUE_FULL));
+        Assert.assertEquals(1, admission.getRejected(DeploymentRejectedException.Reason.HEAP));
+    }
+
+    @Test
+    public void recheckHeadroomOnceAdmitted() throws Exception {
+        MuleConfigProperties.Admission config = new MuleConfigProperties.Admission().setMaxConcurrent(1);
+        DeploymentAdmission admission = new DeploymentAdmission(() -> config);
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = new Thread(() -> admission.admit("holder", false, () -> {
+            running.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        holder.start();
+        running.await();
+
+        AtomicReference<Throwable> queuedResult = new AtomicReference<>();
+        Thread queued = new Thread(() -> {
+            try {
+                admission.admit("deployment", true, () -> {});
+            } catch (Throwable e) {
+                queuedResult.set(e);
+            }
+        });
+        queued.start();
+        while (admission.getQueued() == 0) {
+            Thread.sleep(10);
+        }
+        // heap is used up while deployment is waiting
+        config.setMinFreeHeap(DataSize.ofBytes(Long.MAX_VALUE));
+        release.countDown();
+        holder.join();
+        queued.join();
+
+        Assert.assertTrue(queuedResult.get() instanceof DeploymentRejectedException);
+        Assert.assertEquals(DeploymentRejectedException.Reason.HEAP,
+            ((DeploymentRejectedException)queuedResult.get()).getReason());
+        // permit of rejected deployment is released
+        admission.admit("un-deployment", false, () -> {});
+        Assert.assertEquals(0, admission.getActive());
+        Assert.assertEquals(2, admission.getAdmitted());
+    }
+
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2020 HAWKORE, S.L.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hawkore.springframework.boot.mule.container;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+
+import org.hawkore.springframework.boot.mule.utils.StorageUtils;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * EntryDigestsTests
+ *
+ * @author Manuel Núñez Sánchez (manuel.nunez@hawkore.com)
+ */
+public class EntryDigestsTests {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void recordedDigestsOfUnchangedEntries() throws Exception {
+        File appFolder = folder.newFolder("app");
+        File entry = new File(appFolder, "lib/entry.jar");
+        Files.createDirectories(entry.getParentFile().toPath());
+        Files.write(entry.toPath(), "v1".getBytes(StandardCharsets.UTF_8));
+        File digestsFile = new File(folder.getRoot(), "digests/app.properties");
+        String digest = StorageUtils.sha256(entry);
+
+        EntryDigests digests = new EntryDigests(digestsFile);
+        Assert.assertTrue(digests.matching(appFolder, "lib/entry.jar", digest).isPresent());
+        Assert.assertFalse(digests.matching(appFolder, "lib/missing.jar", digest).isPresent());
+        digests.save();
+        Assert.assertTrue(digestsFile.isFile());
+
+        // a recorded digest is trusted while entry is unchanged, so entry is not read again
+        digests = new EntryDigests(digestsFile);
+        digests.record("lib/entry.jar", entry, "recorded");
+        digests.save();
+        Assert.assertTrue(new EntryDigests(digestsFile).matching(appFolder, "lib/entry.jar", "recorded").isPresent());
+
+        // a changed entry is digested again
+        Files.write(entry.toPath(), "v2-changed".getBytes(StandardCharsets.UTF_8));
+        digests = new EntryDigests(digestsFile);
+        Assert.assertFalse(digests.matching(appFolder, "lib/entry.jar", "recorded").isPresent());
+        Assert.assertTrue(digests.matching(appFolder, "lib/entry.jar", StorageUtils.sha256(entry)).isPresent());
+
+        // digests of entries not within new version are forgotten
+        digests.record("lib/entry.jar", entry, "recorded");
+        digests.retain(Collections.emptySet());
+        digests.save();
+        Assert.assertFalse(new EntryDigests(digestsFile).matching(appFolder, "lib/entry.jar", "recorded").isPresent());
+    }
+
+}
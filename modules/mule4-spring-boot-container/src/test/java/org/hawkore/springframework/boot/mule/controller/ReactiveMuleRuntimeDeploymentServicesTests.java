@@ -0,0 +1,247 @@
+/*
+ * Copyright 2020 HAWKORE, S.L.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hawkore.springframework.boot.mule.controller;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.hawkore.springframework.boot.mule.config.MuleConfigProperties;
+import org.hawkore.springframework.boot.mule.container.ArtifactEventListener;
+import org.hawkore.springframework.boot.mule.container.SpringMuleContainer;
+import org.hawkore.springframework.boot.mule.controller.dto.ArtifactEvent;
+import org.hawkore.springframework.boot.mule.controller.dto.RedeploymentResult;
+import org.hawkore.springframework.boot.mule.storage.ArtifactStore;
+import org.hawkore.springframework.boot.mule.utils.StorageUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.reactivestreams.Subscription;
+import org.springframework.boot.web.reactive.context.GenericReactiveWebApplicationContext;
+import org.springframework.context.annotation.AnnotatedBeanDefinitionReader;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.MultipartBodyBuilder;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.reactive.config.EnableWebFlux;
+import org.springframework.web.reactive.function.BodyInserters;
+import reactor.core.Disposable;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Flux;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+
+/**
+ * ReactiveMuleRuntimeDeploymentServicesTests
+ *
+ * @author Manuel Núñez Sánchez (manuel.nunez@hawkore.com)
+ */
+public class ReactiveMuleRuntimeDeploymentServicesTests {
+
+    private static final byte[] CONTENT = "test-app-content".getBytes(StandardCharsets.UTF_8);
+    private static final ParameterizedTypeReference<ServerSentEvent<String>> SSE =
+        new ParameterizedTypeReference<ServerSentEvent<String>>() {};
+
+    @Rule
+    public TemporaryFolder storeFolder = new TemporaryFolder();
+
+    private MuleConfigProperties configProperties;
+    private SpringMuleContainer muleContainer;
+    private ArtifactStore artifactStore;
+    private GenericReactiveWebApplicationContext context;
+    private ReactiveMuleRuntimeDeploymentServices controller;
+    private WebTestClient client;
+
+    @Before
+    public void setUp() {
+        configProperties = new MuleConfigProperties();
+        configProperties.getStore().setDir(storeFolder.getRoot());
+        configProperties.getReactive().setThreads(1).setQueueSize(1);
+        muleContainer = Mockito.mock(SpringMuleContainer.class);
+        artifactStore = new ArtifactStore(configProperties);
+        context = new GenericReactiveWebApplicationContext();
+        context.registerBean(MuleConfigProperties.class, () -> configProperties);
+        context.registerBean(SpringMuleContainer.class, () -> muleContainer);
+        context.registerBean(ArtifactStore.class, () -> artifactStore);
+        new AnnotatedBeanDefinitionReader(context).register(WebFluxConfig.class,
+            ReactiveMuleRuntimeDeploymentServices.class);
+        context.refresh();
+        controller = context.getBean(ReactiveMuleRuntimeDeploymentServices.class);
+        client = WebTestClient.bindToApplicationContext(context).configureClient()
+                     .responseTimeout(Duration.ofSeconds(30)).build();
+    }
+
+    @After
+    public void tearDown() {
+        context.close();
+    }
+
+    @Test
+    public void deployStreamedApplication() throws Exception {
+        client.post().uri("/mule/applications").contentType(MediaType.MULTIPART_FORM_DATA)
+            .body(BodyInserters.fromMultipartData(artifact("test-app.jar"))).exchange().expectStatus().isOk();
+        // content is digested while it is streamed into the store
+        String digest = StorageUtils.toHex(StorageUtils.newSha256().digest(CONTENT));
+        Assert.assertEquals("test-app", artifactStore.get(digest).get().getReferences().get(0));
+        ArgumentCaptor<File> deployed = ArgumentCaptor.forClass(File.class);
+        Mockito.verify(muleContainer).deployApplication(deployed.capture(), isNull(), isNull(), isNull());
+        Assert.assertEquals("test-app.jar", deployed.getValue().getName());
+        Assert.assertArrayEquals(CONTENT, Files.readAllBytes(deployed.getValue().toPath()));
+    }
+
+    @Test
+    public void redeployApplication() throws Exception {
+        Mockito.when(muleContainer.redeployApplication(eq("test-app"), any(File.class), any(), any(), any()))
+            .thenReturn(new RedeploymentResult().setName("test-app").setStatus(RedeploymentResult.Status.REDEPLOYED));
+        client.put().uri("/mule/applications/test-app").contentType(MediaType.MULTIPART_FORM_DATA)
+            .body(BodyInserters.fromMultipartData(artifact("test-app.jar"))).exchange().expectStatus().isOk()
+            .expectBody().jsonPath("$.status").isEqualTo("REDEPLOYED");
+        String digest = StorageUtils.toHex(StorageUtils.newSha256().digest(CONTENT));
+        Assert.assertEquals("test-app", artifactStore.get(digest).get().getReferences().get(0));
+    }
+
+    @Test
+    public void stopAndStartApplication() {
+        client.post().uri("/mule/applications/test-app/stop").exchange().expectStatus().isOk();
+        Mockito.verify(muleContainer).stopApplication("test-app");
+        client.post().uri("/mule/applications/test-app/start").exchange().expectStatus().isOk();
+        Mockito.verify(muleContainer).startApplication("test-app");
+    }
+
+    @Test
+    public void rejectDeploymentsAboveQueueSize() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Mockito.doAnswer(invocation -> {
+            running.countDown();
+            release.await(30, TimeUnit.SECONDS);
+            return null;
+        }).when(muleContainer).stopApplication(anyString());
+        try {
+            // one operation running and one waiting for the single deployment thread
+            controller.stopApp("running-app").subscribe();
+            Assert.assertTrue(running.await(30, TimeUnit.SECONDS));
+            controller.stopApp("waiting-app").subscribe();
+            client.post().uri("/mule/applications/test-app/stop").exchange().expectStatus()
+                .isEqualTo(HttpStatus.TOO_MANY_REQUESTS).expectHeader().valueEquals(HttpHeaders.RETRY_AFTER,
+                String.valueOf(configProperties.getAdmission().getRetryAfter().getSeconds()));
+        } finally {
+            release.countDown();
+        }
+        Mockito.verify(muleContainer, Mockito.never()).stopApplication("test-app");
+    }
+
+    @Test
+    public void eventsWithoutTimeout() throws Exception {
+        configProperties.getEvents().setTimeout(-1);
+        AtomicReference<ArtifactEventListener> listener = new AtomicReference<>();
+        Mockito.doAnswer(invocation -> {
+            // replay a retained event to the new client
+            listener.set(invocation.getArgument(1));
+            listener.get().onEvent(event(1));
+            return null;
+        }).when(muleContainer).addArtifactEventListener(isNull(), any(ArtifactEventListener.class));
+        Flux<ServerSentEvent<String>> events = client.get().uri("/mule/events").accept(MediaType.TEXT_EVENT_STREAM)
+                                                   .exchange().expectStatus().isOk().returnResult(SSE)
+                                                   .getResponseBody();
+        List<String> received = new CopyOnWriteArrayList<>();
+        CountDownLatch first = new CountDownLatch(1);
+        CountDownLatch second = new CountDownLatch(2);
+        Disposable subscription = events.subscribe(event -> {
+            received.add(event.id());
+            first.countDown();
+            second.countDown();
+        });
+        try {
+            Assert.assertTrue("Replayed event should be received", first.await(30, TimeUnit.SECONDS));
+            // stream is not completed, new events are sent as they happen
+            listener.get().onEvent(event(2));
+            Assert.assertTrue("New event should be received", second.await(30, TimeUnit.SECONDS));
+            Assert.assertEquals(Arrays.asList("1-1", "1-2"), received);
+            Mockito.verify(muleContainer, Mockito.never()).removeArtifactEventListener(listener.get());
+        } finally {
+            subscription.dispose();
+        }
+    }
+
+    @Test
+    public void boundedEvents() {
+        Flux<ServerSentEvent<Object>> events = Flux.range(0, 10).map(
+            i -> ServerSentEvent.builder((Object)i).id("1-" + i).build());
+        List<ServerSentEvent<Object>> received = new ArrayList<>();
+        BaseSubscriber<ServerSentEvent<Object>> client = new BaseSubscriber<ServerSentEvent<Object>>() {
+
+            @Override
+            protected void hookOnSubscribe(Subscription subscription) {
+                // slow client
+                request(1);
+            }
+
+            @Override
+            protected void hookOnNext(ServerSentEvent<Object> event) {
+                received.add(event);
+            }
+        };
+        ReactiveMuleRuntimeDeploymentServices.bounded(events, 3).subscribe(client);
+        Assert.assertEquals(1, received.size());
+        client.requestUnbounded();
+        // buffered events are sent, then client is asked to re-synchronize and stream is completed
+        Assert.assertEquals(5, received.size());
+        for (int i = 0; i < 4; i++) {
+            Assert.assertEquals("1-" + i, received.get(i).id());
+        }
+        Assert.assertEquals("reset", received.get(4).event());
+        Assert.assertTrue(client.isDisposed());
+    }
+
+    private static ArtifactEvent event(long id) {
+        return new ArtifactEvent().setEpoch(1).setId(id).setName("test-app").setAction(ArtifactEvent.Action.STARTED);
+    }
+
+    private static MultiValueMap<String, HttpEntity<?>> artifact(String fileName) {
+        MultipartBodyBuilder builder = new MultipartBodyBuilder();
+        builder.part("file", CONTENT).header(HttpHeaders.CONTENT_DISPOSITION,
+            "form-data; name=\"file\"; filename=\"" + fileName + "\"");
+        return builder.build();
+    }
+
+    @Configuration
+    @EnableWebFlux
+    static class WebFluxConfig {}
+
+}
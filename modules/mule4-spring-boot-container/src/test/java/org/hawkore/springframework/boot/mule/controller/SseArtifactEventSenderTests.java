@@ -0,0 +1,127 @@
+/*
+ * Copyright 2020 HAWKORE, S.L.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hawkore.springframework.boot.mule.controller;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.hawkore.springframework.boot.mule.controller.dto.ArtifactEvent;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * SseArtifactEventSenderTests
+ *
+ * @author Manuel Núñez Sánchez (manuel.nunez@hawkore.com)
+ */
+public class SseArtifactEventSenderTests {
+
+    private final ExecutorService senders = Executors.newFixedThreadPool(2);
+
+    @After
+    public void shutdown() {
+        senders.shutdownNow();
+    }
+
+    @Test
+    public void sendInOrder() throws Exception {
+        RecordingEmitter emitter = new RecordingEmitter(new CountDownLatch(0));
+        SseArtifactEventSender sender = new SseArtifactEventSender(emitter, senders, 100);
+        for (int i = 1; i <= 50; i++) {
+            sender.onEvent(new ArtifactEvent().setId(i));
+        }
+        emitter.awaitSent(50);
+        for (int i = 0; i < 50; i++) {
+            Assert.assertTrue(emitter.sent.get(i).contains("id:0-" + (i + 1) + "\n"));
+        }
+        Assert.assertFalse(emitter.completed.await(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void disconnectSlowClient() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEmitter emitter = new RecordingEmitter(release);
+        SseArtifactEventSender sender = new SseArtifactEventSender(emitter, senders, 2);
+        // first event is being sent, next two are buffered and last one overflows
+        sender.onEvent(new ArtifactEvent().setId(1));
+        emitter.sending.await(1, TimeUnit.MINUTES);
+        for (int i = 2; i <= 4; i++) {
+            sender.onEvent(new ArtifactEvent().setId(i));
+        }
+        release.countDown();
+        Assert.assertTrue(emitter.completed.await(1, TimeUnit.MINUTES));
+        // buffered events are sent before disconnecting client, so it may resume from last one
+        Assert.assertEquals(3, emitter.sent.size());
+        Assert.assertTrue(emitter.sent.get(2).contains("id:0-3\n"));
+    }
+
+    @Test
+    public void disconnectOnceSendersShutdown() throws Exception {
+        RecordingEmitter emitter = new RecordingEmitter(new CountDownLatch(0));
+        SseArtifactEventSender sender = new SseArtifactEventSender(emitter, senders, 100);
+        senders.shutdown();
+        sender.onEvent(new ArtifactEvent().setId(1));
+        Assert.assertTrue(emitter.completed.await(1, TimeUnit.MINUTES));
+        Assert.assertTrue(emitter.sent.isEmpty());
+    }
+
+    // records sent events, blocking sends until released
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final List<String> sent = new CopyOnWriteArrayList<>();
+        private final CountDownLatch sending = new CountDownLatch(1);
+        private final CountDownLatch release;
+        private final CountDownLatch completed = new CountDownLatch(1);
+
+        RecordingEmitter(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            sending.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            StringBuilder event = new StringBuilder();
+            builder.build().forEach(data -> event.append(data.getData()));
+            sent.add(event.toString());
+        }
+
+        @Override
+        public synchronized void complete() {
+            completed.countDown();
+        }
+
+        void awaitSent(int count) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 60000;
+            while (sent.size() < count && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+        }
+
+    }
+
+}
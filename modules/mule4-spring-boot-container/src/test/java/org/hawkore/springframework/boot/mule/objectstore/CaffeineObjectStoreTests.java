@@ -0,0 +1,80 @@
+/*
+ * Copyright 2020 HAWKORE, S.L.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hawkore.springframework.boot.mule.objectstore;
+
+import java.util.Collections;
+
+import org.hawkore.springframework.boot.mule.config.MuleConfigProperties.ObjectStores.InMemory;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mule.runtime.api.store.ObjectAlreadyExistsException;
+import org.mule.runtime.api.store.ObjectDoesNotExistException;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * CaffeineObjectStoreTests
+ *
+ * @author Manuel Núñez Sánchez (manuel.nunez@hawkore.com)
+ */
+public class CaffeineObjectStoreTests {
+
+    private final CaffeineObjectStore store = new CaffeineObjectStore(
+        new InMemory().setMaxSize(DataSize.ofKilobytes(1)).setEntrySize(DataSize.ofBytes(16)));
+
+    @Test
+    public void storeRetrieveRemove() throws Exception {
+        store.store("key", "value", "partition");
+        Assert.assertTrue(store.contains("key", "partition"));
+        Assert.assertFalse(store.contains("key"));
+        Assert.assertEquals("value", store.retrieve("key", "partition"));
+        Assert.assertEquals(Collections.singletonList("partition"), store.allPartitions());
+        try {
+            store.store("key", "other", "partition");
+            Assert.fail("Key should already exist");
+        } catch (ObjectAlreadyExistsException e) {
+            // expected
+        }
+        Assert.assertEquals("value", store.remove("key", "partition"));
+        try {
+            store.retrieve("key", "partition");
+            Assert.fail("Key should not exist");
+        } catch (ObjectDoesNotExistException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void expire() throws Exception {
+        // Mule expiration of an object store with max entries
+        for (int i = 0; i < 5; i++) {
+            store.store("entry-" + i, i, "expirable");
+        }
+        store.expire(0, 2, "expirable");
+        Assert.assertEquals(2, store.allKeys("expirable").size());
+    }
+
+    @Test
+    public void boundedBySize() throws Exception {
+        // bounded by estimated size of entries
+        for (int i = 0; i < 100; i++) {
+            store.store("bytes-" + i, new byte[100]);
+        }
+        store.getCache().cleanUp();
+        Assert.assertTrue(store.allKeys().size() < 100);
+        Assert.assertTrue(store.getCache().stats().evictionCount() > 0);
+    }
+
+}
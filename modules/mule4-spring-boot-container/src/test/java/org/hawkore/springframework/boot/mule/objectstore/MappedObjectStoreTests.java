@@ -0,0 +1,160 @@
+/*
+ * Copyright 2020 HAWKORE, S.L.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hawkore.springframework.boot.mule.objectstore;
+
+import java.io.File;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.RandomAccessFile;
+import java.io.Serializable;
+
+import org.hawkore.springframework.boot.mule.config.MuleConfigProperties.ObjectStores.Persistent;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mule.runtime.api.store.ObjectAlreadyExistsException;
+import org.mule.runtime.api.store.ObjectDoesNotExistException;
+import org.mule.runtime.api.store.ObjectStoreException;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * MappedObjectStoreTests
+ *
+ * @author Manuel Núñez Sánchez (manuel.nunez@hawkore.com)
+ */
+public class MappedObjectStoreTests {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final Persistent persistent = new Persistent().setInitialSize(DataSize.ofKilobytes(1));
+
+    @Test
+    public void recoverAndCompact() throws Exception {
+        MappedObjectStore store = new MappedObjectStore(folder.getRoot(), persistent);
+        for (int i = 0; i < 100; i++) {
+            store.store("key-" + i, "value-" + i, "partition");
+        }
+        store.store("key", 1);
+        for (int i = 0; i < 50; i++) {
+            Assert.assertEquals("value-" + i, store.remove("key-" + i, "partition"));
+        }
+        try {
+            store.store("key", 2);
+            Assert.fail("Key should already exist");
+        } catch (ObjectAlreadyExistsException e) {
+            // expected
+        }
+        store.dispose();
+        // entries are recovered from log
+        store = new MappedObjectStore(folder.getRoot(), persistent);
+        Assert.assertEquals(50, store.allKeys("partition").size());
+        Assert.assertEquals("value-99", store.retrieve("key-99", "partition"));
+        Assert.assertEquals(1, store.retrieve("key"));
+        try {
+            store.retrieve("key-0", "partition");
+            Assert.fail("Key should not exist");
+        } catch (ObjectDoesNotExistException e) {
+            // expected
+        }
+        // compaction keeps live entries only
+        long logSize = store.getLogSize();
+        store.compact();
+        Assert.assertTrue(store.getLogSize() < logSize);
+        Assert.assertEquals(50, store.allKeys("partition").size());
+        Assert.assertEquals("value-50", store.retrieve("key-50", "partition"));
+        store.dispose();
+    }
+
+    @Test
+    public void discardIncompleteRecord() throws Exception {
+        MappedObjectStore store = new MappedObjectStore(folder.getRoot(), persistent);
+        for (int i = 0; i < 50; i++) {
+            store.store("key-" + i, "value-" + i, "partition");
+        }
+        long logSize = store.getLogSize();
+        store.dispose();
+        // an incomplete record (i.e. a crash while writing it) is discarded
+        try (RandomAccessFile log = new RandomAccessFile(new File(folder.getRoot(), MappedObjectStore.LOG_FILE),
+            "rw")) {
+            log.seek(logSize);
+            log.writeInt(64);
+            log.write(new byte[16]);
+        }
+        store = new MappedObjectStore(folder.getRoot(), persistent);
+        Assert.assertEquals(50, store.allKeys("partition").size());
+        store.store("other", "value");
+        store.dispose();
+        store = new MappedObjectStore(folder.getRoot(), persistent);
+        Assert.assertEquals("value", store.retrieve("other"));
+        store.dispose();
+    }
+
+
+    @Test
+    public void expireUnreadableValue() throws Exception {
+        MappedObjectStore store = new MappedObjectStore(folder.getRoot(), persistent);
+        store.store("unreadable", new Unreadable());
+        store.store("key", "value");
+        // value that cannot be returned is not removed
+        try {
+            store.remove("unreadable");
+            Assert.fail("Value should not be deserialized");
+        } catch (ObjectStoreException e) {
+            Assert.assertTrue(store.contains("unreadable"));
+        }
+        // but it expires
+        store.expire(0, 1);
+        Assert.assertFalse(store.contains("unreadable"));
+        Assert.assertEquals("value", store.retrieve("key"));
+        store.dispose();
+        store = new MappedObjectStore(folder.getRoot(), persistent);
+        Assert.assertFalse(store.contains("unreadable"));
+        store.dispose();
+    }
+
+    @Test
+    public void disposed() throws Exception {
+        MappedObjectStore store = new MappedObjectStore(folder.getRoot(), persistent);
+        store.store("key", "value");
+        store.dispose();
+        try {
+            store.store("other", "value");
+            Assert.fail("Object store should be disposed");
+        } catch (ObjectStoreException e) {
+            // expected
+        }
+        try {
+            store.remove("key");
+            Assert.fail("Object store should be disposed");
+        } catch (ObjectStoreException e) {
+            // expected
+        }
+    }
+
+    // fails on deserialization, i.e. its class changed since it was stored
+    private static class Unreadable implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private void readObject(ObjectInputStream in) throws InvalidObjectException {
+            throw new InvalidObjectException("Unreadable");
+        }
+
+    }
+
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2020 HAWKORE, S.L.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hawkore.springframework.boot.mule.storage;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.hawkore.springframework.boot.mule.config.MuleConfigProperties;
+import org.hawkore.springframework.boot.mule.controller.dto.StoredArtifact;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * ArtifactStoreTests
+ *
+ * @author Manuel Núñez Sánchez (manuel.nunez@hawkore.com)
+ */
+public class ArtifactStoreTests {
+
+    @Rule
+    public TemporaryFolder storeFolder = new TemporaryFolder();
+
+    @Test
+    public void concurrentStoreAndReference() throws Exception {
+        int uploads = 8;
+        ArtifactStore store = newStore(Duration.ofMinutes(10));
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(uploads);
+        try {
+            List<Future<String>> digests = new ArrayList<>();
+            for (int i = 0; i < uploads; i++) {
+                String name = "app-" + i;
+                digests.add(executor.submit(() -> {
+                    start.await();
+                    StoredArtifact stored = store.store(name + ".jar",
+                        new ByteArrayInputStream(name.getBytes(StandardCharsets.UTF_8)));
+                    // let other uploads be stored before referencing this one
+                    Thread.sleep(50);
+                    store.reference(stored.getDigest(), name);
+                    return stored.getDigest();
+                }));
+            }
+            start.countDown();
+            for (int i = 0; i < uploads; i++) {
+                String digest = digests.get(i).get(30, TimeUnit.SECONDS);
+                Assert.assertTrue("Artifact should not be evicted before being referenced",
+                    store.get(digest).isPresent());
+                Assert.assertEquals("app-" + i, store.get(digest).get().getReferences().get(0));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void evictAfterPinTimeout() {
+        ArtifactStore store = newStore(Duration.ZERO);
+        StoredArtifact first = store.store("first.jar", new ByteArrayInputStream(new byte[] {1}));
+        StoredArtifact second = store.store("second.jar", new ByteArrayInputStream(new byte[] {2}));
+        Assert.assertFalse("Unreferenced artifact should be evicted", store.get(first.getDigest()).isPresent());
+        Assert.assertTrue(store.get(second.getDigest()).isPresent());
+    }
+
+    private ArtifactStore newStore(Duration pinTimeout) {
+        MuleConfigProperties configProperties = new MuleConfigProperties();
+        configProperties.getStore().setDir(storeFolder.getRoot()).setMaxEntries(1).setPinTimeout(pinTimeout);
+        return new ArtifactStore(configProperties);
+    }
+
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2020 HAWKORE, S.L.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hawkore.springframework.boot.mule.storage;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.hawkore.springframework.boot.mule.config.MuleConfigProperties;
+import org.hawkore.springframework.boot.mule.controller.dto.ArtifactUpload;
+import org.hawkore.springframework.boot.mule.controller.dto.StoredArtifact;
+import org.hawkore.springframework.boot.mule.exception.UploadRejectedException;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * ArtifactUploadsTests
+ *
+ * @author Manuel Núñez Sánchez (manuel.nunez@hawkore.com)
+ */
+public class ArtifactUploadsTests {
+
+    private static final byte[] CONTENT = "0123456789".getBytes(StandardCharsets.UTF_8);
+
+    @Rule
+    public TemporaryFolder storeFolder = new TemporaryFolder();
+
+    @Test
+    public void rejectWritesWhileCompleting() throws Exception {
+        MuleConfigProperties configProperties = new MuleConfigProperties();
+        configProperties.getStore().setDir(storeFolder.getRoot());
+        ArtifactUploads uploads = new ArtifactUploads(new ArtifactStore(configProperties), configProperties);
+        String digest = String.format("%064x",
+            new BigInteger(1, MessageDigest.getInstance("SHA-256").digest(CONTENT)));
+        ArtifactUpload upload = uploads.initiate("app.jar", CONTENT.length, digest);
+        String id = upload.getId();
+        uploads.write(id, "bytes 0-4/10", new ByteArrayInputStream(CONTENT, 0, 5));
+
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> slowWrite = executor.submit(
+                () -> uploads.write(id, "bytes 5-9/10", new SlowInputStream(CONTENT, 5, 5, writing, release)));
+            Assert.assertTrue(writing.await(30, TimeUnit.SECONDS));
+            Future<StoredArtifact> completion = executor.submit(() -> uploads.complete(id).orElse(null));
+            // completion waits for the range being written, further ranges are rejected meanwhile
+            long deadline = System.currentTimeMillis() + 30000;
+            boolean rejected = false;
+            while (!rejected && System.currentTimeMillis() < deadline) {
+                try {
+                    uploads.write(id, "bytes 0-4/10", new ByteArrayInputStream(CONTENT, 0, 5));
+                    Thread.sleep(10);
+                } catch (IllegalStateException e) {
+                    rejected = true;
+                }
+            }
+            Assert.assertTrue("Ranges should be rejected while upload is being completed", rejected);
+            Assert.assertFalse(completion.isDone());
+            release.countDown();
+            slowWrite.get(30, TimeUnit.SECONDS);
+            Assert.assertEquals(digest, completion.get(30, TimeUnit.SECONDS).getDigest());
+            Assert.assertFalse(uploads.get(id).isPresent());
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+            uploads.close();
+        }
+    }
+
+    @Test
+    public void rejectTooLargeAndTooManyUploads() throws Exception {
+        MuleConfigProperties configProperties = new MuleConfigProperties();
+        configProperties.getStore().setDir(storeFolder.getRoot()).setMaxSize(DataSize.ofBytes(CONTENT.length))
+            .setMaxUploads(1);
+        ArtifactUploads uploads = new ArtifactUploads(new ArtifactStore(configProperties), configProperties);
+        try {
+            String digest = String.format("%064x",
+                new BigInteger(1, MessageDigest.getInstance("SHA-256").digest(CONTENT)));
+            try {
+                uploads.initiate("app.jar", CONTENT.length + 1, digest);
+                Assert.fail("Upload larger than artifact store should be rejected");
+            } catch (UploadRejectedException e) {
+                Assert.assertEquals(UploadRejectedException.Reason.TOO_LARGE, e.getReason());
+            }
+            String id = uploads.initiate("app.jar", CONTENT.length, digest).getId();
+            try {
+                uploads.initiate("other.jar", CONTENT.length, digest);
+                Assert.fail("Upload should be rejected while another one is in progress");
+            } catch (UploadRejectedException e) {
+                Assert.assertEquals(UploadRejectedException.Reason.TOO_MANY, e.getReason());
+            }
+            Assert.assertTrue(uploads.abort(id));
+            Assert.assertNotNull(uploads.initiate("other.jar", CONTENT.length, digest));
+        } finally {
+            uploads.close();
+        }
+    }
+
+    @Test
+    public void discardAbandonedUploads() throws Exception {
+        MuleConfigProperties configProperties = new MuleConfigProperties();
+        configProperties.getStore().setDir(storeFolder.getRoot());
+        ArtifactStore store = new ArtifactStore(configProperties);
+        ArtifactUploads uploads = new ArtifactUploads(store, configProperties);
+        String id = uploads.initiate("app.jar", CONTENT.length, String.format("%064x", 1)).getId();
+        uploads.close();
+        File dir = new File(store.getFolder(".uploads"), id);
+        Assert.assertTrue(dir.isDirectory());
+        Assert.assertTrue(new File(dir, "upload.properties").setLastModified(0));
+        Assert.assertTrue(dir.setLastModified(0));
+        // an upload being initiated, without descriptor yet
+        File initiating = new File(store.getFolder(".uploads"), UUID.randomUUID().toString());
+        Assert.assertTrue(initiating.mkdirs());
+        // expired uploads are discarded without waiting for a new upload
+        uploads = new ArtifactUploads(store, configProperties);
+        try {
+            long deadline = System.currentTimeMillis() + 30000;
+            while (dir.exists() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            Assert.assertFalse("Expired upload should be discarded", dir.exists());
+            Assert.assertTrue("Upload being initiated should be kept", initiating.isDirectory());
+        } finally {
+            uploads.close();
+        }
+    }
+
+    // signals its first read, then blocks until released
+    private static class SlowInputStream extends ByteArrayInputStream {
+
+        private final CountDownLatch reading;
+        private final CountDownLatch release;
+
+        SlowInputStream(byte[] buf, int offset, int length, CountDownLatch reading, CountDownLatch release) {
+            super(buf, offset, length);
+            this.reading = reading;
+            this.release = release;
+        }
+
+        @Override
+        public synchronized int read(byte[] b, int off, int len) {
+            reading.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return super.read(b, off, len);
+        }
+
+    }
+
+}
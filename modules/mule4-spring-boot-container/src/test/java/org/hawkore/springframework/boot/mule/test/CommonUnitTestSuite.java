@@ -15,7 +15,18 @@
  */
 package org.hawkore.springframework.boot.mule.test;
 
-
+import org.hawkore.springframework.boot.mule.bridge.SharedBeansCustomizerTests;
+import org.hawkore.springframework.boot.mule.container.ArtifactEventJournalTests;
+import org.hawkore.springframework.boot.mule.container.DeploymentAdmissionTests;
+import org.hawkore.springframework.boot.mule.container.EntryDigestsTests;
+import org.hawkore.springframework.boot.mule.controller.ReactiveMuleRuntimeDeploymentServicesTests;
+import org.hawkore.springframework.boot.mule.controller.SseArtifactEventSenderTests;
+import org.hawkore.springframework.boot.mule.objectstore.CaffeineObjectStoreTests;
+import org.hawkore.springframework.boot.mule.objectstore.MappedObjectStoreTests;
+import org.hawkore.springframework.boot.mule.storage.ArtifactStoreTests;
+import org.hawkore.springframework.boot.mule.storage.ArtifactUploadsTests;
+import org.hawkore.springframework.boot.mule.utils.LoggingUtilsTests;
+import org.hawkore.springframework.boot.mule.utils.SchedulerPoolsUtilsTests;
 import org.hawkore.springframework.boot.mule.utils.StorageUtilsTests;
 import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
@@ -25,5 +36,9 @@ import org.junit.runners.Suite.SuiteClasses;
  * @author Manuel Núñez Sánchez (manuel.nunez@hawkore.com)
  */
 @RunWith(Suite.class)
-@SuiteClasses({StorageUtilsTests.class})
+@SuiteClasses({StorageUtilsTests.class, DeploymentAdmissionTests.class,
+    SchedulerPoolsUtilsTests.class, LoggingUtilsTests.class, ArtifactStoreTests.class, ArtifactUploadsTests.class,
+    CaffeineObjectStoreTests.class, MappedObjectStoreTests.class,
+    SharedBeansCustomizerTests.class, ArtifactEventJournalTests.class, EntryDigestsTests.class,
+    SseArtifactEventSenderTests.class, ReactiveMuleRuntimeDeploymentServicesTests.class})
 public class CommonUnitTestSuite {}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2020 HAWKORE, S.L.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hawkore.springframework.boot.mule.utils;
+
+import java.io.File;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Map;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.async.AsyncLoggerConfig;
+import org.apache.logging.log4j.core.config.ConfigurationSource;
+import org.apache.logging.log4j.core.config.xml.XmlConfiguration;
+import org.hawkore.springframework.boot.mule.config.MuleConfigProperties.Logging;
+import org.hawkore.springframework.boot.mule.config.MuleConfigProperties.Logging.OverflowPolicy;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * LoggingUtilsTests
+ *
+ * @author Manuel Núñez Sánchez (manuel.nunez@hawkore.com)
+ */
+public class LoggingUtilsTests {
+
+    @Rule
+    public TemporaryFolder confFolder = new TemporaryFolder();
+
+    private final Logging logging = new Logging().setAsync(true).setLevel("WARN").setRingBufferSize(4096)
+                                        .setOverflowPolicy(OverflowPolicy.DISCARD);
+
+    @Test
+    public void log4jProperties() {
+        Map<String, String> properties = LoggingUtils.log4jProperties(logging);
+        Assert.assertEquals("4096", properties.get("log4j2.asyncLoggerConfigRingBufferSize"));
+        Assert.assertEquals("Discard", properties.get("log4j2.asyncQueueFullPolicy"));
+        Assert.assertEquals("INFO", properties.get("log4j2.discardThreshold"));
+    }
+
+    @Test
+    public void writeLog4jConf() throws Exception {
+        File conf = new File(confFolder.getRoot(), LoggingUtils.LOG4J2_CONF);
+        Assert.assertTrue(LoggingUtils.writeLog4jConf(logging, confFolder.getRoot()));
+        String rendered = new String(Files.readAllBytes(conf.toPath()), StandardCharsets.UTF_8);
+        Assert.assertTrue(rendered.contains("<AsyncRoot level=\"WARN\""));
+        // rendered configuration builds an async root logger
+        XmlConfiguration configuration;
+        try (InputStream is = Files.newInputStream(conf.toPath())) {
+            configuration = new XmlConfiguration(new LoggerContext("test"), new ConfigurationSource(is, conf));
+        }
+        // resolve appender files under the temporary folder
+        String muleHome = System.setProperty("mule.home", confFolder.getRoot().getAbsolutePath());
+        try {
+            configuration.initialize();
+        } finally {
+            if (muleHome == null) {
+                System.clearProperty("mule.home");
+            } else {
+                System.setProperty("mule.home", muleHome);
+            }
+        }
+        Assert.assertTrue(configuration.getRootLogger() instanceof AsyncLoggerConfig);
+        Assert.assertEquals(Level.WARN, configuration.getRootLogger().getLevel());
+        // rendered configuration is refreshed, hand-written one is kept
+        Assert.assertTrue(LoggingUtils.writeLog4jConf(logging, confFolder.getRoot()));
+        Files.write(conf.toPath(), "<Configuration/>".getBytes(StandardCharsets.UTF_8));
+        Assert.assertFalse(LoggingUtils.writeLog4jConf(logging, confFolder.getRoot()));
+    }
+
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2020 HAWKORE, S.L.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hawkore.springframework.boot.mule.utils;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.hawkore.springframework.boot.mule.config.MuleConfigProperties.Schedulers;
+import org.hawkore.springframework.boot.mule.config.MuleConfigProperties.Schedulers.Strategy;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * SchedulerPoolsUtilsTests
+ *
+ * @author Manuel Núñez Sánchez (manuel.nunez@hawkore.com)
+ */
+public class SchedulerPoolsUtilsTests {
+
+    @Rule
+    public TemporaryFolder confFolder = new TemporaryFolder();
+
+    @Test
+    public void writeSchedulerPoolsConf() throws Exception {
+        SchedulerPoolsUtils.writeSchedulerPoolsConf(new Schedulers().setStrategy(Strategy.UBER), null,
+            confFolder.getRoot());
+        File conf = new File(confFolder.getRoot(), SchedulerPoolsUtils.SCHEDULER_POOLS_CONF);
+        Assert.assertTrue("Scheduler pools configuration should be rendered", conf.isFile());
+        List<String> lines = Files.readAllLines(conf.toPath(), StandardCharsets.UTF_8);
+        Assert.assertTrue(lines.contains("org.mule.runtime.scheduler.SchedulerPoolStrategy=UBER"));
+        Assert.assertTrue(lines.contains(
+            "org.mule.runtime.scheduler.cpuLight.threadPool.size=" + 2 * SchedulerPoolsUtils.availableCores()));
+    }
+
+    @Test
+    public void keepHandWrittenSchedulerPoolsConf() throws Exception {
+        File conf = new File(confFolder.getRoot(), SchedulerPoolsUtils.SCHEDULER_POOLS_CONF);
+        Files.write(conf.toPath(), "org.mule.runtime.scheduler.SchedulerPoolStrategy=DEDICATED\n"
+                                       .getBytes(StandardCharsets.UTF_8));
+        Assert.assertFalse("Hand-written configuration should be kept",
+            SchedulerPoolsUtils.writeSchedulerPoolsConf(new Schedulers().setStrategy(Strategy.UBER), null,
+                confFolder.getRoot()));
+        Assert.assertTrue(Files.readAllLines(conf.toPath(), StandardCharsets.UTF_8)
+                              .contains("org.mule.runtime.scheduler.SchedulerPoolStrategy=DEDICATED"));
+        // generated configuration is rewritten
+        Files.delete(conf.toPath());
+        Assert.assertTrue(SchedulerPoolsUtils.writeSchedulerPoolsConf(new Schedulers().setStrategy(Strategy.DEDICATED),
+            null, confFolder.getRoot()));
+        Assert.assertTrue(SchedulerPoolsUtils.writeSchedulerPoolsConf(new Schedulers().setStrategy(Strategy.UBER),
+            null, confFolder.getRoot()));
+        Assert.assertTrue(Files.readAllLines(conf.toPath(), StandardCharsets.UTF_8)
+                              .contains("org.mule.runtime.scheduler.SchedulerPoolStrategy=UBER"));
+    }
+
+    @Test
+    public void availableResources() {
+        Assert.assertTrue(SchedulerPoolsUtils.availableCores() <= Runtime.getRuntime().availableProcessors());
+        Assert.assertTrue(SchedulerPoolsUtils.availableMemory() <= Runtime.getRuntime().maxMemory());
+    }
+
+}